@@ -3,6 +3,6 @@ package com.toubson.modulith.catalog;
 import org.springframework.modulith.ApplicationModule;
 
 @ApplicationModule(
-        allowedDependencies = {"shared::events"}
+        allowedDependencies = {"shared::events", "shared::utils"}
 )
 class CatalogModule {}
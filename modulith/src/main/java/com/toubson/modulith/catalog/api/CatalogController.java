@@ -0,0 +1,600 @@
+package com.toubson.modulith.catalog.api;
+
+import com.toubson.modulith.catalog.application.AttributeDictionaryService;
+import com.toubson.modulith.catalog.application.CatalogAutocompleteService;
+import com.toubson.modulith.catalog.application.CatalogExportService;
+import com.toubson.modulith.catalog.application.CatalogFacetService;
+import com.toubson.modulith.catalog.application.CatalogImportService;
+import com.toubson.modulith.catalog.application.CatalogQueryService;
+import com.toubson.modulith.catalog.application.CategoryCountService;
+import com.toubson.modulith.catalog.application.CategoryTreeService;
+import com.toubson.modulith.catalog.application.InventoryCommandService;
+import com.toubson.modulith.catalog.application.ProductFeedFile;
+import com.toubson.modulith.catalog.application.ProductFeedService;
+import com.toubson.modulith.catalog.application.ProductSearchIndex;
+import com.toubson.modulith.catalog.application.TagPopularityService;
+import com.toubson.modulith.catalog.domain.CatalogImportFormat;
+import com.toubson.modulith.catalog.domain.ProductType;
+import com.toubson.modulith.catalog.dto.*;
+import com.toubson.modulith.catalog.infrastructure.ProductFilter;
+import com.toubson.modulith.catalog.infrastructure.ProductSortKey;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/catalog")
+@RequiredArgsConstructor
+@Tag(name = "Catalog", description = "Catalog read API")
+public class CatalogController {
+
+    static final int MAX_PAGE_SIZE = 100;
+    // Search results are ranked, so deep pages cost the ranking of every skipped match
+    static final int MAX_SEARCH_PAGE = 50;
+    static final int MAX_TAGS = 20;
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("name", "price", "createdAt");
+    // Request attributes of the Tomcat connector sending a file with sendfile after the request is handled
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final CatalogQueryService queryService;
+    private final ProductSearchIndex searchIndex;
+    private final CatalogAutocompleteService autocompleteService;
+    private final CatalogFacetService facetService;
+    private final CategoryTreeService categoryTreeService;
+    private final CategoryCountService categoryCountService;
+    private final InventoryCommandService inventoryCommandService;
+    private final CatalogImportService importService;
+    private final CatalogExportService exportService;
+    private final ProductFeedService feedService;
+    private final AttributeDictionaryService attributeDictionaryService;
+    private final TagPopularityService tagPopularityService;
+
+    @Value("${app.catalog.export.timeout:1800000}")
+    private long exportTimeout;
+
+    @Operation(summary = "List products", description = "Returns a page of products with their category, stock and tags, sorted by name, price or createdAt")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products found")
+    })
+    @GetMapping("/products")
+    public ResponseEntity<PageResponse<ProductSummaryResponse>> listProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        log.debug("Listing products for page: {} and size: {}", page, size);
+        return ResponseEntity.ok(queryService.findProducts(pageRequest(page, size, sort, direction)));
+    }
+
+    @Operation(summary = "Scroll products",
+            description = "Returns the page of products following the given cursor, sorted by name, price or createdAt. " +
+                    "Pages are read with keyset pagination, so deep pages are as fast as the first one.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products found"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or sort property")
+    })
+    @GetMapping("/products/scroll")
+    public ResponseEntity<CursorPageResponse<ProductSummaryResponse>> scrollProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) ProductType productType,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) String q) {
+        log.debug("Scrolling products sorted by: {} {} with size: {}", sort, direction, size);
+        ProductFilter filter = new ProductFilter(categoryId, productType, minPrice, maxPrice, tag, q);
+        return ResponseEntity.ok(queryService.scrollProducts(filter, ProductSortKey.fromProperty(sort), direction,
+                cursor, Math.clamp(size, 1, MAX_PAGE_SIZE)));
+    }
+
+    @Operation(summary = "Scroll products by tags",
+            description = "Returns the page of products carrying all (match=all) or any (match=any) of the given tag names, " +
+                    "following the given cursor, in ID order. Tags are matched in memory, so the cost does not grow " +
+                    "with the number of tag assignments.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products found"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, match mode or number of tags"),
+            @ApiResponse(responseCode = "503", description = "Tag index not built yet")
+    })
+    @GetMapping("/products/tagged")
+    public ResponseEntity<CursorPageResponse<ProductSummaryResponse>> scrollProductsByTags(
+            @RequestParam List<String> tag,
+            @RequestParam(defaultValue = "all") String match,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        if (tag.isEmpty() || tag.size() > MAX_TAGS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_TAGS + " tags are required");
+        }
+        if (!match.equals("all") && !match.equals("any")) {
+            throw new IllegalArgumentException("Match must be all or any");
+        }
+        log.debug("Scrolling products with {} of {} tags with size: {}", match, tag.size(), size);
+        return ResponseEntity.ok(queryService.scrollProductsByTags(tag, match.equals("all"), cursor,
+                Math.clamp(size, 1, MAX_PAGE_SIZE)));
+    }
+
+    @Operation(summary = "Search products",
+            description = "Full-text search over product names, SKUs, tags and descriptions, best match first. " +
+                    "The query accepts web search syntax: quoted phrases, OR and -excluded words. " +
+                    "Matches in the name and description are highlighted with <mark> tags.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search results found"),
+            @ApiResponse(responseCode = "400", description = "Blank query or unsupported language")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<SearchPageResponse<ProductSearchResultResponse>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) String lang,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("Searching products for page: {} and size: {}", page, size);
+        return ResponseEntity.ok(queryService.searchProducts(q, lang, Math.clamp(page, 0, MAX_SEARCH_PAGE),
+                Math.clamp(size, 1, MAX_PAGE_SIZE)));
+    }
+
+    @Operation(summary = "Quick search products",
+            description = "Searches the in-memory product index for the products containing every word of the query, " +
+                    "best match first. Answered without any database query; intended for storefront search boxes.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search results found"),
+            @ApiResponse(responseCode = "503", description = "Search index is still building")
+    })
+    @GetMapping("/search/quick")
+    public ResponseEntity<List<ProductHitResponse>> quickSearchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("Quick searching products with size: {}", size);
+        return ResponseEntity.ok(searchIndex.search(q, Math.clamp(size, 1, MAX_PAGE_SIZE)));
+    }
+
+    @Operation(summary = "Autocomplete",
+            description = "Suggests products, tags and categories whose name starts with, or contains a word close to, " +
+                    "the text typed so far. Tolerates typos; the number of suggestions is capped.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions found")
+    })
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<SuggestionResponse>> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.debug("Autocompleting with limit: {}", limit);
+        return ResponseEntity.ok(autocompleteService.suggest(q, limit));
+    }
+
+    @Operation(summary = "Count facets",
+            description = "Returns the number of products matching the selected facet values, and the number of products " +
+                    "per category, product type, price bucket, tag, tag category and variant attribute value. " +
+                    "Values of one facet are combined with OR, facets with AND. Attributes are selected as name:value.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Facets counted"),
+            @ApiResponse(responseCode = "400", description = "Invalid attribute selection"),
+            @ApiResponse(responseCode = "503", description = "Facet index not built yet")
+    })
+    @GetMapping("/facets")
+    public ResponseEntity<FacetsResponse> countFacets(
+            @RequestParam(required = false) List<UUID> categoryId,
+            @RequestParam(required = false) List<ProductType> type,
+            @RequestParam(required = false) List<String> price,
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(required = false) List<String> tagCategory,
+            @RequestParam(required = false) List<String> attribute) {
+        Map<String, Set<String>> selections = new HashMap<>();
+        select(selections, CatalogFacetService.CATEGORY, categoryId);
+        select(selections, CatalogFacetService.PRODUCT_TYPE, type);
+        select(selections, CatalogFacetService.PRICE, price);
+        select(selections, CatalogFacetService.TAG, tag);
+        select(selections, CatalogFacetService.TAG_CATEGORY, tagCategory);
+        if (attribute != null) {
+            for (String selection : attribute) {
+                int separator = selection.indexOf(':');
+                if (separator <= 0 || separator == selection.length() - 1) {
+                    throw new IllegalArgumentException("Attribute selections must be formatted as name:value");
+                }
+                selections.computeIfAbsent(CatalogFacetService.ATTRIBUTE_PREFIX + selection.substring(0, separator),
+                        facet -> new HashSet<>()).add(selection.substring(separator + 1));
+            }
+        }
+        log.debug("Counting facets for selection: {}", selections);
+        return ResponseEntity.ok(facetService.countFacets(selections));
+    }
+
+    @Operation(summary = "List variant attributes",
+            description = "Returns every attribute carried by a variant, with its values and their number of variants")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Attributes found")
+    })
+    @GetMapping("/attributes")
+    public ResponseEntity<List<AttributeResponse>> listAttributes() {
+        log.debug("Listing variant attributes");
+        return ResponseEntity.ok(attributeDictionaryService.findAttributes());
+    }
+
+    @Operation(summary = "Get variant attribute", description = "Returns the values of an attribute and their number of variants")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Attribute found"),
+            @ApiResponse(responseCode = "404", description = "No variant carries this attribute")
+    })
+    @GetMapping("/attributes/{name}")
+    public ResponseEntity<AttributeResponse> getAttribute(@PathVariable String name) {
+        log.debug("Getting variant attribute: {}", name);
+        return ResponseEntity.of(attributeDictionaryService.findAttribute(name));
+    }
+
+    @Operation(summary = "Get product", description = "Returns a product with its tags and variants")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Product found"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @GetMapping("/products/{id}")
+    public ResponseEntity<ProductDetailResponse> getProduct(@PathVariable UUID id) {
+        log.debug("Getting product with ID: {}", id);
+        return ResponseEntity.of(queryService.findProduct(id));
+    }
+
+    @Operation(summary = "List categories", description = "Returns all the categories ordered by sort order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Categories found")
+    })
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategoryResponse>> listCategories() {
+        log.debug("Listing categories");
+        return ResponseEntity.ok(queryService.findCategories());
+    }
+
+    @Operation(summary = "Get category tree", description = "Returns the active categories as a tree, children sorted by sort order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Category tree found")
+    })
+    @GetMapping("/categories/tree")
+    public ResponseEntity<List<CategoryTreeResponse>> getCategoryTree() {
+        log.debug("Getting category tree");
+        return ResponseEntity.ok(categoryTreeService.findMenu());
+    }
+
+    @Operation(summary = "List category product counts",
+            description = "Returns the number of active, in stock products of every active category, directly and " +
+                    "including its subcategories")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Counts found")
+    })
+    @GetMapping("/categories/counts")
+    public ResponseEntity<List<CategoryCountResponse>> listCategoryCounts() {
+        log.debug("Listing category product counts");
+        return ResponseEntity.ok(categoryCountService.findCounts());
+    }
+
+    @Operation(summary = "Get category product counts",
+            description = "Returns the number of active, in stock products of a category, directly and including its subcategories")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Counts found"),
+            @ApiResponse(responseCode = "404", description = "Category not found")
+    })
+    @GetMapping("/categories/{categoryId}/counts")
+    public ResponseEntity<CategoryCountResponse> getCategoryCounts(@PathVariable UUID categoryId) {
+        log.debug("Getting product counts of category: {}", categoryId);
+        return ResponseEntity.of(categoryCountService.findCounts(categoryId));
+    }
+
+    @Operation(summary = "Get category breadcrumb", description = "Returns the categories from the root down to the given category")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Breadcrumb found"),
+            @ApiResponse(responseCode = "404", description = "Category not found")
+    })
+    @GetMapping("/categories/{categoryId}/breadcrumb")
+    public ResponseEntity<List<CategoryResponse>> getCategoryBreadcrumb(@PathVariable UUID categoryId) {
+        log.debug("Getting breadcrumb of category: {}", categoryId);
+        return ResponseEntity.of(categoryTreeService.findBreadcrumb(categoryId));
+    }
+
+    @Operation(summary = "Get category by slug", description = "Resolves a category slug")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Category found"),
+            @ApiResponse(responseCode = "404", description = "Category not found")
+    })
+    @GetMapping("/categories/slug/{slug}")
+    public ResponseEntity<CategoryResponse> getCategoryBySlug(@PathVariable String slug) {
+        log.debug("Getting category with slug: {}", slug);
+        return ResponseEntity.of(categoryTreeService.findBySlug(slug));
+    }
+
+    @Operation(summary = "List products in category",
+            description = "Returns a page of products in the given category, or in the given category and all its " +
+                    "subcategories when includeSubcategories is true")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products found")
+    })
+    @GetMapping("/categories/{categoryId}/products")
+    public ResponseEntity<PageResponse<ProductSummaryResponse>> listProductsByCategory(
+            @PathVariable UUID categoryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(defaultValue = "false") boolean includeSubcategories) {
+        log.debug("Listing products in category: {} for page: {} and size: {}", categoryId, page, size);
+        Pageable pageable = pageRequest(page, size, sort, direction);
+        return ResponseEntity.ok(includeSubcategories
+                ? queryService.findProductsInCategorySubtree(categoryId, pageable)
+                : queryService.findProductsByCategory(categoryId, pageable));
+    }
+
+    @Operation(summary = "List tags", description = "Returns all the tags ordered by name")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tags found")
+    })
+    @GetMapping("/tags")
+    public ResponseEntity<List<TagSummaryResponse>> listTags() {
+        log.debug("Listing tags");
+        return ResponseEntity.ok(queryService.findTags());
+    }
+
+    @Operation(summary = "List popular tags", description = "Returns the tags carried by the most products")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tags found")
+    })
+    @GetMapping("/tags/popular")
+    public ResponseEntity<List<PopularTagResponse>> listPopularTags(@RequestParam(defaultValue = "20") int limit) {
+        log.debug("Listing {} popular tags", limit);
+        return ResponseEntity.ok(tagPopularityService.findPopularTags(Math.clamp(limit, 1, MAX_PAGE_SIZE)));
+    }
+
+    @Operation(summary = "List popular tag categories",
+            description = "Returns the tag categories whose tags are carried by the most products")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tag categories found")
+    })
+    @GetMapping("/tag-categories/popular")
+    public ResponseEntity<List<PopularTagCategoryResponse>> listPopularTagCategories(
+            @RequestParam(defaultValue = "20") int limit) {
+        log.debug("Listing {} popular tag categories", limit);
+        return ResponseEntity.ok(tagPopularityService.findPopularCategories(Math.clamp(limit, 1, MAX_PAGE_SIZE)));
+    }
+
+    @Operation(summary = "List products with tag", description = "Returns a page of products having the given tag")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products found")
+    })
+    @GetMapping("/tags/{slug}/products")
+    public ResponseEntity<PageResponse<ProductSummaryResponse>> listProductsByTag(
+            @PathVariable String slug,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        log.debug("Listing products with tag: {} for page: {} and size: {}", slug, page, size);
+        return ResponseEntity.ok(queryService.findProductsByTag(slug, pageRequest(page, size, sort, direction)));
+    }
+
+    @Operation(summary = "Scroll low stock products",
+            description = "Returns the page of low stock products following the given cursor, lowest stock first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Low stock products found"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "403", description = "Not an administrator")
+    })
+    @GetMapping("/admin/inventory/low-stock")
+    public ResponseEntity<CursorPageResponse<LowStockResponse>> scrollLowStock(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("Scrolling low stock products with size: {}", size);
+        return ResponseEntity.ok(queryService.scrollLowStock(cursor, Math.clamp(size, 1, MAX_PAGE_SIZE)));
+    }
+
+    @Operation(summary = "Stripe product inventory",
+            description = "Splits the available stock of a hot product across the given number of stripes that " +
+                    "reservations draw from independently; a count of 0 stops striping")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Inventory striped"),
+            @ApiResponse(responseCode = "400", description = "Invalid stripe count or inventory not finite"),
+            @ApiResponse(responseCode = "403", description = "Not an administrator"),
+            @ApiResponse(responseCode = "404", description = "Product has no inventory")
+    })
+    @PutMapping("/admin/inventory/{productId}/stripes")
+    public ResponseEntity<Void> setInventoryStripes(@PathVariable UUID productId, @RequestParam int count) {
+        log.debug("Setting {} inventory stripes for product: {}", count, productId);
+        return inventoryCommandService.setStripeCount(productId, count)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @Operation(summary = "Import catalog",
+            description = "Queues the import of a CSV file with a header line, or of an NDJSON file, holding a product per " +
+                    "line with optionally one of its variants, their category, tags, attributes and stock. Products and " +
+                    "variants are matched on their SKU, categories and tags on their slug; invalid lines are rejected " +
+                    "and reported, the others are merged once the whole file is read.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import queued"),
+            @ApiResponse(responseCode = "403", description = "Not an administrator"),
+            @ApiResponse(responseCode = "415", description = "Neither CSV nor NDJSON")
+    })
+    @PostMapping(value = "/admin/imports", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<CatalogImportResponse> startImport(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false) String fileName,
+            InputStream content) throws IOException {
+        CatalogImportFormat format = importFormat(contentType);
+        String name = fileName != null && !fileName.isBlank() ? fileName : "upload." + format.name().toLowerCase(Locale.ROOT);
+        log.debug("Starting catalog import of: {}", name);
+        return ResponseEntity.accepted().body(importService.start(name, format, content));
+    }
+
+    @Operation(summary = "Get catalog import", description = "Returns the status and progress of a catalog import")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import found"),
+            @ApiResponse(responseCode = "403", description = "Not an administrator"),
+            @ApiResponse(responseCode = "404", description = "Import not found")
+    })
+    @GetMapping("/admin/imports/{id}")
+    public ResponseEntity<CatalogImportResponse> getImport(@PathVariable UUID id) {
+        log.debug("Getting catalog import: {}", id);
+        return importService.find(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "List catalog import errors",
+            description = "Returns the lines rejected by a catalog import after the given line, in line order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Errors found"),
+            @ApiResponse(responseCode = "403", description = "Not an administrator"),
+            @ApiResponse(responseCode = "404", description = "Import not found")
+    })
+    @GetMapping("/admin/imports/{id}/errors")
+    public ResponseEntity<List<CatalogImportErrorResponse>> listImportErrors(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "0") long afterLine,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("Listing errors of catalog import: {} after line: {}", id, afterLine);
+        return importService.findErrors(id, afterLine, Math.clamp(size, 1, MAX_PAGE_SIZE))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Resume catalog import",
+            description = "Queues a failed catalog import again; it resumes after the last lines it staged")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import queued"),
+            @ApiResponse(responseCode = "403", description = "Not an administrator"),
+            @ApiResponse(responseCode = "404", description = "Import not found"),
+            @ApiResponse(responseCode = "409", description = "Import not failed")
+    })
+    @PostMapping("/admin/imports/{id}/resume")
+    public ResponseEntity<CatalogImportResponse> resumeImport(@PathVariable UUID id) {
+        log.debug("Resuming catalog import: {}", id);
+        boolean resumed = importService.resume(id);
+        return importService.find(id)
+                .map(response -> resumed
+                        ? ResponseEntity.accepted().body(response)
+                        : ResponseEntity.status(HttpStatus.CONFLICT).body(response))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Export catalog",
+            description = "Streams the active products as NDJSON, one product per line with its category, tags, " +
+                    "inventory, and variants with their attributes and inventory, optionally compressed with gzip")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Catalog streamed"),
+            @ApiResponse(responseCode = "403", description = "Not an administrator")
+    })
+    @GetMapping("/admin/export")
+    public WebAsyncTask<Void> exportCatalog(@RequestParam(defaultValue = "false") boolean gzip,
+                                            HttpServletResponse response) {
+        log.debug("Exporting catalog with gzip: {}", gzip);
+        String fileName = "catalog-" + LocalDate.now(ZoneOffset.UTC) + (gzip ? ".ndjson.gz" : ".ndjson");
+        response.setContentType(gzip ? "application/gzip" : CatalogImportFormat.NDJSON.getMediaType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString());
+        // Its own timeout: a full export outlasts the default timeout of the other asynchronous requests
+        return new WebAsyncTask<>(exportTimeout, () -> {
+            exportService.export(response.getOutputStream(), gzip);
+            return null;
+        });
+    }
+
+    @Operation(summary = "List product feeds",
+            description = "Returns the files of the product feeds: merchant feeds as XML and CSV and sitemaps, one of " +
+                    "each per shard of products, and the sitemap index")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Feeds found")
+    })
+    @GetMapping("/feeds")
+    public ResponseEntity<List<ProductFeedResponse>> listFeeds() {
+        log.debug("Listing product feeds");
+        return ResponseEntity.ok(feedService.list());
+    }
+
+    @Operation(summary = "Get product feed",
+            description = "Returns a file of the product feeds with its entity tag; a request whose If-None-Match " +
+                    "or If-Modified-Since matches the file gets a 304 without content")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Feed found"),
+            @ApiResponse(responseCode = "304", description = "Feed not modified"),
+            @ApiResponse(responseCode = "404", description = "Feed not found")
+    })
+    @GetMapping("/feeds/{name}")
+    public ResponseEntity<StreamingResponseBody> getFeed(@PathVariable String name, WebRequest webRequest,
+                                                         HttpServletRequest request) {
+        log.debug("Getting product feed: {}", name);
+        Optional<ProductFeedFile> found = feedService.find(name);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        ProductFeedFile file = found.get();
+        if (webRequest.checkNotModified(file.etag(), file.lastModified().toEpochMilli())) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(file.format().getMediaType()))
+                .contentLength(file.size())
+                .eTag(file.etag())
+                .lastModified(file.lastModified())
+                .cacheControl(CacheControl.noCache());
+        Path content = feedService.path(file);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // The stored content never changes, so Tomcat can send it from disk once this method has returned
+            request.setAttribute(SENDFILE_FILENAME, content.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, file.size());
+            return response.build();
+        }
+        return response.body(out -> Files.copy(content, out));
+    }
+
+    private static CatalogImportFormat importFormat(String contentType) {
+        MediaType type = MediaType.parseMediaType(contentType);
+        return Arrays.stream(CatalogImportFormat.values())
+                .filter(format -> MediaType.parseMediaType(format.getMediaType()).isCompatibleWith(type))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported import format: " + contentType));
+    }
+
+    private static Pageable pageRequest(int page, int size, String sort, Sort.Direction direction) {
+        String property = SORTABLE_PROPERTIES.contains(sort) ? sort : "name";
+        // Tie-break on the ID so that pages are stable when sort values are equal
+        Sort order = Sort.by(direction, property).and(Sort.by(Sort.Direction.ASC, "id"));
+        return PageRequest.of(Math.max(0, page), Math.clamp(size, 1, MAX_PAGE_SIZE), order);
+    }
+
+    private static void select(Map<String, Set<String>> selections, String facet, List<?> values) {
+        if (values != null && !values.isEmpty()) {
+            selections.computeIfAbsent(facet, f -> new HashSet<>())
+                    .addAll(values.stream().map(Object::toString).toList());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.toubson.modulith.catalog.api;
+
+import com.toubson.modulith.catalog.application.CatalogExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Command line entry point of the catalog export.
+ * Started with {@code --export-catalog=<file>}, the application writes the catalog to the file, compressed with
+ * gzip if its name ends with {@code .gz}, then exits; without the option, it starts as usual. Adding
+ * {@code --spring.main.web-application-type=none} skips the web server.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogExportCommand implements ApplicationRunner {
+
+    static final String OPTION = "export-catalog";
+
+    private final CatalogExportService exportService;
+    private final ApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        List<String> values = args.getOptionValues(OPTION);
+        if (values.isEmpty() || values.getFirst().isBlank()) {
+            throw new IllegalArgumentException("--" + OPTION + " requires the path of the file to write");
+        }
+
+        Path file = Path.of(values.getFirst());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            long exported = exportService.export(out, file.getFileName().toString().endsWith(".gz"));
+            log.info("Exported {} products to {}", exported, file.toAbsolutePath());
+        }
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,186 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.AttributeResponse;
+import com.toubson.modulith.catalog.dto.AttributeValueResponse;
+import com.toubson.modulith.catalog.infrastructure.AttributeValueRepository;
+import com.toubson.modulith.catalog.infrastructure.AttributeValueRow;
+import com.toubson.modulith.catalog.utils.AttributeDictionary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Variant attribute names and values served from an in-memory {@link AttributeDictionary}, so that filter
+ * UIs never run a {@code SELECT DISTINCT} over the attributes. Other catalog components can take the
+ * dictionary itself and work with its int codes.
+ * <p>
+ * The number of variants carrying each value is maintained by database triggers, which record the changes
+ * as deltas that every refresh folds into the counts in batches. The dictionary loads those counts once, then
+ * applies the counts changed since its watermark on every refresh, whichever way the attributes were
+ * written. A periodic reload deletes the counts that have been at zero for a while, replaces the snapshot and
+ * drops the codes of the values no variant carries.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttributeDictionaryService {
+
+    private final AttributeValueRepository valueRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.catalog.attribute-dictionary.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.catalog.attribute-dictionary.zero-retention:3600000}")
+    private long zeroRetention;
+
+    private volatile AttributeDictionary dictionary;
+    private String watermark;
+    private final Object loadLock = new Object();
+    private Counter changedCounter;
+
+    @PostConstruct
+    protected void init() {
+        changedCounter = Counter.builder("catalog.attributes.dictionary.changes")
+                .description("Attribute value counts applied to the attribute dictionary by refreshes")
+                .register(meterRegistry);
+        Gauge.builder("catalog.attributes.dictionary.values", this,
+                        service -> service.dictionary == null ? 0 : service.dictionary.valueCount())
+                .description("Number of attribute values interned in the attribute dictionary")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Folds the pending deltas, then applies the counts changed since the last load or refresh
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.attribute-dictionary.refresh-interval:1000}")
+    public void refresh() {
+        synchronized (loadLock) {
+            AttributeDictionary current = dictionary;
+            if (current == null) {
+                return;
+            }
+            applyDeltas();
+            // Taken before reading, so that a transaction still running now is read again next time
+            String next = valueRepository.currentWatermark();
+            List<AttributeValueRow> changed = valueRepository.findChangedSince(watermark);
+            if (!changed.isEmpty()) {
+                dictionary = current.withCounts(toCounts(changed));
+                changedCounter.increment(changed.size());
+                log.debug("Refreshed {} attribute value counts", changed.size());
+            }
+            watermark = next;
+        }
+    }
+
+    /**
+     * Loads every count into a new dictionary, renumbering the names and values.
+     * Counts at zero are kept for a while, so that the other instances refresh them before they are deleted.
+     */
+    @Scheduled(initialDelayString = "${app.catalog.attribute-dictionary.reload-interval:3600000}",
+            fixedDelayString = "${app.catalog.attribute-dictionary.reload-interval:3600000}")
+    public void reload() {
+        synchronized (loadLock) {
+            long start = System.currentTimeMillis();
+            applyDeltas();
+            int deleted = valueRepository.deleteZeroCounts(Instant.ofEpochMilli(start - zeroRetention));
+            if (deleted > 0) {
+                log.debug("Deleted {} attribute value counts at zero", deleted);
+            }
+            String next = valueRepository.currentWatermark();
+            AttributeDictionary.Builder builder = AttributeDictionary.builder();
+            for (AttributeValueRow row : valueRepository.findAll()) {
+                builder.add(row.name(), row.value(), row.variantCount());
+            }
+            AttributeDictionary loaded = builder.build();
+            dictionary = loaded;
+            watermark = next;
+            log.debug("Loaded attribute dictionary of {} names and {} values in {} ms",
+                    loaded.nameCount(), loaded.valueCount(), System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Gets the current dictionary. Codes are only meaningful within the instance they were taken from.
+     *
+     * @return the dictionary
+     */
+    public AttributeDictionary dictionary() {
+        AttributeDictionary current = dictionary;
+        if (current == null) {
+            // Only before the startup load has completed
+            reload();
+            current = dictionary;
+        }
+        return current;
+    }
+
+    /**
+     * Gets every attribute carried by at least one variant
+     *
+     * @return the attributes with their values and variant counts, sorted by name then value
+     */
+    public List<AttributeResponse> findAttributes() {
+        AttributeDictionary current = dictionary();
+        List<AttributeResponse> attributes = new ArrayList<>(current.nameCodes().length);
+        for (int name : current.nameCodes()) {
+            attributes.add(toResponse(current, name));
+        }
+        return attributes;
+    }
+
+    /**
+     * Gets an attribute
+     *
+     * @param name the attribute name
+     * @return the attribute with its values and variant counts sorted by value, empty if no variant carries it
+     */
+    public Optional<AttributeResponse> findAttribute(String name) {
+        AttributeDictionary current = dictionary();
+        int code = current.nameCode(name);
+        if (current.valueCodes(code).length == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(toResponse(current, code));
+    }
+
+    private void applyDeltas() {
+        int applied;
+        do {
+            applied = valueRepository.applyDeltas(batchSize);
+        } while (applied == batchSize);
+    }
+
+    private static AttributeResponse toResponse(AttributeDictionary dictionary, int name) {
+        int[] codes = dictionary.valueCodes(name);
+        List<AttributeValueResponse> values = new ArrayList<>(codes.length);
+        for (int value : codes) {
+            values.add(new AttributeValueResponse(dictionary.value(value), dictionary.count(value)));
+        }
+        return new AttributeResponse(dictionary.name(name), values);
+    }
+
+    private static List<AttributeDictionary.Count> toCounts(List<AttributeValueRow> rows) {
+        return rows.stream()
+                .map(row -> new AttributeDictionary.Count(row.name(), row.value(), row.variantCount()))
+                .toList();
+    }
+}
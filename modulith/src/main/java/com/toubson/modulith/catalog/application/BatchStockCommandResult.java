@@ -0,0 +1,14 @@
+package com.toubson.modulith.catalog.application;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch stock command, applied to every line or to none.
+ *
+ * @param applied true if every line succeeded and was applied, false if nothing was changed
+ * @param lines   the outcome of each line, in the order of the command
+ */
+public record BatchStockCommandResult(
+        boolean applied,
+        List<StockLineResult> lines) {
+}
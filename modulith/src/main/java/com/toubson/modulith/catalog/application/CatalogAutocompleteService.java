@@ -0,0 +1,107 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.SuggestionResponse;
+import com.toubson.modulith.catalog.infrastructure.AutocompleteRepository;
+import com.toubson.modulith.catalog.infrastructure.SuggestionRow;
+import com.toubson.modulith.shared.utils.TtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-as-you-type suggestions over product, tag and category names.
+ * Short queries, which are the first keystrokes of every search and by far the most frequent,
+ * are answered from a short-lived cache; they are always loaded with the maximum number of
+ * suggestions so that one entry serves every requested limit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogAutocompleteService {
+
+    private final AutocompleteRepository autocompleteRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.catalog.autocomplete.max-limit:20}")
+    private int maxLimit;
+
+    @Value("${app.catalog.autocomplete.cache.max-prefix-length:4}")
+    private int cacheMaxPrefixLength;
+
+    @Value("${app.catalog.autocomplete.cache.ttl:30000}")
+    private long cacheTtl;
+
+    @Value("${app.catalog.autocomplete.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    private Clock clock = Clock.systemUTC();
+
+    private TtlCache<String, List<SuggestionRow>> prefixCache;
+    private Timer cacheTimer;
+    private Timer databaseTimer;
+
+    @PostConstruct
+    protected void init() {
+        prefixCache = new TtlCache<>(cacheTtl, 1000, cacheMaxEntries, clock);
+        cacheTimer = latencyTimer("cache");
+        databaseTimer = latencyTimer("database");
+    }
+
+    /**
+     * Suggests the products, tags and categories matching the beginning of a search
+     *
+     * @param query the text typed so far
+     * @param limit the maximum number of suggestions, capped by the configured maximum
+     * @return the suggestions, best match first
+     */
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        int cappedLimit = Math.clamp(limit, 1, maxLimit);
+
+        long start = System.nanoTime();
+        List<SuggestionRow> rows;
+        boolean hit = false;
+        if (normalized.length() <= cacheMaxPrefixLength) {
+            TtlCache.Lookup<List<SuggestionRow>> lookup = prefixCache.lookup(normalized,
+                    key -> autocompleteRepository.findSuggestions(key, maxLimit));
+            rows = lookup.value();
+            hit = lookup.hit();
+        } else {
+            rows = autocompleteRepository.findSuggestions(normalized, cappedLimit);
+        }
+        (hit ? cacheTimer : databaseTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Found {} suggestions for: {} (cache hit: {})", rows.size(), normalized, hit);
+
+        return rows.stream()
+                .limit(cappedLimit)
+                .map(row -> new SuggestionResponse(row.type(), row.id(), row.name(), row.slug(), row.score()))
+                .toList();
+    }
+
+    private static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        return query.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private Timer latencyTimer(String source) {
+        return Timer.builder("catalog.autocomplete.latency")
+                .description("Autocomplete latency by source of the suggestions")
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,88 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.infrastructure.CatalogExportRepository;
+import com.toubson.modulith.catalog.infrastructure.CatalogExportRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the active products of the catalog as NDJSON, one product per line with its category, tags,
+ * inventory and variants.
+ * Products are read a page at a time by keyset on their ID and each page is written out before the next one
+ * is read, so memory stays flat whatever the size of the catalog. Pages are read outside of any transaction:
+ * a product changed while the export runs is written as it is when its page is read.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CatalogExportRepository exportRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.catalog.export.batch-size:1000}")
+    private int batchSize;
+
+    private Counter exportedCounter;
+
+    @PostConstruct
+    protected void init() {
+        exportedCounter = Counter.builder("catalog.export.products")
+                .description("Products written by catalog exports")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the catalog to the given stream, which is flushed but left open
+     *
+     * @param out  the stream to write to
+     * @param gzip whether to compress the output with gzip
+     * @return the number of exported products
+     * @throws IOException if the stream cannot be written, for instance because the client went away
+     */
+    public long export(OutputStream out, boolean gzip) throws IOException {
+        long start = System.currentTimeMillis();
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? compressed : out, StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+
+        long exported = 0;
+        List<CatalogExportRow> page = exportRepository.findFirst(batchSize);
+        while (!page.isEmpty()) {
+            for (CatalogExportRow row : page) {
+                writer.write(row.document());
+                writer.write('\n');
+            }
+            exported += page.size();
+            exportedCounter.increment(page.size());
+            if (page.size() < batchSize) {
+                break;
+            }
+            page = exportRepository.findAfter(page.getLast().id(), batchSize);
+        }
+
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+        log.info("Exported {} products in {} ms", exported, System.currentTimeMillis() - start);
+        return exported;
+    }
+}
@@ -0,0 +1,265 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.FacetResponse;
+import com.toubson.modulith.catalog.dto.FacetValueResponse;
+import com.toubson.modulith.catalog.dto.FacetsResponse;
+import com.toubson.modulith.catalog.exception.SearchIndexUnavailableException;
+import com.toubson.modulith.catalog.infrastructure.*;
+import com.toubson.modulith.catalog.utils.FacetIndex;
+import com.toubson.modulith.catalog.utils.FacetIndex.FacetValue;
+import com.toubson.modulith.shared.events.ProductChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Facet counts for catalog listings, computed from an in-memory {@link FacetIndex}.
+ * Products are indexed under their category, product type, price bucket, tags, tag categories
+ * and variant attribute values; all the counts of a listing are then computed from bitmaps,
+ * without querying the database. The index is built at startup and kept current from
+ * {@link ProductChangedEvent}s like the search index, which cover the products, their variants, their
+ * variant attributes and their tag assignments. Renaming a tag or moving it to another tag category
+ * does not publish an event for each of its products: those products keep their previous facet values
+ * until the next periodic rebuild.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogFacetService {
+
+    public static final String CATEGORY = "category";
+    public static final String PRODUCT_TYPE = "type";
+    public static final String PRICE = "price";
+    public static final String TAG = "tag";
+    public static final String TAG_CATEGORY = "tagCategory";
+    public static final String ATTRIBUTE_PREFIX = "attribute.";
+
+    private final ProductRepository productRepository;
+    private final TagRepository tagRepository;
+    private final VariantAttributeRepository attributeRepository;
+    private final MeterRegistry meterRegistry;
+    private final TaskExecutor taskExecutor;
+
+    @Value("${app.catalog.facets.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.catalog.facets.price-buckets:25,50,100,250,500}")
+    private List<BigDecimal> priceBuckets;
+
+    @Value("${app.catalog.facets.max-values:50}")
+    private int maxValues;
+
+    @Value("${app.catalog.facets.batch-size:1000}")
+    private int batchSize;
+
+    private volatile FacetIndex<UUID> index;
+    private final Set<UUID> pendingChanges = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Object refreshLock = new Object();
+    private Timer countTimer;
+
+    @PostConstruct
+    protected void init() {
+        priceBuckets = priceBuckets.stream().sorted().toList();
+        countTimer = Timer.builder("catalog.facets.count")
+                .description("Time spent counting the facets of a listing")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            startRebuild();
+        }
+    }
+
+    /**
+     * Queues a changed product for the next refresh, once its transaction has committed
+     *
+     * @param event the change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled) {
+            pendingChanges.add(event.productId());
+        }
+    }
+
+    /**
+     * Counts the products matching the selection and the products per facet value
+     *
+     * @param selections the selected values of each facet
+     * @return the number of matching products and the counts of every facet, highest first
+     * @throws SearchIndexUnavailableException if the index has not been built yet
+     */
+    public FacetsResponse countFacets(Map<String, Set<String>> selections) {
+        FacetIndex<UUID> current = index;
+        if (current == null) {
+            throw new SearchIndexUnavailableException("Facet index is not available yet");
+        }
+
+        FacetIndex.FacetCounts counts = countTimer.record(() -> current.count(selections));
+        List<FacetResponse> facets = counts.counts().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(facet -> {
+                    Set<String> selectedValues = selections.getOrDefault(facet.getKey(), Set.of());
+                    List<FacetValueResponse> values = facet.getValue().entrySet().stream()
+                            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                                    .thenComparing(Map.Entry.comparingByKey()))
+                            .limit(maxValues)
+                            .map(value -> new FacetValueResponse(value.getKey(), value.getValue(),
+                                    selectedValues.contains(value.getKey())))
+                            .toList();
+                    return new FacetResponse(facet.getKey(), values);
+                })
+                .toList();
+        return new FacetsResponse(counts.total(), facets);
+    }
+
+    /**
+     * Checks whether facets can be counted
+     *
+     * @return true once the first build has completed
+     */
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Reindexes the products changed since the last refresh.
+     * Changes received during a rebuild are kept for the first refresh after it.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.facets.refresh-interval:1000}")
+    public void refresh() {
+        synchronized (refreshLock) {
+            FacetIndex<UUID> current = index;
+            if (current == null || rebuilding.get() || pendingChanges.isEmpty()) {
+                return;
+            }
+
+            List<UUID> changed = new ArrayList<>(pendingChanges);
+            changed.forEach(pendingChanges::remove);
+            for (int i = 0; i < changed.size(); i += batchSize) {
+                List<UUID> chunk = changed.subList(i, Math.min(changed.size(), i + batchSize));
+                List<ProductFacetRow> rows = productRepository.findFacetRowsByIds(chunk);
+                Set<UUID> removed = new HashSet<>(chunk);
+                rows.forEach(row -> removed.remove(row.id()));
+                removed.forEach(current::remove);
+                index(current, rows);
+            }
+            log.debug("Refreshed facets of {} changed products", changed.size());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.catalog.facets.rebuild-interval:900000}",
+            fixedDelayString = "${app.catalog.facets.rebuild-interval:900000}")
+    public void scheduledRebuild() {
+        if (enabled && index != null) {
+            startRebuild();
+        }
+    }
+
+    /**
+     * Starts a rebuild on the application task executor, unless one is already running.
+     * The current index keeps serving counts until the new one replaces it.
+     */
+    public void startRebuild() {
+        synchronized (refreshLock) {
+            if (!rebuilding.compareAndSet(false, true)) {
+                return;
+            }
+        }
+        taskExecutor.execute(this::rebuild);
+    }
+
+    /**
+     * Rebuilds the whole index and swaps it in
+     */
+    protected void rebuild() {
+        rebuilding.set(true);
+        long start = System.currentTimeMillis();
+        try {
+            FacetIndex<UUID> built = new FacetIndex<>();
+            List<ProductFacetRow> rows = productRepository.findFacetRows(Limit.of(batchSize));
+            while (!rows.isEmpty()) {
+                index(built, rows);
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                rows = productRepository.findFacetRowsAfter(rows.get(rows.size() - 1).id(), Limit.of(batchSize));
+            }
+            index = built;
+            log.info("Built facet index of {} products in {} ms", built.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build facet index: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void index(FacetIndex<UUID> target, List<ProductFacetRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        // Load the tags and attributes of the whole batch at once instead of once per product
+        List<UUID> productIds = rows.stream().map(ProductFacetRow::id).toList();
+        Map<UUID, List<TagFacetRow>> tagsByProduct = tagRepository.findFacetRowsByProductIds(productIds).stream()
+                .collect(Collectors.groupingBy(TagFacetRow::productId));
+        Map<UUID, List<AttributeFacetRow>> attributesByProduct = attributeRepository.findFacetRowsByProductIds(productIds).stream()
+                .collect(Collectors.groupingBy(AttributeFacetRow::productId));
+
+        for (ProductFacetRow row : rows) {
+            List<FacetValue> values = new ArrayList<>();
+            if (row.categoryId() != null) {
+                values.add(new FacetValue(CATEGORY, row.categoryId().toString()));
+            }
+            values.add(new FacetValue(PRODUCT_TYPE, row.productType().name()));
+            values.add(new FacetValue(PRICE, priceBucket(row.price())));
+            for (TagFacetRow tag : tagsByProduct.getOrDefault(row.id(), List.of())) {
+                values.add(new FacetValue(TAG, tag.tagSlug()));
+                if (tag.tagCategorySlug() != null) {
+                    values.add(new FacetValue(TAG_CATEGORY, tag.tagCategorySlug()));
+                }
+            }
+            for (AttributeFacetRow attribute : attributesByProduct.getOrDefault(row.id(), List.of())) {
+                values.add(new FacetValue(ATTRIBUTE_PREFIX + attribute.name(), attribute.value()));
+            }
+            target.put(row.id(), values);
+        }
+    }
+
+    /**
+     * Gets the label of the price bucket of a price, such as {@code 25-50} or {@code 500+}
+     *
+     * @param price the price
+     * @return the bucket label
+     */
+    String priceBucket(BigDecimal price) {
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal upper : priceBuckets) {
+            if (price.compareTo(upper) < 0) {
+                return lower.stripTrailingZeros().toPlainString() + "-" + upper.stripTrailingZeros().toPlainString();
+            }
+            lower = upper;
+        }
+        return lower.stripTrailingZeros().toPlainString() + "+";
+    }
+}
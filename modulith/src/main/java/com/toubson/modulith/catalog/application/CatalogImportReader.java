@@ -0,0 +1,159 @@
+package com.toubson.modulith.catalog.application;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toubson.modulith.catalog.domain.CatalogImportFormat;
+import com.toubson.modulith.catalog.utils.CsvReader;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the lines of a bulk catalog import file one at a time, as values by column name.
+ * CSV files start with a header naming the columns, and their lines are numbered after it; NDJSON lines
+ * are numbered as in the file, blank lines included. Either way, the numbering is the same on every read,
+ * so an import resumes by skipping the lines it has already staged.
+ */
+abstract class CatalogImportReader implements Closeable {
+
+    /**
+     * Line of the file, or the reason why it cannot be read when it is malformed
+     */
+    record Line(long number, Map<String, Object> values, String malformed) {
+    }
+
+    /**
+     * Opens a reader
+     *
+     * @param reader        the file content
+     * @param format        the file format
+     * @param objectMapper  the mapper parsing NDJSON lines
+     * @param maxLineLength the maximum number of characters of a line
+     * @return the reader
+     * @throws IOException if the CSV header cannot be read
+     */
+    static CatalogImportReader open(BufferedReader reader, CatalogImportFormat format, ObjectMapper objectMapper,
+                                    int maxLineLength) throws IOException {
+        return format == CatalogImportFormat.CSV
+                ? new Csv(new CsvReader(reader, maxLineLength))
+                : new Ndjson(reader, objectMapper, maxLineLength);
+    }
+
+    /**
+     * Reads the next line
+     *
+     * @return the line, or null at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    abstract Line next() throws IOException;
+
+    private static final class Csv extends CatalogImportReader {
+
+        private final CsvReader reader;
+        private final List<String> header;
+
+        Csv(CsvReader reader) throws IOException {
+            this.reader = reader;
+            List<String> names = reader.next();
+            if (names == null) {
+                throw new IllegalArgumentException("Missing CSV header");
+            }
+            this.header = names.stream().map(name -> name.strip().toLowerCase(Locale.ROOT)).toList();
+        }
+
+        @Override
+        Line next() throws IOException {
+            List<String> fields = reader.next();
+            if (fields == null) {
+                return null;
+            }
+            long number = reader.recordNumber() - 1;
+            if (fields.size() != header.size()) {
+                return new Line(number, null, "Expected " + header.size() + " columns but found " + fields.size());
+            }
+            Map<String, Object> values = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                values.put(header.get(i), fields.get(i));
+            }
+            return new Line(number, values, null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class Ndjson extends CatalogImportReader {
+
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private final int maxLineLength;
+        private long number;
+
+        Ndjson(BufferedReader reader, ObjectMapper objectMapper, int maxLineLength) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+            this.maxLineLength = maxLineLength;
+        }
+
+        @Override
+        Line next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                number++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            if (text.length() > maxLineLength) {
+                return new Line(number, null, "Longer than " + maxLineLength + " characters");
+            }
+
+            try {
+                JsonNode node = objectMapper.readTree(text);
+                if (!node.isObject()) {
+                    return new Line(number, null, "Not a JSON object");
+                }
+                Map<String, Object> values = new HashMap<>();
+                node.fields().forEachRemaining(field -> {
+                    if (!field.getValue().isNull()) {
+                        values.put(field.getKey().toLowerCase(Locale.ROOT), value(field.getValue()));
+                    }
+                });
+                return new Line(number, values, null);
+            } catch (JsonProcessingException e) {
+                return new Line(number, null, "Malformed JSON");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private static Object value(JsonNode node) {
+            if (node.isArray()) {
+                List<String> items = new ArrayList<>(node.size());
+                node.forEach(item -> items.add(item.asText()));
+                return items;
+            }
+            if (node.isObject()) {
+                Map<String, String> entries = new LinkedHashMap<>();
+                node.fields().forEachRemaining(entry -> entries.put(entry.getKey(), entry.getValue().asText()));
+                return entries;
+            }
+            // Decimal text keeps prices exact, whatever the precision of doubles
+            return node.isNumber() ? node.decimalValue().toPlainString() : node.asText();
+        }
+    }
+}
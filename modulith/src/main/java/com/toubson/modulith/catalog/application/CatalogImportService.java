@@ -0,0 +1,318 @@
+package com.toubson.modulith.catalog.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toubson.modulith.catalog.domain.CatalogImportFormat;
+import com.toubson.modulith.catalog.domain.CatalogImportStatus;
+import com.toubson.modulith.catalog.dto.CatalogImportErrorResponse;
+import com.toubson.modulith.catalog.dto.CatalogImportResponse;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportErrorRow;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportLine;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportMergeRow;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportRepository;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportRow;
+import com.toubson.modulith.catalog.mapper.CatalogRowMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk catalog imports of CSV and NDJSON files, covering categories, tags, products, variants, their attributes
+ * and their stock.
+ * An uploaded file is kept on disk and queued. A worker streams it line by line, validates each line with
+ * {@link CatalogImportValidator} and stages a chunk at a time with {@code COPY}, recording the rejected lines;
+ * each chunk commits with the number of lines read, so memory stays bounded by the chunk size and an
+ * interrupted import resumes after its last chunk. Once the whole file is staged, the staged lines are merged
+ * into the catalog in one transaction, then the in-memory indexes are rebuilt, since refreshing them product
+ * by product would cost more than a rebuild.
+ * <p>
+ * Imports are claimed from the table, one at a time per instance: an import whose worker stops reporting
+ * progress is claimed again, by this instance or another one sharing the import directory.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogImportService {
+
+    private final CatalogImportRepository importRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductSearchIndex searchIndex;
+    private final CatalogFacetService facetService;
+    private final ProductTagIndex tagIndex;
+    private final CategoryTreeService categoryTreeService;
+    private final MeterRegistry meterRegistry;
+    private final TaskExecutor taskExecutor;
+
+    @Value("${app.catalog.import.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.catalog.import.directory:${java.io.tmpdir}/catalog-imports}")
+    private Path directory;
+
+    @Value("${app.catalog.import.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.catalog.import.max-errors:10000}")
+    private long maxErrors;
+
+    @Value("${app.catalog.import.max-line-length:65536}")
+    private int maxLineLength;
+
+    @Value("${app.catalog.import.stale-after:600000}")
+    private long staleAfter;
+
+    private Clock clock = Clock.systemUTC();
+    private final AtomicBoolean working = new AtomicBoolean();
+
+    private Counter stagedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    protected void init() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create the catalog import directory " + directory, e);
+        }
+        stagedCounter = Counter.builder("catalog.import.lines")
+                .tag("outcome", "staged")
+                .description("Lines of catalog imports validated and staged")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("catalog.import.lines")
+                .tag("outcome", "rejected")
+                .description("Lines of catalog imports rejected by the validation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Saves an uploaded file and queues its import
+     *
+     * @param fileName the name of the file, for reference
+     * @param format   the format of the file
+     * @param content  the content of the file, copied to the import directory as it is read
+     * @return the queued import
+     * @throws IOException if the file cannot be saved
+     */
+    public CatalogImportResponse start(String fileName, CatalogImportFormat format, InputStream content) throws IOException {
+        UUID id = UUID.randomUUID();
+        Path file = file(id, format);
+        Files.copy(content, file);
+        try {
+            importRepository.insert(id, fileName, format, clock.instant());
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        log.info("Queued catalog import {} of {}", id, fileName);
+        poll();
+        return find(id).orElseThrow();
+    }
+
+    /**
+     * Gets an import with its progress
+     *
+     * @param id the import ID
+     * @return the import, empty if it does not exist
+     */
+    public Optional<CatalogImportResponse> find(UUID id) {
+        return importRepository.findById(id).map(CatalogRowMapper::mapToImport);
+    }
+
+    /**
+     * Gets the lines rejected by an import, in line order
+     *
+     * @param id        the import ID
+     * @param afterLine the line after which errors are returned, 0 for the first page
+     * @param limit     the maximum number of errors to return
+     * @return the errors, empty if the import does not exist
+     */
+    public Optional<List<CatalogImportErrorResponse>> findErrors(UUID id, long afterLine, int limit) {
+        return importRepository.findById(id).map(row -> importRepository.findErrors(id, afterLine, limit).stream()
+                .map(CatalogRowMapper::mapToImportError)
+                .toList());
+    }
+
+    /**
+     * Queues a failed import again, which resumes after its last staged chunk
+     *
+     * @param id the import ID
+     * @return true if the import was failed
+     */
+    public boolean resume(UUID id) {
+        if (!importRepository.resume(id, clock.instant())) {
+            return false;
+        }
+        log.info("Resuming catalog import {}", id);
+        poll();
+        return true;
+    }
+
+    /**
+     * Starts a worker for the next queued import, unless this instance is already running one
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.import.poll-interval:5000}")
+    public void poll() {
+        if (!enabled || !working.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Optional<CatalogImportRow> claimed = importRepository.claimNext(clock.instant().minusMillis(staleAfter),
+                    clock.instant());
+            if (claimed.isEmpty()) {
+                working.set(false);
+                return;
+            }
+            taskExecutor.execute(() -> {
+                try {
+                    run(claimed.get());
+                } finally {
+                    working.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            working.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Stages the lines of an import not staged yet, then merges them.
+     * Any failure marks the import as failed, keeping the chunks already staged for a resume.
+     *
+     * @param claimed the claimed import
+     */
+    protected void run(CatalogImportRow claimed) {
+        UUID id = claimed.id();
+        long start = System.currentTimeMillis();
+        try {
+            if (claimed.status() != CatalogImportStatus.MERGING) {
+                stage(claimed);
+                importRepository.updateStatus(id, CatalogImportStatus.MERGING, clock.instant());
+            }
+
+            CatalogImportMergeRow merged = transactionTemplate.execute(status -> {
+                if (importRepository.lock(id).filter(row -> row.status() == CatalogImportStatus.MERGING).isEmpty()) {
+                    return null;
+                }
+                CatalogImportMergeRow outcome = importRepository.merge(id, clock.instant());
+                importRepository.complete(id, outcome, clock.instant());
+                return outcome;
+            });
+            if (merged == null) {
+                log.debug("Catalog import {} merged by another worker", id);
+                return;
+            }
+            Files.deleteIfExists(file(id, claimed.format()));
+            refreshIndexes();
+            log.info("Completed catalog import {}: {} products and {} variants merged in {} ms", id,
+                    merged.productsMerged(), merged.variantsMerged(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Catalog import {} failed: {}", id, e.getMessage(), e);
+            importRepository.fail(id, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(),
+                    clock.instant());
+        }
+    }
+
+    private void stage(CatalogImportRow claimed) throws IOException {
+        UUID id = claimed.id();
+        long linesRead = claimed.linesRead();
+        long rejectedTotal = claimed.rowsRejected();
+        // Staged lines are unlogged, so a database crash loses them: the import then starts over
+        if (linesRead > 0 && importRepository.countStaged(id) != claimed.rowsStaged()) {
+            log.warn("Staged lines of catalog import {} were lost, starting over", id);
+            importRepository.restart(id, clock.instant());
+            linesRead = 0;
+            rejectedTotal = 0;
+        }
+
+        try (CatalogImportReader reader = CatalogImportReader.open(
+                Files.newBufferedReader(file(id, claimed.format()), StandardCharsets.UTF_8), claimed.format(),
+                objectMapper, maxLineLength)) {
+            List<CatalogImportLine> lines = new ArrayList<>(chunkSize);
+            List<CatalogImportErrorRow> errors = new ArrayList<>();
+            long lastLine = linesRead;
+            int rejected = 0;
+            for (CatalogImportReader.Line line = reader.next(); line != null; line = reader.next()) {
+                if (line.number() <= linesRead) {
+                    continue;
+                }
+
+                int recorded = errors.size();
+                if (line.malformed() != null) {
+                    errors.add(new CatalogImportErrorRow(line.number(), CatalogImportValidator.LINE, line.malformed()));
+                } else {
+                    CatalogImportLine valid = CatalogImportValidator.validate(line.number(), line.values(), errors);
+                    if (valid != null) {
+                        lines.add(valid);
+                    }
+                }
+                if (errors.size() > recorded) {
+                    rejected++;
+                    // Past the limit, rejected lines are only counted
+                    if (++rejectedTotal > maxErrors) {
+                        errors.subList(recorded, errors.size()).clear();
+                    }
+                }
+                lastLine = line.number();
+
+                if (lines.size() + rejected >= chunkSize) {
+                    commitChunk(id, lastLine, lines, errors, rejected);
+                    lines = new ArrayList<>(chunkSize);
+                    errors = new ArrayList<>();
+                    rejected = 0;
+                }
+            }
+            commitChunk(id, lastLine, lines, errors, rejected);
+        }
+    }
+
+    private void commitChunk(UUID id, long lastLine, List<CatalogImportLine> lines, List<CatalogImportErrorRow> errors,
+                             int rejected) {
+        transactionTemplate.executeWithoutResult(status -> {
+            importRepository.stage(id, lines);
+            importRepository.insertErrors(id, errors);
+            importRepository.recordProgress(id, lastLine, lines.size(), rejected, clock.instant());
+        });
+        stagedCounter.increment(lines.size());
+        rejectedCounter.increment(rejected);
+        log.debug("Staged catalog import {} up to line {}", id, lastLine);
+    }
+
+    private void refreshIndexes() {
+        categoryTreeService.reload();
+        if (searchIndex.isReady()) {
+            searchIndex.startRebuild();
+        }
+        if (facetService.isReady()) {
+            facetService.startRebuild();
+        }
+        if (tagIndex.isReady()) {
+            tagIndex.startReconcile();
+        }
+    }
+
+    private Path file(UUID id, CatalogImportFormat format) {
+        return directory.resolve(id + "." + format.name().toLowerCase(Locale.ROOT));
+    }
+}
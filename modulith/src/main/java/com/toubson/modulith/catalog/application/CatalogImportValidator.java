@@ -0,0 +1,251 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.ProductType;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportErrorRow;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportLine;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportLine.ImportedTag;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Validates the lines of a bulk catalog import against the constraints of the catalog tables.
+ * Each line is validated on its own, so memory does not grow with the file; a line breaking any rule is
+ * rejected as a whole, with one error per field at fault. Tags and attributes are lists separated by
+ * {@code |} in CSV files, attributes being {@code name=value} pairs, and JSON arrays and objects in NDJSON files.
+ */
+final class CatalogImportValidator {
+
+    static final String PRODUCT_SKU = "product_sku";
+    static final String PRODUCT_NAME = "product_name";
+    static final String PRODUCT_DESCRIPTION = "product_description";
+    static final String PRODUCT_PRICE = "product_price";
+    static final String PRODUCT_TYPE = "product_type";
+    static final String CATEGORY_SLUG = "category_slug";
+    static final String CATEGORY_NAME = "category_name";
+    static final String TAGS = "tags";
+    static final String STOCK_QUANTITY = "stock_quantity";
+    static final String LOW_STOCK_THRESHOLD = "low_stock_threshold";
+    static final String VARIANT_SKU = "variant_sku";
+    static final String VARIANT_NAME = "variant_name";
+    static final String VARIANT_PRICE = "variant_price";
+    static final String VARIANT_STOCK_QUANTITY = "variant_stock_quantity";
+    static final String ATTRIBUTES = "attributes";
+    static final String LINE = "line";
+
+    static final int MAX_TAGS = 50;
+    static final int MAX_ATTRIBUTES = 50;
+
+    private static final Pattern SLUG = Pattern.compile("[a-z0-9]+(?:-[a-z0-9]+)*");
+    private static final Pattern NOT_SLUG = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern EDGE_HYPHENS = Pattern.compile("^-|-$");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private CatalogImportValidator() {
+    }
+
+    /**
+     * Validates a line
+     *
+     * @param lineNumber the number of the line in the file
+     * @param values     the values of the line by column name: strings, or lists and maps of strings for the
+     *                   tags and attributes of NDJSON lines
+     * @param errors     the errors of the line are added to this list
+     * @return the validated line, or null if it is rejected
+     */
+    static CatalogImportLine validate(long lineNumber, Map<String, Object> values, List<CatalogImportErrorRow> errors) {
+        Line line = new Line(lineNumber, values, errors);
+        String productSku = line.text(PRODUCT_SKU, 50, true);
+        String productName = line.text(PRODUCT_NAME, 100, true);
+        String productDescription = line.text(PRODUCT_DESCRIPTION, 10_000, false);
+        BigDecimal productPrice = line.price(PRODUCT_PRICE, true);
+        String productType = line.productType();
+        String categorySlug = line.text(CATEGORY_SLUG, 100, false);
+        String categoryName = line.text(CATEGORY_NAME, 100, categorySlug != null);
+        if (categorySlug != null && !SLUG.matcher(categorySlug).matches()) {
+            line.reject(CATEGORY_SLUG, "Must be lower case letters and digits separated by hyphens");
+        }
+        List<ImportedTag> tags = line.tags();
+        Integer stockQuantity = line.quantity(STOCK_QUANTITY);
+        Integer lowStockThreshold = line.quantity(LOW_STOCK_THRESHOLD);
+
+        String variantSku = line.text(VARIANT_SKU, 50, false);
+        String variantName = line.text(VARIANT_NAME, 100, variantSku != null);
+        BigDecimal variantPrice = line.price(VARIANT_PRICE, false);
+        Integer variantStockQuantity = line.quantity(VARIANT_STOCK_QUANTITY);
+        Map<String, String> attributes = line.attributes();
+        if (variantSku == null && (variantName != null || variantPrice != null || variantStockQuantity != null
+                || !attributes.isEmpty())) {
+            line.reject(VARIANT_SKU, "Required with the other variant columns");
+        }
+
+        if (line.rejected) {
+            return null;
+        }
+        return new CatalogImportLine(lineNumber, productSku, productName, productDescription, productPrice, productType,
+                categorySlug, categoryName, tags, stockQuantity, lowStockThreshold, variantSku, variantName, variantPrice,
+                variantStockQuantity, attributes);
+    }
+
+    /**
+     * Derives the slug of a tag from its name
+     *
+     * @param name the tag name
+     * @return the lower case letters and digits of the name without accents, separated by hyphens
+     */
+    static String slugify(String name) {
+        String folded = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        String slug = NOT_SLUG.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll("-");
+        return EDGE_HYPHENS.matcher(slug).replaceAll("");
+    }
+
+    private static final class Line {
+
+        private final long lineNumber;
+        private final Map<String, Object> values;
+        private final List<CatalogImportErrorRow> errors;
+        private boolean rejected;
+
+        Line(long lineNumber, Map<String, Object> values, List<CatalogImportErrorRow> errors) {
+            this.lineNumber = lineNumber;
+            this.values = values;
+            this.errors = errors;
+        }
+
+        void reject(String field, String message) {
+            errors.add(new CatalogImportErrorRow(lineNumber, field, message));
+            rejected = true;
+        }
+
+        String text(String field, int maxLength, boolean required) {
+            Object value = values.get(field);
+            String text = value instanceof String string && !string.isBlank() ? string.strip() : null;
+            if (value != null && !(value instanceof String)) {
+                reject(field, "Must be text");
+            } else if (text == null && required) {
+                reject(field, "Required");
+            } else if (text != null && text.length() > maxLength) {
+                reject(field, "Longer than " + maxLength + " characters");
+            }
+            return text;
+        }
+
+        BigDecimal price(String field, boolean required) {
+            String text = text(field, 20, required);
+            if (text == null) {
+                return null;
+            }
+            try {
+                BigDecimal price = new BigDecimal(text);
+                if (price.signum() < 0 || price.compareTo(MAX_PRICE) > 0 || price.stripTrailingZeros().scale() > 2) {
+                    reject(field, "Must be between 0 and " + MAX_PRICE + " with at most 2 decimals");
+                }
+                return price;
+            } catch (NumberFormatException e) {
+                reject(field, "Not a number");
+                return null;
+            }
+        }
+
+        Integer quantity(String field) {
+            String text = text(field, 11, false);
+            if (text == null) {
+                return null;
+            }
+            try {
+                int quantity = Integer.parseInt(text);
+                if (quantity < 0) {
+                    reject(field, "Must not be negative");
+                }
+                return quantity;
+            } catch (NumberFormatException e) {
+                reject(field, "Not a whole number");
+                return null;
+            }
+        }
+
+        String productType() {
+            String text = text(PRODUCT_TYPE, 50, false);
+            if (text == null) {
+                return null;
+            }
+            try {
+                return ProductType.valueOf(text.toUpperCase(Locale.ROOT)).name();
+            } catch (IllegalArgumentException e) {
+                reject(PRODUCT_TYPE, "Unknown product type");
+                return null;
+            }
+        }
+
+        List<ImportedTag> tags() {
+            List<String> names = list(TAGS);
+            if (names.size() > MAX_TAGS) {
+                reject(TAGS, "More than " + MAX_TAGS + " tags");
+            }
+            List<ImportedTag> tags = new ArrayList<>(names.size());
+            for (String name : names) {
+                String slug = slugify(name);
+                if (name.length() > 100) {
+                    reject(TAGS, "Tag longer than 100 characters");
+                } else if (slug.isEmpty()) {
+                    reject(TAGS, "Tag without letters or digits");
+                } else {
+                    tags.add(new ImportedTag(name, slug));
+                }
+            }
+            return tags;
+        }
+
+        Map<String, String> attributes() {
+            Object value = values.get(ATTRIBUTES);
+            Map<String, String> attributes = new LinkedHashMap<>();
+            if (value instanceof Map<?, ?> map) {
+                map.forEach((name, attribute) -> attributes.put(String.valueOf(name).strip(),
+                        attribute != null ? String.valueOf(attribute).strip() : ""));
+            } else {
+                for (String pair : list(ATTRIBUTES)) {
+                    int separator = pair.indexOf('=');
+                    if (separator < 0) {
+                        reject(ATTRIBUTES, "Attribute without value");
+                        continue;
+                    }
+                    attributes.put(pair.substring(0, separator).strip(), pair.substring(separator + 1).strip());
+                }
+            }
+
+            if (attributes.size() > MAX_ATTRIBUTES) {
+                reject(ATTRIBUTES, "More than " + MAX_ATTRIBUTES + " attributes");
+            }
+            attributes.forEach((name, attribute) -> {
+                if (name.isEmpty() || name.length() > 100) {
+                    reject(ATTRIBUTES, "Attribute name empty or longer than 100 characters");
+                } else if (attribute.isEmpty() || attribute.length() > 255) {
+                    reject(ATTRIBUTES, "Attribute value empty or longer than 255 characters");
+                }
+            });
+            return attributes;
+        }
+
+        private List<String> list(String field) {
+            Object value = values.get(field);
+            List<String> items = new ArrayList<>();
+            if (value instanceof List<?> list) {
+                list.forEach(item -> items.add(String.valueOf(item)));
+            } else if (value instanceof String text) {
+                items.addAll(List.of(text.split("\\|")));
+            } else if (value != null) {
+                reject(field, "Must be a list");
+            }
+            items.replaceAll(String::strip);
+            items.removeIf(String::isEmpty);
+            return items;
+        }
+    }
+}
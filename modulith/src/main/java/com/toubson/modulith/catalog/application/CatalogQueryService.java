@@ -0,0 +1,272 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.*;
+import com.toubson.modulith.catalog.infrastructure.*;
+import com.toubson.modulith.catalog.mapper.CatalogRowMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Read side of the catalog.
+ * Every query selects flat projections instead of entities, so no lazy association is ever
+ * initialized: a page of products costs one row query, one count query and one tag query
+ * whatever its size, and a product detail costs four queries whatever its number of variants.
+ * Scrolling methods use keyset pagination, so a deep page costs the same as the first one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CatalogQueryService {
+
+    private static final String LOW_STOCK_SORT = "stockQuantity";
+    // Tag listings are in ID order; the sort name records the match so a cursor cannot switch from all to any
+    private static final String ALL_TAGS_SORT = "allTags";
+    private static final String ANY_TAGS_SORT = "anyTags";
+
+    private final ProductRepository productRepository;
+    private final TagRepository tagRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductVariantRepository variantRepository;
+    private final VariantAttributeRepository attributeRepository;
+    private final InventoryRepository inventoryRepository;
+    private final ProductTagIndex tagIndex;
+
+    @Value("${app.catalog.search.default-language:english}")
+    private String defaultSearchLanguage;
+
+    @Value("${app.catalog.search.languages:english,french,german,spanish,simple}")
+    private Set<String> searchLanguages;
+
+    public PageResponse<ProductSummaryResponse> findProducts(Pageable pageable) {
+        log.debug("Finding products for page: {}", pageable);
+        return toSummaries(productRepository.findAllRows(pageable));
+    }
+
+    public PageResponse<ProductSummaryResponse> findProductsByCategory(UUID categoryId, Pageable pageable) {
+        log.debug("Finding products in category: {} for page: {}", categoryId, pageable);
+        return toSummaries(productRepository.findRowsByCategoryId(categoryId, pageable));
+    }
+
+    public PageResponse<ProductSummaryResponse> findProductsInCategorySubtree(UUID categoryId, Pageable pageable) {
+        log.debug("Finding products in category: {} and its descendants for page: {}", categoryId, pageable);
+        return toSummaries(productRepository.findRowsInCategorySubtree(categoryId, pageable));
+    }
+
+    public PageResponse<ProductSummaryResponse> findProductsByTag(String tagSlug, Pageable pageable) {
+        log.debug("Finding products with tag: {} for page: {}", tagSlug, pageable);
+        return toSummaries(productRepository.findRowsByTagSlug(tagSlug, pageable));
+    }
+
+    /**
+     * Finds the page of products following a cursor, using keyset pagination
+     *
+     * @param filter    the listing criteria
+     * @param sortKey   the sort key
+     * @param direction the sort direction
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param size      the page size
+     * @return the page, with the cursor of the next page if there is one
+     * @throws IllegalArgumentException if the cursor is invalid or was issued for another sort
+     */
+    public CursorPageResponse<ProductSummaryResponse> scrollProducts(ProductFilter filter, ProductSortKey sortKey,
+                                                                     Sort.Direction direction, String cursor, int size) {
+        log.debug("Scrolling products sorted by: {} {} after cursor: {}", sortKey, direction, cursor);
+
+        Keyset after = null;
+        if (cursor != null) {
+            KeysetCursor position = KeysetCursor.decode(cursor, sortKey.name(), direction);
+            after = new Keyset(sortKey.parse(position.value()), position.id());
+        }
+
+        // Fetch one extra row to know whether there is a next page without a count query
+        List<ProductRow> rows = productRepository.findRowsAfter(filter, sortKey, direction, after, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<ProductRow> page = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            ProductRow last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(sortKey.name(), direction, sortKey.format(last), last.id()).encode();
+        }
+        return new CursorPageResponse<>(toSummaries(page), page.size(), nextCursor, hasNext);
+    }
+
+    /**
+     * Finds the page of products carrying all, or any, of the given tag names following a cursor, in ID order.
+     * The matching IDs come from the in-memory tag index; only the page itself is read from the database.
+     *
+     * @param tagNames the tag names
+     * @param matchAll true to require every tag, false to require any of them
+     * @param cursor   the cursor returned with the previous page, or null for the first page
+     * @param size     the page size
+     * @return the page, with the cursor of the next page if there is one
+     * @throws IllegalArgumentException if the cursor is invalid or was issued for another tag match
+     */
+    public CursorPageResponse<ProductSummaryResponse> scrollProductsByTags(Collection<String> tagNames, boolean matchAll,
+                                                                           String cursor, int size) {
+        log.debug("Scrolling products with {} of tags: {} after cursor: {}", matchAll ? "all" : "any", tagNames, cursor);
+
+        String sort = matchAll ? ALL_TAGS_SORT : ANY_TAGS_SORT;
+        UUID after = cursor == null ? null : KeysetCursor.decode(cursor, sort, Sort.Direction.ASC).id();
+        List<UUID> ids = tagIndex.findProductIds(tagNames, matchAll, after, size + 1);
+        boolean hasNext = ids.size() > size;
+        List<UUID> pageIds = hasNext ? ids.subList(0, size) : ids;
+
+        // Rows come back in no particular order; products deleted since the last refresh are skipped
+        Map<UUID, ProductRow> rowsById = pageIds.isEmpty() ? Map.of() : productRepository.findRowsByIds(pageIds).stream()
+                .collect(Collectors.toMap(ProductRow::id, row -> row));
+        List<ProductRow> rows = pageIds.stream().map(rowsById::get).filter(Objects::nonNull).toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            UUID last = pageIds.get(pageIds.size() - 1);
+            nextCursor = new KeysetCursor(sort, Sort.Direction.ASC, last.toString(), last).encode();
+        }
+        return new CursorPageResponse<>(toSummaries(rows), rows.size(), nextCursor, hasNext);
+    }
+
+    /**
+     * Finds the page of low stock products following a cursor, lowest stock first
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the page size
+     * @return the page, with the cursor of the next page if there is one
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public CursorPageResponse<LowStockResponse> scrollLowStock(String cursor, int size) {
+        log.debug("Scrolling low stock inventory after cursor: {}", cursor);
+
+        List<LowStockRow> rows;
+        if (cursor == null) {
+            rows = inventoryRepository.findLowStockRows(Limit.of(size + 1));
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor, LOW_STOCK_SORT, Sort.Direction.ASC);
+            int stockQuantity;
+            try {
+                stockQuantity = Integer.parseInt(position.value());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+            rows = inventoryRepository.findLowStockRowsAfter(stockQuantity, position.id(), Limit.of(size + 1));
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<LowStockRow> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            LowStockRow last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(LOW_STOCK_SORT, Sort.Direction.ASC,
+                    last.stockQuantity().toString(), last.inventoryId()).encode();
+        }
+        List<LowStockResponse> content = page.stream().map(CatalogRowMapper::mapToLowStock).toList();
+        return new CursorPageResponse<>(content, content.size(), nextCursor, hasNext);
+    }
+
+    /**
+     * Searches active products with the full-text index, best match first
+     *
+     * @param query    the query, in web search syntax
+     * @param language the text search configuration, or null for the default one
+     * @param page     the zero-based page number
+     * @param size     the page size
+     * @return the page of results with highlighted name and description
+     * @throws IllegalArgumentException if the query is blank or the language is not supported
+     */
+    public SearchPageResponse<ProductSearchResultResponse> searchProducts(String query, String language, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        String config = language == null || language.isBlank() ? defaultSearchLanguage : language.trim().toLowerCase(Locale.ROOT);
+        if (!searchLanguages.contains(config)) {
+            throw new IllegalArgumentException("Unsupported search language: " + language);
+        }
+        log.debug("Searching products for: {} in language: {} for page: {}", query, config, page);
+
+        // Fetch one extra row to know whether there is a next page without counting every match
+        List<ProductSearchRow> rows = productRepository.searchRows(query.trim(), config, size + 1, Math.multiplyExact(page, size));
+        boolean hasNext = rows.size() > size;
+        List<ProductSearchRow> hits = hasNext ? rows.subList(0, size) : rows;
+        if (hits.isEmpty()) {
+            return new SearchPageResponse<>(List.of(), page, size, config, false);
+        }
+
+        Map<UUID, List<TagResponse>> tagsByProduct = findTagsByProduct(hits.stream().map(ProductSearchRow::getId).toList());
+        List<ProductSearchResultResponse> content = hits.stream()
+                .map(row -> CatalogRowMapper.mapToSearchResult(row, tagsByProduct.getOrDefault(row.getId(), List.of())))
+                .toList();
+        return new SearchPageResponse<>(content, page, size, config, hasNext);
+    }
+
+    public Optional<ProductDetailResponse> findProduct(UUID id) {
+        log.debug("Finding product with ID: {}", id);
+
+        Optional<ProductDetailRow> row = productRepository.findDetailRowById(id);
+        if (row.isEmpty()) {
+            log.debug("Product not found with ID: {}", id);
+            return Optional.empty();
+        }
+
+        List<TagResponse> tags = tagRepository.findRowsByProductIds(List.of(id)).stream()
+                .map(CatalogRowMapper::mapToTag)
+                .toList();
+
+        Map<UUID, Map<String, String>> attributesByVariant = new HashMap<>();
+        for (VariantAttributeRow attribute : attributeRepository.findRowsByProductId(id)) {
+            attributesByVariant.computeIfAbsent(attribute.variantId(), key -> new LinkedHashMap<>())
+                    .put(attribute.name(), attribute.value());
+        }
+        List<ProductVariantResponse> variants = variantRepository.findRowsByProductId(id).stream()
+                .map(variant -> CatalogRowMapper.mapToVariant(variant,
+                        attributesByVariant.getOrDefault(variant.id(), Map.of())))
+                .toList();
+
+        return Optional.of(CatalogRowMapper.mapToDetail(row.get(), tags, variants));
+    }
+
+    public List<CategoryResponse> findCategories() {
+        log.debug("Finding all categories");
+        return categoryRepository.findAllRows().stream()
+                .map(CatalogRowMapper::mapToCategory)
+                .toList();
+    }
+
+    public List<TagSummaryResponse> findTags() {
+        log.debug("Finding all tags");
+        return tagRepository.findAllRows().stream()
+                .map(CatalogRowMapper::mapToTagSummary)
+                .toList();
+    }
+
+    private PageResponse<ProductSummaryResponse> toSummaries(Page<ProductRow> page) {
+        return PageResponse.of(page, toSummaries(page.getContent()));
+    }
+
+    private List<ProductSummaryResponse> toSummaries(List<ProductRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, List<TagResponse>> tagsByProduct = findTagsByProduct(rows.stream().map(ProductRow::id).toList());
+        return rows.stream()
+                .map(row -> CatalogRowMapper.mapToSummary(row, tagsByProduct.getOrDefault(row.id(), List.of())))
+                .toList();
+    }
+
+    private Map<UUID, List<TagResponse>> findTagsByProduct(List<UUID> productIds) {
+        // Load the tags of the whole page at once instead of once per product
+        return tagRepository.findRowsByProductIds(productIds).stream()
+                .collect(Collectors.groupingBy(ProductTagRow::productId,
+                        Collectors.mapping(CatalogRowMapper::mapToTag, Collectors.toList())));
+    }
+}
@@ -0,0 +1,127 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.CategoryCountResponse;
+import com.toubson.modulith.catalog.infrastructure.CategoryCountRepository;
+import com.toubson.modulith.catalog.infrastructure.CategoryCountRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Number of active, in stock products per category, directly and including the subcategories.
+ * The counts are maintained incrementally by database triggers on products, inventory and
+ * categories, so reading them costs one row per category whatever the size of the catalog, and
+ * stock changes made by plain SQL updates are counted as well. A periodic verification recomputes
+ * the counts from scratch and corrects any drift, a batch of products or categories per transaction so
+ * that count changes only wait for the batch they touch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CategoryCountService {
+
+    private static final UUID FIRST = new UUID(0, 0);
+
+    private final CategoryCountRepository countRepository;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.catalog.category-counts.verify-enabled:true}")
+    private boolean verifyEnabled;
+
+    @Value("${app.catalog.category-counts.verify-batch-size:1000}")
+    private int verifyBatchSize;
+
+    private Counter driftCounter;
+
+    @PostConstruct
+    protected void init() {
+        driftCounter = Counter.builder("catalog.category.counts.drift")
+                .description("Product listings and category counts corrected by the category count verification")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gets the counts of every active category
+     *
+     * @return the counts
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryCountResponse> findCounts() {
+        return countRepository.findCounts().stream().map(CategoryCountService::toResponse).toList();
+    }
+
+    /**
+     * Gets the counts of a category
+     *
+     * @param categoryId the category ID
+     * @return the counts, empty if the category is not active
+     */
+    @Transactional(readOnly = true)
+    public Optional<CategoryCountResponse> findCounts(UUID categoryId) {
+        return countRepository.findCounts(categoryId).map(CategoryCountService::toResponse);
+    }
+
+    /**
+     * Repairs the listed products, whose changes flow into the counts, then recounts every category so that
+     * counts drifted on their own are corrected too. Each batch of categories is locked before it is
+     * recounted, so that no delta lands between the recount reading the listings and writing the counts.
+     *
+     * @return the number of corrected listings and categories
+     */
+    @Scheduled(initialDelayString = "${app.catalog.category-counts.verify-interval:900000}",
+            fixedDelayString = "${app.catalog.category-counts.verify-interval:900000}")
+    public int verify() {
+        if (!verifyEnabled) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        countRepository.insertMissingCounts();
+        int listings = inBatches(countRepository::findProductIds, countRepository::reconcileListings);
+        int categories = inBatches(countRepository::lockCounts, countRepository::recountCategories);
+        driftCounter.increment(listings + categories);
+        if (listings + categories > 0) {
+            log.warn("Category counts had drifted: corrected {} product listings and {} categories", listings, categories);
+        }
+        log.debug("Verified category counts in {} ms", System.currentTimeMillis() - start);
+        return listings + categories;
+    }
+
+    private int inBatches(BiFunction<UUID, Integer, List<UUID>> next, ToIntFunction<List<UUID>> correct) {
+        int corrected = 0;
+        UUID after = FIRST;
+        while (true) {
+            UUID from = after;
+            CorrectedBatch batch = transactionTemplate.execute(status -> {
+                List<UUID> ids = next.apply(from, verifyBatchSize);
+                return new CorrectedBatch(ids, correct.applyAsInt(ids));
+            });
+            corrected += batch.corrected();
+            if (batch.ids().size() < verifyBatchSize) {
+                return corrected;
+            }
+            after = batch.ids().getLast();
+        }
+    }
+
+    private static CategoryCountResponse toResponse(CategoryCountRow row) {
+        return new CategoryCountResponse(row.categoryId(), row.directCount(), row.subtreeCount());
+    }
+
+    private record CorrectedBatch(List<UUID> ids, int corrected) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.CategoryResponse;
+import com.toubson.modulith.catalog.dto.CategoryTreeResponse;
+import com.toubson.modulith.catalog.infrastructure.CategoryRow;
+import com.toubson.modulith.catalog.mapper.CatalogRowMapper;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the active category hierarchy.
+ * Every node knows its path from the root and its children sorted by sort order then name, so
+ * breadcrumbs cost O(depth), and categories are indexed by ID and slug. Categories whose parent
+ * is not part of the snapshot, because it was deleted, are left out with their whole subtree.
+ */
+public final class CategoryTree {
+
+    private static final Comparator<CategoryRow> CHILD_ORDER =
+            Comparator.comparingInt(CategoryRow::sortOrder).thenComparing(CategoryRow::name);
+
+    private final Map<UUID, Node> byId;
+    private final Map<String, Node> bySlug;
+    private final List<Node> roots;
+    private final List<CategoryTreeResponse> menu;
+
+    private CategoryTree(Map<UUID, Node> byId, Map<String, Node> bySlug, List<Node> roots) {
+        this.byId = byId;
+        this.bySlug = bySlug;
+        this.roots = roots;
+        this.menu = roots.stream().map(CategoryTree::toTreeResponse).toList();
+    }
+
+    /**
+     * Builds a snapshot from category rows
+     *
+     * @param rows the active categories, in any order
+     * @return the snapshot
+     */
+    public static CategoryTree build(Collection<CategoryRow> rows) {
+        Map<UUID, List<CategoryRow>> childrenByParent = new HashMap<>();
+        List<CategoryRow> rootRows = new ArrayList<>();
+        for (CategoryRow row : rows) {
+            if (row.parentId() == null) {
+                rootRows.add(row);
+            } else {
+                childrenByParent.computeIfAbsent(row.parentId(), id -> new ArrayList<>()).add(row);
+            }
+        }
+
+        // Walk down from the roots: orphaned subtrees, and cycles, are never reached
+        Map<UUID, Node> byId = new HashMap<>();
+        Map<String, Node> bySlug = new HashMap<>();
+        rootRows.sort(CHILD_ORDER);
+        List<Node> roots = new ArrayList<>(rootRows.size());
+        Deque<Node> pending = new ArrayDeque<>();
+        for (CategoryRow row : rootRows) {
+            Node root = new Node(CatalogRowMapper.mapToCategory(row), null);
+            roots.add(root);
+            pending.add(root);
+        }
+        while (!pending.isEmpty()) {
+            Node node = pending.poll();
+            byId.put(node.category.id(), node);
+            bySlug.put(node.category.slug(), node);
+            List<CategoryRow> childRows = childrenByParent.getOrDefault(node.category.id(), new ArrayList<>());
+            childRows.sort(CHILD_ORDER);
+            List<Node> children = new ArrayList<>(childRows.size());
+            for (CategoryRow childRow : childRows) {
+                Node child = new Node(CatalogRowMapper.mapToCategory(childRow), node);
+                children.add(child);
+                pending.add(child);
+            }
+            node.children = List.copyOf(children);
+        }
+        return new CategoryTree(Map.copyOf(byId), Map.copyOf(bySlug), List.copyOf(roots));
+    }
+
+    /**
+     * Finds a category by ID
+     *
+     * @param id the category ID
+     * @return the node, empty if the category is not active
+     */
+    public Optional<Node> findById(UUID id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Finds a category by slug
+     *
+     * @param slug the category slug
+     * @return the node, empty if no active category has this slug
+     */
+    public Optional<Node> findBySlug(String slug) {
+        return Optional.ofNullable(bySlug.get(slug));
+    }
+
+    /**
+     * Gets the root categories
+     *
+     * @return the roots, sorted by sort order then name
+     */
+    public List<Node> roots() {
+        return roots;
+    }
+
+    /**
+     * Gets the whole hierarchy as nested responses, built once per snapshot
+     *
+     * @return the root categories with their descendants
+     */
+    public List<CategoryTreeResponse> menu() {
+        return menu;
+    }
+
+    /**
+     * Gets the number of categories in the snapshot
+     *
+     * @return the number of categories
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    private static CategoryTreeResponse toTreeResponse(Node node) {
+        return new CategoryTreeResponse(node.category.id(), node.category.name(), node.category.slug(),
+                node.category.sortOrder(), node.children.stream().map(CategoryTree::toTreeResponse).toList());
+    }
+
+    /**
+     * A category of the snapshot
+     */
+    public static final class Node {
+
+        private final CategoryResponse category;
+        private final List<CategoryResponse> path;
+        private List<Node> children = List.of();
+
+        private Node(CategoryResponse category, Node parent) {
+            this.category = category;
+            List<CategoryResponse> ancestors = new ArrayList<>(parent == null ? 1 : parent.path.size() + 1);
+            if (parent != null) {
+                ancestors.addAll(parent.path);
+            }
+            ancestors.add(category);
+            this.path = List.copyOf(ancestors);
+        }
+
+        public CategoryResponse category() {
+            return category;
+        }
+
+        /**
+         * Gets the breadcrumb of this category
+         *
+         * @return the categories from the root down to this one
+         */
+        public List<CategoryResponse> path() {
+            return path;
+        }
+
+        public int depth() {
+            return path.size() - 1;
+        }
+
+        /**
+         * Gets the children of this category
+         *
+         * @return the children, sorted by sort order then name
+         */
+        public List<Node> children() {
+            return children;
+        }
+    }
+}
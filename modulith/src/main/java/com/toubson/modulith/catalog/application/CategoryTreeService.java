@@ -0,0 +1,114 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.CategoryResponse;
+import com.toubson.modulith.catalog.dto.CategoryTreeResponse;
+import com.toubson.modulith.catalog.infrastructure.CategoryRepository;
+import com.toubson.modulith.shared.events.CategoryChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Category menus, breadcrumbs and slug resolution served from an in-memory {@link CategoryTree}.
+ * Categories change rarely and are read on every storefront page, so readers only dereference the
+ * current snapshot, without locks or queries. A change marks the snapshot stale; the next refresh
+ * loads all the categories in one query and swaps a whole new snapshot in.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CategoryTreeService {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile CategoryTree tree;
+    private final AtomicBoolean stale = new AtomicBoolean();
+    private final Object loadLock = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Marks the snapshot stale once the change has committed
+     *
+     * @param event the change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        stale.set(true);
+    }
+
+    /**
+     * Reloads the snapshot if a category changed since the last refresh
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.category-tree.refresh-interval:1000}")
+    public void refresh() {
+        if (stale.getAndSet(false)) {
+            reload();
+        }
+    }
+
+    /**
+     * Reloads the snapshot, also picking up changes made outside the application
+     */
+    @Scheduled(initialDelayString = "${app.catalog.category-tree.reload-interval:600000}",
+            fixedDelayString = "${app.catalog.category-tree.reload-interval:600000}")
+    public void reload() {
+        synchronized (loadLock) {
+            long start = System.currentTimeMillis();
+            CategoryTree loaded = CategoryTree.build(categoryRepository.findAllRows());
+            tree = loaded;
+            log.debug("Loaded category tree of {} categories in {} ms", loaded.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Gets the whole active hierarchy
+     *
+     * @return the root categories with their descendants, sorted by sort order then name
+     */
+    public List<CategoryTreeResponse> findMenu() {
+        return current().menu();
+    }
+
+    /**
+     * Gets the breadcrumb of a category
+     *
+     * @param categoryId the category ID
+     * @return the categories from the root down to the given one, empty if the category is not active
+     */
+    public Optional<List<CategoryResponse>> findBreadcrumb(UUID categoryId) {
+        return current().findById(categoryId).map(CategoryTree.Node::path);
+    }
+
+    /**
+     * Resolves a category slug
+     *
+     * @param slug the slug
+     * @return the category, empty if no active category has this slug
+     */
+    public Optional<CategoryResponse> findBySlug(String slug) {
+        return current().findBySlug(slug).map(CategoryTree.Node::category);
+    }
+
+    private CategoryTree current() {
+        CategoryTree current = tree;
+        if (current == null) {
+            // Only before the startup load has completed
+            reload();
+            current = tree;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,539 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
+import com.toubson.modulith.catalog.domain.StockMovementType;
+import com.toubson.modulith.catalog.infrastructure.InventoryBatchRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryStockRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository.Owner;
+import com.toubson.modulith.catalog.infrastructure.LockedStockRow;
+import com.toubson.modulith.catalog.infrastructure.StockLevelRow;
+import com.toubson.modulith.catalog.infrastructure.StockModeRow;
+import com.toubson.modulith.catalog.infrastructure.StripedStockRow;
+import com.toubson.modulith.catalog.infrastructure.VariantInventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Write side of the inventory: reserves stock for pending orders, releases it, and commits it
+ * once the order is fulfilled.
+ * Each command is a single guarded {@code UPDATE} whose condition checks the available stock, instead
+ * of loading the inventory, changing it in memory and saving it under optimistic locking. Concurrent
+ * commands on the same inventory queue on its row lock and re-evaluate the condition against the
+ * committed quantities, so stock is never oversold and no command fails on a version conflict.
+ * <p>
+ * Hot inventories can be striped: their available stock is allotted to several stripe rows, and a
+ * reservation takes stock from one stripe picked at random, so concurrent reservations mostly lock
+ * different rows. When no stripe has enough stock left, the inventory and its stripes are locked,
+ * the stock left in all the stripes is gathered, and it is allotted again evenly.
+ * <p>
+ * Batches of reservations, such as a checkout, lock all their inventories up front in a fixed order,
+ * check every line, and then reserve all the lines or none.
+ * <p>
+ * The updates return the stock level they leave behind, from which {@link StockAlertPublisher} detects
+ * low stock, out of stock and back in stock crossings without polling the inventories. Every applied
+ * command is also appended to the {@link StockJournal}, in the same transaction.
+ * <p>
+ * Inventory entities already loaded in the calling transaction are not refreshed by these commands.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class InventoryCommandService {
+
+    static final int MAX_STRIPES = 64;
+    static final int MAX_BATCH_LINES = 50;
+
+    private final InventoryRepository inventoryRepository;
+    private final VariantInventoryRepository variantInventoryRepository;
+    private final InventoryStripeRepository stripeRepository;
+    private final InventoryBatchRepository batchRepository;
+    private final InventoryStockRepository stockRepository;
+    private final StockAlertPublisher alertPublisher;
+    private final StockJournal journal;
+
+    /**
+     * Reserves stock of a product
+     *
+     * @param productId the product ID
+     * @param quantity  the quantity to reserve
+     * @return the outcome of the reservation
+     */
+    public StockCommandResult reserve(UUID productId, int quantity) {
+        return reserve(Owner.PRODUCT, productId, quantity);
+    }
+
+    /**
+     * Releases reserved stock of a product
+     *
+     * @param productId the product ID
+     * @param quantity  the quantity to release
+     * @return the outcome of the release
+     */
+    public StockCommandResult release(UUID productId, int quantity) {
+        return release(Owner.PRODUCT, productId, quantity);
+    }
+
+    /**
+     * Removes reserved stock of a product from its stock quantity
+     *
+     * @param productId the product ID
+     * @param quantity  the reserved quantity to commit
+     * @return the outcome of the commit
+     */
+    public StockCommandResult commit(UUID productId, int quantity) {
+        return commit(Owner.PRODUCT, productId, quantity);
+    }
+
+    /**
+     * Reserves stock of a variant
+     *
+     * @param variantId the variant ID
+     * @param quantity  the quantity to reserve
+     * @return the outcome of the reservation
+     */
+    public StockCommandResult reserveVariant(UUID variantId, int quantity) {
+        return reserve(Owner.VARIANT, variantId, quantity);
+    }
+
+    /**
+     * Releases reserved stock of a variant
+     *
+     * @param variantId the variant ID
+     * @param quantity  the quantity to release
+     * @return the outcome of the release
+     */
+    public StockCommandResult releaseVariant(UUID variantId, int quantity) {
+        return release(Owner.VARIANT, variantId, quantity);
+    }
+
+    /**
+     * Removes reserved stock of a variant from its stock quantity
+     *
+     * @param variantId the variant ID
+     * @param quantity  the reserved quantity to commit
+     * @return the outcome of the commit
+     */
+    public StockCommandResult commitVariant(UUID variantId, int quantity) {
+        return commit(Owner.VARIANT, variantId, quantity);
+    }
+
+    /**
+     * Adds received stock to the stock of a product
+     *
+     * @param productId the product ID
+     * @param quantity  the received quantity
+     * @return the outcome of the receipt
+     */
+    public StockCommandResult receive(UUID productId, int quantity) {
+        return receive(Owner.PRODUCT, productId, quantity);
+    }
+
+    /**
+     * Adds received stock to the stock of a variant
+     *
+     * @param variantId the variant ID
+     * @param quantity  the received quantity
+     * @return the outcome of the receipt
+     */
+    public StockCommandResult receiveVariant(UUID variantId, int quantity) {
+        return receive(Owner.VARIANT, variantId, quantity);
+    }
+
+    /**
+     * Corrects the stock of a product after a count.
+     * The stock cannot drop below the stock reserved by orders or allotted to stripes.
+     *
+     * @param productId the product ID
+     * @param change    the change of the stock quantity, negative for a shrinkage
+     * @return the outcome of the adjustment
+     */
+    public StockCommandResult adjust(UUID productId, int change) {
+        return adjust(Owner.PRODUCT, productId, change);
+    }
+
+    /**
+     * Corrects the stock of a variant after a count.
+     * The stock cannot drop below the stock reserved by orders or allotted to stripes.
+     *
+     * @param variantId the variant ID
+     * @param change    the change of the stock quantity, negative for a shrinkage
+     * @return the outcome of the adjustment
+     */
+    public StockCommandResult adjustVariant(UUID variantId, int change) {
+        return adjust(Owner.VARIANT, variantId, change);
+    }
+
+    /**
+     * Reserves stock of several products and variants at once: either every line is reserved, or none.
+     * Lines for the same product or variant are reserved together, as the sum of their quantities.
+     * <p>
+     * All the inventories are locked before any is checked, product inventories then variant inventories,
+     * each in ID order, and the stripes of striped inventories after all of them; concurrent batches
+     * therefore always lock shared rows in the same order and cannot deadlock.
+     *
+     * @param lines the lines to reserve
+     * @return whether the batch was applied, and the outcome of every line
+     * @throws IllegalArgumentException if there are no lines or more than {@value #MAX_BATCH_LINES}, or a line is invalid
+     */
+    public BatchStockCommandResult reserveAll(List<StockLine> lines) {
+        if (lines.isEmpty() || lines.size() > MAX_BATCH_LINES) {
+            throw new IllegalArgumentException("A batch must have between 1 and " + MAX_BATCH_LINES + " lines: " + lines.size());
+        }
+        Map<UUID, Integer> productQuantities = new TreeMap<>();
+        Map<UUID, Integer> variantQuantities = new TreeMap<>();
+        sumByItem(lines, productQuantities, variantQuantities);
+
+        List<LockedStockRow> products = batchRepository.lockStock(Owner.PRODUCT, productQuantities.keySet());
+        List<LockedStockRow> variants = batchRepository.lockStock(Owner.VARIANT, variantQuantities.keySet());
+        List<StripedReservation> striped = new ArrayList<>();
+        Map<UUID, Integer> productReservations = new HashMap<>();
+        Map<UUID, Integer> variantReservations = new HashMap<>();
+        Map<UUID, StockCommandResult> productResults =
+                check(Owner.PRODUCT, productQuantities, products, productReservations, striped);
+        Map<UUID, StockCommandResult> variantResults =
+                check(Owner.VARIANT, variantQuantities, variants, variantReservations, striped);
+
+        List<StockLineResult> results = lines.stream()
+                .map(line -> new StockLineResult(line, line.productId() != null
+                        ? productResults.get(line.productId())
+                        : variantResults.get(line.variantId())))
+                .toList();
+        if (!results.stream().allMatch(result -> result.result().succeeded())) {
+            log.debug("Batch reservation of {} lines not applied", lines.size());
+            return new BatchStockCommandResult(false, results);
+        }
+
+        Instant now = Instant.now();
+        List<StockLevelRow> productLevels = batchRepository.reserve(Owner.PRODUCT, productReservations, now);
+        List<StockLevelRow> variantLevels = batchRepository.reserve(Owner.VARIANT, variantReservations, now);
+        if (productLevels.size() != productReservations.size() || variantLevels.size() != variantReservations.size()) {
+            // The rows are locked, so only a concurrent change of the schema could get here
+            throw new IllegalStateException("Locked inventory changed during a batch reservation");
+        }
+        productLevels.forEach(level -> applied(Owner.PRODUCT, level, StockMovementType.RESERVATION, 0,
+                productReservations.get(level.inventoryId())));
+        variantLevels.forEach(level -> applied(Owner.VARIANT, level, StockMovementType.RESERVATION, 0,
+                variantReservations.get(level.inventoryId())));
+        striped.forEach(reservation -> reallot(reservation.owner(), reservation.inventoryId(), reservation.stock(),
+                null, reservation.quantity()));
+        return new BatchStockCommandResult(true, results);
+    }
+
+    /**
+     * Releases reserved stock of several products and variants at once, such as the expired reservations of
+     * many carts. Lines for the same product or variant are released together, as the sum of their quantities.
+     * <p>
+     * All the inventories are locked first, in the order {@link #reserveAll(List)} locks them, so that batch
+     * releases and batch reservations sharing inventories cannot deadlock. Each line is then released on its
+     * own, like {@link #release(UUID, int)}: journaled, and publishing the alerts of the edges it crossed.
+     *
+     * @param lines the lines to release
+     * @return the outcome of every line
+     * @throws IllegalArgumentException if a line is invalid
+     */
+    public List<StockLineResult> releaseAll(List<StockLine> lines) {
+        Map<UUID, Integer> productQuantities = new TreeMap<>();
+        Map<UUID, Integer> variantQuantities = new TreeMap<>();
+        sumByItem(lines, productQuantities, variantQuantities);
+
+        batchRepository.lockStock(Owner.PRODUCT, productQuantities.keySet());
+        batchRepository.lockStock(Owner.VARIANT, variantQuantities.keySet());
+        Map<UUID, StockCommandResult> productResults = new HashMap<>();
+        Map<UUID, StockCommandResult> variantResults = new HashMap<>();
+        productQuantities.forEach((productId, quantity) ->
+                productResults.put(productId, release(Owner.PRODUCT, productId, quantity)));
+        variantQuantities.forEach((variantId, quantity) ->
+                variantResults.put(variantId, release(Owner.VARIANT, variantId, quantity)));
+        return lines.stream()
+                .map(line -> new StockLineResult(line, line.productId() != null
+                        ? productResults.get(line.productId())
+                        : variantResults.get(line.variantId())))
+                .toList();
+    }
+
+    /**
+     * Validates the lines of a batch and sums their quantities per product and per variant
+     */
+    private static void sumByItem(List<StockLine> lines, Map<UUID, Integer> productQuantities,
+                                  Map<UUID, Integer> variantQuantities) {
+        for (StockLine line : lines) {
+            requirePositive(line.quantity());
+            if ((line.productId() == null) == (line.variantId() == null)) {
+                throw new IllegalArgumentException("A stock line must have either a product or a variant");
+            }
+            if (line.productId() != null) {
+                productQuantities.merge(line.productId(), line.quantity(), Integer::sum);
+            } else {
+                variantQuantities.merge(line.variantId(), line.quantity(), Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Checks the lines of one kind of inventory against the locked rows, locking the stripes of striped ones,
+     * and collects the reservations to apply
+     */
+    private Map<UUID, StockCommandResult> check(Owner owner, Map<UUID, Integer> quantities, List<LockedStockRow> rows,
+                                                Map<UUID, Integer> reservations, List<StripedReservation> striped) {
+        Map<UUID, LockedStockRow> rowsByItem = rows.stream()
+                .collect(Collectors.toMap(LockedStockRow::itemId, Function.identity()));
+        Map<UUID, StockCommandResult> results = new HashMap<>();
+        quantities.forEach((itemId, quantity) -> {
+            LockedStockRow row = rowsByItem.get(itemId);
+            StockCommandResult result;
+            if (row == null) {
+                result = StockCommandResult.NOT_FOUND;
+            } else if (row.trackingStrategy() != InventoryTrackingStrategy.FINITE) {
+                result = StockCommandResult.UNTRACKED;
+            } else if (row.stripeCount() > 0) {
+                StripedStockRow stock = stripeRepository.lockStock(owner, row.inventoryId()).orElseThrow();
+                result = available(stock) >= quantity ? StockCommandResult.APPLIED : StockCommandResult.INSUFFICIENT_STOCK;
+                if (result == StockCommandResult.APPLIED) {
+                    striped.add(new StripedReservation(owner, row.inventoryId(), stock, quantity));
+                }
+            } else {
+                result = row.stockQuantity() - row.reservedQuantity() >= quantity
+                        ? StockCommandResult.APPLIED
+                        : StockCommandResult.INSUFFICIENT_STOCK;
+                if (result == StockCommandResult.APPLIED) {
+                    reservations.put(row.inventoryId(), quantity);
+                }
+            }
+            results.put(itemId, result);
+        });
+        return results;
+    }
+
+    /**
+     * Stripes the inventory of a product, or stops striping it, allotting its available stock again
+     *
+     * @param productId   the product ID
+     * @param stripeCount the number of stripes, 0 to stop striping
+     * @return true if the inventory was updated, false if the product has no inventory
+     * @throws IllegalArgumentException if the stripe count is out of range or the inventory is not finite
+     */
+    public boolean setStripeCount(UUID productId, int stripeCount) {
+        return setStripeCount(Owner.PRODUCT, inventoryRepository.findStockModeByProductId(productId), stripeCount);
+    }
+
+    /**
+     * Stripes the inventory of a variant, or stops striping it, allotting its available stock again
+     *
+     * @param variantId   the variant ID
+     * @param stripeCount the number of stripes, 0 to stop striping
+     * @return true if the inventory was updated, false if the variant has no inventory
+     * @throws IllegalArgumentException if the stripe count is out of range
+     */
+    public boolean setVariantStripeCount(UUID variantId, int stripeCount) {
+        return setStripeCount(Owner.VARIANT, variantInventoryRepository.findStockModeByVariantId(variantId), stripeCount);
+    }
+
+    private StockCommandResult reserve(Owner owner, UUID itemId, int quantity) {
+        requirePositive(quantity);
+        Optional<StockLevelRow> level = stockRepository.reserve(owner, itemId, quantity, Instant.now());
+        if (level.isPresent()) {
+            applied(owner, level.get(), StockMovementType.RESERVATION, 0, quantity);
+            return StockCommandResult.APPLIED;
+        }
+        return explain(itemId, findStockMode(owner, itemId), mode -> reserveStriped(owner, mode, quantity));
+    }
+
+    private StockCommandResult release(Owner owner, UUID itemId, int quantity) {
+        requirePositive(quantity);
+        Optional<StockLevelRow> level = stockRepository.release(owner, itemId, quantity, Instant.now());
+        if (level.isEmpty()) {
+            return explain(itemId, findStockMode(owner, itemId),
+                    mode -> applied(owner, stripeRepository.release(owner, mode.inventoryId(), quantity),
+                            StockMovementType.RELEASE, 0, -quantity));
+        }
+        applied(owner, level.get(), StockMovementType.RELEASE, 0, -quantity);
+        return StockCommandResult.APPLIED;
+    }
+
+    private StockCommandResult commit(Owner owner, UUID itemId, int quantity) {
+        requirePositive(quantity);
+        Optional<StockLevelRow> level = stockRepository.commit(owner, itemId, quantity, Instant.now());
+        if (level.isEmpty()) {
+            return explain(itemId, findStockMode(owner, itemId),
+                    mode -> applied(owner, stripeRepository.commit(owner, mode.inventoryId(), quantity),
+                            StockMovementType.SALE, -quantity, -quantity));
+        }
+        applied(owner, level.get(), StockMovementType.SALE, -quantity, -quantity);
+        return StockCommandResult.APPLIED;
+    }
+
+    private StockCommandResult receive(Owner owner, UUID itemId, int quantity) {
+        requirePositive(quantity);
+        Optional<StockLevelRow> level = stockRepository.receive(owner, itemId, quantity, Instant.now());
+        if (level.isEmpty()) {
+            // Receipts apply to striped inventories as well, so only a missing or untracked inventory gets here
+            return explain(itemId, findStockMode(owner, itemId), mode -> false);
+        }
+        applied(owner, level.get(), StockMovementType.RECEIPT, quantity, 0);
+        return StockCommandResult.APPLIED;
+    }
+
+    private StockCommandResult adjust(Owner owner, UUID itemId, int change) {
+        if (change == 0) {
+            throw new IllegalArgumentException("Stock adjustment must not be zero");
+        }
+        Optional<StockLevelRow> level = stockRepository.adjust(owner, itemId, change, Instant.now());
+        if (level.isEmpty()) {
+            return explain(itemId, findStockMode(owner, itemId), mode -> false);
+        }
+        applied(owner, level.get(), StockMovementType.ADJUSTMENT, change, 0);
+        return StockCommandResult.APPLIED;
+    }
+
+    private Optional<StockModeRow> findStockMode(Owner owner, UUID itemId) {
+        return owner == Owner.PRODUCT
+                ? inventoryRepository.findStockModeByProductId(itemId)
+                : variantInventoryRepository.findStockModeByVariantId(itemId);
+    }
+
+    /**
+     * Journals an applied stock change and publishes the alerts of the edges it crossed
+     */
+    private void applied(Owner owner, StockLevelRow level, StockMovementType type, int stockChange, int reservedChange) {
+        journal.append(owner, level.inventoryId(), type, stockChange, reservedChange);
+        alertPublisher.publishCrossings(level, stockChange, reservedChange);
+    }
+
+    private boolean applied(Owner owner, Optional<StockLevelRow> level, StockMovementType type, int stockChange,
+                            int reservedChange) {
+        level.ifPresent(after -> applied(owner, after, type, stockChange, reservedChange));
+        return level.isPresent();
+    }
+
+    private boolean setStripeCount(Owner owner, Optional<StockModeRow> mode, int stripeCount) {
+        if (stripeCount < 0 || stripeCount > MAX_STRIPES) {
+            throw new IllegalArgumentException("Stripe count must be between 0 and " + MAX_STRIPES + ": " + stripeCount);
+        }
+        if (mode.isEmpty()) {
+            return false;
+        }
+        if (mode.get().trackingStrategy() != InventoryTrackingStrategy.FINITE) {
+            throw new IllegalArgumentException("Only finite inventory can be striped");
+        }
+        return rebalance(owner, mode.get().inventoryId(), stripeCount, 0);
+    }
+
+    /**
+     * Explains a guarded update that changed no row: only then is the stock mode read, so the common
+     * case of unstriped finite stock costs a single statement
+     */
+    private StockCommandResult explain(UUID id, Optional<StockModeRow> mode,
+                                       Predicate<StockModeRow> stripedCommand) {
+        StockCommandResult result;
+        if (mode.isEmpty()) {
+            result = StockCommandResult.NOT_FOUND;
+        } else if (mode.get().trackingStrategy() != InventoryTrackingStrategy.FINITE) {
+            result = StockCommandResult.UNTRACKED;
+        } else if (mode.get().stripeCount() > 0) {
+            return stripedCommand.test(mode.get())
+                    ? StockCommandResult.APPLIED
+                    : StockCommandResult.INSUFFICIENT_STOCK;
+        } else {
+            result = StockCommandResult.INSUFFICIENT_STOCK;
+        }
+        log.debug("Stock command on {} not applied: {}", id, result);
+        return result;
+    }
+
+    private boolean reserveStriped(Owner owner, StockModeRow mode, int quantity) {
+        int stripes = mode.stripeCount();
+        int first = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            OptionalInt left = stripeRepository.reserve(owner, mode.inventoryId(), (first + i) % stripes, quantity);
+            if (left.isPresent()) {
+                journal.append(owner, mode.inventoryId(), StockMovementType.RESERVATION, 0, quantity);
+                // The inventory can only run out of stock when one of its stripes does
+                if (left.getAsInt() == 0) {
+                    stripeRepository.findStockLevel(owner, mode.inventoryId())
+                            .ifPresent(level -> alertPublisher.publishCrossings(level, 0, quantity));
+                }
+                return true;
+            }
+        }
+        // No stripe has enough left; skip the locking rebalance when the whole inventory has not either
+        if (stripeRepository.findAvailableQuantity(owner, mode.inventoryId()) < quantity) {
+            return false;
+        }
+        return rebalance(owner, mode.inventoryId(), null, quantity);
+    }
+
+    /**
+     * Gathers the stock left in the stripes of a locked inventory, reserves the given quantity from it,
+     * and allots the rest evenly to the stripes
+     *
+     * @param stripeCount the new number of stripes, or null to keep the current one
+     * @param quantity    the quantity to reserve, 0 to only rebalance
+     * @return false if the inventory does not exist or has less available stock than the quantity
+     */
+    private boolean rebalance(Owner owner, UUID inventoryId, Integer stripeCount, int quantity) {
+        Optional<StripedStockRow> locked = stripeRepository.lockStock(owner, inventoryId);
+        if (locked.isEmpty() || available(locked.get()) < quantity) {
+            return false;
+        }
+        reallot(owner, inventoryId, locked.get(), stripeCount, quantity);
+        return true;
+    }
+
+    private void reallot(Owner owner, UUID inventoryId, StripedStockRow stock, Integer stripeCount, int quantity) {
+        int[] allotments = split(Math.max(0, available(stock) - quantity), stripeCount != null ? stripeCount : stock.stripeCount());
+        int allotted = 0;
+        for (int allotment : allotments) {
+            allotted += allotment;
+        }
+        stripeRepository.allot(owner, inventoryId, stock.reservedByOrders() + quantity, allotments);
+        log.debug("Allotted {} units of inventory {} to {} stripes", allotted, inventoryId, allotments.length);
+        if (quantity > 0) {
+            journal.append(owner, inventoryId, StockMovementType.RESERVATION, 0, quantity);
+            stripeRepository.findStockLevel(owner, inventoryId)
+                    .ifPresent(level -> alertPublisher.publishCrossings(level, 0, quantity));
+        }
+    }
+
+    /**
+     * Gets the stock of a locked inventory not reserved by orders, whether allotted to stripes or not
+     */
+    private static int available(StripedStockRow stock) {
+        return stock.stockQuantity() - stock.reservedByOrders();
+    }
+
+    /**
+     * Splits a quantity into parts differing by at most one
+     *
+     * @param quantity the quantity to split
+     * @param parts    the number of parts
+     * @return the parts, the larger ones first
+     */
+    static int[] split(int quantity, int parts) {
+        int[] split = new int[parts];
+        for (int i = 0; i < parts; i++) {
+            split[i] = quantity / parts + (i < quantity % parts ? 1 : 0);
+        }
+        return split;
+    }
+
+    private static void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+    }
+
+    private record StripedReservation(Owner owner, UUID inventoryId, StripedStockRow stock, int quantity) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.toubson.modulith.catalog.application;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque cursor pointing after the last row of a keyset page.
+ * It records the sort it was issued for, so it cannot be replayed against another ordering.
+ *
+ * @param sort      the name of the sort key
+ * @param direction the sort direction
+ * @param value     the formatted sort key value of the last row
+ * @param id        the ID of the last row
+ */
+public record KeysetCursor(String sort, Sort.Direction direction, String value, UUID id) {
+
+    private static final String SEPARATOR = "\n";
+
+    /**
+     * Encodes this cursor as an URL-safe token
+     *
+     * @return the token
+     */
+    public String encode() {
+        String raw = String.join(SEPARATOR, sort, direction.name(), id.toString(), value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()} and checks it was issued for the given sort
+     *
+     * @param token     the token
+     * @param sort      the expected name of the sort key
+     * @param direction the expected sort direction
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is malformed or was issued for another sort
+     */
+    public static KeysetCursor decode(String token, String sort, Sort.Direction direction) {
+        KeysetCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 4);
+            cursor = new KeysetCursor(parts[0], Sort.Direction.valueOf(parts[1]), parts[3], UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (!cursor.sort().equals(sort) || cursor.direction() != direction) {
+            throw new IllegalArgumentException("Cursor was issued for another sort order");
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,38 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.ProductFeedFormat;
+
+import java.time.Instant;
+
+/**
+ * A file of the product feeds as last written, recorded in the manifest of the feed directory.
+ *
+ * @param name         the file name
+ * @param format       the format of the file
+ * @param shard        the shard written to the file, -1 for the sitemap index
+ * @param etag         the strong entity tag of the content, quoted
+ * @param size         the size of the file in bytes
+ * @param products     the number of products in the file, or of sitemaps for the sitemap index
+ * @param lastModified when the file was last rewritten
+ */
+public record ProductFeedFile(
+        String name,
+        ProductFeedFormat format,
+        int shard,
+        String etag,
+        long size,
+        long products,
+        Instant lastModified) {
+
+    /**
+     * Gets the name of the file holding this version of the content in the feed directory: the file name with
+     * the entity tag before its extension, such as {@code products-00.3f2a....xml}
+     *
+     * @return the stored file name
+     */
+    public String storedName() {
+        int extension = name.lastIndexOf('.');
+        String tag = etag.substring(1, etag.length() - 1);
+        return extension < 0 ? name + "." + tag : name.substring(0, extension) + "." + tag + name.substring(extension);
+    }
+}
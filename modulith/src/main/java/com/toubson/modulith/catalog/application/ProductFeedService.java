@@ -0,0 +1,392 @@
+package com.toubson.modulith.catalog.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toubson.modulith.catalog.domain.ProductFeedFormat;
+import com.toubson.modulith.catalog.dto.ProductFeedResponse;
+import com.toubson.modulith.catalog.infrastructure.ProductFeedRepository;
+import com.toubson.modulith.catalog.infrastructure.ProductFeedRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Product feeds for search engines and marketplaces: merchant feeds as XML and CSV, and sitemaps, kept as files
+ * on local disk and split in {@link ProductFeedRepository#SHARDS} shards by product ID.
+ * Each run rewrites only the shards holding products updated since the previous run, found with the
+ * {@code updated_at} of the products and of their inventory; a full run rewrites every shard now and then, which
+ * also catches what leaves no update behind, such as deleted products or renamed categories.
+ * <p>
+ * The entity tag of a file is the digest of its content, computed while writing it to a temporary file. Each
+ * version of a file is then stored under its name and entity tag, and never changes once stored: swapping a
+ * new version in only changes which stored file the name points to, so the web server can send a stored file
+ * straight from disk after the request has been handled, without any lock. Superseded versions are deleted
+ * once readers that may still be sending them have had time to finish. The manifest of the directory records
+ * every file with the instant the previous run started, so a restart resumes incrementally.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductFeedService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String MANIFEST = "manifest.json";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final List<ProductFeedFormat> SHARDED_FORMATS = List.of(
+            ProductFeedFormat.MERCHANT_XML, ProductFeedFormat.MERCHANT_CSV, ProductFeedFormat.SITEMAP);
+
+    private final ProductFeedRepository feedRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TaskExecutor taskExecutor;
+
+    @Value("${app.catalog.feeds.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.catalog.feeds.directory:${java.io.tmpdir}/product-feeds}")
+    private Path directory;
+
+    @Value("${app.catalog.feeds.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.catalog.feeds.product-url:http://localhost:3000/products/}")
+    private String productUrl;
+
+    @Value("${app.catalog.feeds.feed-url:http://localhost:8080/catalog/feeds/}")
+    private String feedUrl;
+
+    @Value("${app.catalog.feeds.currency:USD}")
+    private String currency;
+
+    @Value("${app.catalog.feeds.overlap:60000}")
+    private long overlap;
+
+    @Value("${app.catalog.feeds.full-interval:86400000}")
+    private long fullInterval;
+
+    @Value("${app.catalog.feeds.superseded-retention:600000}")
+    private long supersededRetention;
+
+    private Clock clock = Clock.systemUTC();
+    private final AtomicBoolean generating = new AtomicBoolean();
+    private final Map<String, ProductFeedFile> files = new ConcurrentHashMap<>();
+    // Stored names of the superseded versions, with the instant they were superseded
+    private final Map<String, Instant> superseded = new ConcurrentHashMap<>();
+    private volatile Instant generatedAt;
+    private volatile Instant fullAt;
+
+    private Counter shardsCounter;
+
+    /**
+     * Manifest of the feed directory
+     *
+     * @param generatedAt when the last completed run started, null before the first one
+     * @param fullAt      when the last completed full run started
+     * @param files       the files written
+     */
+    record Manifest(Instant generatedAt, Instant fullAt, List<ProductFeedFile> files) {
+    }
+
+    @PostConstruct
+    protected void init() {
+        try {
+            Files.createDirectories(directory);
+            loadManifest();
+            // Temporary files and superseded versions of a previous process, which no reader is sending any more
+            Set<String> stored = new HashSet<>();
+            files.values().forEach(file -> stored.add(file.storedName()));
+            try (var leftovers = Files.list(directory)) {
+                for (Path leftover : leftovers.filter(path -> !path.getFileName().toString().equals(MANIFEST) &&
+                        !stored.contains(path.getFileName().toString())).toList()) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the product feed directory " + directory, e);
+        }
+        shardsCounter = Counter.builder("catalog.feeds.shards")
+                .description("Shards of the product feeds rewritten")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lists the feed files
+     *
+     * @return the files, by name
+     */
+    public List<ProductFeedResponse> list() {
+        return files.values().stream()
+                .sorted(Comparator.comparing(ProductFeedFile::name))
+                .map(file -> new ProductFeedResponse(file.name(), file.format(), feedUrl + file.name(), file.etag(),
+                        file.size(), file.products(), file.lastModified()))
+                .toList();
+    }
+
+    /**
+     * Gets a feed file
+     *
+     * @param name the file name
+     * @return the file as last written, empty if it does not exist
+     */
+    public Optional<ProductFeedFile> find(String name) {
+        return Optional.ofNullable(files.get(name));
+    }
+
+    /**
+     * Gets the stored content of a feed file. The content never changes, and stays on disk for
+     * superseded-retention after a newer version of the file is swapped in.
+     *
+     * @param file the file, as returned by {@link #find(String)}
+     * @return the path of the content
+     */
+    public Path path(ProductFeedFile file) {
+        return directory.resolve(file.storedName());
+    }
+
+    /**
+     * Starts a run rewriting the changed shards, unless one is already running
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.feeds.interval:300000}")
+    public void generate() {
+        if (!enabled || !generating.compareAndSet(false, true)) {
+            return;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                run();
+            } catch (Exception e) {
+                log.error("Failed to generate product feeds: {}", e.getMessage(), e);
+            } finally {
+                generating.set(false);
+            }
+        });
+    }
+
+    /**
+     * Rewrites the shards holding products changed since the previous run, or every shard when a full run is
+     * due, then the sitemap index
+     *
+     * @throws IOException if a file cannot be written
+     */
+    protected void run() throws IOException {
+        long start = System.currentTimeMillis();
+        Instant started = clock.instant();
+        Instant previous = generatedAt;
+        boolean full = previous == null || fullAt == null || !started.isBefore(fullAt.plusMillis(fullInterval));
+
+        // Updates committed while the previous run read their shard may carry an earlier instant
+        Set<Integer> shards = full
+                ? new TreeSet<>(IntStream.range(0, ProductFeedRepository.SHARDS).boxed().toList())
+                : new TreeSet<>(feedRepository.findChangedShards(previous.minusMillis(overlap)));
+        for (int shard : shards) {
+            writeShard(shard, started);
+            shardsCounter.increment();
+            saveManifest(previous, fullAt);
+        }
+        if (!shards.isEmpty() || !files.containsKey(ProductFeedFormat.SITEMAP_INDEX.fileName(-1))) {
+            writeSitemapIndex(started);
+        }
+
+        generatedAt = started;
+        if (full) {
+            fullAt = started;
+        }
+        saveManifest(generatedAt, fullAt);
+        deleteSuperseded();
+        log.info("Generated product feeds: {} of {} shards rewritten in {} ms", shards.size(),
+                ProductFeedRepository.SHARDS, System.currentTimeMillis() - start);
+    }
+
+    private void writeShard(int shard, Instant started) throws IOException {
+        List<Output> outputs = new ArrayList<>(SHARDED_FORMATS.size());
+        try {
+            for (ProductFeedFormat format : SHARDED_FORMATS) {
+                Output output = new Output(format, shard);
+                outputs.add(output);
+                output.writer = ProductFeedWriter.open(format, output.text, productUrl, currency);
+                output.writer.begin();
+            }
+
+            long products = 0;
+            List<ProductFeedRow> page = feedRepository.findFirstInShard(shard, batchSize);
+            while (!page.isEmpty()) {
+                for (ProductFeedRow row : page) {
+                    for (Output output : outputs) {
+                        output.writer.write(row);
+                    }
+                }
+                products += page.size();
+                if (page.size() < batchSize) {
+                    break;
+                }
+                page = feedRepository.findInShardAfter(shard, page.getLast().id(), batchSize);
+            }
+
+            for (Output output : outputs) {
+                output.writer.end();
+                swap(output.finish(products, started));
+            }
+            log.debug("Rewrote shard {} of the product feeds with {} products", shard, products);
+        } finally {
+            for (Output output : outputs) {
+                output.discard();
+            }
+        }
+    }
+
+    private void writeSitemapIndex(Instant started) throws IOException {
+        List<ProductFeedFile> sitemaps = files.values().stream()
+                .filter(file -> file.format() == ProductFeedFormat.SITEMAP && file.products() > 0)
+                .sorted(Comparator.comparing(ProductFeedFile::name))
+                .toList();
+        Output output = new Output(ProductFeedFormat.SITEMAP_INDEX, -1);
+        try {
+            ProductFeedWriter.writeSitemapIndex(output.text, sitemaps, feedUrl);
+            swap(output.finish(sitemaps.size(), started));
+        } finally {
+            output.discard();
+        }
+    }
+
+    private void swap(Output.Written written) throws IOException {
+        ProductFeedFile file = written.file();
+        Path stored = path(file);
+        if (Files.exists(stored)) {
+            // Same name and content as a stored version, which is never modified
+            Files.delete(written.temporary());
+        } else {
+            Files.move(written.temporary(), stored, StandardCopyOption.ATOMIC_MOVE);
+        }
+        superseded.remove(file.storedName());
+        ProductFeedFile previous = files.put(file.name(), file);
+        if (previous != null && !previous.storedName().equals(file.storedName())) {
+            superseded.put(previous.storedName(), clock.instant());
+        }
+    }
+
+    private void deleteSuperseded() throws IOException {
+        Instant deadline = clock.instant().minusMillis(supersededRetention);
+        for (Map.Entry<String, Instant> entry : superseded.entrySet()) {
+            if (!entry.getValue().isAfter(deadline)) {
+                Files.deleteIfExists(directory.resolve(entry.getKey()));
+                superseded.remove(entry.getKey());
+            }
+        }
+    }
+
+    private void loadManifest() throws IOException {
+        Path path = directory.resolve(MANIFEST);
+        if (!Files.exists(path)) {
+            return;
+        }
+        Manifest manifest = objectMapper.readValue(path.toFile(), Manifest.class);
+        boolean complete = true;
+        for (ProductFeedFile file : manifest.files()) {
+            Path content = path(file);
+            if (Files.exists(content) && Files.size(content) == file.size()) {
+                files.put(file.name(), file);
+            } else {
+                complete = false;
+            }
+        }
+        // A missing file leaves its shard stale, so everything is written again
+        if (complete) {
+            generatedAt = manifest.generatedAt();
+            fullAt = manifest.fullAt();
+        } else {
+            log.warn("Product feed directory {} does not match its manifest, rewriting every shard", directory);
+        }
+    }
+
+    private void saveManifest(Instant generatedAt, Instant fullAt) throws IOException {
+        Path temporary = Files.createTempFile(directory, MANIFEST, TEMPORARY_SUFFIX);
+        try {
+            objectMapper.writeValue(temporary.toFile(), new Manifest(generatedAt, fullAt, List.copyOf(files.values())));
+            Files.move(temporary, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Temporary file of the directory, digested as it is written
+     */
+    private final class Output {
+
+        private record Written(Path temporary, ProductFeedFile file) {
+        }
+
+        private final ProductFeedFormat format;
+        private final int shard;
+        private final Path temporary;
+        private final FileOutputStream stream;
+        private final MessageDigest digest;
+        private final Writer text;
+        private ProductFeedWriter writer;
+
+        Output(ProductFeedFormat format, int shard) throws IOException {
+            this.format = format;
+            this.shard = shard;
+            this.temporary = Files.createTempFile(directory, format.fileName(shard), TEMPORARY_SUFFIX);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            this.stream = new FileOutputStream(temporary.toFile());
+            this.text = new BufferedWriter(new OutputStreamWriter(new DigestOutputStream(stream, digest),
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        /**
+         * Flushes the file to the disk, so that it survives a crash once swapped in, and closes it
+         */
+        Written finish(long products, Instant started) throws IOException {
+            text.flush();
+            stream.getChannel().force(true);
+            text.close();
+            String etag = "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+            return new Written(temporary, new ProductFeedFile(format.fileName(shard), format, shard, etag,
+                    Files.size(temporary), products, started));
+        }
+
+        void discard() throws IOException {
+            text.close();
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.ProductFeedFormat;
+import com.toubson.modulith.catalog.infrastructure.ProductFeedRow;
+import com.toubson.modulith.catalog.mapper.CatalogRowMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the products of a shard to a file of the product feeds, one product at a time.
+ * Text is escaped for the format of the file; characters that XML 1.0 cannot hold, such as control
+ * characters, are dropped rather than failing the whole shard.
+ */
+abstract class ProductFeedWriter {
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+    private static final String SITEMAP_NAMESPACE = "http://www.sitemaps.org/schemas/sitemap/0.9";
+
+    protected final Writer out;
+
+    ProductFeedWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Opens a writer for a sharded format
+     *
+     * @param format     the format of the file
+     * @param out        the file content
+     * @param productUrl the URL of the product pages, followed by the product ID
+     * @param currency   the ISO 4217 code of the currency of the prices
+     * @return the writer
+     */
+    static ProductFeedWriter open(ProductFeedFormat format, Writer out, String productUrl, String currency) {
+        return switch (format) {
+            case MERCHANT_XML -> new MerchantXml(out, productUrl, currency);
+            case MERCHANT_CSV -> new MerchantCsv(out, productUrl, currency);
+            case SITEMAP -> new Sitemap(out, productUrl);
+            case SITEMAP_INDEX -> throw new IllegalArgumentException("The sitemap index is not sharded");
+        };
+    }
+
+    /**
+     * Writes the sitemap index
+     *
+     * @param out      the file content
+     * @param sitemaps the sitemaps of the shards
+     * @param feedUrl  the URL the feed files are served from, followed by their name
+     * @throws IOException if the file cannot be written
+     */
+    static void writeSitemapIndex(Writer out, List<ProductFeedFile> sitemaps, String feedUrl) throws IOException {
+        out.write(XML_DECLARATION);
+        out.write("<sitemapindex xmlns=\"" + SITEMAP_NAMESPACE + "\">\n");
+        for (ProductFeedFile sitemap : sitemaps) {
+            out.write("  <sitemap><loc>");
+            escapeXml(out, feedUrl + sitemap.name());
+            out.write("</loc><lastmod>" + sitemap.lastModified() + "</lastmod></sitemap>\n");
+        }
+        out.write("</sitemapindex>\n");
+    }
+
+    /**
+     * Writes the start of the file
+     *
+     * @throws IOException if the file cannot be written
+     */
+    abstract void begin() throws IOException;
+
+    /**
+     * Writes a product
+     *
+     * @param row the product
+     * @throws IOException if the file cannot be written
+     */
+    abstract void write(ProductFeedRow row) throws IOException;
+
+    /**
+     * Writes the end of the file
+     *
+     * @throws IOException if the file cannot be written
+     */
+    abstract void end() throws IOException;
+
+    static void escapeXml(Writer out, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.write("&amp;");
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '"' -> out.write("&quot;");
+                case '\'' -> out.write("&apos;");
+                default -> {
+                    if (c >= 0x20 && c != 0xFFFE && c != 0xFFFF || c == '\t' || c == '\n' || c == '\r') {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class MerchantXml extends ProductFeedWriter {
+
+        private final String productUrl;
+        private final String currency;
+
+        MerchantXml(Writer out, String productUrl, String currency) {
+            super(out);
+            this.productUrl = productUrl;
+            this.currency = currency;
+        }
+
+        @Override
+        void begin() throws IOException {
+            out.write(XML_DECLARATION);
+            out.write("<rss version=\"2.0\" xmlns:g=\"http://base.google.com/ns/1.0\">\n<channel>\n");
+        }
+
+        @Override
+        void write(ProductFeedRow row) throws IOException {
+            out.write("<item>");
+            element("g:id", row.sku());
+            element("title", row.name());
+            element("description", row.description() != null ? row.description() : row.name());
+            element("link", productUrl + row.id());
+            element("g:price", row.price().toPlainString() + " " + currency);
+            element("g:availability", CatalogRowMapper.isInStock(row.trackingStrategy(), row.stockQuantity(),
+                    row.reservedQuantity()) ? "in_stock" : "out_of_stock");
+            if (row.categoryName() != null) {
+                element("g:product_type", row.categoryName());
+            }
+            out.write("</item>\n");
+        }
+
+        @Override
+        void end() throws IOException {
+            out.write("</channel>\n</rss>\n");
+        }
+
+        private void element(String name, String text) throws IOException {
+            out.write('<');
+            out.write(name);
+            out.write('>');
+            escapeXml(out, text);
+            out.write("</");
+            out.write(name);
+            out.write('>');
+        }
+    }
+
+    private static final class MerchantCsv extends ProductFeedWriter {
+
+        private final String productUrl;
+        private final String currency;
+
+        MerchantCsv(Writer out, String productUrl, String currency) {
+            super(out);
+            this.productUrl = productUrl;
+            this.currency = currency;
+        }
+
+        @Override
+        void begin() throws IOException {
+            out.write("id,title,description,link,price,availability,product_type\r\n");
+        }
+
+        @Override
+        void write(ProductFeedRow row) throws IOException {
+            field(row.sku());
+            out.write(',');
+            field(row.name());
+            out.write(',');
+            field(row.description() != null ? row.description() : row.name());
+            out.write(',');
+            field(productUrl + row.id());
+            out.write(',');
+            field(row.price().toPlainString() + " " + currency);
+            out.write(',');
+            field(CatalogRowMapper.isInStock(row.trackingStrategy(), row.stockQuantity(), row.reservedQuantity())
+                    ? "in_stock" : "out_of_stock");
+            out.write(',');
+            field(row.categoryName());
+            out.write("\r\n");
+        }
+
+        @Override
+        void end() {
+        }
+
+        // Fields are quoted as RFC 4180 requires, when they hold a separator, a quote or a line break
+        private void field(String text) throws IOException {
+            if (text == null) {
+                return;
+            }
+            if (text.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+                out.write(text);
+                return;
+            }
+            out.write('"');
+            out.write(text.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+
+    private static final class Sitemap extends ProductFeedWriter {
+
+        private final String productUrl;
+
+        Sitemap(Writer out, String productUrl) {
+            super(out);
+            this.productUrl = productUrl;
+        }
+
+        @Override
+        void begin() throws IOException {
+            out.write(XML_DECLARATION);
+            out.write("<urlset xmlns=\"" + SITEMAP_NAMESPACE + "\">\n");
+        }
+
+        @Override
+        void write(ProductFeedRow row) throws IOException {
+            out.write("  <url><loc>");
+            escapeXml(out, productUrl + row.id());
+            out.write("</loc><lastmod>" + row.updatedAt() + "</lastmod></url>\n");
+        }
+
+        @Override
+        void end() throws IOException {
+            out.write("</urlset>\n");
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.ProductType;
+import com.toubson.modulith.catalog.dto.ProductHitResponse;
+import com.toubson.modulith.catalog.exception.SearchIndexUnavailableException;
+import com.toubson.modulith.catalog.infrastructure.*;
+import com.toubson.modulith.catalog.utils.InvertedIndex;
+import com.toubson.modulith.catalog.utils.Tokenizer;
+import com.toubson.modulith.shared.events.ProductChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory full-text index of the catalog, answering storefront searches without any database query.
+ * Every node builds its own index at startup, reading the products in parallel by ID range, and then
+ * applies the products changed since the last refresh. The index is rebuilt from scratch, in the
+ * background, on the rebuild interval or once too many documents have been replaced.
+ * <p>
+ * A product is indexed with its name, SKU, tag names, variant names and SKUs, and description;
+ * terms found in the name and SKU weigh more than terms found in the tags, which weigh more
+ * than terms found in the variants and description.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final int PARTITIONS = 16;
+    private static final int NAME_WEIGHT = 3;
+    private static final int SKU_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int VARIANT_WEIGHT = 1;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ProductRepository productRepository;
+    private final TagRepository tagRepository;
+    private final ProductVariantRepository variantRepository;
+    private final MeterRegistry meterRegistry;
+    private final TaskExecutor taskExecutor;
+
+    @Value("${app.catalog.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.catalog.index.build-parallelism:4}")
+    private int buildParallelism;
+
+    @Value("${app.catalog.index.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.catalog.index.max-deleted-ratio:0.25}")
+    private double maxDeletedRatio;
+
+    private volatile InvertedIndex<UUID, IndexedProduct> index;
+    private final Set<UUID> pendingChanges = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Object refreshLock = new Object();
+    private Timer queryTimer;
+
+    @PostConstruct
+    protected void init() {
+        queryTimer = Timer.builder("catalog.search.index.query")
+                .description("Time spent searching the in-memory product index")
+                .register(meterRegistry);
+        Gauge.builder("catalog.search.index.documents", this, service -> service.index == null ? 0 : service.index.size())
+                .description("Products in the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("catalog.search.index.pending", pendingChanges, Set::size)
+                .description("Changed products waiting to be indexed")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            startRebuild();
+        }
+    }
+
+    /**
+     * Queues a changed product for the next refresh, once its transaction has committed
+     *
+     * @param event the change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled) {
+            pendingChanges.add(event.productId());
+        }
+    }
+
+    /**
+     * Searches the index for the products containing every term of the query
+     *
+     * @param query the query
+     * @param limit the maximum number of hits
+     * @return the hits, best match first
+     * @throws SearchIndexUnavailableException if the index has not been built yet
+     */
+    public List<ProductHitResponse> search(String query, int limit) {
+        InvertedIndex<UUID, IndexedProduct> current = index;
+        if (current == null) {
+            throw new SearchIndexUnavailableException("Search index is not available yet");
+        }
+        List<String> terms = Tokenizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        long start = System.nanoTime();
+        List<InvertedIndex.Hit<IndexedProduct>> hits = current.search(terms, limit);
+        queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return hits.stream()
+                .map(hit -> new ProductHitResponse(hit.value().id(), hit.value().name(), hit.value().sku(),
+                        hit.value().price(), hit.value().productType(), hit.score()))
+                .toList();
+    }
+
+    /**
+     * Checks whether the index can be queried
+     *
+     * @return true once the first build has completed
+     */
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Reindexes the products changed since the last refresh.
+     * Changes received during a rebuild are kept for the first refresh after it.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.index.refresh-interval:1000}")
+    public void refresh() {
+        synchronized (refreshLock) {
+            InvertedIndex<UUID, IndexedProduct> current = index;
+            if (current == null || rebuilding.get() || pendingChanges.isEmpty()) {
+                return;
+            }
+
+            List<UUID> changed = new ArrayList<>(pendingChanges);
+            changed.forEach(pendingChanges::remove);
+            for (int i = 0; i < changed.size(); i += batchSize) {
+                List<UUID> chunk = changed.subList(i, Math.min(changed.size(), i + batchSize));
+                List<InvertedIndex.Document<UUID, IndexedProduct>> documents =
+                        analyze(productRepository.findIndexRowsByIds(chunk));
+                Set<UUID> removed = new HashSet<>(chunk);
+                documents.forEach(document -> removed.remove(document.key()));
+                current.update(documents, removed);
+            }
+            log.debug("Reindexed {} changed products", changed.size());
+
+            if (current.deletedCount() > maxDeletedRatio * Math.max(1, current.size())) {
+                log.debug("Rebuilding search index with {} deleted documents", current.deletedCount());
+                startRebuild();
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.catalog.index.rebuild-interval:3600000}",
+            fixedDelayString = "${app.catalog.index.rebuild-interval:3600000}")
+    public void scheduledRebuild() {
+        if (enabled && index != null) {
+            startRebuild();
+        }
+    }
+
+    /**
+     * Starts a rebuild on the application task executor, unless one is already running.
+     * The current index keeps serving searches until the new one replaces it.
+     */
+    public void startRebuild() {
+        synchronized (refreshLock) {
+            if (!rebuilding.compareAndSet(false, true)) {
+                return;
+            }
+        }
+        taskExecutor.execute(this::rebuild);
+    }
+
+    /**
+     * Rebuilds the whole index and swaps it in
+     */
+    protected void rebuild() {
+        rebuilding.set(true);
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, buildParallelism));
+        try {
+            List<Future<List<InvertedIndex.Document<UUID, IndexedProduct>>>> partitions = new ArrayList<>(PARTITIONS);
+            for (int partition = 0; partition < PARTITIONS; partition++) {
+                int current = partition;
+                partitions.add(executor.submit(() -> loadPartition(current)));
+            }
+            List<InvertedIndex.Document<UUID, IndexedProduct>> documents = new ArrayList<>();
+            for (Future<List<InvertedIndex.Document<UUID, IndexedProduct>>> partition : partitions) {
+                documents.addAll(partition.get());
+            }
+
+            InvertedIndex<UUID, IndexedProduct> built = InvertedIndex.build(documents, buildParallelism);
+            index = built;
+            log.info("Built search index of {} products and {} terms ({} KB of postings) in {} ms",
+                    built.size(), built.termCount(), built.postingBytes() / 1024, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Search index build interrupted");
+        } catch (Exception e) {
+            log.error("Failed to build search index: {}", e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+            rebuilding.set(false);
+        }
+    }
+
+    private List<InvertedIndex.Document<UUID, IndexedProduct>> loadPartition(int partition) {
+        // Partitions split the UUID space on its first hex digit, in database order
+        UUID from = new UUID((long) partition << 60, 0L);
+        UUID to = new UUID(((long) partition << 60) | 0x0FFFFFFFFFFFFFFFL, -1L);
+
+        List<InvertedIndex.Document<UUID, IndexedProduct>> documents = new ArrayList<>();
+        List<ProductIndexRow> rows = productRepository.findIndexRowsInRange(from, to, Limit.of(batchSize));
+        while (!rows.isEmpty()) {
+            documents.addAll(analyze(rows));
+            if (rows.size() < batchSize) {
+                break;
+            }
+            rows = productRepository.findIndexRowsInRangeAfter(rows.get(rows.size() - 1).id(), to, Limit.of(batchSize));
+        }
+        return documents;
+    }
+
+    private List<InvertedIndex.Document<UUID, IndexedProduct>> analyze(List<ProductIndexRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        // Load the tags and variants of the whole batch at once instead of once per product
+        List<UUID> productIds = rows.stream().map(ProductIndexRow::id).toList();
+        Map<UUID, List<ProductTagRow>> tagsByProduct = tagRepository.findRowsByProductIds(productIds).stream()
+                .collect(Collectors.groupingBy(ProductTagRow::productId));
+        Map<UUID, List<VariantIndexRow>> variantsByProduct = variantRepository.findIndexRowsByProductIds(productIds).stream()
+                .collect(Collectors.groupingBy(VariantIndexRow::productId));
+
+        List<InvertedIndex.Document<UUID, IndexedProduct>> documents = new ArrayList<>(rows.size());
+        for (ProductIndexRow row : rows) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            int length = addTerms(frequencies, row.name(), NAME_WEIGHT);
+            length += addTerms(frequencies, row.sku(), SKU_WEIGHT);
+            for (ProductTagRow tag : tagsByProduct.getOrDefault(row.id(), List.of())) {
+                length += addTerms(frequencies, tag.name(), TAG_WEIGHT);
+            }
+            for (VariantIndexRow variant : variantsByProduct.getOrDefault(row.id(), List.of())) {
+                length += addTerms(frequencies, variant.name(), VARIANT_WEIGHT);
+                length += addTerms(frequencies, variant.sku(), VARIANT_WEIGHT);
+            }
+            length += addTerms(frequencies, row.description(), DESCRIPTION_WEIGHT);
+
+            IndexedProduct product = new IndexedProduct(row.id(), row.name(), row.sku(), row.price(), row.productType());
+            documents.add(new InvertedIndex.Document<>(row.id(), product, frequencies, length));
+        }
+        return documents;
+    }
+
+    private static int addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> terms = Tokenizer.tokenize(text);
+        for (String term : terms) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    private record IndexedProduct(UUID id, String name, String sku, BigDecimal price, ProductType productType) {
+    }
+}
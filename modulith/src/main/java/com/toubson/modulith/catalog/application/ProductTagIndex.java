@@ -0,0 +1,208 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.exception.SearchIndexUnavailableException;
+import com.toubson.modulith.catalog.infrastructure.ProductTagNameRow;
+import com.toubson.modulith.catalog.infrastructure.TagRepository;
+import com.toubson.modulith.catalog.utils.TagPostingIndex;
+import com.toubson.modulith.shared.events.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory index of the products carrying each tag name, answering tag listings without the
+ * {@code GROUP BY ... HAVING COUNT(DISTINCT ...)} aggregate of {@code ProductRepository.findByAllTagNames}.
+ * Queries return product IDs in ID order; the page itself is then read by ID.
+ * <p>
+ * Products changed since the last refresh are re-read and applied to a new snapshot, which only rewrites
+ * the posting lists of the tags they gained or lost. Tag assignments do not always raise a product change,
+ * so the index is also reconciled with the database on a fixed interval: a fresh snapshot is loaded,
+ * compared with the current one to record the drift, and swapped in.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductTagIndex {
+
+    private final TagRepository tagRepository;
+    private final MeterRegistry meterRegistry;
+    private final TaskExecutor taskExecutor;
+
+    @Value("${app.catalog.tag-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.catalog.tag-index.batch-size:5000}")
+    private int batchSize;
+
+    private volatile TagPostingIndex<UUID> index;
+    private final Set<UUID> pendingChanges = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+    private final Object refreshLock = new Object();
+    private Timer queryTimer;
+    private Counter driftCounter;
+
+    @PostConstruct
+    protected void init() {
+        queryTimer = Timer.builder("catalog.tags.index.query")
+                .description("Time spent matching tags in the in-memory tag index")
+                .register(meterRegistry);
+        driftCounter = Counter.builder("catalog.tags.index.drift")
+                .description("Products whose tags differed from the database when the tag index was reconciled")
+                .register(meterRegistry);
+        Gauge.builder("catalog.tags.index.products", this, service -> service.index == null ? 0 : service.index.size())
+                .description("Number of tagged products in the tag index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            startReconcile();
+        }
+    }
+
+    /**
+     * Queues a changed product for the next refresh, once its transaction has committed
+     *
+     * @param event the change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled) {
+            pendingChanges.add(event.productId());
+        }
+    }
+
+    /**
+     * Checks whether the index can be queried
+     *
+     * @return true once the first build has completed
+     */
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Finds the IDs of the products carrying all, or any, of the given tag names
+     *
+     * @param tagNames the tag names
+     * @param matchAll true to require every tag, false to require any of them
+     * @param after    the last product ID already read, or null for the first page
+     * @param limit    the maximum number of IDs
+     * @return the product IDs, in ID order
+     * @throws SearchIndexUnavailableException if the index has not been built yet
+     */
+    public List<UUID> findProductIds(Collection<String> tagNames, boolean matchAll, UUID after, int limit) {
+        TagPostingIndex<UUID> current = index;
+        if (current == null) {
+            throw new SearchIndexUnavailableException("Tag index is not available yet");
+        }
+        return queryTimer.record(() -> {
+            int[] matches = matchAll ? current.matchAll(tagNames) : current.matchAny(tagNames);
+            return current.keys(matches, after, limit);
+        });
+    }
+
+    /**
+     * Applies the products changed since the last refresh.
+     * Changes received during a reconciliation are kept for the first refresh after it.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.tag-index.refresh-interval:1000}")
+    public void refresh() {
+        synchronized (refreshLock) {
+            TagPostingIndex<UUID> current = index;
+            if (current == null || reconciling.get() || pendingChanges.isEmpty()) {
+                return;
+            }
+
+            List<UUID> changed = new ArrayList<>(pendingChanges);
+            changed.forEach(pendingChanges::remove);
+            Map<UUID, Set<String>> documents = new HashMap<>();
+            for (int i = 0; i < changed.size(); i += batchSize) {
+                List<UUID> chunk = changed.subList(i, Math.min(changed.size(), i + batchSize));
+                // Products without any tag left are removed from the index
+                chunk.forEach(id -> documents.put(id, new HashSet<>()));
+                for (ProductTagNameRow row : tagRepository.findTagNameRowsByProductIds(chunk)) {
+                    documents.get(row.productId()).add(row.tagName());
+                }
+            }
+            index = current.withDocuments(documents);
+            log.debug("Refreshed tags of {} changed products", changed.size());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.catalog.tag-index.reconcile-interval:300000}",
+            fixedDelayString = "${app.catalog.tag-index.reconcile-interval:300000}")
+    public void scheduledReconcile() {
+        if (enabled && index != null) {
+            startReconcile();
+        }
+    }
+
+    /**
+     * Starts a reconciliation on the application task executor, unless one is already running.
+     * The current index keeps answering queries until the new one replaces it.
+     */
+    public void startReconcile() {
+        synchronized (refreshLock) {
+            if (!reconciling.compareAndSet(false, true)) {
+                return;
+            }
+        }
+        taskExecutor.execute(this::reconcile);
+    }
+
+    /**
+     * Loads every tag assignment into a new index, records how many products the current index
+     * had wrong, and swaps the new index in
+     */
+    protected void reconcile() {
+        reconciling.set(true);
+        long start = System.currentTimeMillis();
+        try {
+            TagPostingIndex.Builder<UUID> builder = TagPostingIndex.builder();
+            List<ProductTagNameRow> rows = tagRepository.findTagNameRows(Limit.of(batchSize));
+            while (!rows.isEmpty()) {
+                rows.forEach(row -> builder.add(row.productId(), row.tagName()));
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                ProductTagNameRow last = rows.get(rows.size() - 1);
+                rows = tagRepository.findTagNameRowsAfter(last.productId(), last.tagName(), Limit.of(batchSize));
+            }
+            TagPostingIndex<UUID> built = builder.build();
+
+            TagPostingIndex<UUID> previous = index;
+            if (previous != null) {
+                int drift = previous.differingKeys(built).size();
+                driftCounter.increment(drift);
+                if (drift > 0) {
+                    log.warn("Tag index had drifted from the database for {} products", drift);
+                }
+            }
+            index = built;
+            log.info("Built tag index of {} products and {} tags in {} ms",
+                    built.size(), built.tagCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build tag index: {}", e.getMessage(), e);
+        } finally {
+            reconciling.set(false);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.infrastructure.StockLevelRow;
+import com.toubson.modulith.shared.events.BackInStockEvent;
+import com.toubson.modulith.shared.events.LowStockEvent;
+import com.toubson.modulith.shared.events.OutOfStockEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Detects stock changes crossing the low stock threshold or zero and publishes the matching events.
+ * The stock commands know the level they left behind and the quantities they changed, so the level
+ * before the change is derived rather than read, and an event is only published on the change that
+ * crosses the edge, not on every later change on the same side of it.
+ * Low stock and being in stock follow the rules of {@code Inventory.isLowStock} and {@code Inventory.isInStock}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockAlertPublisher {
+
+    private final ApplicationEventPublisher publisher;
+
+    /**
+     * Publishes the events of the edges crossed by a stock change
+     *
+     * @param after          the stock level after the change
+     * @param stockChange    the change of the stock quantity
+     * @param reservedChange the change of the stock reserved by orders
+     */
+    public void publishCrossings(StockLevelRow after, int stockChange, int reservedChange) {
+        Integer stockBefore = after.stockQuantity() != null ? after.stockQuantity() - stockChange : null;
+        int reservedBefore = after.reservedQuantity() - reservedChange;
+
+        if (!isLowStock(stockBefore, after.lowStockThreshold()) && isLowStock(after.stockQuantity(), after.lowStockThreshold())) {
+            log.debug("Inventory {} is low in stock", after.inventoryId());
+            publisher.publishEvent(new LowStockEvent(after.productId(), after.variantId(), after.stockQuantity(),
+                    after.lowStockThreshold()));
+        }
+        boolean inStockBefore = isInStock(stockBefore, reservedBefore);
+        boolean inStockAfter = isInStock(after.stockQuantity(), after.reservedQuantity());
+        if (inStockBefore && !inStockAfter) {
+            log.debug("Inventory {} is out of stock", after.inventoryId());
+            publisher.publishEvent(new OutOfStockEvent(after.productId(), after.variantId()));
+        } else if (!inStockBefore && inStockAfter) {
+            log.debug("Inventory {} is back in stock", after.inventoryId());
+            publisher.publishEvent(new BackInStockEvent(after.productId(), after.variantId(),
+                    after.stockQuantity() - after.reservedQuantity()));
+        }
+    }
+
+    private static boolean isLowStock(Integer stockQuantity, Integer lowStockThreshold) {
+        return stockQuantity != null && lowStockThreshold != null && stockQuantity <= lowStockThreshold;
+    }
+
+    private static boolean isInStock(Integer stockQuantity, int reservedQuantity) {
+        return stockQuantity != null && stockQuantity > 0 && stockQuantity > reservedQuantity;
+    }
+}
@@ -0,0 +1,35 @@
+package com.toubson.modulith.catalog.application;
+
+/**
+ * Outcome of a stock reservation, release or commit.
+ */
+public enum StockCommandResult {
+    /**
+     * The stock quantities were updated
+     */
+    APPLIED,
+
+    /**
+     * The inventory is infinite or not tracked, so the command always succeeds without any update
+     */
+    UNTRACKED,
+
+    /**
+     * Not enough stock was available, or reserved, for the quantity
+     */
+    INSUFFICIENT_STOCK,
+
+    /**
+     * The product or variant has no inventory
+     */
+    NOT_FOUND;
+
+    /**
+     * Checks whether the command succeeded
+     *
+     * @return true if the stock was updated or is not tracked, false otherwise
+     */
+    public boolean succeeded() {
+        return this == APPLIED || this == UNTRACKED;
+    }
+}
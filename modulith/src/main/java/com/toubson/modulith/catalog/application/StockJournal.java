@@ -0,0 +1,70 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.StockMovementType;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository.Owner;
+import com.toubson.modulith.catalog.infrastructure.StockMovementRepository;
+import com.toubson.modulith.catalog.infrastructure.StockMovementRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Appends stock movements to the stock journal.
+ * The movements of a transaction are buffered until it is about to commit and then written with a single
+ * multi-row INSERT, in the same transaction as the stock changes they record: a batch of reservations costs
+ * one journal statement, and the journal never holds a movement whose stock change was rolled back.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockJournal {
+
+    private final StockMovementRepository movementRepository;
+
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * Records a stock movement of an inventory
+     *
+     * @param owner          the kind of inventory
+     * @param inventoryId    the inventory ID
+     * @param type           the kind of movement
+     * @param stockChange    the change of the stock quantity
+     * @param reservedChange the change of the stock reserved by orders
+     */
+    public void append(Owner owner, UUID inventoryId, StockMovementType type, int stockChange, int reservedChange) {
+        StockMovementRow movement = new StockMovementRow(owner, inventoryId, type, stockChange, reservedChange, clock.instant());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            movementRepository.insertAll(List.of(movement));
+            return;
+        }
+        pendingMovements().add(movement);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<StockMovementRow> pendingMovements() {
+        List<StockMovementRow> pending = (List<StockMovementRow>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        List<StockMovementRow> movements = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, movements);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                movementRepository.insertAll(movements);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(StockJournal.this);
+            }
+        });
+        return movements;
+    }
+}
@@ -0,0 +1,161 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository.Owner;
+import com.toubson.modulith.catalog.infrastructure.StockBalanceRow;
+import com.toubson.modulith.catalog.infrastructure.StockMovementRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Maintains the stock journal written by {@link StockJournal}.
+ * Movements are periodically folded into per-inventory snapshots, so the stock of an inventory is rebuilt
+ * from its snapshot plus a short journal tail. Monthly partitions are created at startup and ahead of time,
+ * as the journal has no default partition, and partitions older than the retention period are dropped once all
+ * their movements are in the snapshots. A periodic verification compares the rebuilt stock with the inventories
+ * and reports any drift.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockJournalService {
+
+    private final StockMovementRepository movementRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.catalog.stock-journal.retention-months:3}")
+    private int retentionMonths;
+
+    @Value("${app.catalog.stock-journal.partitions-ahead:2}")
+    private int partitionsAhead;
+
+    @Value("${app.catalog.stock-journal.verify-enabled:true}")
+    private boolean verifyEnabled;
+
+    @Value("${app.catalog.stock-journal.verify-limit:100}")
+    private int verifyLimit;
+
+    private Clock clock = Clock.systemUTC();
+
+    private Counter driftCounter;
+
+    @PostConstruct
+    protected void init() {
+        driftCounter = Counter.builder("catalog.stock.journal.drift")
+                .description("Inventories whose stock differs from the stock rebuilt from the stock journal")
+                .register(meterRegistry);
+        createPartitions();
+    }
+
+    /**
+     * Rebuilds the stock of a product from the stock journal
+     *
+     * @param productId the product ID
+     * @return the rebuilt stock next to the stock of the inventory, empty if the product has no inventory
+     */
+    @Transactional(readOnly = true)
+    public Optional<StockBalanceRow> findBalance(UUID productId) {
+        return movementRepository.findBalance(Owner.PRODUCT, productId);
+    }
+
+    /**
+     * Rebuilds the stock of a variant from the stock journal
+     *
+     * @param variantId the variant ID
+     * @return the rebuilt stock next to the stock of the inventory, empty if the variant has no inventory
+     */
+    @Transactional(readOnly = true)
+    public Optional<StockBalanceRow> findVariantBalance(UUID variantId) {
+        return movementRepository.findBalance(Owner.VARIANT, variantId);
+    }
+
+    /**
+     * Folds the movements of finished transactions into the snapshots
+     *
+     * @return the number of updated snapshots
+     */
+    @Transactional
+    @Scheduled(fixedDelayString = "${app.catalog.stock-journal.snapshot-interval:60000}")
+    public int snapshot() {
+        long start = System.currentTimeMillis();
+        int snapshots = movementRepository.snapshot(clock.instant());
+        log.debug("Folded the stock movements of {} inventories into snapshots in {} ms", snapshots,
+                System.currentTimeMillis() - start);
+        return snapshots;
+    }
+
+    /**
+     * Creates the upcoming partitions and drops the compacted ones older than the retention period
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.catalog.stock-journal.partition-cron:0 30 3 * * *}")
+    public void compact() {
+        YearMonth currentMonth = createPartitions();
+
+        List<String> dropped = movementRepository.dropCompactedPartitionsBefore(currentMonth.minusMonths(retentionMonths));
+        if (!dropped.isEmpty()) {
+            log.info("Dropped compacted stock movement partitions: {}", dropped);
+        }
+        int orphans = movementRepository.deleteOrphanSnapshots();
+        if (orphans > 0) {
+            log.debug("Deleted {} snapshots of deleted inventories", orphans);
+        }
+    }
+
+    /**
+     * Creates the partitions of the current month and the upcoming ones
+     *
+     * @return the current month
+     */
+    private YearMonth createPartitions() {
+        YearMonth currentMonth = YearMonth.now(clock.withZone(ZoneOffset.UTC));
+        // Movements of a month without a partition are rejected along with their stock change,
+        // so the next month is always ready
+        int monthsAhead = Math.max(partitionsAhead, 1);
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            movementRepository.createPartition(currentMonth.plusMonths(i));
+        }
+        log.debug("Stock movement partitions ensured up to {}", currentMonth.plusMonths(monthsAhead));
+        return currentMonth;
+    }
+
+    /**
+     * Compares the stock of every inventory with the stock rebuilt from the journal
+     *
+     * @return the inconsistent inventories, at most verify-limit of them
+     */
+    @Transactional(readOnly = true)
+    @Scheduled(initialDelayString = "${app.catalog.stock-journal.verify-interval:3600000}",
+            fixedDelayString = "${app.catalog.stock-journal.verify-interval:3600000}")
+    public List<StockBalanceRow> verify() {
+        if (!verifyEnabled) {
+            return List.of();
+        }
+
+        long start = System.currentTimeMillis();
+        List<StockBalanceRow> drift = movementRepository.findDrift(verifyLimit);
+        driftCounter.increment(drift.size());
+        if (!drift.isEmpty()) {
+            log.warn("Stock of {} inventories differs from the stock journal: {}", drift.size(), drift);
+        }
+        log.debug("Verified the stock journal in {} ms", System.currentTimeMillis() - start);
+        return drift;
+    }
+}
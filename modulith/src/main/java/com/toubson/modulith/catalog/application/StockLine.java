@@ -0,0 +1,24 @@
+package com.toubson.modulith.catalog.application;
+
+import java.util.UUID;
+
+/**
+ * A line of a batch stock command: a quantity of either a product or a variant.
+ *
+ * @param productId the product ID, null for a variant line
+ * @param variantId the variant ID, null for a product line
+ * @param quantity  the quantity
+ */
+public record StockLine(
+        UUID productId,
+        UUID variantId,
+        int quantity) {
+
+    public static StockLine product(UUID productId, int quantity) {
+        return new StockLine(productId, null, quantity);
+    }
+
+    public static StockLine variant(UUID variantId, int quantity) {
+        return new StockLine(null, variantId, quantity);
+    }
+}
@@ -0,0 +1,12 @@
+package com.toubson.modulith.catalog.application;
+
+/**
+ * Outcome of a line of a batch stock command.
+ *
+ * @param line   the line
+ * @param result the outcome of the line; when the batch was not applied, the outcome the line would have had
+ */
+public record StockLineResult(
+        StockLine line,
+        StockCommandResult result) {
+}
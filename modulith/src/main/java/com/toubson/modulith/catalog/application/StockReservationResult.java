@@ -0,0 +1,14 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.StockReservationResponse;
+
+/**
+ * Outcome of a time-bounded reservation.
+ *
+ * @param result      the outcome of the stock reservation
+ * @param reservation the reservation, null unless the stock was reserved
+ */
+public record StockReservationResult(
+        StockCommandResult result,
+        StockReservationResponse reservation) {
+}
@@ -0,0 +1,298 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.StockReservationResponse;
+import com.toubson.modulith.catalog.infrastructure.StockReservationRepository;
+import com.toubson.modulith.catalog.infrastructure.StockReservationRow;
+import com.toubson.modulith.catalog.mapper.CatalogRowMapper;
+import com.toubson.modulith.shared.utils.TimerWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Time-bounded stock reservations, such as the items of a cart, released automatically when they expire.
+ * Each reservation reserves stock through {@link InventoryCommandService} and is recorded with its owner
+ * and expiry time. Pending expiries are kept in a {@link TimerWheel}, so that scheduling one
+ * costs O(1) however many are pending; each tick, the reservations due are expired in batches, one
+ * transaction per batch deleting them and releasing their stock through
+ * {@link InventoryCommandService#releaseAll(List)}. Expired and abandoned stock is thus journaled and raises
+ * the same alerts as any release, and its inventories are locked in the order reservations lock them.
+ * <p>
+ * The wheel only holds the reservations made, or loaded at startup, by this instance. Reservations released
+ * or committed in the meantime are simply no longer found when their expiry comes, and a periodic sweep of
+ * the table expires those left behind by other instances.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private final StockReservationRepository reservationRepository;
+    private final InventoryCommandService inventoryCommandService;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.catalog.reservations.tick:1000}")
+    private long tick;
+
+    @Value("${app.catalog.reservations.default-ttl:900000}")
+    private long defaultTtl;
+
+    @Value("${app.catalog.reservations.max-ttl:86400000}")
+    private long maxTtl;
+
+    @Value("${app.catalog.reservations.batch-size:500}")
+    private int batchSize;
+
+    private Clock clock = Clock.systemUTC();
+    private TimerWheel<UUID> expiryWheel;
+    private Counter expiredCounter;
+
+    @PostConstruct
+    protected void init() {
+        expiryWheel = new TimerWheel<>(tick, clock.millis());
+        expiredCounter = Counter.builder("catalog.reservations.expired")
+                .description("Stock reservations released because they expired")
+                .register(meterRegistry);
+        Gauge.builder("catalog.reservations.pending", this, service -> service.expiryWheel.size())
+                .description("Stock reservations waiting for their expiry on this instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules the expiry of every persisted reservation, including the ones that expired while the
+     * application was down
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreReservations() {
+        int restored = 0;
+        List<StockReservationRow> rows = reservationRepository.findAfter(null, batchSize);
+        while (!rows.isEmpty()) {
+            rows.forEach(row -> expiryWheel.schedule(row.id(), row.expiresAt().toEpochMilli()));
+            restored += rows.size();
+            if (rows.size() < batchSize) {
+                break;
+            }
+            rows = reservationRepository.findAfter(rows.get(rows.size() - 1).id(), batchSize);
+        }
+        log.debug("Restored {} stock reservations", restored);
+    }
+
+    /**
+     * Reserves stock of a product until the reservation is released, committed or expires
+     *
+     * @param owner     the owner of the reservation, such as a cart ID
+     * @param productId the product ID
+     * @param quantity  the quantity to reserve
+     * @param ttl       how long to keep the stock reserved, or null for the default duration
+     * @return the outcome, with the reservation if the stock was reserved
+     * @throws IllegalArgumentException if the owner is blank, or the quantity or duration is out of range
+     */
+    @Transactional
+    public StockReservationResult reserve(String owner, UUID productId, int quantity, Duration ttl) {
+        Instant expiresAt = expiresAt(owner, ttl);
+        StockCommandResult result = inventoryCommandService.reserve(productId, quantity);
+        return record(result, new StockReservationRow(UUID.randomUUID(), owner, productId, null, quantity, expiresAt));
+    }
+
+    /**
+     * Reserves stock of a variant until the reservation is released, committed or expires
+     *
+     * @param owner     the owner of the reservation, such as a cart ID
+     * @param variantId the variant ID
+     * @param quantity  the quantity to reserve
+     * @param ttl       how long to keep the stock reserved, or null for the default duration
+     * @return the outcome, with the reservation if the stock was reserved
+     * @throws IllegalArgumentException if the owner is blank, or the quantity or duration is out of range
+     */
+    @Transactional
+    public StockReservationResult reserveVariant(String owner, UUID variantId, int quantity, Duration ttl) {
+        Instant expiresAt = expiresAt(owner, ttl);
+        StockCommandResult result = inventoryCommandService.reserveVariant(variantId, quantity);
+        return record(result, new StockReservationRow(UUID.randomUUID(), owner, null, variantId, quantity, expiresAt));
+    }
+
+    /**
+     * Releases the stock of a reservation before it expires
+     *
+     * @param reservationId the reservation ID
+     * @return the outcome of the release, not found if the reservation was already released, committed or expired
+     */
+    @Transactional
+    public StockCommandResult release(UUID reservationId) {
+        return reservationRepository.delete(reservationId)
+                .map(this::release)
+                .orElse(StockCommandResult.NOT_FOUND);
+    }
+
+    /**
+     * Removes the stock of a reservation from the stock quantity, once the order is fulfilled
+     *
+     * @param reservationId the reservation ID
+     * @return the outcome of the commit, not found if the reservation was already released, committed or expired
+     */
+    @Transactional
+    public StockCommandResult commit(UUID reservationId) {
+        return reservationRepository.delete(reservationId)
+                .map(row -> rollbackUnlessSucceeded(row.variantId() == null
+                        ? inventoryCommandService.commit(row.productId(), row.quantity())
+                        : inventoryCommandService.commitVariant(row.variantId(), row.quantity())))
+                .orElse(StockCommandResult.NOT_FOUND);
+    }
+
+    /**
+     * Releases the stock of every reservation of an owner, for instance when a cart is abandoned
+     *
+     * @param owner the owner of the reservations
+     * @return the number of released reservations
+     */
+    @Transactional
+    public int releaseAll(String owner) {
+        List<StockReservationRow> rows = reservationRepository.deleteByOwner(owner);
+        if (!rows.isEmpty()) {
+            inventoryCommandService.releaseAll(lines(rows));
+        }
+        return rows.size();
+    }
+
+    /**
+     * Finds the pending reservations of an owner
+     *
+     * @param owner the owner of the reservations
+     * @return the reservations, soonest to expire first
+     */
+    @Transactional(readOnly = true)
+    public List<StockReservationResponse> findReservations(String owner) {
+        return reservationRepository.findByOwner(owner).stream().map(CatalogRowMapper::mapToReservation).toList();
+    }
+
+    /**
+     * Expires the reservations whose expiry has come on this instance
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.reservations.tick:1000}")
+    public void expire() {
+        Instant now = clock.instant();
+        List<UUID> due = expiryWheel.advance(now.toEpochMilli());
+        int expired = 0;
+        for (int i = 0; i < due.size(); i += batchSize) {
+            List<UUID> batch = due.subList(i, Math.min(due.size(), i + batchSize));
+            try {
+                expired += expireBatch(batch, now);
+            } catch (Exception e) {
+                // Left to the next sweep
+                log.error("Failed to expire {} stock reservations: {}", batch.size(), e.getMessage(), e);
+            }
+        }
+        if (expired > 0) {
+            expiredCounter.increment(expired);
+            log.debug("Expired {} stock reservations", expired);
+        }
+    }
+
+    /**
+     * Expires the reservations no instance has expired, such as those of a stopped instance
+     *
+     * @return the number of expired reservations
+     */
+    @Scheduled(initialDelayString = "${app.catalog.reservations.sweep-interval:300000}",
+            fixedDelayString = "${app.catalog.reservations.sweep-interval:300000}")
+    public int sweep() {
+        Instant now = clock.instant();
+        int swept = 0;
+        List<UUID> batch = reservationRepository.findExpiredIds(now, batchSize);
+        while (!batch.isEmpty()) {
+            int expired = expireBatch(batch, now);
+            swept += expired;
+            if (batch.size() < batchSize || expired == 0) {
+                break;
+            }
+            batch = reservationRepository.findExpiredIds(now, batchSize);
+        }
+        if (swept > 0) {
+            expiredCounter.increment(swept);
+            log.info("Swept {} expired stock reservations", swept);
+        }
+        return swept;
+    }
+
+    /**
+     * Deletes the expired reservations of a batch and releases their stock, in one transaction
+     *
+     * @return the number of expired reservations
+     */
+    private int expireBatch(List<UUID> ids, Instant now) {
+        Integer expired = transactionTemplate.execute(status -> {
+            List<StockReservationRow> rows = reservationRepository.deleteExpired(ids, now);
+            if (!rows.isEmpty()) {
+                inventoryCommandService.releaseAll(lines(rows)).stream()
+                        .filter(line -> !line.result().succeeded())
+                        .forEach(line -> log.warn("Expired reservation of {} not released: {}",
+                                line.line(), line.result()));
+            }
+            return rows.size();
+        });
+        return expired != null ? expired : 0;
+    }
+
+    private static List<StockLine> lines(List<StockReservationRow> rows) {
+        return rows.stream()
+                .map(row -> row.variantId() == null
+                        ? StockLine.product(row.productId(), row.quantity())
+                        : StockLine.variant(row.variantId(), row.quantity()))
+                .toList();
+    }
+
+    private Instant expiresAt(String owner, Duration ttl) {
+        if (owner == null || owner.isBlank()) {
+            throw new IllegalArgumentException("Reservation owner must not be blank");
+        }
+        long ttlMillis = ttl != null ? ttl.toMillis() : defaultTtl;
+        if (ttlMillis <= 0 || ttlMillis > maxTtl) {
+            throw new IllegalArgumentException("Reservation duration must be between 1 and " + maxTtl + " ms");
+        }
+        return clock.instant().plusMillis(ttlMillis);
+    }
+
+    private StockReservationResult record(StockCommandResult result, StockReservationRow reservation) {
+        if (!result.succeeded()) {
+            return new StockReservationResult(result, null);
+        }
+        reservationRepository.insert(reservation, clock.instant());
+        // Scheduled before the commit: if the transaction rolls back, the expiry finds nothing to release
+        expiryWheel.schedule(reservation.id(), reservation.expiresAt().toEpochMilli());
+        return new StockReservationResult(result, CatalogRowMapper.mapToReservation(reservation));
+    }
+
+    private StockCommandResult release(StockReservationRow row) {
+        return row.variantId() == null
+                ? inventoryCommandService.release(row.productId(), row.quantity())
+                : inventoryCommandService.releaseVariant(row.variantId(), row.quantity());
+    }
+
+    /**
+     * Keeps the reservation when its stock could not be committed, so that the commit can be retried
+     */
+    private static StockCommandResult rollbackUnlessSucceeded(StockCommandResult result) {
+        if (!result.succeeded()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,171 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.PopularTagCategoryResponse;
+import com.toubson.modulith.catalog.dto.PopularTagResponse;
+import com.toubson.modulith.catalog.infrastructure.TagCountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Most used tags and tag categories, served from in-memory lists sorted by product count, so that tag
+ * clouds never aggregate over the product assignments. The counts are maintained by database triggers as
+ * tags are assigned and removed; the lists are reloaded from them on a short interval, one row per tag.
+ * A periodic verification recounts the assignments and corrects any drift, locking a batch of tags or
+ * categories at a time so that tag writes only wait for the batch they touch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TagPopularityService {
+
+    private static final Comparator<PopularTagResponse> TAG_ORDER = Comparator
+            .comparingInt(PopularTagResponse::productCount).reversed().thenComparing(PopularTagResponse::name);
+    private static final UUID FIRST = new UUID(0, 0);
+    private static final Comparator<PopularTagCategoryResponse> CATEGORY_ORDER = Comparator
+            .comparingInt(PopularTagCategoryResponse::productCount).reversed()
+            .thenComparing(PopularTagCategoryResponse::name);
+
+    private final TagCountRepository countRepository;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.catalog.tag-counts.verify-enabled:true}")
+    private boolean verifyEnabled;
+
+    @Value("${app.catalog.tag-counts.verify-batch-size:1000}")
+    private int verifyBatchSize;
+
+    private volatile Snapshot snapshot;
+    private final Object loadLock = new Object();
+    private Counter driftCounter;
+
+    @PostConstruct
+    protected void init() {
+        driftCounter = Counter.builder("catalog.tags.counts.drift")
+                .description("Tags and tag categories corrected by the tag count verification")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Reloads the sorted lists from the maintained counts
+     */
+    @Scheduled(initialDelayString = "${app.catalog.tag-counts.refresh-interval:5000}",
+            fixedDelayString = "${app.catalog.tag-counts.refresh-interval:5000}")
+    public void reload() {
+        synchronized (loadLock) {
+            long start = System.currentTimeMillis();
+            List<PopularTagResponse> tags = countRepository.findTagCounts().stream()
+                    .map(row -> new PopularTagResponse(row.id(), row.name(), row.slug(), row.categoryName(),
+                            row.productCount()))
+                    .sorted(TAG_ORDER)
+                    .toList();
+            List<PopularTagCategoryResponse> categories = countRepository.findCategoryCounts().stream()
+                    .map(row -> new PopularTagCategoryResponse(row.id(), row.name(), row.slug(), row.productCount()))
+                    .sorted(CATEGORY_ORDER)
+                    .toList();
+            snapshot = new Snapshot(tags, categories);
+            log.debug("Loaded popularity of {} tags and {} tag categories in {} ms",
+                    tags.size(), categories.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Gets the tags carried by the most products
+     *
+     * @param limit the maximum number of tags
+     * @return the tags, by descending product count then name
+     */
+    public List<PopularTagResponse> findPopularTags(int limit) {
+        List<PopularTagResponse> tags = current().tags();
+        return tags.subList(0, Math.min(limit, tags.size()));
+    }
+
+    /**
+     * Gets the tag categories whose tags are carried by the most products
+     *
+     * @param limit the maximum number of categories
+     * @return the categories, by descending product count then name
+     */
+    public List<PopularTagCategoryResponse> findPopularCategories(int limit) {
+        List<PopularTagCategoryResponse> categories = current().categories();
+        return categories.subList(0, Math.min(limit, categories.size()));
+    }
+
+    /**
+     * Recounts the tag assignments, corrects the drifted counts and reloads the lists.
+     * The tags are recounted first, since the counts of the categories are summed from them.
+     *
+     * @return the number of corrected tags and categories
+     */
+    @Scheduled(initialDelayString = "${app.catalog.tag-counts.verify-interval:900000}",
+            fixedDelayString = "${app.catalog.tag-counts.verify-interval:900000}")
+    public int verify() {
+        if (!verifyEnabled) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        int corrected = recount(countRepository::lockTags, countRepository::recountTags)
+                + recount(countRepository::lockCategories, countRepository::recountCategories);
+        driftCounter.increment(corrected);
+        if (corrected > 0) {
+            log.warn("Tag counts had drifted: corrected {} tags and tag categories", corrected);
+            reload();
+        }
+        log.debug("Verified tag counts in {} ms", System.currentTimeMillis() - start);
+        return corrected;
+    }
+
+    private int recount(BiFunction<UUID, Integer, List<UUID>> lock, ToIntFunction<List<UUID>> recount) {
+        int corrected = 0;
+        UUID after = FIRST;
+        while (true) {
+            UUID from = after;
+            RecountedBatch batch = transactionTemplate.execute(status -> {
+                List<UUID> ids = lock.apply(from, verifyBatchSize);
+                return new RecountedBatch(ids, recount.applyAsInt(ids));
+            });
+            corrected += batch.corrected();
+            if (batch.ids().size() < verifyBatchSize) {
+                return corrected;
+            }
+            after = batch.ids().getLast();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // Only before the startup load has completed
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private record RecountedBatch(List<UUID> ids, int corrected) {
+    }
+
+    private record Snapshot(List<PopularTagResponse> tags, List<PopularTagCategoryResponse> categories) {
+    }
+}
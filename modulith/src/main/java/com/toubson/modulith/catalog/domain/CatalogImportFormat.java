@@ -0,0 +1,26 @@
+package com.toubson.modulith.catalog.domain;
+
+/**
+ * Enum representing the file formats accepted by bulk catalog imports.
+ */
+public enum CatalogImportFormat {
+    /**
+     * Comma-separated values with a header line naming the columns
+     */
+    CSV("text/csv"),
+
+    /**
+     * One JSON object per line, keyed by the column names
+     */
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    CatalogImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+}
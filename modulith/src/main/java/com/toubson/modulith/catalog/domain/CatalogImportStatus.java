@@ -0,0 +1,41 @@
+package com.toubson.modulith.catalog.domain;
+
+/**
+ * Enum representing the lifecycle of a bulk catalog import.
+ */
+public enum CatalogImportStatus {
+    /**
+     * Uploaded and waiting for a worker
+     */
+    PENDING("Waiting to start"),
+
+    /**
+     * File being read, validated and staged chunk by chunk
+     */
+    RUNNING("Staging rows"),
+
+    /**
+     * Whole file staged, staged rows being merged into the catalog
+     */
+    MERGING("Merging staged rows"),
+
+    /**
+     * Staged rows merged into the catalog
+     */
+    COMPLETED("Completed"),
+
+    /**
+     * Stopped by an error, can be resumed
+     */
+    FAILED("Failed");
+
+    private final String description;
+
+    CatalogImportStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -19,6 +19,7 @@ import java.util.UUID;
 @Data
 @Entity
 @Table(name = "categories")
+@EntityListeners(CategoryChangeListener.class)
 @SQLDelete(sql = "UPDATE categories SET active = false WHERE id = ?")
 @Where(clause = "active = true")
 public class Category {
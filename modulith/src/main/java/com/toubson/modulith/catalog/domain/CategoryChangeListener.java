@@ -0,0 +1,25 @@
+package com.toubson.modulith.catalog.domain;
+
+import com.toubson.modulith.shared.events.CategoryChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener publishing a {@link CategoryChangedEvent} whenever a category is written,
+ * including moves through {@link Category#addChild} and soft deletes.
+ */
+@RequiredArgsConstructor
+public class CategoryChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Category category) {
+        publisher.publishEvent(new CategoryChangedEvent(category.getId()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.toubson.modulith.catalog.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * A path of the category hierarchy, from an ancestor to one of its descendants.
+ * Each category is also its own descendant at depth 0. Rows are maintained by database triggers
+ * when categories are created, moved or soft-deleted, so this entity is read-only.
+ */
+@Getter
+@Entity
+@Immutable
+@Table(name = "category_closure")
+@IdClass(CategoryClosure.Key.class)
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CategoryClosure {
+
+    @Id
+    @Column(name = "ancestor_id")
+    private UUID ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private UUID descendantId;
+
+    /**
+     * Number of levels between the ancestor and the descendant
+     */
+    @Column(nullable = false)
+    private int depth;
+
+    /**
+     * Identifier of a path
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID ancestorId;
+        private UUID descendantId;
+    }
+}
@@ -1,8 +1,10 @@
 package com.toubson.modulith.catalog.domain;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Setter;
 import lombok.ToString;
 
 import java.time.Instant;
@@ -10,7 +12,11 @@ import java.util.UUID;
 
 /**
  * Inventory entity for tracking product stock levels.
- * Uses optimistic locking for concurrent safety.
+ * Uses optimistic locking for concurrent safety; stock reservations under contention go through
+ * the guarded updates of the inventory command service instead of the methods below.
+ * The stock left in the stripes of a striped inventory is not loaded with it: the methods below only
+ * see the stock outside the stripes, so they never hand out striped stock, and the catalog projections
+ * read the exact quantities.
  */
 @Data
 @Entity
@@ -40,10 +46,25 @@ public class Inventory {
     private Integer lowStockThreshold;
 
     /**
-     * Reserved stock quantity (for pending orders)
+     * Reserved stock quantity (for pending orders), not counting the stock reserved from the stripes
+     * of a striped inventory since they were last allotted
      */
     private Integer reservedQuantity = 0;
 
+    /**
+     * Number of stripes the available stock is allotted to, 0 when the inventory is not striped
+     */
+    @Column(nullable = false)
+    private int stripeCount;
+
+    /**
+     * Stock allotted to the stripes when they were last allotted, less the stripe reservations released since;
+     * only written by the command service
+     */
+    @Column(nullable = false, insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private int allottedQuantity;
+
     /**
      * Inventory tracking strategy
      */
@@ -80,7 +101,7 @@ public class Inventory {
         if (trackingStrategy == InventoryTrackingStrategy.INFINITE) {
             return true;
         }
-        return stockQuantity != null && stockQuantity > 0 && stockQuantity > reservedQuantity;
+        return stockQuantity != null && stockQuantity > 0 && stockQuantity > reservedQuantity + allottedQuantity;
     }
 
     /**
@@ -110,7 +131,7 @@ public class Inventory {
         if (trackingStrategy == InventoryTrackingStrategy.INFINITE) {
             return Integer.MAX_VALUE;
         }
-        return stockQuantity != null ? stockQuantity - reservedQuantity : 0;
+        return stockQuantity != null ? stockQuantity - reservedQuantity - allottedQuantity : 0;
     }
 
     /**
@@ -126,7 +147,7 @@ public class Inventory {
         if (trackingStrategy == InventoryTrackingStrategy.INFINITE) {
             return true;
         }
-        if (stockQuantity != null && stockQuantity >= quantity + reservedQuantity) {
+        if (stockQuantity != null && stockQuantity >= quantity + reservedQuantity + allottedQuantity) {
             reservedQuantity += quantity;
             return true;
         }
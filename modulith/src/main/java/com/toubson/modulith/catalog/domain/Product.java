@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnTransformer;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
 
@@ -20,6 +21,7 @@ import java.util.UUID;
 @Data
 @Entity
 @Table(name = "products")
+@EntityListeners(ProductChangeListener.class)
 @Inheritance(strategy = InheritanceType.JOINED)
 @SQLDelete(sql = "UPDATE products SET active = false WHERE id = ?")
 @Where(clause = "active = true")
@@ -73,6 +75,13 @@ public class Product {
     @Column(nullable = false)
     private ProductType productType = ProductType.STANDARD;
 
+    /**
+     * Text search configuration used to index the product (e.g. english, french)
+     */
+    @Column(nullable = false)
+    @ColumnTransformer(read = "search_language::text", write = "CAST(? AS regconfig)")
+    private String searchLanguage = "english";
+
     @Column(nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
 
@@ -90,7 +99,10 @@ public class Product {
      * @return the product instance for method chaining
      */
     public Product addTag(Tag tag) {
-        tags.add(tag);
+        if (tags.add(tag)) {
+            // Changing only the join table would not update the product, nor publish its change event
+            updatedAt = Instant.now();
+        }
         return this;
     }
 
@@ -101,7 +113,10 @@ public class Product {
      * @return the product instance for method chaining
      */
     public Product removeTag(Tag tag) {
-        tags.remove(tag);
+        if (tags.remove(tag)) {
+            // Changing only the join table would not update the product, nor publish its change event
+            updatedAt = Instant.now();
+        }
         return this;
     }
 
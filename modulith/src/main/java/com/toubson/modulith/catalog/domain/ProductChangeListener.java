@@ -0,0 +1,33 @@
+package com.toubson.modulith.catalog.domain;
+
+import com.toubson.modulith.shared.events.ProductChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener publishing a {@link ProductChangedEvent} whenever a product, a variant or a
+ * variant attribute is written, whatever the code path. Instances are created by Hibernate through the Spring
+ * bean container, which injects the event publisher.
+ */
+@RequiredArgsConstructor
+public class ProductChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Product product) {
+            publisher.publishEvent(new ProductChangedEvent(product.getId()));
+        } else if (entity instanceof ProductVariant variant && variant.getProduct() != null) {
+            publisher.publishEvent(new ProductChangedEvent(variant.getProduct().getId()));
+        } else if (entity instanceof VariantAttribute attribute && attribute.getVariant() != null
+                && attribute.getVariant().getProduct() != null) {
+            publisher.publishEvent(new ProductChangedEvent(attribute.getVariant().getProduct().getId()));
+        }
+    }
+}
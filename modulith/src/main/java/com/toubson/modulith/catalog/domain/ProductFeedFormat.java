@@ -0,0 +1,52 @@
+package com.toubson.modulith.catalog.domain;
+
+/**
+ * Enum representing the files of the product feeds, which are split in shards except for the sitemap index.
+ */
+public enum ProductFeedFormat {
+    /**
+     * Merchant feed as RSS 2.0 with the Google Merchant Center namespace, one item per product
+     */
+    MERCHANT_XML("products", "xml", "application/xml"),
+
+    /**
+     * Merchant feed as comma-separated values with a header line, one line per product
+     */
+    MERCHANT_CSV("products", "csv", "text/csv"),
+
+    /**
+     * Sitemap listing the page of each product
+     */
+    SITEMAP("sitemap", "xml", "application/xml"),
+
+    /**
+     * Sitemap index listing the sitemaps of the shards
+     */
+    SITEMAP_INDEX("sitemap", "xml", "application/xml");
+
+    private final String prefix;
+    private final String extension;
+    private final String mediaType;
+
+    ProductFeedFormat(String prefix, String extension, String mediaType) {
+        this.prefix = prefix;
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Gets the name of the file of a shard
+     *
+     * @param shard the shard, ignored by the sitemap index
+     * @return the file name
+     */
+    public String fileName(int shard) {
+        return this == SITEMAP_INDEX
+                ? prefix + "." + extension
+                : String.format("%s-%02d.%s", prefix, shard, extension);
+    }
+}
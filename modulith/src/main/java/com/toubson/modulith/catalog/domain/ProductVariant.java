@@ -18,6 +18,7 @@ import java.util.UUID;
 @Data
 @Entity
 @Table(name = "product_variants")
+@EntityListeners(ProductChangeListener.class)
 public class ProductVariant {
 
     @Id
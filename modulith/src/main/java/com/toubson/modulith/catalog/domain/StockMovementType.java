@@ -0,0 +1,41 @@
+package com.toubson.modulith.catalog.domain;
+
+/**
+ * Enum representing the kinds of stock movements recorded in the stock journal.
+ */
+public enum StockMovementType {
+    /**
+     * Stock added to the inventory
+     */
+    RECEIPT("Stock received"),
+
+    /**
+     * Reserved stock removed from the inventory once the order is fulfilled
+     */
+    SALE("Reserved stock sold"),
+
+    /**
+     * Stock reserved for a pending order
+     */
+    RESERVATION("Stock reserved"),
+
+    /**
+     * Reserved stock made available again
+     */
+    RELEASE("Reserved stock released"),
+
+    /**
+     * Stock corrected after a count
+     */
+    ADJUSTMENT("Stock adjusted");
+
+    private final String description;
+
+    StockMovementType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
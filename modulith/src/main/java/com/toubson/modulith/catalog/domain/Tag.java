@@ -48,6 +48,12 @@ public class Tag {
     @EqualsAndHashCode.Exclude
     private Set<Product> products = new HashSet<>();
 
+    /**
+     * Number of products carrying this tag, maintained by database triggers
+     */
+    @Column(insertable = false, updatable = false)
+    private int productCount;
+
     @Column(nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
 
@@ -38,6 +38,12 @@ public class TagCategory {
     @EqualsAndHashCode.Exclude
     private Set<Tag> tags = new HashSet<>();
 
+    /**
+     * Number of product assignments of the tags in this category, maintained by database triggers
+     */
+    @Column(insertable = false, updatable = false)
+    private int productCount;
+
     @Column(nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
 
@@ -11,10 +11,13 @@ import java.util.UUID;
 /**
  * VariantAttribute entity for representing attributes of product variants.
  * For example, a t-shirt variant might have attributes like "size" and "color".
+ * A variant has at most one value per attribute name.
  */
 @Data
 @Entity
-@Table(name = "variant_attributes")
+@Table(name = "variant_attributes",
+        uniqueConstraints = @UniqueConstraint(name = "uk_variant_attributes_variant_name", columnNames = {"variant_id", "name"}))
+@EntityListeners(ProductChangeListener.class)
 public class VariantAttribute {
 
     @Id
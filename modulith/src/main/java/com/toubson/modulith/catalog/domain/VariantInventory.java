@@ -1,8 +1,10 @@
 package com.toubson.modulith.catalog.domain;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Setter;
 import lombok.ToString;
 
 import java.time.Instant;
@@ -10,7 +12,9 @@ import java.util.UUID;
 
 /**
  * VariantInventory entity for tracking variant-specific stock levels.
- * Uses optimistic locking for concurrent safety.
+ * Uses optimistic locking for concurrent safety. The stock left in the stripes of a striped inventory
+ * is not loaded with it: the methods below only see the stock outside the stripes, so they never hand
+ * out striped stock, and the catalog projections read the exact quantities.
  */
 @Data
 @Entity
@@ -40,10 +44,25 @@ public class VariantInventory {
     private Integer lowStockThreshold;
 
     /**
-     * Reserved stock quantity (for pending orders)
+     * Reserved stock quantity (for pending orders), not counting the stock reserved from the stripes
+     * of a striped inventory since they were last allotted
      */
     private Integer reservedQuantity = 0;
 
+    /**
+     * Number of stripes the available stock is allotted to, 0 when the inventory is not striped
+     */
+    @Column(nullable = false)
+    private int stripeCount;
+
+    /**
+     * Stock allotted to the stripes when they were last allotted, less the stripe reservations released since;
+     * only written by the command service
+     */
+    @Column(nullable = false, insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private int allottedQuantity;
+
     /**
      * Version for optimistic locking
      */
@@ -67,7 +86,7 @@ public class VariantInventory {
      */
     @Transient
     public boolean isInStock() {
-        return stockQuantity != null && stockQuantity > 0 && stockQuantity > reservedQuantity;
+        return stockQuantity != null && stockQuantity > 0 && stockQuantity > reservedQuantity + allottedQuantity;
     }
 
     /**
@@ -88,7 +107,7 @@ public class VariantInventory {
      */
     @Transient
     public Integer getAvailableQuantity() {
-        return stockQuantity != null ? stockQuantity - reservedQuantity : 0;
+        return stockQuantity != null ? stockQuantity - reservedQuantity - allottedQuantity : 0;
     }
 
     /**
@@ -98,7 +117,7 @@ public class VariantInventory {
      * @return true if the reservation was successful, false otherwise
      */
     public boolean reserveStock(int quantity) {
-        if (stockQuantity != null && stockQuantity >= quantity + reservedQuantity) {
+        if (stockQuantity != null && stockQuantity >= quantity + reservedQuantity + allottedQuantity) {
             reservedQuantity += quantity;
             return true;
         }
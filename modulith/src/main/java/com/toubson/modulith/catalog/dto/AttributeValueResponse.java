@@ -0,0 +1,6 @@
+package com.toubson.modulith.catalog.dto;
+
+public record AttributeValueResponse(
+        String value,
+        int variantCount) {
+}
@@ -0,0 +1,7 @@
+package com.toubson.modulith.catalog.dto;
+
+public record CatalogImportErrorResponse(
+        long lineNumber,
+        String field,
+        String message) {
+}
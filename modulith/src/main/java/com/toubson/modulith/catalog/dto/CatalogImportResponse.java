@@ -0,0 +1,23 @@
+package com.toubson.modulith.catalog.dto;
+
+import com.toubson.modulith.catalog.domain.CatalogImportFormat;
+import com.toubson.modulith.catalog.domain.CatalogImportStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record CatalogImportResponse(
+        UUID id,
+        String fileName,
+        CatalogImportFormat format,
+        CatalogImportStatus status,
+        long linesRead,
+        long rowsStaged,
+        long rowsRejected,
+        Integer productsMerged,
+        Integer variantsMerged,
+        String failure,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant finishedAt) {
+}
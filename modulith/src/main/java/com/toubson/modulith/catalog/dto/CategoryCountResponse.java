@@ -0,0 +1,9 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.util.UUID;
+
+public record CategoryCountResponse(
+        UUID categoryId,
+        int directCount,
+        int subtreeCount) {
+}
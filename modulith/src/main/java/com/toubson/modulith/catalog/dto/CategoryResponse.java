@@ -0,0 +1,12 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.util.UUID;
+
+public record CategoryResponse(
+        UUID id,
+        String name,
+        String slug,
+        String description,
+        UUID parentId,
+        int sortOrder) {
+}
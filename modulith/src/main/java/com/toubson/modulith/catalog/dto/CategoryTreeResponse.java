@@ -0,0 +1,12 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record CategoryTreeResponse(
+        UUID id,
+        String name,
+        String slug,
+        int sortOrder,
+        List<CategoryTreeResponse> children) {
+}
@@ -0,0 +1,10 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.util.List;
+
+public record CursorPageResponse<T>(
+        List<T> content,
+        int size,
+        String nextCursor,
+        boolean hasNext) {
+}
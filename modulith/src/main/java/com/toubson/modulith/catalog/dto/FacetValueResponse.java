@@ -0,0 +1,7 @@
+package com.toubson.modulith.catalog.dto;
+
+public record FacetValueResponse(
+        String value,
+        int count,
+        boolean selected) {
+}
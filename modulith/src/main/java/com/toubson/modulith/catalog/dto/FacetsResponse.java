@@ -0,0 +1,8 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.util.List;
+
+public record FacetsResponse(
+        int total,
+        List<FacetResponse> facets) {
+}
@@ -0,0 +1,12 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.util.UUID;
+
+public record LowStockResponse(
+        UUID productId,
+        String productName,
+        String sku,
+        Integer stockQuantity,
+        Integer lowStockThreshold,
+        Integer reservedQuantity) {
+}
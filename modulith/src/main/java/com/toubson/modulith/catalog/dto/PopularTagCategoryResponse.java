@@ -0,0 +1,10 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.util.UUID;
+
+public record PopularTagCategoryResponse(
+        UUID id,
+        String name,
+        String slug,
+        int productCount) {
+}
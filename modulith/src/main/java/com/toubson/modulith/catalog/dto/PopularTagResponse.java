@@ -0,0 +1,11 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.util.UUID;
+
+public record PopularTagResponse(
+        UUID id,
+        String name,
+        String slug,
+        String categoryName,
+        int productCount) {
+}
@@ -0,0 +1,26 @@
+package com.toubson.modulith.catalog.dto;
+
+import com.toubson.modulith.catalog.domain.ProductType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record ProductDetailResponse(
+        UUID id,
+        String name,
+        String description,
+        String sku,
+        BigDecimal price,
+        ProductType productType,
+        UUID categoryId,
+        String categoryName,
+        String categorySlug,
+        boolean inStock,
+        Integer availableQuantity,
+        List<TagResponse> tags,
+        List<ProductVariantResponse> variants,
+        Instant createdAt,
+        Instant updatedAt) {
+}
@@ -0,0 +1,15 @@
+package com.toubson.modulith.catalog.dto;
+
+import com.toubson.modulith.catalog.domain.ProductFeedFormat;
+
+import java.time.Instant;
+
+public record ProductFeedResponse(
+        String name,
+        ProductFeedFormat format,
+        String url,
+        String etag,
+        long size,
+        long products,
+        Instant lastModified) {
+}
@@ -0,0 +1,15 @@
+package com.toubson.modulith.catalog.dto;
+
+import com.toubson.modulith.catalog.domain.ProductType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record ProductHitResponse(
+        UUID id,
+        String name,
+        String sku,
+        BigDecimal price,
+        ProductType productType,
+        float score) {
+}
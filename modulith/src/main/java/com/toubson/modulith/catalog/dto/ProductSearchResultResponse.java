@@ -0,0 +1,19 @@
+package com.toubson.modulith.catalog.dto;
+
+import com.toubson.modulith.catalog.domain.ProductType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+public record ProductSearchResultResponse(
+        UUID id,
+        String name,
+        String sku,
+        BigDecimal price,
+        ProductType productType,
+        float rank,
+        String nameHighlight,
+        String descriptionHighlight,
+        List<TagResponse> tags) {
+}
@@ -0,0 +1,21 @@
+package com.toubson.modulith.catalog.dto;
+
+import com.toubson.modulith.catalog.domain.ProductType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+public record ProductSummaryResponse(
+        UUID id,
+        String name,
+        String sku,
+        BigDecimal price,
+        ProductType productType,
+        UUID categoryId,
+        String categoryName,
+        String categorySlug,
+        boolean inStock,
+        Integer availableQuantity,
+        List<TagResponse> tags) {
+}
@@ -0,0 +1,15 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+public record ProductVariantResponse(
+        UUID id,
+        String name,
+        String sku,
+        BigDecimal price,
+        boolean inStock,
+        Integer availableQuantity,
+        Map<String, String> attributes) {
+}
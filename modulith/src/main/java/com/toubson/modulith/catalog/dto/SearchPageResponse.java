@@ -0,0 +1,11 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.util.List;
+
+public record SearchPageResponse<T>(
+        List<T> content,
+        int page,
+        int size,
+        String language,
+        boolean hasNext) {
+}
@@ -0,0 +1,13 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record StockReservationResponse(
+        UUID id,
+        String owner,
+        UUID productId,
+        UUID variantId,
+        int quantity,
+        Instant expiresAt) {
+}
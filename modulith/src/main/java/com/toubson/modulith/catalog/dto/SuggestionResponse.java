@@ -0,0 +1,11 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.util.UUID;
+
+public record SuggestionResponse(
+        SuggestionType type,
+        UUID id,
+        String name,
+        String slug,
+        double score) {
+}
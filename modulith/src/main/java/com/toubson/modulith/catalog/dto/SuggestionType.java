@@ -0,0 +1,7 @@
+package com.toubson.modulith.catalog.dto;
+
+public enum SuggestionType {
+    PRODUCT,
+    TAG,
+    CATEGORY
+}
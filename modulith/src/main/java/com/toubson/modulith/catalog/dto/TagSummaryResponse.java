@@ -0,0 +1,10 @@
+package com.toubson.modulith.catalog.dto;
+
+import java.util.UUID;
+
+public record TagSummaryResponse(
+        UUID id,
+        String name,
+        String slug,
+        String categoryName) {
+}
@@ -0,0 +1,10 @@
+package com.toubson.modulith.catalog.exception;
+
+/**
+ * Thrown when an in-memory search or facet index is queried before its first build has completed.
+ */
+public class SearchIndexUnavailableException extends RuntimeException {
+    public SearchIndexUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of a variant attribute value of a product, used as facets.
+ */
+public record AttributeFacetRow(
+        UUID productId,
+        String name,
+        String value) {
+}
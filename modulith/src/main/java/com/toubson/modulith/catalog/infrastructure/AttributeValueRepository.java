@@ -0,0 +1,97 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * JDBC repository for the materialized number of variants carrying each attribute value.
+ * Triggers append the changes of the attributes document of the variants to
+ * {@code variant_attribute_value_deltas}, which are folded into {@code variant_attribute_values} in batches,
+ * so that concurrent writes of a popular value do not queue on its count row. Each changed count is stamped
+ * with the ID of the folding transaction. A reader remembers a watermark, the oldest transaction still
+ * running when it read, and later reads again only the counts stamped at or above it: every older
+ * transaction had finished, so its changes were already read.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AttributeValueRepository {
+
+    private static final String SELECT_VALUES = "SELECT name, value, variant_count FROM variant_attribute_values";
+
+    // The deltas are taken in ID order, skipping those another batch is folding, and the counts are changed
+    // in key order so that concurrent batches do not deadlock
+    private static final String APPLY_DELTAS = "WITH batch AS (" +
+            "DELETE FROM variant_attribute_value_deltas WHERE id IN (" +
+            "SELECT id FROM variant_attribute_value_deltas ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING name, value, delta" +
+            "), applied AS (" +
+            "INSERT INTO variant_attribute_values AS c (name, value, variant_count) " +
+            "SELECT name, value, sum(delta) FROM batch GROUP BY name, value HAVING sum(delta) <> 0 " +
+            "ORDER BY name, value " +
+            "ON CONFLICT (name, value) DO UPDATE " +
+            "SET variant_count = c.variant_count + EXCLUDED.variant_count, tx_id = pg_current_xact_id(), changed_at = now()" +
+            ") SELECT count(*) FROM batch";
+
+    private static final RowMapper<AttributeValueRow> ROW_MAPPER = (rs, rowNum) -> new AttributeValueRow(
+            rs.getString("name"), rs.getString("value"), rs.getInt("variant_count"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Gets the oldest transaction still running, to be taken before reading the counts
+     *
+     * @return the watermark
+     */
+    public String currentWatermark() {
+        return jdbcTemplate.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text",
+                new MapSqlParameterSource(), String.class);
+    }
+
+    /**
+     * Folds a batch of pending deltas into the counts
+     *
+     * @param limit the maximum number of deltas
+     * @return the number of folded deltas
+     */
+    public int applyDeltas(int limit) {
+        return jdbcTemplate.queryForObject(APPLY_DELTAS, new MapSqlParameterSource("limit", limit), Integer.class);
+    }
+
+    /**
+     * Deletes the counts of the values no variant has carried since a given time
+     *
+     * @param before the time before which the counts fell to zero
+     * @return the number of deleted counts
+     */
+    public int deleteZeroCounts(Instant before) {
+        return jdbcTemplate.update("DELETE FROM variant_attribute_values WHERE variant_count = 0 AND changed_at < :before",
+                new MapSqlParameterSource("before", before.atOffset(ZoneOffset.UTC)));
+    }
+
+    /**
+     * Finds the counts of the values carried by at least one variant
+     *
+     * @return the counts, ordered by name then value
+     */
+    public List<AttributeValueRow> findAll() {
+        return jdbcTemplate.query(SELECT_VALUES + " WHERE variant_count > 0 ORDER BY name, value", ROW_MAPPER);
+    }
+
+    /**
+     * Finds the counts changed by the transactions at or above a watermark, including the counts fallen to zero
+     *
+     * @param watermark the watermark taken before the previous read
+     * @return the changed counts
+     */
+    public List<AttributeValueRow> findChangedSince(String watermark) {
+        return jdbcTemplate.query(SELECT_VALUES + " WHERE tx_id >= CAST(:watermark AS xid8)",
+                new MapSqlParameterSource("watermark", watermark), ROW_MAPPER);
+    }
+}
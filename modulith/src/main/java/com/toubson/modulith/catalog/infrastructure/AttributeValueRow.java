@@ -0,0 +1,10 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+/**
+ * Projection of the number of variants carrying a value of an attribute.
+ */
+public record AttributeValueRow(
+        String name,
+        String value,
+        int variantCount) {
+}
@@ -0,0 +1,64 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.dto.SuggestionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * JDBC repository for name autocomplete over products, tags and categories.
+ * Names are matched on {@code upper(name)} through the trigram indexes: a name either starts
+ * with the query, or contains a word similar to it, which tolerates typos. Prefix matches
+ * rank first, then matches are ordered by word similarity.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AutocompleteRepository {
+
+    private static final String SCORE = "(CASE WHEN upper(%1$s.name) LIKE :prefix THEN 1 ELSE 0 END " +
+            "+ word_similarity(:query, upper(%1$s.name)))";
+    private static final String MATCH = "(upper(%1$s.name) LIKE :prefix OR :query <%% upper(%1$s.name))";
+
+    private static final String SUGGESTIONS_SQL =
+            "(SELECT 'PRODUCT' AS type, p.id, p.name, NULL AS slug, " + SCORE.formatted("p") + " AS score " +
+            "FROM products p WHERE p.active = true AND " + MATCH.formatted("p") + " ORDER BY score DESC, p.name LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT 'TAG' AS type, t.id, t.name, t.slug, " + SCORE.formatted("t") + " AS score " +
+            "FROM tags t WHERE " + MATCH.formatted("t") + " ORDER BY score DESC, t.name LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT 'CATEGORY' AS type, c.id, c.name, c.slug, " + SCORE.formatted("c") + " AS score " +
+            "FROM categories c WHERE c.active = true AND " + MATCH.formatted("c") + " ORDER BY score DESC, c.name LIMIT :limit) " +
+            "ORDER BY score DESC, name LIMIT :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the products, tags and categories whose name matches the query
+     *
+     * @param query the normalized query
+     * @param limit the maximum number of suggestions
+     * @return the suggestions, best match first
+     */
+    public List<SuggestionRow> findSuggestions(String query, int limit) {
+        String upper = query.toUpperCase(Locale.ROOT);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", upper)
+                .addValue("prefix", escapeLike(upper) + "%")
+                .addValue("limit", limit);
+        return jdbcTemplate.query(SUGGESTIONS_SQL, params, (rs, rowNum) -> new SuggestionRow(
+                SuggestionType.valueOf(rs.getString("type")),
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                rs.getString("slug"),
+                rs.getDouble("score")));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
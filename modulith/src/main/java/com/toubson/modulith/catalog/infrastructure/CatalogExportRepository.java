@@ -0,0 +1,71 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository.Owner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC repository reading the active products of the catalog as JSON documents, for the catalog export.
+ * Each document is built by the database, with the category, tags, inventory and variants of the product
+ * and the attributes document and inventory of each variant, so that a page of products is one round trip and the
+ * application only copies text. Pages are read by keyset on the product ID.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CatalogExportRepository {
+
+    private static final String DOCUMENTS = "SELECT p.id, json_build_object(" +
+            "'sku', p.sku, 'name', p.name, 'description', p.description, 'price', p.price, " +
+            "'product_type', p.product_type, " +
+            "'category', CASE WHEN c.id IS NULL THEN NULL ELSE json_build_object('slug', c.slug, 'name', c.name) END, " +
+            "'tags', coalesce((SELECT json_agg(t.name ORDER BY t.name) FROM product_tags pt " +
+            "JOIN tags t ON t.id = pt.tag_id WHERE pt.product_id = p.id), '[]'), " +
+            "'inventory', CASE WHEN i.id IS NULL THEN NULL ELSE json_build_object(" +
+            "'tracking_strategy', i.tracking_strategy, 'stock_quantity', i.stock_quantity, " +
+            "'reserved_quantity', " + InventoryStripeRepository.reservedByOrders(Owner.PRODUCT, "i") +
+            ", 'low_stock_threshold', i.low_stock_threshold) END, " +
+            "'variants', coalesce((SELECT json_agg(json_build_object(" +
+            "'sku', v.sku, 'name', v.name, 'price', v.price, " +
+            "'stock_quantity', vi.stock_quantity, 'reserved_quantity', " + InventoryStripeRepository.reservedByOrders(Owner.VARIANT, "vi") +
+            ", " +
+            "'attributes', v.attributes) ORDER BY v.sku) " +
+            "FROM product_variants v LEFT JOIN variant_inventory vi ON vi.variant_id = v.id " +
+            "WHERE v.product_id = p.id), '[]'), " +
+            "'updated_at', p.updated_at)::text AS document " +
+            "FROM products p LEFT JOIN categories c ON c.id = p.category_id LEFT JOIN inventory i ON i.product_id = p.id " +
+            "WHERE p.active = true ";
+
+    private static final RowMapper<CatalogExportRow> ROW_MAPPER = (rs, rowNum) -> new CatalogExportRow(
+            rs.getObject("id", UUID.class), rs.getString("document"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the first page of exported products
+     *
+     * @param limit the maximum number of products to return
+     * @return the products, in ID order
+     */
+    public List<CatalogExportRow> findFirst(int limit) {
+        return jdbcTemplate.query(DOCUMENTS + "ORDER BY p.id LIMIT :limit",
+                new MapSqlParameterSource("limit", limit), ROW_MAPPER);
+    }
+
+    /**
+     * Finds the page of exported products following the given product
+     *
+     * @param after the ID of the last product of the previous page
+     * @param limit the maximum number of products to return
+     * @return the products, in ID order
+     */
+    public List<CatalogExportRow> findAfter(UUID after, int limit) {
+        return jdbcTemplate.query(DOCUMENTS + "AND p.id > :after ORDER BY p.id LIMIT :limit",
+                new MapSqlParameterSource("after", after).addValue("limit", limit), ROW_MAPPER);
+    }
+}
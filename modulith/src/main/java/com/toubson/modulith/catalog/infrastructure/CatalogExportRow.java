@@ -0,0 +1,11 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of an exported product: its ID, the keyset of the export, and its JSON document.
+ */
+public record CatalogExportRow(
+        UUID id,
+        String document) {
+}
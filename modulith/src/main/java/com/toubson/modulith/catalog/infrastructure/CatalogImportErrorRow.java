@@ -0,0 +1,10 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+/**
+ * Projection of a line rejected by a bulk catalog import, with the field at fault.
+ */
+public record CatalogImportErrorRow(
+        long lineNumber,
+        String field,
+        String message) {
+}
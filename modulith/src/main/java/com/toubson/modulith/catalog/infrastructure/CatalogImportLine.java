@@ -0,0 +1,35 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validated line of a bulk catalog import, as staged before the merge.
+ * A line describes a product, optionally one of its variants, and the category, tags and stock
+ * they carry; optional values left null keep the current ones of existing rows.
+ */
+public record CatalogImportLine(
+        long lineNumber,
+        String productSku,
+        String productName,
+        String productDescription,
+        BigDecimal productPrice,
+        String productType,
+        String categorySlug,
+        String categoryName,
+        List<ImportedTag> tags,
+        Integer stockQuantity,
+        Integer lowStockThreshold,
+        String variantSku,
+        String variantName,
+        BigDecimal variantPrice,
+        Integer variantStockQuantity,
+        Map<String, String> attributes) {
+
+    /**
+     * Tag of an imported product, matched on its slug or its name
+     */
+    public record ImportedTag(String name, String slug) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+/**
+ * Projection of the outcome of merging the staged lines of a bulk catalog import.
+ */
+public record CatalogImportMergeRow(
+        int productsMerged,
+        int variantsMerged) {
+}
@@ -0,0 +1,439 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toubson.modulith.catalog.domain.CatalogImportFormat;
+import com.toubson.modulith.catalog.domain.CatalogImportStatus;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository.Owner;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC repository for bulk catalog imports, their rejected lines and their staged lines.
+ * Lines are staged with {@code COPY}, chunk by chunk, into the unlogged {@code catalog_import_rows} table.
+ * Once the whole file is staged, the merge upserts the catalog with one set-based statement per table,
+ * keyed on category and tag slugs and on product and variant SKUs; when a key appears on several lines,
+ * the last line wins.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CatalogImportRepository {
+
+    private static final String COLUMNS = "id, file_name, format, status, lines_read, rows_staged, rows_rejected, " +
+            "products_merged, variants_merged, failure, created_at, updated_at, finished_at";
+    private static final String STAGED_COLUMNS = "import_id, line_number, product_sku, product_name, product_description, " +
+            "product_price, product_type, category_slug, category_name, tags, stock_quantity, low_stock_threshold, " +
+            "variant_sku, variant_name, variant_price, variant_stock_quantity, attributes";
+    private static final String COPY = "COPY catalog_import_rows (" + STAGED_COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_CATEGORIES = "INSERT INTO categories AS c (id, name, slug, sort_order, active, created_at, updated_at) " +
+            "SELECT gen_random_uuid(), s.category_name, s.category_slug, 0, true, :now, :now FROM (" +
+            "SELECT DISTINCT ON (category_slug) category_slug, category_name FROM catalog_import_rows " +
+            "WHERE import_id = :importId AND category_slug IS NOT NULL ORDER BY category_slug, line_number DESC) s " +
+            "ON CONFLICT (slug) DO UPDATE SET name = EXCLUDED.name, updated_at = EXCLUDED.updated_at " +
+            "WHERE c.name <> EXCLUDED.name";
+
+    // Without a conflict target, a new slug whose name is already taken is skipped too: the link below matches either
+    private static final String MERGE_TAGS = "INSERT INTO tags (id, name, slug, created_at, updated_at) " +
+            "SELECT gen_random_uuid(), s.name, s.slug, :now, :now FROM (" +
+            "SELECT DISTINCT ON (t.slug) t.name, t.slug FROM catalog_import_rows r " +
+            "CROSS JOIN jsonb_to_recordset(r.tags) AS t(name TEXT, slug TEXT) " +
+            "WHERE r.import_id = :importId ORDER BY t.slug, r.line_number DESC) s " +
+            "ON CONFLICT DO NOTHING";
+
+    private static final String MERGE_PRODUCTS = "WITH merged AS (" +
+            "INSERT INTO products AS p (id, name, description, price, sku, active, category_id, product_type, created_at, updated_at) " +
+            "SELECT gen_random_uuid(), s.product_name, coalesce(s.product_description, e.description), s.product_price, " +
+            "s.product_sku, true, coalesce(c.id, e.category_id), coalesce(s.product_type, e.product_type, 'STANDARD'), :now, :now FROM (" +
+            "SELECT DISTINCT ON (product_sku) * FROM catalog_import_rows WHERE import_id = :importId " +
+            "ORDER BY product_sku, line_number DESC) s " +
+            "LEFT JOIN products e ON e.sku = s.product_sku LEFT JOIN categories c ON c.slug = s.category_slug " +
+            "ON CONFLICT (sku) DO UPDATE SET name = EXCLUDED.name, description = EXCLUDED.description, price = EXCLUDED.price, " +
+            "category_id = EXCLUDED.category_id, product_type = EXCLUDED.product_type, updated_at = EXCLUDED.updated_at " +
+            "WHERE (p.name, p.description, p.price, p.category_id, p.product_type) IS DISTINCT FROM " +
+            "(EXCLUDED.name, EXCLUDED.description, EXCLUDED.price, EXCLUDED.category_id, EXCLUDED.product_type) " +
+            "RETURNING 1) SELECT count(*) FROM merged";
+
+    private static final String MERGE_PRODUCT_TAGS = "INSERT INTO product_tags (product_id, tag_id) " +
+            "SELECT DISTINCT p.id, t.id FROM catalog_import_rows r " +
+            "CROSS JOIN jsonb_to_recordset(r.tags) AS s(name TEXT, slug TEXT) " +
+            "JOIN products p ON p.sku = r.product_sku JOIN tags t ON t.slug = s.slug OR t.name = s.name " +
+            "WHERE r.import_id = :importId ON CONFLICT DO NOTHING";
+
+    private static final String MERGE_VARIANTS = "WITH merged AS (" +
+            "INSERT INTO product_variants AS v (id, name, sku, price, product_id, created_at, updated_at) " +
+            "SELECT gen_random_uuid(), s.variant_name, s.variant_sku, s.variant_price, p.id, :now, :now FROM (" +
+            "SELECT DISTINCT ON (variant_sku) * FROM catalog_import_rows WHERE import_id = :importId " +
+            "AND variant_sku IS NOT NULL ORDER BY variant_sku, line_number DESC) s " +
+            "JOIN products p ON p.sku = s.product_sku " +
+            "ON CONFLICT (sku) DO UPDATE SET name = EXCLUDED.name, price = EXCLUDED.price, product_id = EXCLUDED.product_id, " +
+            "updated_at = EXCLUDED.updated_at " +
+            "WHERE (v.name, v.price, v.product_id) IS DISTINCT FROM (EXCLUDED.name, EXCLUDED.price, EXCLUDED.product_id) " +
+            "RETURNING 1) SELECT count(*) FROM merged";
+
+    // The imported attributes replace those of the variant: attributes kept as they are are neither deleted nor inserted
+    private static final String MERGE_ATTRIBUTES = "WITH staged AS (" +
+            "SELECT DISTINCT ON (r.variant_sku) v.id AS variant_id, r.attributes FROM catalog_import_rows r " +
+            "JOIN product_variants v ON v.sku = r.variant_sku " +
+            "WHERE r.import_id = :importId AND r.attributes <> '{}'::jsonb ORDER BY r.variant_sku, r.line_number DESC), " +
+            "removed AS (DELETE FROM variant_attributes a USING staged s " +
+            "WHERE a.variant_id = s.variant_id AND s.attributes ->> a.name IS DISTINCT FROM a.value) " +
+            "INSERT INTO variant_attributes (id, name, value, variant_id, created_at, updated_at) " +
+            "SELECT gen_random_uuid(), e.key, e.value, s.variant_id, :now, :now FROM staged s " +
+            "CROSS JOIN jsonb_each_text(s.attributes) e " +
+            "WHERE NOT EXISTS (SELECT 1 FROM variant_attributes a WHERE a.variant_id = s.variant_id " +
+            "AND a.name = e.key AND a.value = e.value)";
+
+    private static final RowMapper<CatalogImportRow> ROW_MAPPER = (rs, rowNum) -> new CatalogImportRow(
+            rs.getObject("id", UUID.class), rs.getString("file_name"), CatalogImportFormat.valueOf(rs.getString("format")),
+            CatalogImportStatus.valueOf(rs.getString("status")), rs.getLong("lines_read"), rs.getLong("rows_staged"),
+            rs.getLong("rows_rejected"), rs.getObject("products_merged", Integer.class),
+            rs.getObject("variants_merged", Integer.class), rs.getString("failure"),
+            rs.getTimestamp("created_at").toInstant(), rs.getTimestamp("updated_at").toInstant(),
+            rs.getTimestamp("finished_at") != null ? rs.getTimestamp("finished_at").toInstant() : null);
+
+    private static final RowMapper<CatalogImportErrorRow> ERROR_MAPPER = (rs, rowNum) -> new CatalogImportErrorRow(
+            rs.getLong("line_number"), rs.getString("field"), rs.getString("message"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Saves a new import, waiting for a worker
+     *
+     * @param id       the import ID
+     * @param fileName the name of the uploaded file
+     * @param format   the format of the file
+     * @param now      the creation time
+     */
+    public void insert(UUID id, String fileName, CatalogImportFormat format, Instant now) {
+        jdbcTemplate.update("INSERT INTO catalog_imports (id, file_name, format, status, created_at, updated_at) " +
+                        "VALUES (:id, :fileName, :format, :status, :now, :now)",
+                new MapSqlParameterSource("id", id)
+                        .addValue("fileName", fileName)
+                        .addValue("format", format.name())
+                        .addValue("status", CatalogImportStatus.PENDING.name())
+                        .addValue("now", Timestamp.from(now)));
+    }
+
+    /**
+     * Finds an import
+     *
+     * @param id the import ID
+     * @return the import, empty if it does not exist
+     */
+    public Optional<CatalogImportRow> findById(UUID id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM catalog_imports WHERE id = :id",
+                new MapSqlParameterSource("id", id), ROW_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Claims the oldest import waiting for a worker, or an import whose worker stopped reporting progress.
+     * Imports locked by a running merge are skipped, so an import is never claimed twice.
+     *
+     * @param staleBefore the time before which a running import is considered abandoned
+     * @param now         the claim time
+     * @return the claimed import, empty if none is waiting
+     */
+    public Optional<CatalogImportRow> claimNext(Instant staleBefore, Instant now) {
+        return jdbcTemplate.query("UPDATE catalog_imports SET status = CASE WHEN status = 'MERGING' THEN status ELSE 'RUNNING' END, " +
+                        "updated_at = :now WHERE id = (SELECT id FROM catalog_imports " +
+                        "WHERE status = 'PENDING' OR (status IN ('RUNNING', 'MERGING') AND updated_at < :staleBefore) " +
+                        "ORDER BY created_at LIMIT 1 FOR UPDATE SKIP LOCKED) RETURNING " + COLUMNS,
+                new MapSqlParameterSource("staleBefore", Timestamp.from(staleBefore)).addValue("now", Timestamp.from(now)),
+                ROW_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Locks an import until the end of the transaction, so that it cannot be claimed while it merges
+     *
+     * @param id the import ID
+     * @return the import, empty if it does not exist
+     */
+    public Optional<CatalogImportRow> lock(UUID id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM catalog_imports WHERE id = :id FOR UPDATE",
+                new MapSqlParameterSource("id", id), ROW_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Records the progress of a staged chunk, which also tells that the worker is alive
+     *
+     * @param id        the import ID
+     * @param linesRead the number of lines read up to the end of the chunk
+     * @param staged    the number of lines of the chunk staged
+     * @param rejected  the number of lines of the chunk rejected
+     * @param now       the update time
+     */
+    public void recordProgress(UUID id, long linesRead, int staged, int rejected, Instant now) {
+        jdbcTemplate.update("UPDATE catalog_imports SET lines_read = :linesRead, rows_staged = rows_staged + :staged, " +
+                        "rows_rejected = rows_rejected + :rejected, updated_at = :now WHERE id = :id",
+                new MapSqlParameterSource("id", id)
+                        .addValue("linesRead", linesRead)
+                        .addValue("staged", staged)
+                        .addValue("rejected", rejected)
+                        .addValue("now", Timestamp.from(now)));
+    }
+
+    /**
+     * Starts an import over from the first line, dropping its staged lines and recorded errors
+     *
+     * @param id  the import ID
+     * @param now the update time
+     */
+    public void restart(UUID id, Instant now) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id).addValue("now", Timestamp.from(now));
+        jdbcTemplate.update("DELETE FROM catalog_import_rows WHERE import_id = :id", params);
+        jdbcTemplate.update("DELETE FROM catalog_import_errors WHERE import_id = :id", params);
+        jdbcTemplate.update("UPDATE catalog_imports SET status = 'RUNNING', lines_read = 0, rows_staged = 0, " +
+                "rows_rejected = 0, updated_at = :now WHERE id = :id", params);
+    }
+
+    /**
+     * Changes the status of an import
+     *
+     * @param id     the import ID
+     * @param status the new status
+     * @param now    the update time
+     */
+    public void updateStatus(UUID id, CatalogImportStatus status, Instant now) {
+        jdbcTemplate.update("UPDATE catalog_imports SET status = :status, updated_at = :now WHERE id = :id",
+                new MapSqlParameterSource("id", id)
+                        .addValue("status", status.name())
+                        .addValue("now", Timestamp.from(now)));
+    }
+
+    /**
+     * Marks an import as completed
+     *
+     * @param id     the import ID
+     * @param merged the outcome of the merge
+     * @param now    the completion time
+     */
+    public void complete(UUID id, CatalogImportMergeRow merged, Instant now) {
+        jdbcTemplate.update("UPDATE catalog_imports SET status = 'COMPLETED', products_merged = :products, " +
+                        "variants_merged = :variants, failure = NULL, updated_at = :now, finished_at = :now WHERE id = :id",
+                new MapSqlParameterSource("id", id)
+                        .addValue("products", merged.productsMerged())
+                        .addValue("variants", merged.variantsMerged())
+                        .addValue("now", Timestamp.from(now)));
+    }
+
+    /**
+     * Marks an import as failed; its progress is kept so that it can resume
+     *
+     * @param id      the import ID
+     * @param failure the reason of the failure
+     * @param now     the failure time
+     */
+    public void fail(UUID id, String failure, Instant now) {
+        jdbcTemplate.update("UPDATE catalog_imports SET status = 'FAILED', failure = :failure, updated_at = :now, " +
+                        "finished_at = :now WHERE id = :id",
+                new MapSqlParameterSource("id", id)
+                        .addValue("failure", failure)
+                        .addValue("now", Timestamp.from(now)));
+    }
+
+    /**
+     * Queues a failed import again; it resumes after its last staged chunk
+     *
+     * @param id  the import ID
+     * @param now the update time
+     * @return true if the import was failed
+     */
+    public boolean resume(UUID id, Instant now) {
+        return jdbcTemplate.update("UPDATE catalog_imports SET status = 'PENDING', failure = NULL, updated_at = :now, " +
+                        "finished_at = NULL WHERE id = :id AND status = 'FAILED'",
+                new MapSqlParameterSource("id", id).addValue("now", Timestamp.from(now))) > 0;
+    }
+
+    /**
+     * Saves rejected lines; a line rejected again on resume keeps its first error
+     *
+     * @param id     the import ID
+     * @param errors the errors
+     */
+    public void insertErrors(UUID id, List<CatalogImportErrorRow> errors) {
+        if (errors.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = errors.stream()
+                .map(error -> new MapSqlParameterSource("importId", id)
+                        .addValue("lineNumber", error.lineNumber())
+                        .addValue("field", error.field())
+                        .addValue("message", error.message()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("INSERT INTO catalog_import_errors (import_id, line_number, field, message) " +
+                "VALUES (:importId, :lineNumber, :field, :message) ON CONFLICT DO NOTHING", batch);
+    }
+
+    /**
+     * Finds the rejected lines of an import, in line order
+     *
+     * @param id         the import ID
+     * @param afterLine  the line after which errors are returned, 0 for the first page
+     * @param limit      the maximum number of errors to return
+     * @return the errors
+     */
+    public List<CatalogImportErrorRow> findErrors(UUID id, long afterLine, int limit) {
+        return jdbcTemplate.query("SELECT line_number, field, message FROM catalog_import_errors " +
+                        "WHERE import_id = :id AND line_number > :afterLine ORDER BY line_number, field LIMIT :limit",
+                new MapSqlParameterSource("id", id).addValue("afterLine", afterLine).addValue("limit", limit),
+                ERROR_MAPPER);
+    }
+
+    /**
+     * Stages validated lines with a single {@code COPY}
+     *
+     * @param id    the import ID
+     * @param lines the lines to stage
+     * @return the number of staged lines
+     */
+    public long stage(UUID id, List<CatalogImportLine> lines) {
+        if (lines.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder csv = new StringBuilder(lines.size() * 256);
+        for (CatalogImportLine line : lines) {
+            appendRow(csv, id, line.lineNumber(), line.productSku(), line.productName(), line.productDescription(),
+                    line.productPrice(), line.productType(), line.categorySlug(), line.categoryName(), json(line.tags()),
+                    line.stockQuantity(), line.lowStockThreshold(), line.variantSku(), line.variantName(),
+                    line.variantPrice(), line.variantStockQuantity(), json(line.attributes()));
+        }
+        Long copied = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return new CopyManager(connection.unwrap(BaseConnection.class)).copyIn(COPY, new StringReader(csv.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return copied != null ? copied : 0;
+    }
+
+    /**
+     * Counts the staged lines of an import, which are lost if the database crashes before they are merged
+     *
+     * @param id the import ID
+     * @return the number of staged lines
+     */
+    public long countStaged(UUID id) {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM catalog_import_rows WHERE import_id = :id",
+                new MapSqlParameterSource("id", id), Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Merges the staged lines of an import into the catalog and deletes them.
+     * Must run in a transaction, so that the catalog never shows a partial import; the inventories are locked
+     * before their stock is set, so that the adjustments written to the stock journal are exact.
+     *
+     * @param id  the import ID
+     * @param now the merge time
+     * @return the outcome of the merge
+     */
+    public CatalogImportMergeRow merge(UUID id, Instant now) {
+        MapSqlParameterSource params = new MapSqlParameterSource("importId", id).addValue("now", Timestamp.from(now));
+        jdbcTemplate.update(MERGE_CATEGORIES, params);
+        jdbcTemplate.update(MERGE_TAGS, params);
+        Integer products = jdbcTemplate.queryForObject(MERGE_PRODUCTS, params, Integer.class);
+        jdbcTemplate.update(MERGE_PRODUCT_TAGS, params);
+        Integer variants = jdbcTemplate.queryForObject(MERGE_VARIANTS, params, Integer.class);
+        jdbcTemplate.update(MERGE_ATTRIBUTES, params);
+        for (Owner owner : Owner.values()) {
+            jdbcTemplate.queryForObject(lockInventories(owner), params, Long.class);
+            jdbcTemplate.update(mergeInventories(owner), params);
+        }
+        jdbcTemplate.update("DELETE FROM catalog_import_rows WHERE import_id = :importId", params);
+        return new CatalogImportMergeRow(products != null ? products : 0, variants != null ? variants : 0);
+    }
+
+    private static String lockInventories(Owner owner) {
+        InventoryColumns columns = InventoryColumns.of(owner);
+        return "SELECT count(*) FROM (SELECT i.id FROM " + columns.table() + " i JOIN " + columns.itemTable() + " t ON t.id = i." + columns.itemColumn() +
+                " JOIN catalog_import_rows r ON r." + columns.skuColumn() + " = t.sku AND r.import_id = :importId " +
+                "ORDER BY i.id FOR UPDATE OF i) locked";
+    }
+
+    // Sets the stock of existing inventories when it still covers the reserved stock, journaling the difference
+    // as an adjustment, rejects the other lines, then creates the missing inventories, which journal their
+    // initial stock themselves
+    private static String mergeInventories(Owner owner) {
+        InventoryColumns columns = InventoryColumns.of(owner);
+        boolean product = owner == Owner.PRODUCT;
+        String threshold = product ? "low_stock_threshold" : "NULL::INT";
+        return "WITH staged AS (SELECT DISTINCT ON (" + columns.skuColumn() + ") line_number, " + columns.skuColumn() +
+                " AS sku, " + columns.stockColumn() + " AS stock, " + threshold + " AS threshold " +
+                "FROM catalog_import_rows WHERE import_id = :importId AND " + columns.skuColumn() + " IS NOT NULL AND (" +
+                columns.stockColumn() + " IS NOT NULL OR " + threshold + " IS NOT NULL) " +
+                "ORDER BY " + columns.skuColumn() + ", line_number DESC), " +
+                "locked AS (SELECT s.line_number, s.threshold, i.id, coalesce(i.stock_quantity, 0) AS old_stock, " +
+                "coalesce(s.stock, i.stock_quantity) AS new_stock, (" + (product ? "i.tracking_strategy = 'FINITE' AND " : "") +
+                "coalesce(s.stock, i.stock_quantity, 0) >= coalesce(i.reserved_quantity, 0) + i.allotted_quantity) AS allowed " +
+                "FROM staged s JOIN " + columns.itemTable() + " t ON t.sku = s.sku JOIN " + columns.table() +
+                " i ON i." + columns.itemColumn() + " = t.id), " +
+                "updated AS (UPDATE " + columns.table() + " i SET stock_quantity = c.new_stock, " +
+                "low_stock_threshold = coalesce(c.threshold, i.low_stock_threshold), version = i.version + 1, updated_at = :now " +
+                "FROM locked c WHERE i.id = c.id AND c.allowed AND (i.stock_quantity IS DISTINCT FROM c.new_stock " +
+                "OR i.low_stock_threshold IS DISTINCT FROM coalesce(c.threshold, i.low_stock_threshold))), " +
+                "journal AS (INSERT INTO stock_movements (owner, inventory_id, movement_type, stock_change, reserved_change, occurred_at) " +
+                "SELECT '" + owner.name() + "', c.id, 'ADJUSTMENT', coalesce(c.new_stock, 0) - c.old_stock, 0, :now FROM locked c " +
+                "WHERE c.allowed AND coalesce(c.new_stock, 0) <> c.old_stock), " +
+                "rejected AS (INSERT INTO catalog_import_errors (import_id, line_number, field, message) " +
+                "SELECT :importId, c.line_number, '" + columns.stockColumn() + "', " +
+                "'Inventory not finite or stock below the reserved stock' FROM locked c WHERE NOT c.allowed ON CONFLICT DO NOTHING) " +
+                "INSERT INTO " + columns.table() + " (id, " + columns.itemColumn() + ", stock_quantity, low_stock_threshold, " +
+                "reserved_quantity, version, created_at, updated_at) " +
+                "SELECT gen_random_uuid(), t.id, s.stock, s.threshold, 0, 0, :now, :now FROM staged s " +
+                "JOIN " + columns.itemTable() + " t ON t.sku = s.sku " +
+                "WHERE NOT EXISTS (SELECT 1 FROM " +
+                columns.table() + " i WHERE i." + columns.itemColumn() + " = t.id) " +
+                "ON CONFLICT (" + columns.itemColumn() + ") DO NOTHING";
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize staged value", e);
+        }
+    }
+
+    private static void appendRow(StringBuilder csv, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            // Unquoted empty fields are NULL in the CSV format of COPY, quoted ones are empty strings
+            if (values[i] != null) {
+                csv.append('"').append(values[i].toString().replace("\"", "\"\"")).append('"');
+            }
+        }
+        csv.append('\n');
+    }
+
+    private record InventoryColumns(String table, String itemTable, String itemColumn, String skuColumn, String stockColumn) {
+
+        static InventoryColumns of(Owner owner) {
+            return owner == Owner.PRODUCT
+                    ? new InventoryColumns("inventory", "products", "product_id", "product_sku", "stock_quantity")
+                    : new InventoryColumns("variant_inventory", "product_variants", "variant_id", "variant_sku",
+                    "variant_stock_quantity");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.CatalogImportFormat;
+import com.toubson.modulith.catalog.domain.CatalogImportStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Projection of a bulk catalog import with its progress.
+ * The merged counts are only set once the import completes.
+ */
+public record CatalogImportRow(
+        UUID id,
+        String fileName,
+        CatalogImportFormat format,
+        CatalogImportStatus status,
+        long linesRead,
+        long rowsStaged,
+        long rowsRejected,
+        Integer productsMerged,
+        Integer variantsMerged,
+        String failure,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant finishedAt) {
+}
@@ -0,0 +1,148 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC repository for the materialized product counts of the categories.
+ * Triggers record every active, in stock product in {@code category_listed_products} and add each
+ * change to {@code category_product_counts}: the direct count of the product's category and the
+ * subtree count of the category and its ancestors. The reconcile methods repair both tables when
+ * they drifted from the products, for instance after concurrent changes to a product and its inventory,
+ * a batch of products or categories at a time.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CategoryCountRepository {
+
+    private static final String SELECT_COUNTS = "SELECT n.category_id, n.direct_count, n.subtree_count " +
+            "FROM category_product_counts n JOIN categories c ON c.id = n.category_id WHERE c.active = true";
+
+    private static final String INSERT_MISSING_COUNTS = "INSERT INTO category_product_counts (category_id) " +
+            "SELECT id FROM categories ON CONFLICT (category_id) DO NOTHING";
+
+    // In the order the count triggers lock them, so that a recount and concurrent deltas queue instead of deadlocking
+    private static final String LOCK_COUNTS = "SELECT category_id FROM category_product_counts " +
+            "WHERE category_id > :after ORDER BY category_id LIMIT :limit FOR UPDATE";
+
+    private static final String SELECT_PRODUCT_IDS = "SELECT id FROM products WHERE id > :after ORDER BY id LIMIT :limit";
+
+    // Listings in the wrong category are deleted, then inserted again with the right one
+    private static final String DELETE_STALE_LISTINGS = "DELETE FROM category_listed_products l " +
+            "WHERE l.product_id IN (:productIds) AND NOT EXISTS (SELECT 1 FROM listable_products d " +
+            "WHERE d.product_id = l.product_id AND d.category_id = l.category_id)";
+
+    private static final String INSERT_MISSING_LISTINGS = "INSERT INTO category_listed_products (product_id, category_id) " +
+            "SELECT d.product_id, d.category_id FROM listable_products d WHERE d.product_id IN (:productIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM category_listed_products l WHERE l.product_id = d.product_id) " +
+            "ON CONFLICT (product_id) DO NOTHING";
+
+    private static final String RECOUNT = "UPDATE category_product_counts n " +
+            "SET direct_count = a.direct_count, subtree_count = a.subtree_count " +
+            "FROM (SELECT c.id AS category_id, " +
+            "(SELECT count(*) FROM category_listed_products l WHERE l.category_id = c.id) AS direct_count, " +
+            "(SELECT count(*) FROM category_closure cc JOIN category_listed_products l ON l.category_id = cc.descendant_id " +
+            "WHERE cc.ancestor_id = c.id) AS subtree_count FROM categories c WHERE c.id IN (:categoryIds)) a " +
+            "WHERE n.category_id = a.category_id " +
+            "AND (n.direct_count <> a.direct_count OR n.subtree_count <> a.subtree_count)";
+
+    private static final RowMapper<CategoryCountRow> ROW_MAPPER = (rs, rowNum) -> new CategoryCountRow(
+            rs.getObject("category_id", UUID.class), rs.getInt("direct_count"), rs.getInt("subtree_count"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the counts of every active category
+     *
+     * @return the counts
+     */
+    public List<CategoryCountRow> findCounts() {
+        return jdbcTemplate.query(SELECT_COUNTS, ROW_MAPPER);
+    }
+
+    /**
+     * Finds the counts of a category
+     *
+     * @param categoryId the category ID
+     * @return the counts, empty if the category is not active
+     */
+    public Optional<CategoryCountRow> findCounts(UUID categoryId) {
+        return jdbcTemplate.query(SELECT_COUNTS + " AND n.category_id = :categoryId",
+                new MapSqlParameterSource("categoryId", categoryId), ROW_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Creates the counts missing for categories created before their trigger
+     *
+     * @return the number of created counts
+     */
+    public int insertMissingCounts() {
+        return jdbcTemplate.update(INSERT_MISSING_COUNTS, new MapSqlParameterSource());
+    }
+
+    /**
+     * Finds the next batch of product IDs
+     *
+     * @param after the ID of the last product of the previous batch
+     * @param limit the maximum number of products
+     * @return the product IDs, in ascending order
+     */
+    public List<UUID> findProductIds(UUID after, int limit) {
+        return jdbcTemplate.queryForList(SELECT_PRODUCT_IDS, batch(after, limit), UUID.class);
+    }
+
+    /**
+     * Brings the listings of products in line with the products and their inventory.
+     * Each repaired listing updates the counts through the triggers.
+     *
+     * @param productIds the product IDs
+     * @return the number of listings deleted or inserted
+     */
+    public int reconcileListings(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("productIds", productIds);
+        return jdbcTemplate.update(DELETE_STALE_LISTINGS, params) + jdbcTemplate.update(INSERT_MISSING_LISTINGS, params);
+    }
+
+    /**
+     * Locks the next batch of counts until the end of the transaction.
+     * Deltas applied by the triggers of concurrent transactions to these counts wait for the lock, and the
+     * statements run after it see every delta committed before it was granted.
+     *
+     * @param after the ID of the last category of the previous batch
+     * @param limit the maximum number of categories
+     * @return the IDs of the locked categories, in ascending order
+     */
+    public List<UUID> lockCounts(UUID after, int limit) {
+        return jdbcTemplate.queryForList(LOCK_COUNTS, batch(after, limit), UUID.class);
+    }
+
+    /**
+     * Recomputes the counts of categories from the listed products and corrects the drifted ones.
+     * Must run after {@link #lockCounts(UUID, int)} in the same transaction, otherwise a delta committed
+     * while the recount runs would be overwritten.
+     *
+     * @param categoryIds the IDs of the locked categories
+     * @return the number of corrected categories
+     */
+    public int recountCategories(Collection<UUID> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(RECOUNT, new MapSqlParameterSource("categoryIds", categoryIds));
+    }
+
+    private static MapSqlParameterSource batch(UUID after, int limit) {
+        return new MapSqlParameterSource("after", after).addValue("limit", limit);
+    }
+}
@@ -0,0 +1,12 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of the listable product counts of a category.
+ */
+public record CategoryCountRow(
+        UUID categoryId,
+        int directCount,
+        int subtreeCount) {
+}
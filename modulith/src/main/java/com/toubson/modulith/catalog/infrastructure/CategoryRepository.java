@@ -90,30 +90,38 @@ public interface CategoryRepository extends JpaRepository<Category, UUID> {
      * @param categoryId the ID of the category
      * @return a list of ancestor categories, ordered from the immediate parent to the root
      */
-    @Query(value = "WITH RECURSIVE ancestors AS (" +
-            "SELECT c.* FROM categories c WHERE c.id = :categoryId " +
-            "UNION ALL " +
-            "SELECT c.* FROM categories c JOIN ancestors a ON c.id = a.parent_id " +
-            "WHERE c.active = true" +
-            ") " +
-            "SELECT * FROM ancestors WHERE id != :categoryId", nativeQuery = true)
+    @Query("SELECT c FROM CategoryClosure cc JOIN Category c ON c.id = cc.ancestorId " +
+            "WHERE cc.descendantId = :categoryId AND cc.depth > 0 AND c.active = true ORDER BY cc.depth")
     List<Category> findAncestors(@Param("categoryId") UUID categoryId);
 
     /**
      * Find all descendant categories of a given category
      *
      * @param categoryId the ID of the category
-     * @return a list of descendant categories
+     * @return a list of descendant categories, level by level
      */
-    @Query(value = "WITH RECURSIVE descendants AS (" +
-            "SELECT c.* FROM categories c WHERE c.id = :categoryId " +
-            "UNION ALL " +
-            "SELECT c.* FROM categories c JOIN descendants d ON c.parent_id = d.id " +
-            "WHERE c.active = true" +
-            ") " +
-            "SELECT * FROM descendants WHERE id != :categoryId", nativeQuery = true)
+    @Query("SELECT c FROM CategoryClosure cc JOIN Category c ON c.id = cc.descendantId " +
+            "WHERE cc.ancestorId = :categoryId AND cc.depth > 0 AND c.active = true ORDER BY cc.depth, c.sortOrder, c.name")
     List<Category> findDescendants(@Param("categoryId") UUID categoryId);
 
+    /**
+     * Find the IDs of a category and of all its descendants
+     *
+     * @param categoryId the ID of the category
+     * @return the IDs of the categories of the subtree, empty if the category does not exist
+     */
+    @Query("SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId")
+    List<UUID> findSubtreeIds(@Param("categoryId") UUID categoryId);
+
+    /**
+     * Find the depth of a category
+     *
+     * @param categoryId the ID of the category
+     * @return the number of ancestors of the category, 0 for a root category
+     */
+    @Query("SELECT COALESCE(MAX(cc.depth), 0) FROM CategoryClosure cc WHERE cc.descendantId = :categoryId")
+    int findDepth(@Param("categoryId") UUID categoryId);
+
     /**
      * Find all sibling categories of a given category (categories with the same parent)
      *
@@ -132,4 +140,14 @@ public interface CategoryRepository extends JpaRepository<Category, UUID> {
      * @return true if a category with the given slug exists, false otherwise
      */
     boolean existsBySlug(String slug);
-}
\ No newline at end of file
+
+    /**
+     * Find all categories without loading their parent, children or products
+     *
+     * @return the category rows, ordered by sort order and name
+     */
+    @Query("SELECT new com.toubson.modulith.catalog.infrastructure.CategoryRow(" +
+            "c.id, c.name, c.slug, c.description, parent.id, c.sortOrder) " +
+            "FROM Category c LEFT JOIN c.parent parent ORDER BY c.sortOrder, c.name")
+    List<CategoryRow> findAllRows();
+}
@@ -0,0 +1,9 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of a category without its parent, children and products.
+ */
+public record CategoryRow(UUID id, String name, String slug, String description, UUID parentId, int sortOrder) {
+}
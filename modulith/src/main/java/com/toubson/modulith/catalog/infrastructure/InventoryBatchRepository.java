@@ -0,0 +1,88 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository.Owner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * JDBC repository reserving stock of many product or variant inventories at once.
+ * The inventories of a batch are first locked in a single statement per table, always in ID order and
+ * product inventories before variant inventories, so that two batches sharing inventories queue on the
+ * first one they share instead of deadlocking. Once every quantity has been checked against the locked
+ * rows, all the reservations of a table are applied by a single {@code UPDATE ... FROM (VALUES ...)}, which
+ * returns the new stock levels.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryBatchRepository {
+
+    private static final String LOCK_PRODUCT_STOCK = "SELECT i.id, i.product_id AS item_id, i.tracking_strategy, " +
+            "coalesce(i.stock_quantity, 0) AS stock_quantity, coalesce(i.reserved_quantity, 0) AS reserved_quantity, " +
+            "i.stripe_count FROM inventory i WHERE i.product_id IN (:itemIds) ORDER BY i.id FOR UPDATE";
+
+    // Variant stock is always finite
+    private static final String LOCK_VARIANT_STOCK = "SELECT i.id, i.variant_id AS item_id, 'FINITE' AS tracking_strategy, " +
+            "coalesce(i.stock_quantity, 0) AS stock_quantity, i.reserved_quantity, i.stripe_count " +
+            "FROM variant_inventory i WHERE i.variant_id IN (:itemIds) ORDER BY i.id FOR UPDATE";
+
+    private static final RowMapper<LockedStockRow> ROW_MAPPER = (rs, rowNum) -> new LockedStockRow(
+            rs.getObject("id", UUID.class), rs.getObject("item_id", UUID.class),
+            InventoryTrackingStrategy.valueOf(rs.getString("tracking_strategy")), rs.getInt("stock_quantity"),
+            rs.getInt("reserved_quantity"), rs.getInt("stripe_count"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks the inventories of the given products or variants until the end of the transaction
+     *
+     * @param owner   the kind of inventory
+     * @param itemIds the product or variant IDs
+     * @return the locked inventories, in ID order; items without inventory are missing
+     */
+    public List<LockedStockRow> lockStock(Owner owner, Collection<UUID> itemIds) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(owner == Owner.PRODUCT ? LOCK_PRODUCT_STOCK : LOCK_VARIANT_STOCK,
+                new MapSqlParameterSource("itemIds", itemIds), ROW_MAPPER);
+    }
+
+    /**
+     * Adds quantities to the reserved quantity of locked, unstriped inventories in a single statement
+     *
+     * @param owner      the kind of inventory
+     * @param quantities the quantity to reserve per inventory ID
+     * @param now        the update time
+     * @return the stock levels of the updated inventories
+     */
+    public List<StockLevelRow> reserve(Owner owner, Map<UUID, Integer> quantities, Instant now) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("now", Timestamp.from(now));
+        StringJoiner values = new StringJoiner(", ");
+        int line = 0;
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            values.add("(CAST(:id" + line + " AS uuid), CAST(:quantity" + line + " AS int))");
+            params.addValue("id" + line, entry.getKey()).addValue("quantity" + line, entry.getValue());
+            line++;
+        }
+        String table = owner == Owner.PRODUCT ? "inventory" : "variant_inventory";
+        return jdbcTemplate.query("UPDATE " + table + " i SET reserved_quantity = coalesce(i.reserved_quantity, 0) + v.quantity, " +
+                "version = i.version + 1, updated_at = :now FROM (VALUES " + values + ") AS v (id, quantity) " +
+                "WHERE i.id = v.id AND i.stripe_count = 0 RETURNING " + InventoryStripeRepository.levelColumns(owner),
+                params, InventoryStripeRepository.LEVEL_MAPPER);
+    }
+}
@@ -4,6 +4,7 @@ import com.toubson.modulith.catalog.domain.Inventory;
 import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
 import com.toubson.modulith.catalog.domain.Product;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,6 +12,7 @@ import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -56,6 +58,16 @@ public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
     @Query("SELECT i FROM Inventory i WHERE i.product.id = :productId")
     Optional<Inventory> findByProductIdWithLock(@Param("productId") UUID productId);
 
+    /**
+     * Find how the stock of the inventory of a product is tracked
+     *
+     * @param productId the product ID
+     * @return the inventory ID, tracking strategy and stripe count, empty if the product has no inventory
+     */
+    @Query("SELECT new com.toubson.modulith.catalog.infrastructure.StockModeRow(i.id, i.trackingStrategy, i.stripeCount) " +
+            "FROM Inventory i WHERE i.product.id = :productId")
+    Optional<StockModeRow> findStockModeByProductId(@Param("productId") UUID productId);
+
     /**
      * Find inventory by tracking strategy
      *
@@ -131,4 +143,32 @@ public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
      */
     @Query("SELECT i FROM Inventory i WHERE i.trackingStrategy = 'FINITE' AND i.stockQuantity > 0")
     Page<Inventory> findInStock(Pageable pageable);
-}
\ No newline at end of file
+
+    String LOW_STOCK_ROW = "SELECT new com.toubson.modulith.catalog.infrastructure.LowStockRow(" +
+            "i.id, p.id, p.name, p.sku, i.stockQuantity, i.lowStockThreshold, " +
+            "i.reservedQuantity + CASE WHEN i.stripeCount > 0 THEN i.allottedQuantity - cast(function('inventory_stripes_available', i.id) as Integer) ELSE 0 END) " +
+            "FROM Inventory i JOIN i.product p " +
+            "WHERE i.trackingStrategy = 'FINITE' AND i.stockQuantity <= i.lowStockThreshold";
+
+    /**
+     * Find the first low stock rows, lowest stock first
+     *
+     * @param limit the maximum number of rows
+     * @return the low stock rows ordered by stock quantity and ID
+     */
+    @Query(LOW_STOCK_ROW + " ORDER BY i.stockQuantity, i.id")
+    List<LowStockRow> findLowStockRows(Limit limit);
+
+    /**
+     * Find the low stock rows following the given position, lowest stock first.
+     * Uses keyset pagination so deep pages cost the same as the first one.
+     *
+     * @param stockQuantity the stock quantity of the previous page's last row
+     * @param id            the inventory ID of the previous page's last row
+     * @param limit         the maximum number of rows
+     * @return the low stock rows ordered by stock quantity and ID
+     */
+    @Query(LOW_STOCK_ROW + " AND i.stockQuantity >= :stockQuantity " +
+            "AND (i.stockQuantity > :stockQuantity OR i.id > :id) ORDER BY i.stockQuantity, i.id")
+    List<LowStockRow> findLowStockRowsAfter(@Param("stockQuantity") int stockQuantity, @Param("id") UUID id, Limit limit);
+}
@@ -0,0 +1,115 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository.Owner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC repository for the guarded stock updates of finite inventories.
+ * Reservations, releases and commits only apply to unstriped inventories; the stripes of striped ones are
+ * updated through {@link InventoryStripeRepository}.
+ * Each update is a single statement whose condition checks the quantities, so the row lock it takes
+ * serializes concurrent commands without any retry, and it returns the stock level it left behind:
+ * the level before the update follows from the quantity, so stock crossing a threshold is detected
+ * without reading the inventory again.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryStockRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserves stock, if enough stock is available
+     *
+     * @param owner    the kind of inventory
+     * @param itemId   the product or variant ID
+     * @param quantity the quantity to reserve
+     * @param now      the update time
+     * @return the stock level after the reservation, empty if the inventory is not finite, is striped or has
+     * not enough available stock
+     */
+    public Optional<StockLevelRow> reserve(Owner owner, UUID itemId, int quantity, Instant now) {
+        return update(owner, "reserved_quantity = i.reserved_quantity + :quantity",
+                "i.stripe_count = 0 AND i.stock_quantity - i.reserved_quantity >= :quantity", itemId, quantity, now);
+    }
+
+    /**
+     * Releases reserved stock
+     *
+     * @param owner    the kind of inventory
+     * @param itemId   the product or variant ID
+     * @param quantity the quantity to release
+     * @param now      the update time
+     * @return the stock level after the release, empty if the inventory is not finite, is striped or has less stock reserved
+     */
+    public Optional<StockLevelRow> release(Owner owner, UUID itemId, int quantity, Instant now) {
+        return update(owner, "reserved_quantity = i.reserved_quantity - :quantity",
+                "i.stripe_count = 0 AND i.reserved_quantity >= :quantity", itemId, quantity, now);
+    }
+
+    /**
+     * Removes reserved stock from the stock quantity
+     *
+     * @param owner    the kind of inventory
+     * @param itemId   the product or variant ID
+     * @param quantity the reserved quantity to commit
+     * @param now      the update time
+     * @return the stock level after the commit, empty if the inventory is not finite, is striped or has less stock reserved
+     */
+    public Optional<StockLevelRow> commit(Owner owner, UUID itemId, int quantity, Instant now) {
+        return update(owner, "stock_quantity = i.stock_quantity - :quantity, reserved_quantity = i.reserved_quantity - :quantity",
+                "i.stripe_count = 0 AND i.reserved_quantity >= :quantity AND i.stock_quantity >= :quantity", itemId, quantity, now);
+    }
+
+    /**
+     * Adds received stock to the stock quantity, striped or not
+     *
+     * @param owner    the kind of inventory
+     * @param itemId   the product or variant ID
+     * @param quantity the received quantity
+     * @param now      the update time
+     * @return the stock level after the receipt, empty if the inventory is not finite
+     */
+    public Optional<StockLevelRow> receive(Owner owner, UUID itemId, int quantity, Instant now) {
+        return update(owner, "stock_quantity = coalesce(i.stock_quantity, 0) + :quantity", "true", itemId, quantity, now);
+    }
+
+    /**
+     * Corrects the stock quantity, striped or not, if the stock left still covers the reserved stock.
+     * The reserved and allotted quantities add up to the stock reserved by orders and the stock left in the stripes.
+     *
+     * @param owner    the kind of inventory
+     * @param itemId   the product or variant ID
+     * @param change   the change of the stock quantity, negative for a shrinkage
+     * @param now      the update time
+     * @return the stock level after the adjustment, empty if the inventory is not finite or the stock left would not
+     * cover the stock reserved by orders and allotted to stripes
+     */
+    public Optional<StockLevelRow> adjust(Owner owner, UUID itemId, int change, Instant now) {
+        return update(owner, "stock_quantity = coalesce(i.stock_quantity, 0) + :quantity",
+                "coalesce(i.stock_quantity, 0) + :quantity >= coalesce(i.reserved_quantity, 0) + i.allotted_quantity", itemId, change, now);
+    }
+
+    private Optional<StockLevelRow> update(Owner owner, String set, String guard, UUID itemId, int quantity, Instant now) {
+        // Variant stock is always finite
+        String sql = owner == Owner.PRODUCT
+                ? "UPDATE inventory i SET " + set + ", version = i.version + 1, updated_at = :now " +
+                "WHERE i.product_id = :itemId AND i.tracking_strategy = 'FINITE' AND " + guard
+                : "UPDATE variant_inventory i SET " + set + ", version = i.version + 1, updated_at = :now " +
+                "WHERE i.variant_id = :itemId AND " + guard;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("itemId", itemId)
+                .addValue("quantity", quantity)
+                .addValue("now", Timestamp.from(now));
+        return jdbcTemplate.query(sql + " RETURNING " + InventoryStripeRepository.levelColumns(owner), params,
+                InventoryStripeRepository.LEVEL_MAPPER).stream().findFirst();
+    }
+}
@@ -0,0 +1,229 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+/**
+ * JDBC repository for the stripes of striped product and variant inventories.
+ * The available stock of a striped inventory is allotted to its stripes and recorded in its allotted
+ * quantity; reserving takes stock from a single stripe, so concurrent reservations on different
+ * stripes never wait for each other. Releases and commits only change the inventory row. The stock
+ * outside the stripes is the stock quantity minus the reserved and allotted quantities, while the stock
+ * reserved by orders also counts the stock reserved from the stripes since they were allotted, so only
+ * reading it requires the stripes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryStripeRepository {
+
+    static final RowMapper<StockLevelRow> LEVEL_MAPPER = (rs, rowNum) -> new StockLevelRow(
+            rs.getObject("id", UUID.class), rs.getObject("product_id", UUID.class), rs.getObject("variant_id", UUID.class),
+            rs.getObject("stock_quantity", Integer.class), rs.getInt("reserved_quantity"),
+            rs.getObject("low_stock_threshold", Integer.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserves stock from one stripe, if the stripe has enough left
+     *
+     * @param owner       the kind of inventory
+     * @param inventoryId the inventory ID
+     * @param stripe      the stripe number
+     * @param quantity    the quantity to reserve
+     * @return the stock left in the stripe, empty if the stock was not reserved
+     */
+    public OptionalInt reserve(Owner owner, UUID inventoryId, int stripe, int quantity) {
+        String sql = "UPDATE " + owner.stripeTable + " SET available_quantity = available_quantity - :quantity " +
+                "WHERE " + owner.inventoryColumn + " = :inventoryId AND stripe = :stripe AND available_quantity >= :quantity " +
+                "RETURNING available_quantity";
+        return jdbcTemplate.query(sql, params(inventoryId, quantity).addValue("stripe", stripe), (rs, rowNum) -> rs.getInt(1))
+                .stream().mapToInt(Integer::intValue).findFirst();
+    }
+
+    /**
+     * Releases stock reserved by orders; the released stock is allotted to the stripes on the next rebalance
+     *
+     * @param owner       the kind of inventory
+     * @param inventoryId the inventory ID
+     * @param quantity    the quantity to release
+     * @return the stock level after the release, empty if less stock is reserved by orders
+     */
+    public Optional<StockLevelRow> release(Owner owner, UUID inventoryId, int quantity) {
+        String sql = "UPDATE " + owner.table + " i SET " + takeReserved(":quantity") + ", version = version + 1, updated_at = now() " +
+                "WHERE i.id = :inventoryId AND " + reservedByOrders(owner, "i") + " >= :quantity " +
+                "RETURNING " + levelColumns(owner);
+        return jdbcTemplate.query(sql, params(inventoryId, quantity), LEVEL_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Removes stock reserved by orders from the stock quantity
+     *
+     * @param owner       the kind of inventory
+     * @param inventoryId the inventory ID
+     * @param quantity    the reserved quantity to commit
+     * @return the stock level after the commit, empty if less stock is reserved by orders
+     */
+    public Optional<StockLevelRow> commit(Owner owner, UUID inventoryId, int quantity) {
+        String sql = "UPDATE " + owner.table + " i SET stock_quantity = stock_quantity - :quantity, " + takeReserved(":quantity") +
+                ", version = version + 1, updated_at = now() " +
+                "WHERE i.id = :inventoryId AND i.stock_quantity >= :quantity " +
+                "AND " + reservedByOrders(owner, "i") + " >= :quantity " +
+                "RETURNING " + levelColumns(owner);
+        return jdbcTemplate.query(sql, params(inventoryId, quantity), LEVEL_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Reads the stock level of an inventory without locking anything
+     *
+     * @param owner       the kind of inventory
+     * @param inventoryId the inventory ID
+     * @return the stock level, empty if the inventory does not exist
+     */
+    public Optional<StockLevelRow> findStockLevel(Owner owner, UUID inventoryId) {
+        return jdbcTemplate.query("SELECT " + levelColumns(owner) + " FROM " + owner.table + " i WHERE i.id = :inventoryId",
+                params(inventoryId, 0), LEVEL_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Reads the available stock without locking anything
+     *
+     * @param owner       the kind of inventory
+     * @param inventoryId the inventory ID
+     * @return the stock not reserved by orders, 0 if the inventory does not exist
+     */
+    public int findAvailableQuantity(Owner owner, UUID inventoryId) {
+        String sql = "SELECT coalesce(i.stock_quantity, 0) - coalesce(" + reservedByOrders(owner, "i") + ", 0)" +
+                " FROM " + owner.table + " i WHERE i.id = :inventoryId";
+        return jdbcTemplate.query(sql, params(inventoryId, 0), (rs, rowNum) -> rs.getInt(1)).stream()
+                .findFirst().orElse(0);
+    }
+
+    /**
+     * Locks an inventory and its stripes, then reads their quantities.
+     * The inventory is locked first, so concurrent rebalances queue on it.
+     *
+     * @param owner       the kind of inventory
+     * @param inventoryId the inventory ID
+     * @return the quantities, empty if the inventory does not exist
+     */
+    public Optional<StripedStockRow> lockStock(Owner owner, UUID inventoryId) {
+        MapSqlParameterSource params = params(inventoryId, 0);
+        Optional<StripedStockRow> inventory = jdbcTemplate.query(
+                "SELECT coalesce(stock_quantity, 0) AS stock_quantity, coalesce(reserved_quantity, 0) AS reserved_quantity, " +
+                        "allotted_quantity, stripe_count FROM " + owner.table + " WHERE id = :inventoryId FOR UPDATE",
+                params, (rs, rowNum) -> new StripedStockRow(rs.getInt("stock_quantity"), rs.getInt("reserved_quantity"),
+                        rs.getInt("allotted_quantity"), rs.getInt("stripe_count"), 0)).stream().findFirst();
+        return inventory.map(row -> {
+            Integer allotted = jdbcTemplate.queryForObject("SELECT coalesce(sum(available_quantity), 0) FROM " +
+                    "(SELECT available_quantity FROM " + owner.stripeTable + " WHERE " + owner.inventoryColumn +
+                    " = :inventoryId ORDER BY stripe FOR UPDATE) s", params, Integer.class);
+            return new StripedStockRow(row.stockQuantity(), row.reservedQuantity(), row.allottedQuantity(),
+                    row.stripeCount(), allotted != null ? allotted : 0);
+        });
+    }
+
+    /**
+     * Allots stock to the stripes of a locked inventory, replacing the previous stripes
+     *
+     * @param owner            the kind of inventory
+     * @param inventoryId      the inventory ID
+     * @param reservedQuantity the new reserved quantity, the stock reserved by orders
+     * @param allotments       the stock allotted to each stripe; the inventory is no longer striped if empty
+     */
+    public void allot(Owner owner, UUID inventoryId, int reservedQuantity, int[] allotments) {
+        if (allotments.length > 0) {
+            SqlParameterSource[] stripes = new SqlParameterSource[allotments.length];
+            for (int stripe = 0; stripe < allotments.length; stripe++) {
+                stripes[stripe] = params(inventoryId, allotments[stripe]).addValue("stripe", stripe);
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO " + owner.stripeTable + " (" + owner.inventoryColumn +
+                    ", stripe, available_quantity) VALUES (:inventoryId, :stripe, :quantity) " +
+                    "ON CONFLICT (" + owner.inventoryColumn + ", stripe) DO UPDATE SET available_quantity = EXCLUDED.available_quantity",
+                    stripes);
+        }
+        jdbcTemplate.update("DELETE FROM " + owner.stripeTable + " WHERE " + owner.inventoryColumn +
+                " = :inventoryId AND stripe >= :stripeCount", params(inventoryId, 0).addValue("stripeCount", allotments.length));
+        jdbcTemplate.update("UPDATE " + owner.table + " SET reserved_quantity = :quantity, allotted_quantity = :allotted, " +
+                        "stripe_count = :stripeCount, version = version + 1, updated_at = now() WHERE id = :inventoryId",
+                params(inventoryId, reservedQuantity).addValue("allotted", Arrays.stream(allotments).sum()).addValue("stripeCount", allotments.length));
+    }
+
+    /**
+     * Gets the columns of a {@link StockLevelRow} of the inventory aliased {@code i}
+     */
+    static String levelColumns(Owner owner) {
+        return "i.id, " + owner.productId + " AS product_id, " + owner.variantId + " AS variant_id, i.stock_quantity, " +
+                reservedByOrders(owner, "i") + " AS reserved_quantity, i.low_stock_threshold";
+    }
+
+    /**
+     * Gets the table of the inventories of an owner
+     */
+    static String table(Owner owner) {
+        return owner.table;
+    }
+
+    /**
+     * Gets the stock reserved by orders of an inventory: its reserved quantity, plus for a striped inventory
+     * the stock reserved from its stripes since it was allotted to them
+     *
+     * @param alias the alias of the inventory table
+     */
+    static String reservedByOrders(Owner owner, String alias) {
+        return "(" + alias + ".reserved_quantity + CASE WHEN " + alias + ".stripe_count > 0 THEN " + alias +
+                ".allotted_quantity - " + owner.stripesFunction + "(" + alias + ".id) ELSE 0 END)";
+    }
+
+    /**
+     * Gets the assignments releasing stock reserved by orders from the inventory aliased {@code i}: first from
+     * its reserved quantity, then from the stock reserved from its stripes
+     *
+     * @param quantity the expression of the quantity to release
+     */
+    static String takeReserved(String quantity) {
+        return "reserved_quantity = greatest(coalesce(i.reserved_quantity, 0) - " + quantity + ", 0), " +
+                "allotted_quantity = i.allotted_quantity - greatest(" + quantity + " - coalesce(i.reserved_quantity, 0), 0)";
+    }
+
+    private static MapSqlParameterSource params(UUID inventoryId, int quantity) {
+        return new MapSqlParameterSource()
+                .addValue("inventoryId", inventoryId)
+                .addValue("quantity", quantity);
+    }
+
+    /**
+     * The kinds of inventory that can be striped
+     */
+    public enum Owner {
+        PRODUCT("inventory", "inventory_stripes", "inventory_id", "inventory_stripes_available",
+                "i.product_id", "CAST(NULL AS uuid)"),
+        VARIANT("variant_inventory", "variant_inventory_stripes", "variant_inventory_id", "variant_inventory_stripes_available",
+                "(SELECT v.product_id FROM product_variants v WHERE v.id = i.variant_id)", "i.variant_id");
+
+        private final String table;
+        private final String stripeTable;
+        private final String inventoryColumn;
+        private final String stripesFunction;
+        private final String productId;
+        private final String variantId;
+
+        Owner(String table, String stripeTable, String inventoryColumn, String stripesFunction, String productId,
+              String variantId) {
+            this.table = table;
+            this.stripeTable = stripeTable;
+            this.inventoryColumn = inventoryColumn;
+            this.stripesFunction = stripesFunction;
+            this.productId = productId;
+            this.variantId = variantId;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Position of the last row of a page: the value of its sort key and its ID.
+ */
+public record Keyset(Comparable<?> value, UUID id) {
+}
@@ -0,0 +1,18 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
+
+import java.util.UUID;
+
+/**
+ * Projection of the quantities of an inventory locked for a batch of reservations.
+ * The reserved quantity includes the stock allotted to stripes when the inventory is striped.
+ */
+public record LockedStockRow(
+        UUID inventoryId,
+        UUID itemId,
+        InventoryTrackingStrategy trackingStrategy,
+        int stockQuantity,
+        int reservedQuantity,
+        int stripeCount) {
+}
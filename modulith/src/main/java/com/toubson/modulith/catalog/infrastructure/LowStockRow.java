@@ -0,0 +1,16 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of a low stock inventory with its product.
+ */
+public record LowStockRow(
+        UUID inventoryId,
+        UUID productId,
+        String productName,
+        String sku,
+        Integer stockQuantity,
+        Integer lowStockThreshold,
+        Integer reservedQuantity) {
+}
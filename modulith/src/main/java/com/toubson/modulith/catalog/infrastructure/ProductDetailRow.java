@@ -0,0 +1,28 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
+import com.toubson.modulith.catalog.domain.ProductType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Flat projection of a single product with its category and inventory.
+ */
+public record ProductDetailRow(
+        UUID id,
+        String name,
+        String description,
+        String sku,
+        BigDecimal price,
+        ProductType productType,
+        UUID categoryId,
+        String categoryName,
+        String categorySlug,
+        InventoryTrackingStrategy trackingStrategy,
+        Integer stockQuantity,
+        Integer reservedQuantity,
+        Instant createdAt,
+        Instant updatedAt) {
+}
@@ -0,0 +1,16 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.ProductType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Projection of the product fields used as facets.
+ */
+public record ProductFacetRow(
+        UUID id,
+        UUID categoryId,
+        ProductType productType,
+        BigDecimal price) {
+}
@@ -0,0 +1,100 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository.Owner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC repository reading the active products of the product feeds, one shard at a time.
+ * Shards split the UUID space on the first six bits of the product ID, so that a shard is one range of the
+ * primary key, read by keyset on the ID.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductFeedRepository {
+
+    public static final int SHARDS = 64;
+    private static final int SHARD_SHIFT = 64 - Integer.numberOfTrailingZeros(SHARDS);
+
+    // The shard of an ID is the top six bits of its first byte, the most significant one
+    private static final String CHANGED_SHARDS = "SELECT get_byte(uuid_send(p.id), 0) >> 2 AS shard " +
+            "FROM products p WHERE p.updated_at > :since " +
+            "UNION SELECT get_byte(uuid_send(i.product_id), 0) >> 2 FROM inventory i WHERE i.updated_at > :since";
+
+    private static final String PRODUCTS = "SELECT p.id, p.sku, p.name, p.description, p.price, c.name AS category_name, " +
+            "i.tracking_strategy, i.stock_quantity, " + InventoryStripeRepository.reservedByOrders(Owner.PRODUCT, "i") +
+            " AS reserved_quantity, p.updated_at " +
+            "FROM products p LEFT JOIN categories c ON c.id = p.category_id LEFT JOIN inventory i ON i.product_id = p.id " +
+            "WHERE p.active = true AND p.id <= :to ";
+
+    private static final RowMapper<ProductFeedRow> ROW_MAPPER = (rs, rowNum) -> {
+        String strategy = rs.getString("tracking_strategy");
+        return new ProductFeedRow(
+                rs.getObject("id", UUID.class),
+                rs.getString("sku"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getBigDecimal("price"),
+                rs.getString("category_name"),
+                strategy != null ? InventoryTrackingStrategy.valueOf(strategy) : null,
+                rs.getObject("stock_quantity", Integer.class),
+                rs.getObject("reserved_quantity", Integer.class),
+                rs.getTimestamp("updated_at").toInstant());
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the shards holding products updated, or whose inventory was updated, after the given instant.
+     * Deactivated products are found as well, since their update is recorded.
+     *
+     * @param since the instant after which updates are looked for
+     * @return the shards, in no particular order
+     */
+    public List<Integer> findChangedShards(Instant since) {
+        return jdbcTemplate.queryForList(CHANGED_SHARDS, new MapSqlParameterSource("since", Timestamp.from(since)),
+                Integer.class);
+    }
+
+    /**
+     * Finds the first page of active products of a shard
+     *
+     * @param shard the shard
+     * @param limit the maximum number of products to return
+     * @return the products, in ID order
+     */
+    public List<ProductFeedRow> findFirstInShard(int shard, int limit) {
+        return jdbcTemplate.query(PRODUCTS + "AND p.id >= :from ORDER BY p.id LIMIT :limit",
+                new MapSqlParameterSource("from", new UUID((long) shard << SHARD_SHIFT, 0L))
+                        .addValue("to", lastId(shard))
+                        .addValue("limit", limit), ROW_MAPPER);
+    }
+
+    /**
+     * Finds the page of active products of a shard following the given product
+     *
+     * @param shard the shard
+     * @param after the ID of the last product of the previous page
+     * @param limit the maximum number of products to return
+     * @return the products, in ID order
+     */
+    public List<ProductFeedRow> findInShardAfter(int shard, UUID after, int limit) {
+        return jdbcTemplate.query(PRODUCTS + "AND p.id > :after ORDER BY p.id LIMIT :limit",
+                new MapSqlParameterSource("after", after)
+                        .addValue("to", lastId(shard))
+                        .addValue("limit", limit), ROW_MAPPER);
+    }
+
+    private static UUID lastId(int shard) {
+        return new UUID(((long) shard << SHARD_SHIFT) | (-1L >>> (64 - SHARD_SHIFT)), -1L);
+    }
+}
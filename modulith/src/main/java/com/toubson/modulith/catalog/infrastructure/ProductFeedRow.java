@@ -0,0 +1,23 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Projection of an active product written to the product feeds, with its category and stock.
+ */
+public record ProductFeedRow(
+        UUID id,
+        String sku,
+        String name,
+        String description,
+        BigDecimal price,
+        String categoryName,
+        InventoryTrackingStrategy trackingStrategy,
+        Integer stockQuantity,
+        Integer reservedQuantity,
+        Instant updatedAt) {
+}
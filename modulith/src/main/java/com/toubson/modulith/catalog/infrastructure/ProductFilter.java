@@ -0,0 +1,22 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.ProductType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Optional criteria of a product listing. Null criteria are ignored.
+ */
+public record ProductFilter(
+        UUID categoryId,
+        ProductType productType,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        String tagSlug,
+        String searchTerm) {
+
+    public static ProductFilter none() {
+        return new ProductFilter(null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.ProductType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Projection of the product fields indexed by the in-memory search index.
+ */
+public record ProductIndexRow(
+        UUID id,
+        String name,
+        String sku,
+        String description,
+        BigDecimal price,
+        ProductType productType) {
+}
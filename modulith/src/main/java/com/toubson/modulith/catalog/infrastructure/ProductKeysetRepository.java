@@ -0,0 +1,26 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * Keyset (seek) pagination of product rows.
+ * Instead of skipping an offset, each page starts right after the sort key and ID of the
+ * previous page's last row, so a deep page costs the same index range scan as the first one.
+ */
+public interface ProductKeysetRepository {
+
+    /**
+     * Find the product rows following the given position
+     *
+     * @param filter    the listing criteria
+     * @param sortKey   the sort key, tie-broken by ID
+     * @param direction the direction of both the sort key and the ID
+     * @param after     the position of the previous page's last row, or null for the first page
+     * @param limit     the maximum number of rows
+     * @return the product rows, in sort order
+     */
+    List<ProductRow> findRowsAfter(ProductFilter filter, ProductSortKey sortKey, Sort.Direction direction,
+                                   Keyset after, int limit);
+}
@@ -0,0 +1,110 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+class ProductKeysetRepositoryImpl implements ProductKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductRow> findRowsAfter(ProductFilter filter, ProductSortKey sortKey, Sort.Direction direction,
+                                          Keyset after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductRow> query = cb.createQuery(ProductRow.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, Category> category = product.join("category", JoinType.LEFT);
+        Join<Product, Inventory> inventory = product.join("inventory", JoinType.LEFT);
+
+        query.select(cb.construct(ProductRow.class,
+                product.get("id"), product.get("name"), product.get("sku"), product.get("price"),
+                product.get("productType"), category.get("id"), category.get("name"), category.get("slug"),
+                inventory.get("trackingStrategy"), inventory.get("stockQuantity"),
+                reservedByOrders(cb, inventory),
+                product.get("createdAt")));
+
+        List<Predicate> predicates = filterPredicates(cb, query, product, filter);
+        Path<Comparable<Object>> sortPath = product.get(sortKey.getProperty());
+        Path<UUID> idPath = product.get("id");
+        if (after != null) {
+            predicates.add(keysetPredicate(cb, sortPath, idPath, direction, after));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(direction.isAscending()
+                ? List.of(cb.asc(sortPath), cb.asc(idPath))
+                : List.of(cb.desc(sortPath), cb.desc(idPath)));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Gets the stock reserved by orders: the reserved quantity, plus the stock reserved from the stripes of a
+     * striped inventory, whose stripes are only read then
+     */
+    private static Expression<Integer> reservedByOrders(CriteriaBuilder cb, Join<Product, Inventory> inventory) {
+        Expression<Integer> reservedFromStripes = cb.diff(inventory.<Integer>get("allottedQuantity"),
+                cb.function("inventory_stripes_available", Integer.class, inventory.get("id")));
+        return cb.sum(inventory.<Integer>get("reservedQuantity"), cb.<Integer>selectCase()
+                .when(cb.gt(inventory.<Integer>get("stripeCount"), 0), reservedFromStripes)
+                .otherwise(0));
+    }
+
+    private static List<Predicate> filterPredicates(CriteriaBuilder cb, CriteriaQuery<?> query,
+                                                    Root<Product> product, ProductFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.categoryId() != null) {
+            predicates.add(cb.equal(product.get("category").get("id"), filter.categoryId()));
+        }
+        if (filter.productType() != null) {
+            predicates.add(cb.equal(product.get("productType"), filter.productType()));
+        }
+        if (filter.minPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.get("price"), filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(product.get("price"), filter.maxPrice()));
+        }
+        if (filter.tagSlug() != null) {
+            Subquery<UUID> tagged = query.subquery(UUID.class);
+            Root<Tag> tag = tagged.from(Tag.class);
+            Join<Tag, Product> taggedProduct = tag.join("products");
+            tagged.select(taggedProduct.get("id")).where(cb.equal(tag.get("slug"), filter.tagSlug()));
+            predicates.add(product.get("id").in(tagged));
+        }
+        if (filter.searchTerm() != null && !filter.searchTerm().isBlank()) {
+            String pattern = "%" + filter.searchTerm().toLowerCase(Locale.ROOT) + "%";
+            predicates.add(cb.or(
+                    cb.like(cb.lower(product.get("name")), pattern),
+                    cb.like(cb.lower(product.get("description")), pattern)));
+        }
+        return predicates;
+    }
+
+    /**
+     * Builds {@code (sort, id) > (value, lastId)} for ascending pages and {@code <} for descending ones.
+     * The redundant bound on the sort key alone lets the database start the index scan at the position
+     * instead of filtering every row before it.
+     */
+    @SuppressWarnings("unchecked")
+    private static Predicate keysetPredicate(CriteriaBuilder cb, Path<Comparable<Object>> sortPath, Path<UUID> idPath,
+                                             Sort.Direction direction, Keyset after) {
+        Comparable<Object> value = (Comparable<Object>) after.value();
+        if (direction.isAscending()) {
+            return cb.and(
+                    cb.greaterThanOrEqualTo(sortPath, value),
+                    cb.or(cb.greaterThan(sortPath, value), cb.greaterThan(idPath, after.id())));
+        }
+        return cb.and(
+                cb.lessThanOrEqualTo(sortPath, value),
+                cb.or(cb.lessThan(sortPath, value), cb.lessThan(idPath, after.id())));
+    }
+}
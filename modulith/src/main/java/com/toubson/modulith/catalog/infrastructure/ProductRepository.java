@@ -3,6 +3,7 @@ package com.toubson.modulith.catalog.infrastructure;
 import com.toubson.modulith.catalog.domain.Category;
 import com.toubson.modulith.catalog.domain.Product;
 import com.toubson.modulith.catalog.domain.ProductType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,7 +12,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -19,7 +23,8 @@ import java.util.UUID;
  * Repository for Product entities.
  * Extends JpaSpecificationExecutor to support complex queries with specifications.
  */
-public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product>,
+        ProductKeysetRepository {
 
     /**
      * Find a product by its SKU
@@ -93,6 +98,7 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
      * @param tagNames the tag names to search for
      * @param pageable pagination information
      * @return a Page of products with any of the given tags
+     * @see com.toubson.modulith.catalog.application.ProductTagIndex
      */
     @Query("SELECT DISTINCT p FROM Product p JOIN p.tags t WHERE t.name IN :tagNames")
     Page<Product> findByTagNames(@Param("tagNames") List<String> tagNames, Pageable pageable);
@@ -103,21 +109,43 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
      * @param tagNames the tag names to search for
      * @param pageable pagination information
      * @return a Page of products with all of the given tags
+     * @see com.toubson.modulith.catalog.application.ProductTagIndex
      */
     @Query("SELECT p FROM Product p JOIN p.tags t WHERE t.name IN :tagNames GROUP BY p HAVING COUNT(DISTINCT t.name) = :tagCount")
     Page<Product> findByAllTagNames(@Param("tagNames") List<String> tagNames, @Param("tagCount") Long tagCount, Pageable pageable);
 
     /**
-     * Full-text search for products by name or description
+     * Full-text search for the IDs of the products indexed with the given text search configuration
      *
-     * @param searchTerm the search term
+     * @param searchTerm the search term, in web search syntax
+     * @param language   the text search configuration
      * @param pageable   pagination information
-     * @return a Page of products matching the search term
+     * @return a Page of product IDs, best match first
      */
-    @Query("SELECT p FROM Product p WHERE " +
-            "LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Product> search(@Param("searchTerm") String searchTerm, Pageable pageable);
+    @Query(value = "SELECT p.id FROM products p, websearch_to_tsquery(CAST(:language AS regconfig), :searchTerm) q " +
+            "WHERE p.active = true AND p.search_language = CAST(:language AS regconfig) AND p.search_vector @@ q " +
+            "ORDER BY ts_rank_cd(p.search_vector, q) DESC, p.id",
+            countQuery = "SELECT COUNT(*) FROM products p, websearch_to_tsquery(CAST(:language AS regconfig), :searchTerm) q " +
+                    "WHERE p.active = true AND p.search_language = CAST(:language AS regconfig) AND p.search_vector @@ q",
+            nativeQuery = true)
+    Page<UUID> searchIds(@Param("searchTerm") String searchTerm, @Param("language") String language, Pageable pageable);
+
+    /**
+     * Full-text search for products by name, SKU, tags or description.
+     * The matching IDs are found with a native query, then the products are loaded as entities, so that
+     * the mapping of their subclasses applies.
+     *
+     * @param searchTerm the search term, in web search syntax
+     * @param language   the text search configuration the products are indexed with
+     * @param pageable   pagination information
+     * @return a Page of products matching the search term, best match first
+     */
+    default Page<Product> search(String searchTerm, String language, Pageable pageable) {
+        Page<UUID> ids = searchIds(searchTerm, language, pageable);
+        Map<UUID, Product> products = new HashMap<>();
+        findAllById(ids.getContent()).forEach(product -> products.put(product.getId(), product));
+        return ids.map(products::get);
+    }
 
     /**
      * Check if a product with the given SKU exists
@@ -126,4 +154,172 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
      * @return true if a product with the given SKU exists, false otherwise
      */
     boolean existsBySku(String sku);
-}
\ No newline at end of file
+
+    String HEADLINE_OPTIONS = "StartSel=<mark>, StopSel=</mark>";
+    String ESCAPED_NAME = "replace(replace(replace(r.name, '&', '&amp;'), '<', '&lt;'), '>', '&gt;')";
+    String ESCAPED_DESCRIPTION = "replace(replace(replace(coalesce(r.description, ''), '&', '&amp;'), '<', '&lt;'), '>', '&gt;')";
+
+    String PRODUCT_INDEX_ROW = "SELECT new com.toubson.modulith.catalog.infrastructure.ProductIndexRow(" +
+            "p.id, p.name, p.sku, p.description, p.price, p.productType) FROM Product p ";
+
+    String PRODUCT_FACET_ROW = "SELECT new com.toubson.modulith.catalog.infrastructure.ProductFacetRow(" +
+            "p.id, c.id, p.productType, p.price) FROM Product p LEFT JOIN p.category c ";
+
+    String PRODUCT_ROW = "SELECT new com.toubson.modulith.catalog.infrastructure.ProductRow(" +
+            "p.id, p.name, p.sku, p.price, p.productType, c.id, c.name, c.slug, " +
+            "i.trackingStrategy, i.stockQuantity, " +
+            "i.reservedQuantity + CASE WHEN i.stripeCount > 0 THEN i.allottedQuantity - cast(function('inventory_stripes_available', i.id) as Integer) ELSE 0 END, p.createdAt) " +
+            "FROM Product p LEFT JOIN p.category c LEFT JOIN p.inventory i";
+
+    /**
+     * Find a page of product rows with their category and inventory in a single query
+     *
+     * @param pageable pagination information
+     * @return a Page of product rows
+     */
+    @Query(value = PRODUCT_ROW, countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductRow> findAllRows(Pageable pageable);
+
+    /**
+     * Find a page of product rows in the given category
+     *
+     * @param categoryId the ID of the category
+     * @param pageable   pagination information
+     * @return a Page of product rows in the given category
+     */
+    @Query(value = PRODUCT_ROW + " WHERE c.id = :categoryId",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId")
+    Page<ProductRow> findRowsByCategoryId(@Param("categoryId") UUID categoryId, Pageable pageable);
+
+    /**
+     * Find a page of product rows in the given category or in any of its descendants
+     *
+     * @param categoryId the ID of the category
+     * @param pageable   pagination information
+     * @return a Page of product rows in the subtree of the given category
+     */
+    @Query(value = PRODUCT_ROW + " WHERE c.id IN " +
+            "(SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id IN " +
+                    "(SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)")
+    Page<ProductRow> findRowsInCategorySubtree(@Param("categoryId") UUID categoryId, Pageable pageable);
+
+    /**
+     * Find a page of product rows having the tag with the given slug
+     *
+     * @param tagSlug  the slug of the tag
+     * @param pageable pagination information
+     * @return a Page of product rows having the given tag
+     */
+    @Query(value = PRODUCT_ROW + " WHERE p.id IN (SELECT tp.id FROM Tag t JOIN t.products tp WHERE t.slug = :tagSlug)",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.id IN " +
+                    "(SELECT tp.id FROM Tag t JOIN t.products tp WHERE t.slug = :tagSlug)")
+    Page<ProductRow> findRowsByTagSlug(@Param("tagSlug") String tagSlug, Pageable pageable);
+
+    /**
+     * Full-text search of products indexed with the given text search configuration.
+     * Matches are ranked on the weighted search vector (name and SKU first, then tags, then description)
+     * and highlighted only once the page is cut, as {@code ts_headline} is the most expensive step.
+     * Highlighted text is HTML-escaped before the {@code <mark>} tags are added.
+     *
+     * @param query    the query, in web search syntax (quoted phrases, OR, -excluded)
+     * @param language the text search configuration
+     * @param limit    the maximum number of rows
+     * @param offset   the number of rows to skip
+     * @return the search rows, best match first
+     */
+    @Query(value = "SELECT r.id AS id, r.name AS name, r.sku AS sku, r.price AS price, " +
+            "r.product_type AS productType, r.rank AS rank, " +
+            "ts_headline(r.search_language, " + ESCAPED_NAME + ", r.query, '" + HEADLINE_OPTIONS + ", HighlightAll=true') AS nameHighlight, " +
+            "ts_headline(r.search_language, " + ESCAPED_DESCRIPTION + ", r.query, '" + HEADLINE_OPTIONS + ", MaxFragments=2') AS descriptionHighlight " +
+            "FROM (SELECT p.id, p.name, p.description, p.sku, p.price, p.product_type, p.search_language, q AS query, " +
+            "ts_rank_cd(p.search_vector, q) AS rank " +
+            "FROM products p, websearch_to_tsquery(CAST(:language AS regconfig), :query) q " +
+            "WHERE p.active = true AND p.search_language = CAST(:language AS regconfig) AND p.search_vector @@ q " +
+            "ORDER BY rank DESC, p.id LIMIT :limit OFFSET :offset) r " +
+            "ORDER BY r.rank DESC, r.id",
+            nativeQuery = true)
+    List<ProductSearchRow> searchRows(@Param("query") String query, @Param("language") String language,
+                                      @Param("limit") int limit, @Param("offset") int offset);
+
+    /**
+     * Find a product row with its description, category and inventory
+     *
+     * @param id the ID of the product
+     * @return an Optional containing the product row if found, empty otherwise
+     */
+    @Query("SELECT new com.toubson.modulith.catalog.infrastructure.ProductDetailRow(" +
+            "p.id, p.name, p.description, p.sku, p.price, p.productType, c.id, c.name, c.slug, " +
+            "i.trackingStrategy, i.stockQuantity, " +
+            "i.reservedQuantity + CASE WHEN i.stripeCount > 0 THEN i.allottedQuantity - cast(function('inventory_stripes_available', i.id) as Integer) ELSE 0 END, p.createdAt, p.updatedAt) " +
+            "FROM Product p LEFT JOIN p.category c LEFT JOIN p.inventory i WHERE p.id = :id")
+    Optional<ProductDetailRow> findDetailRowById(@Param("id") UUID id);
+
+    /**
+     * Find the first indexable products of an ID range, ordered by ID
+     *
+     * @param from  the lowest ID of the range
+     * @param to    the highest ID of the range
+     * @param limit the maximum number of rows
+     * @return the index rows
+     */
+    @Query(PRODUCT_INDEX_ROW + "WHERE p.id >= :from AND p.id <= :to ORDER BY p.id")
+    List<ProductIndexRow> findIndexRowsInRange(@Param("from") UUID from, @Param("to") UUID to, Limit limit);
+
+    /**
+     * Find the indexable products of an ID range following the given ID, ordered by ID
+     *
+     * @param after the last ID already read
+     * @param to    the highest ID of the range
+     * @param limit the maximum number of rows
+     * @return the index rows
+     */
+    @Query(PRODUCT_INDEX_ROW + "WHERE p.id > :after AND p.id <= :to ORDER BY p.id")
+    List<ProductIndexRow> findIndexRowsInRangeAfter(@Param("after") UUID after, @Param("to") UUID to, Limit limit);
+
+    /**
+     * Find the indexable products with the given IDs; inactive products are not returned
+     *
+     * @param ids the IDs of the products
+     * @return the index rows
+     */
+    @Query(PRODUCT_INDEX_ROW + "WHERE p.id IN :ids")
+    List<ProductIndexRow> findIndexRowsByIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Find the first facet rows, ordered by ID
+     *
+     * @param limit the maximum number of rows
+     * @return the facet rows
+     */
+    @Query(PRODUCT_FACET_ROW + "ORDER BY p.id")
+    List<ProductFacetRow> findFacetRows(Limit limit);
+
+    /**
+     * Find the facet rows following the given ID, ordered by ID
+     *
+     * @param after the last ID already read
+     * @param limit the maximum number of rows
+     * @return the facet rows
+     */
+    @Query(PRODUCT_FACET_ROW + "WHERE p.id > :after ORDER BY p.id")
+    List<ProductFacetRow> findFacetRowsAfter(@Param("after") UUID after, Limit limit);
+
+    /**
+     * Find the facet rows of the given products; inactive products are not returned
+     *
+     * @param ids the IDs of the products
+     * @return the facet rows
+     */
+    @Query(PRODUCT_FACET_ROW + "WHERE p.id IN :ids")
+    List<ProductFacetRow> findFacetRowsByIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Find the product rows of the given products
+     *
+     * @param ids the IDs of the products
+     * @return the product rows, in no particular order
+     */
+    @Query(PRODUCT_ROW + " WHERE p.id IN :ids")
+    List<ProductRow> findRowsByIds(@Param("ids") Collection<UUID> ids);
+}
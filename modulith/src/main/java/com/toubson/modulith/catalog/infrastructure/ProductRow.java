@@ -0,0 +1,26 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
+import com.toubson.modulith.catalog.domain.ProductType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Flat projection of a product with its category and inventory, used by list queries.
+ */
+public record ProductRow(
+        UUID id,
+        String name,
+        String sku,
+        BigDecimal price,
+        ProductType productType,
+        UUID categoryId,
+        String categoryName,
+        String categorySlug,
+        InventoryTrackingStrategy trackingStrategy,
+        Integer stockQuantity,
+        Integer reservedQuantity,
+        Instant createdAt) {
+}
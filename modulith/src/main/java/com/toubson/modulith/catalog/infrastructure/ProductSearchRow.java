@@ -0,0 +1,26 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Projection of a full-text search hit with its rank and highlighted fragments.
+ */
+public interface ProductSearchRow {
+
+    UUID getId();
+
+    String getName();
+
+    String getSku();
+
+    BigDecimal getPrice();
+
+    String getProductType();
+
+    Float getRank();
+
+    String getNameHighlight();
+
+    String getDescriptionHighlight();
+}
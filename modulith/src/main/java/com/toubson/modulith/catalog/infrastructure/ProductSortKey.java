@@ -0,0 +1,70 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Stable sort keys for product keyset pagination.
+ * Each key is paired with the product ID as a tie-breaker and is backed by a composite index.
+ */
+@Getter
+public enum ProductSortKey {
+    NAME("name", ProductRow::name, value -> value),
+    PRICE("price", ProductRow::price, BigDecimal::new),
+    CREATED_AT("createdAt", ProductRow::createdAt, Instant::parse);
+
+    private final String property;
+    private final Function<ProductRow, Comparable<?>> extractor;
+    private final Function<String, Comparable<?>> parser;
+
+    ProductSortKey(String property, Function<ProductRow, Comparable<?>> extractor, Function<String, Comparable<?>> parser) {
+        this.property = property;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    /**
+     * Gets the sort key of a product property
+     *
+     * @param property the name of the property
+     * @return the sort key
+     * @throws IllegalArgumentException if the property is not a sort key
+     */
+    public static ProductSortKey fromProperty(String property) {
+        for (ProductSortKey key : values()) {
+            if (key.property.equals(property)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort property: " + property);
+    }
+
+    /**
+     * Gets the value of this key for a product row, formatted for a cursor
+     *
+     * @param row the product row
+     * @return the formatted value
+     */
+    public String format(ProductRow row) {
+        Comparable<?> value = extractor.apply(row);
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+    }
+
+    /**
+     * Parses a value formatted by {@link #format(ProductRow)}
+     *
+     * @param value the formatted value
+     * @return the parsed value
+     * @throws IllegalArgumentException if the value is malformed
+     */
+    public Comparable<?> parse(String value) {
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid " + property + " value: " + value, e);
+        }
+    }
+}
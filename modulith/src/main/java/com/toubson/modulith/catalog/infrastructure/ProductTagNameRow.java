@@ -0,0 +1,11 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of a product-tag assignment, used by the tag posting index.
+ */
+public record ProductTagNameRow(
+        UUID productId,
+        String tagName) {
+}
@@ -0,0 +1,9 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of a tag attached to a product.
+ */
+public record ProductTagRow(UUID productId, UUID tagId, String name, String slug) {
+}
@@ -9,7 +9,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -96,6 +98,32 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     @Query("SELECT DISTINCT pv FROM ProductVariant pv JOIN pv.attributes a WHERE pv.product = :product AND a.name = :attributeName AND a.value = :attributeValue")
     Page<ProductVariant> findByProductAndAttributeNameAndValue(@Param("product") Product product, @Param("attributeName") String attributeName, @Param("attributeValue") String attributeValue, Pageable pageable);
 
+    /**
+     * Find product variants having all the given attribute values, with one containment test on their
+     * attributes document served by its GIN index, however many attributes are combined
+     *
+     * @param names    the attribute names
+     * @param values   the attribute values, in the order of the names
+     * @param pageable pagination information, sorted by column names
+     * @return a Page of product variants with all the given attribute values
+     */
+    @Query(value = "SELECT * FROM product_variants WHERE attributes @> jsonb_object(CAST(:names AS text[]), CAST(:values AS text[]))",
+            countQuery = "SELECT count(*) FROM product_variants WHERE attributes @> jsonb_object(CAST(:names AS text[]), CAST(:values AS text[]))",
+            nativeQuery = true)
+    Page<ProductVariant> findByAttributes(@Param("names") String[] names, @Param("values") String[] values, Pageable pageable);
+
+    /**
+     * Find product variants having all the given attribute values
+     *
+     * @param attributes the attribute values by name
+     * @param pageable   pagination information, sorted by column names
+     * @return a Page of product variants with all the given attribute values
+     */
+    default Page<ProductVariant> findByAttributes(Map<String, String> attributes, Pageable pageable) {
+        return findByAttributes(attributes.keySet().toArray(String[]::new), attributes.values().toArray(String[]::new),
+                pageable);
+    }
+
     /**
      * Check if a product variant with the given SKU exists
      *
@@ -103,4 +131,27 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
      * @return true if a product variant with the given SKU exists, false otherwise
      */
     boolean existsBySku(String sku);
-}
\ No newline at end of file
+
+    /**
+     * Find the variants of a product with their effective price and inventory in a single query
+     *
+     * @param productId the ID of the product
+     * @return the variant rows of the given product, ordered by name
+     */
+    @Query("SELECT new com.toubson.modulith.catalog.infrastructure.VariantRow(" +
+            "pv.id, pv.name, pv.sku, COALESCE(pv.price, p.price), vi.stockQuantity, " +
+            "vi.reservedQuantity + CASE WHEN vi.stripeCount > 0 THEN vi.allottedQuantity - cast(function('variant_inventory_stripes_available', vi.id) as Integer) ELSE 0 END) " +
+            "FROM ProductVariant pv JOIN pv.product p LEFT JOIN pv.inventory vi " +
+            "WHERE p.id = :productId ORDER BY pv.name")
+    List<VariantRow> findRowsByProductId(@Param("productId") UUID productId);
+
+    /**
+     * Find the indexed fields of the variants of several products in a single query
+     *
+     * @param productIds the IDs of the products
+     * @return the variant index rows of the given products
+     */
+    @Query("SELECT new com.toubson.modulith.catalog.infrastructure.VariantIndexRow(p.id, pv.name, pv.sku) " +
+            "FROM ProductVariant pv JOIN pv.product p WHERE p.id IN :productIds")
+    List<VariantIndexRow> findIndexRowsByProductIds(@Param("productIds") Collection<UUID> productIds);
+}
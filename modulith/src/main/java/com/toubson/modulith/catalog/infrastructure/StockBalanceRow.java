@@ -0,0 +1,16 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of the stock of an inventory rebuilt from the stock journal, next to the quantities
+ * currently held by the inventory row.
+ */
+public record StockBalanceRow(
+        String owner,
+        UUID inventoryId,
+        int stockQuantity,
+        int reservedQuantity,
+        int journalStockQuantity,
+        int journalReservedQuantity) {
+}
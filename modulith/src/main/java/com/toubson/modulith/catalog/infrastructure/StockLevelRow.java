@@ -0,0 +1,16 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of the stock level of a product or variant inventory right after a stock change.
+ * The reserved quantity only counts the stock reserved by orders, not the stock allotted to stripes.
+ */
+public record StockLevelRow(
+        UUID inventoryId,
+        UUID productId,
+        UUID variantId,
+        Integer stockQuantity,
+        int reservedQuantity,
+        Integer lowStockThreshold) {
+}
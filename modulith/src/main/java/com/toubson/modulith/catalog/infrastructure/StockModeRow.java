@@ -0,0 +1,14 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
+
+import java.util.UUID;
+
+/**
+ * Projection of how the stock of an inventory is tracked.
+ */
+public record StockModeRow(
+        UUID inventoryId,
+        InventoryTrackingStrategy trackingStrategy,
+        int stripeCount) {
+}
@@ -0,0 +1,177 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository.Owner;
+import com.toubson.modulith.shared.utils.MonthlyPartitions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * JDBC repository for the month-partitioned, append-only {@code stock_movements} journal and its snapshots.
+ * Movements are only ever inserted, with multi-row INSERT statements. The snapshots hold the stock of every
+ * inventory up to a watermark of writing transactions: every transaction older than the watermark has
+ * finished, so a movement is folded into the snapshots exactly once, whatever the order in which the
+ * transactions commit. The stock of an inventory is its snapshot plus the movements above the watermark.
+ * Times are {@code TIMESTAMP WITH TIME ZONE} written as UTC offsets, so movements land in the partition of
+ * their UTC month whatever the time zones of the JVM and the session.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockMovementRepository {
+
+    private static final String TABLE = "stock_movements";
+    private static final String INSERT_PREFIX = "INSERT INTO " + TABLE +
+            " (owner, inventory_id, movement_type, stock_change, reserved_change, occurred_at) VALUES ";
+
+    // Sums the movements above the watermark into the snapshots and moves the watermark up to the oldest
+    // running transaction. The watermark row must already be locked, see snapshot().
+    private static final String SNAPSHOT = "WITH next AS (SELECT pg_snapshot_xmin(pg_current_snapshot()) AS tx_watermark), " +
+            "moved AS (SELECT m.owner, m.inventory_id, sum(m.stock_change) AS stock_change, sum(m.reserved_change) AS reserved_change " +
+            "FROM stock_movements m, stock_snapshot_watermark w, next n " +
+            "WHERE m.tx_id >= w.tx_watermark AND m.tx_id < n.tx_watermark GROUP BY m.owner, m.inventory_id), " +
+            "folded AS (INSERT INTO stock_snapshots AS s (owner, inventory_id, stock_quantity, reserved_quantity, taken_at) " +
+            "SELECT owner, inventory_id, stock_change, reserved_change, :now FROM moved " +
+            "ON CONFLICT (owner, inventory_id) DO UPDATE SET stock_quantity = s.stock_quantity + EXCLUDED.stock_quantity, " +
+            "reserved_quantity = s.reserved_quantity + EXCLUDED.reserved_quantity, taken_at = EXCLUDED.taken_at RETURNING 1), " +
+            "advanced AS (UPDATE stock_snapshot_watermark w SET tx_watermark = n.tx_watermark, taken_at = :now FROM next n WHERE w.id = 1) " +
+            "SELECT count(*) FROM folded";
+
+    private static final RowMapper<StockBalanceRow> BALANCE_MAPPER = (rs, rowNum) -> new StockBalanceRow(
+            rs.getString("owner"), rs.getObject("inventory_id", UUID.class), rs.getInt("stock_quantity"),
+            rs.getInt("reserved_quantity"), rs.getInt("journal_stock_quantity"), rs.getInt("journal_reserved_quantity"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Appends the given movements with a single multi-row INSERT statement
+     *
+     * @param movements the movements to append
+     * @return the number of appended movements
+     */
+    public int insertAll(List<StockMovementRow> movements) {
+        if (movements.isEmpty()) {
+            return 0;
+        }
+
+        StringJoiner rows = new StringJoiner(", ", INSERT_PREFIX, "");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        for (int row = 0; row < movements.size(); row++) {
+            StockMovementRow movement = movements.get(row);
+            rows.add("(:owner" + row + ", :inventoryId" + row + ", :type" + row + ", :stockChange" + row +
+                    ", :reservedChange" + row + ", :occurredAt" + row + ")");
+            params.addValue("owner" + row, movement.owner().name())
+                    .addValue("inventoryId" + row, movement.inventoryId())
+                    .addValue("type" + row, movement.type().name())
+                    .addValue("stockChange" + row, movement.stockChange())
+                    .addValue("reservedChange" + row, movement.reservedChange())
+                    .addValue("occurredAt" + row, movement.occurredAt().atOffset(ZoneOffset.UTC));
+        }
+        return jdbcTemplate.update(rows.toString(), params);
+    }
+
+    /**
+     * Folds the movements of finished transactions into the snapshots.
+     * Must run in a transaction: the watermark stays locked until it commits, so concurrent snapshots queue.
+     *
+     * @param now the snapshot time
+     * @return the number of updated snapshots
+     */
+    public int snapshot(Instant now) {
+        // Locked in its own statement, so that the snapshot statement sees the watermark committed by a previous snapshot
+        jdbcTemplate.query("SELECT id FROM stock_snapshot_watermark WHERE id = 1 FOR UPDATE", (rs, rowNum) -> rs.getInt(1));
+        Integer folded = jdbcTemplate.queryForObject(SNAPSHOT, new MapSqlParameterSource("now", now.atOffset(ZoneOffset.UTC)),
+                Integer.class);
+        return folded != null ? folded : 0;
+    }
+
+    /**
+     * Rebuilds the stock of an inventory from its snapshot and the journal tail
+     *
+     * @param owner  the kind of inventory
+     * @param itemId the product or variant ID
+     * @return the rebuilt stock next to the stock of the inventory, empty if the item has no inventory
+     */
+    public Optional<StockBalanceRow> findBalance(Owner owner, UUID itemId) {
+        String itemColumn = owner == Owner.PRODUCT ? "product_id" : "variant_id";
+        return jdbcTemplate.query(balance(owner) + " WHERE i." + itemColumn + " = :itemId",
+                new MapSqlParameterSource("itemId", itemId), BALANCE_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Finds the inventories whose stock differs from the stock rebuilt from the journal
+     *
+     * @param limit the maximum number of inventories to return
+     * @return the inconsistent inventories
+     */
+    public List<StockBalanceRow> findDrift(int limit) {
+        return jdbcTemplate.query("SELECT * FROM (" + balance(Owner.PRODUCT) + " UNION ALL " + balance(Owner.VARIANT) + ") b " +
+                        "WHERE b.stock_quantity <> b.journal_stock_quantity OR b.reserved_quantity <> b.journal_reserved_quantity " +
+                        "LIMIT :limit",
+                new MapSqlParameterSource("limit", limit), BALANCE_MAPPER);
+    }
+
+    /**
+     * Deletes the snapshots of deleted inventories
+     *
+     * @return the number of deleted snapshots
+     */
+    public int deleteOrphanSnapshots() {
+        return jdbcTemplate.update("DELETE FROM stock_snapshots s WHERE " +
+                "(s.owner = 'PRODUCT' AND NOT EXISTS (SELECT 1 FROM inventory i WHERE i.id = s.inventory_id)) OR " +
+                "(s.owner = 'VARIANT' AND NOT EXISTS (SELECT 1 FROM variant_inventory i WHERE i.id = s.inventory_id))",
+                new MapSqlParameterSource());
+    }
+
+    /**
+     * Creates the partition holding the given month if it does not exist yet
+     *
+     * @param month the month to create the partition for
+     */
+    public void createPartition(YearMonth month) {
+        MonthlyPartitions.create(jdbcTemplate.getJdbcOperations(), TABLE, month);
+    }
+
+    /**
+     * Drops every monthly partition older than the given month whose movements are all folded into the snapshots
+     *
+     * @param oldestKept the oldest month to keep
+     * @return the names of the dropped partitions
+     */
+    public List<String> dropCompactedPartitionsBefore(YearMonth oldestKept) {
+        List<String> dropped = new ArrayList<>();
+        for (String name : MonthlyPartitions.findBefore(jdbcTemplate.getJdbcOperations(), TABLE, oldestKept)) {
+            Boolean compacted = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM " + name + " m, " +
+                    "stock_snapshot_watermark w WHERE m.tx_id >= w.tx_watermark)", new MapSqlParameterSource(), Boolean.class);
+            if (Boolean.TRUE.equals(compacted)) {
+                MonthlyPartitions.drop(jdbcTemplate.getJdbcOperations(), name);
+                dropped.add(name);
+            }
+        }
+        return dropped;
+    }
+
+    // The stock of the inventories aliased i next to the stock rebuilt from their snapshot and journal tail
+    private static String balance(Owner owner) {
+        return "SELECT '" + owner.name() + "' AS owner, i.id AS inventory_id, coalesce(i.stock_quantity, 0) AS stock_quantity, " +
+                "coalesce(" + InventoryStripeRepository.reservedByOrders(owner, "i") + ", 0) AS reserved_quantity, " +
+                "coalesce(s.stock_quantity, 0) + coalesce(t.stock_change, 0) AS journal_stock_quantity, " +
+                "coalesce(s.reserved_quantity, 0) + coalesce(t.reserved_change, 0) AS journal_reserved_quantity " +
+                "FROM " + InventoryStripeRepository.table(owner) + " i " +
+                "LEFT JOIN stock_snapshots s ON s.owner = '" + owner.name() + "' AND s.inventory_id = i.id " +
+                "LEFT JOIN LATERAL (SELECT sum(m.stock_change) AS stock_change, sum(m.reserved_change) AS reserved_change " +
+                "FROM stock_movements m, stock_snapshot_watermark w " +
+                "WHERE m.inventory_id = i.id AND m.owner = '" + owner.name() + "' AND m.tx_id >= w.tx_watermark) t ON true";
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.StockMovementType;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository.Owner;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A stock movement of a product or variant inventory, as appended to the stock journal.
+ * The reserved change only counts stock reserved by orders, not stock allotted to stripes.
+ */
+public record StockMovementRow(
+        Owner owner,
+        UUID inventoryId,
+        StockMovementType type,
+        int stockChange,
+        int reservedChange,
+        Instant occurredAt) {
+}
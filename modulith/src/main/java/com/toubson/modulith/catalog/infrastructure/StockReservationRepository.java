@@ -0,0 +1,132 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC repository for time-bounded stock reservations.
+ * A reservation row exists exactly as long as its stock is reserved: releasing, committing and expiring
+ * all start by deleting the row, so whichever comes first wins and the others find nothing to do.
+ * The stock itself is released by the caller, in the same transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockReservationRepository {
+
+    private static final String COLUMNS = "id, owner, product_id, variant_id, quantity, expires_at";
+
+    private static final RowMapper<StockReservationRow> ROW_MAPPER = (rs, rowNum) -> new StockReservationRow(
+            rs.getObject("id", UUID.class), rs.getString("owner"), rs.getObject("product_id", UUID.class),
+            rs.getObject("variant_id", UUID.class), rs.getInt("quantity"), rs.getTimestamp("expires_at").toInstant());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Saves a new reservation
+     *
+     * @param reservation the reservation
+     * @param now         the creation time
+     */
+    public void insert(StockReservationRow reservation, Instant now) {
+        jdbcTemplate.update("INSERT INTO stock_reservations (" + COLUMNS + ", created_at) " +
+                        "VALUES (:id, :owner, :productId, :variantId, :quantity, :expiresAt, :now)",
+                new MapSqlParameterSource()
+                        .addValue("id", reservation.id())
+                        .addValue("owner", reservation.owner())
+                        .addValue("productId", reservation.productId())
+                        .addValue("variantId", reservation.variantId())
+                        .addValue("quantity", reservation.quantity())
+                        .addValue("expiresAt", Timestamp.from(reservation.expiresAt()))
+                        .addValue("now", Timestamp.from(now)));
+    }
+
+    /**
+     * Deletes a reservation before it expires
+     *
+     * @param id the reservation ID
+     * @return the deleted reservation, empty if it does not exist any more
+     */
+    public Optional<StockReservationRow> delete(UUID id) {
+        return jdbcTemplate.query("DELETE FROM stock_reservations WHERE id = :id RETURNING " + COLUMNS,
+                new MapSqlParameterSource("id", id), ROW_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Deletes all the reservations of an owner
+     *
+     * @param owner the owner
+     * @return the deleted reservations
+     */
+    public List<StockReservationRow> deleteByOwner(String owner) {
+        return jdbcTemplate.query("DELETE FROM stock_reservations WHERE owner = :owner RETURNING " + COLUMNS,
+                new MapSqlParameterSource("owner", owner), ROW_MAPPER);
+    }
+
+    /**
+     * Finds the reservations of an owner
+     *
+     * @param owner the owner
+     * @return the reservations, soonest to expire first
+     */
+    public List<StockReservationRow> findByOwner(String owner) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM stock_reservations WHERE owner = :owner " +
+                "ORDER BY expires_at, id", new MapSqlParameterSource("owner", owner), ROW_MAPPER);
+    }
+
+    /**
+     * Finds the reservations following an ID, to load all of them page by page
+     *
+     * @param after the last ID already read, or null for the first page
+     * @param limit the maximum number of reservations
+     * @return the reservations, in ID order
+     */
+    public List<StockReservationRow> findAfter(UUID after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        String where = "";
+        if (after != null) {
+            where = "WHERE id > :after ";
+            params.addValue("after", after);
+        }
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM stock_reservations " + where +
+                "ORDER BY id LIMIT :limit", params, ROW_MAPPER);
+    }
+
+    /**
+     * Finds the IDs of reservations that have expired
+     *
+     * @param now   the current time
+     * @param limit the maximum number of IDs
+     * @return the IDs, earliest expiry first
+     */
+    public List<UUID> findExpiredIds(Instant now, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM stock_reservations WHERE expires_at <= :now " +
+                        "ORDER BY expires_at LIMIT :limit",
+                new MapSqlParameterSource("now", Timestamp.from(now)).addValue("limit", limit), UUID.class);
+    }
+
+    /**
+     * Deletes the given reservations that have expired, leaving their stock to be released by the caller
+     *
+     * @param ids the reservation IDs
+     * @param now the current time; reservations expiring later are left untouched
+     * @return the deleted reservations
+     */
+    public List<StockReservationRow> deleteExpired(Collection<UUID> ids, Instant now) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("DELETE FROM stock_reservations WHERE id IN (:ids) AND expires_at <= :now " +
+                        "RETURNING " + COLUMNS,
+                new MapSqlParameterSource("ids", ids).addValue("now", Timestamp.from(now)), ROW_MAPPER);
+    }
+}
@@ -0,0 +1,16 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Projection of a time-bounded stock reservation, on either a product or a variant.
+ */
+public record StockReservationRow(
+        UUID id,
+        String owner,
+        UUID productId,
+        UUID variantId,
+        int quantity,
+        Instant expiresAt) {
+}
@@ -0,0 +1,21 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+/**
+ * Projection of the quantities of a striped inventory, read under lock before its stock is allotted again.
+ */
+public record StripedStockRow(
+        int stockQuantity,
+        int reservedQuantity,
+        int allottedQuantity,
+        int stripeCount,
+        int stripedAvailableQuantity) {
+
+    /**
+     * Gets the stock reserved by orders, including the stock reserved from the stripes since they were allotted
+     *
+     * @return the stock reserved by orders
+     */
+    public int reservedByOrders() {
+        return reservedQuantity + allottedQuantity - stripedAvailableQuantity;
+    }
+}
@@ -0,0 +1,16 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.dto.SuggestionType;
+
+import java.util.UUID;
+
+/**
+ * Projection of an autocomplete suggestion with its match score.
+ */
+public record SuggestionRow(
+        SuggestionType type,
+        UUID id,
+        String name,
+        String slug,
+        double score) {
+}
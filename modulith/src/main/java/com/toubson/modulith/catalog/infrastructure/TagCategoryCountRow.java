@@ -0,0 +1,13 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of a tag category with the number of product assignments of its tags.
+ */
+public record TagCategoryCountRow(
+        UUID id,
+        String name,
+        String slug,
+        int productCount) {
+}
@@ -41,12 +41,13 @@ public interface TagCategoryRepository extends JpaRepository<TagCategory, UUID>
     Page<TagCategory> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
     /**
-     * Find tag categories with the most tags
+     * Find popular tag categories (categories whose tags are assigned to the most products), ordered by their
+     * maintained product count
      *
      * @param pageable pagination information
-     * @return a list of tag categories with the most tags
+     * @return a list of popular tag categories
      */
-    @Query("SELECT tc FROM TagCategory tc LEFT JOIN tc.tags t GROUP BY tc ORDER BY COUNT(t) DESC")
+    @Query("SELECT tc FROM TagCategory tc ORDER BY tc.productCount DESC, tc.name")
     List<TagCategory> findPopularCategories(Pageable pageable);
 
     /**
@@ -0,0 +1,126 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC repository for the maintained product counts of the tags and tag categories.
+ * Only active products are counted. Triggers on {@code product_tags} add every assignment change to
+ * {@code tags.product_count} and to the {@code product_count} of the tag's category; triggers on
+ * {@code products} add or take off the tags of a product when it is restored or soft-deleted; triggers on
+ * {@code tags} move the count of a tag when it changes category or is deleted. The recount methods repair
+ * counts that drifted from the assignments, a batch of rows at a time.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TagCountRepository {
+
+    private static final String SELECT_TAG_COUNTS = "SELECT t.id, t.name, t.slug, c.name AS category_name, t.product_count " +
+            "FROM tags t LEFT JOIN tag_categories c ON c.id = t.tag_category_id WHERE t.product_count > 0";
+
+    private static final String SELECT_CATEGORY_COUNTS = "SELECT id, name, slug, product_count FROM tag_categories " +
+            "WHERE product_count > 0";
+
+    // Rows are locked in ID order, like the triggers lock them before changing a count, so that writers of the
+    // locked tags or categories wait until the batch commits and no change is counted twice or lost
+    private static final String LOCK_TAGS = "SELECT id FROM tags WHERE id > :after ORDER BY id LIMIT :limit FOR UPDATE";
+
+    private static final String LOCK_CATEGORIES = "SELECT id FROM tag_categories WHERE id > :after ORDER BY id " +
+            "LIMIT :limit FOR UPDATE";
+
+    private static final String RECOUNT_TAGS = "UPDATE tags t SET product_count = a.product_count " +
+            "FROM (SELECT t.id, (SELECT count(*) FROM product_tags pt JOIN products p ON p.id = pt.product_id " +
+            "WHERE pt.tag_id = t.id AND p.active) AS product_count FROM tags t WHERE t.id IN (:ids)) a " +
+            "WHERE t.id = a.id AND t.product_count <> a.product_count";
+
+    private static final String RECOUNT_CATEGORIES = "UPDATE tag_categories c SET product_count = a.product_count " +
+            "FROM (SELECT c.id, (SELECT coalesce(sum(t.product_count), 0) FROM tags t WHERE t.tag_category_id = c.id) " +
+            "AS product_count FROM tag_categories c WHERE c.id IN (:ids)) a " +
+            "WHERE c.id = a.id AND c.product_count <> a.product_count";
+
+    private static final RowMapper<TagCountRow> TAG_ROW_MAPPER = (rs, rowNum) -> new TagCountRow(
+            rs.getObject("id", UUID.class), rs.getString("name"), rs.getString("slug"),
+            rs.getString("category_name"), rs.getInt("product_count"));
+
+    private static final RowMapper<TagCategoryCountRow> CATEGORY_ROW_MAPPER = (rs, rowNum) -> new TagCategoryCountRow(
+            rs.getObject("id", UUID.class), rs.getString("name"), rs.getString("slug"), rs.getInt("product_count"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the counts of the tags carried by at least one product
+     *
+     * @return the counts, in no particular order
+     */
+    public List<TagCountRow> findTagCounts() {
+        return jdbcTemplate.query(SELECT_TAG_COUNTS, TAG_ROW_MAPPER);
+    }
+
+    /**
+     * Finds the counts of the tag categories whose tags are carried by at least one product
+     *
+     * @return the counts, in no particular order
+     */
+    public List<TagCategoryCountRow> findCategoryCounts() {
+        return jdbcTemplate.query(SELECT_CATEGORY_COUNTS, CATEGORY_ROW_MAPPER);
+    }
+
+    /**
+     * Locks the next batch of tags. Must run in a transaction, which holds the locks until it commits.
+     *
+     * @param after the ID of the last tag of the previous batch
+     * @param limit the maximum number of tags
+     * @return the IDs of the locked tags, in ascending order
+     */
+    public List<UUID> lockTags(UUID after, int limit) {
+        return jdbcTemplate.queryForList(LOCK_TAGS, batch(after, limit), UUID.class);
+    }
+
+    /**
+     * Recomputes the counts of tags from the assignments of active products and corrects the drifted ones
+     *
+     * @param ids the IDs of the tags, locked by {@link #lockTags(UUID, int)} in the current transaction
+     * @return the number of corrected tags
+     */
+    public int recountTags(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(RECOUNT_TAGS, new MapSqlParameterSource("ids", ids));
+    }
+
+    /**
+     * Locks the next batch of tag categories. Must run in a transaction, which holds the locks until it commits.
+     *
+     * @param after the ID of the last category of the previous batch
+     * @param limit the maximum number of categories
+     * @return the IDs of the locked categories, in ascending order
+     */
+    public List<UUID> lockCategories(UUID after, int limit) {
+        return jdbcTemplate.queryForList(LOCK_CATEGORIES, batch(after, limit), UUID.class);
+    }
+
+    /**
+     * Recomputes the counts of tag categories from their tags and corrects the drifted ones
+     *
+     * @param ids the IDs of the categories, locked by {@link #lockCategories(UUID, int)} in the current transaction
+     * @return the number of corrected categories
+     */
+    public int recountCategories(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(RECOUNT_CATEGORIES, new MapSqlParameterSource("ids", ids));
+    }
+
+    private static MapSqlParameterSource batch(UUID after, int limit) {
+        return new MapSqlParameterSource("after", after).addValue("limit", limit);
+    }
+}
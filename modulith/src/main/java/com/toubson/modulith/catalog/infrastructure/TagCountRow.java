@@ -0,0 +1,14 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of a tag with the number of products carrying it.
+ */
+public record TagCountRow(
+        UUID id,
+        String name,
+        String slug,
+        String categoryName,
+        int productCount) {
+}
@@ -0,0 +1,12 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of a product tag with the slug of its tag category, used as facets.
+ */
+public record TagFacetRow(
+        UUID productId,
+        String tagSlug,
+        String tagCategorySlug) {
+}
@@ -2,12 +2,14 @@ package com.toubson.modulith.catalog.infrastructure;
 
 import com.toubson.modulith.catalog.domain.Tag;
 import com.toubson.modulith.catalog.domain.TagCategory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -69,12 +71,12 @@ public interface TagRepository extends JpaRepository<Tag, UUID> {
     List<Tag> findByProductId(@Param("productId") UUID productId);
 
     /**
-     * Find popular tags (tags with the most products)
+     * Find popular tags (tags with the most products), ordered by their maintained product count
      *
      * @param pageable pagination information
      * @return a list of popular tags
      */
-    @Query("SELECT t FROM Tag t JOIN t.products p GROUP BY t ORDER BY COUNT(p) DESC")
+    @Query("SELECT t FROM Tag t WHERE t.productCount > 0 ORDER BY t.productCount DESC, t.name")
     List<Tag> findPopularTags(Pageable pageable);
 
     /**
@@ -92,4 +94,67 @@ public interface TagRepository extends JpaRepository<Tag, UUID> {
      * @return true if a tag with the given name exists, false otherwise
      */
     boolean existsByName(String name);
+
+    /**
+     * Find the tags of several products in a single query
+     *
+     * @param productIds the IDs of the products
+     * @return the tag rows of the given products, ordered by tag name
+     */
+    @Query("SELECT new com.toubson.modulith.catalog.infrastructure.ProductTagRow(p.id, t.id, t.name, t.slug) " +
+            "FROM Tag t JOIN t.products p WHERE p.id IN :productIds ORDER BY t.name")
+    List<ProductTagRow> findRowsByProductIds(@Param("productIds") Collection<UUID> productIds);
+
+    /**
+     * Find all tags with the name of their tag category
+     *
+     * @return the tag rows, ordered by name
+     */
+    @Query("SELECT new com.toubson.modulith.catalog.infrastructure.TagRow(t.id, t.name, t.slug, tc.name) " +
+            "FROM Tag t LEFT JOIN t.category tc ORDER BY t.name")
+    List<TagRow> findAllRows();
+
+    /**
+     * Find the tag and tag category slugs of several products in a single query
+     *
+     * @param productIds the IDs of the products
+     * @return the tag facet rows of the given products
+     */
+    @Query("SELECT new com.toubson.modulith.catalog.infrastructure.TagFacetRow(p.id, t.slug, tc.slug) " +
+            "FROM Tag t JOIN t.products p LEFT JOIN t.category tc WHERE p.id IN :productIds")
+    List<TagFacetRow> findFacetRowsByProductIds(@Param("productIds") Collection<UUID> productIds);
+
+    String PRODUCT_TAG_NAME_ROW = "SELECT new com.toubson.modulith.catalog.infrastructure.ProductTagNameRow(p.id, t.name) " +
+            "FROM Tag t JOIN t.products p ";
+
+    /**
+     * Find the first product-tag assignments, ordered by product ID and tag name
+     *
+     * @param limit the maximum number of rows
+     * @return the assignment rows
+     */
+    @Query(PRODUCT_TAG_NAME_ROW + "ORDER BY p.id, t.name")
+    List<ProductTagNameRow> findTagNameRows(Limit limit);
+
+    /**
+     * Find the product-tag assignments following the given one, ordered by product ID and tag name
+     *
+     * @param afterProductId the product ID of the last assignment already read
+     * @param afterTagName   the tag name of the last assignment already read
+     * @param limit          the maximum number of rows
+     * @return the assignment rows
+     */
+    @Query(PRODUCT_TAG_NAME_ROW + "WHERE p.id > :afterProductId OR (p.id = :afterProductId AND t.name > :afterTagName) " +
+            "ORDER BY p.id, t.name")
+    List<ProductTagNameRow> findTagNameRowsAfter(@Param("afterProductId") UUID afterProductId,
+                                                 @Param("afterTagName") String afterTagName, Limit limit);
+
+    /**
+     * Find the tag names of several products in a single query
+     *
+     * @param productIds the IDs of the products
+     * @return the assignment rows of the given products
+     */
+    @Query(PRODUCT_TAG_NAME_ROW + "WHERE p.id IN :productIds")
+    List<ProductTagNameRow> findTagNameRowsByProductIds(@Param("productIds") Collection<UUID> productIds);
 }
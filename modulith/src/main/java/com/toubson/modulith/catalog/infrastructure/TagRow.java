@@ -0,0 +1,9 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of a tag with the name of its tag category.
+ */
+public record TagRow(UUID id, String name, String slug, String categoryName) {
+}
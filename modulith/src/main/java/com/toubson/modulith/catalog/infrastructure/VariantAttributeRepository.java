@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -104,4 +105,24 @@ public interface VariantAttributeRepository extends JpaRepository<VariantAttribu
      * @param variant the variant to delete attributes for
      */
     void deleteByVariant(ProductVariant variant);
-}
\ No newline at end of file
+
+    /**
+     * Find the attributes of all the variants of a product in a single query
+     *
+     * @param productId the ID of the product
+     * @return the attribute rows of the given product, ordered by name
+     */
+    @Query("SELECT new com.toubson.modulith.catalog.infrastructure.VariantAttributeRow(pv.id, a.name, a.value) " +
+            "FROM VariantAttribute a JOIN a.variant pv WHERE pv.product.id = :productId ORDER BY a.name")
+    List<VariantAttributeRow> findRowsByProductId(@Param("productId") UUID productId);
+
+    /**
+     * Find the distinct attribute values of the variants of several products in a single query
+     *
+     * @param productIds the IDs of the products
+     * @return the attribute facet rows of the given products
+     */
+    @Query("SELECT DISTINCT new com.toubson.modulith.catalog.infrastructure.AttributeFacetRow(pv.product.id, a.name, a.value) " +
+            "FROM VariantAttribute a JOIN a.variant pv WHERE pv.product.id IN :productIds")
+    List<AttributeFacetRow> findFacetRowsByProductIds(@Param("productIds") Collection<UUID> productIds);
+}
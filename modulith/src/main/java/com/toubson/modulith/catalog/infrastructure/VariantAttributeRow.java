@@ -0,0 +1,9 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of a variant attribute.
+ */
+public record VariantAttributeRow(UUID variantId, String name, String value) {
+}
@@ -0,0 +1,12 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.util.UUID;
+
+/**
+ * Projection of the variant fields indexed with their product.
+ */
+public record VariantIndexRow(
+        UUID productId,
+        String name,
+        String sku) {
+}
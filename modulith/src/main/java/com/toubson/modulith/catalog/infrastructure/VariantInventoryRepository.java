@@ -0,0 +1,27 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.VariantInventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for VariantInventory entities.
+ * Stock commands go through {@link InventoryStockRepository} and {@link InventoryStripeRepository}.
+ */
+public interface VariantInventoryRepository extends JpaRepository<VariantInventory, UUID> {
+
+    /**
+     * Find how the stock of the inventory of a variant is tracked
+     *
+     * @param variantId the variant ID
+     * @return the inventory ID, always finite tracking strategy and stripe count, empty if the variant has no inventory
+     */
+    @Query("SELECT new com.toubson.modulith.catalog.infrastructure.StockModeRow(v.id, " +
+            "com.toubson.modulith.catalog.domain.InventoryTrackingStrategy.FINITE, v.stripeCount) " +
+            "FROM VariantInventory v WHERE v.variant.id = :variantId")
+    Optional<StockModeRow> findStockModeByVariantId(@Param("variantId") UUID variantId);
+}
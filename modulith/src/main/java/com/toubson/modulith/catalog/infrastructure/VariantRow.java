@@ -0,0 +1,16 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Projection of a product variant with its effective price and inventory.
+ */
+public record VariantRow(
+        UUID id,
+        String name,
+        String sku,
+        BigDecimal price,
+        Integer stockQuantity,
+        Integer reservedQuantity) {
+}
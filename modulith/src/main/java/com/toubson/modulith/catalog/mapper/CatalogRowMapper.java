@@ -0,0 +1,135 @@
+package com.toubson.modulith.catalog.mapper;
+
+import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
+import com.toubson.modulith.catalog.domain.ProductType;
+import com.toubson.modulith.catalog.dto.*;
+import com.toubson.modulith.catalog.infrastructure.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the flat rows returned by the catalog projection queries to API responses.
+ * Stock availability follows the rules of {@code Inventory} and {@code VariantInventory};
+ * a product without inventory is treated as not tracked.
+ */
+public class CatalogRowMapper {
+
+    public static ProductSummaryResponse mapToSummary(ProductRow row, List<TagResponse> tags) {
+        return new ProductSummaryResponse(
+                row.id(),
+                row.name(),
+                row.sku(),
+                row.price(),
+                row.productType(),
+                row.categoryId(),
+                row.categoryName(),
+                row.categorySlug(),
+                isInStock(row.trackingStrategy(), row.stockQuantity(), row.reservedQuantity()),
+                availableQuantity(row.trackingStrategy(), row.stockQuantity(), row.reservedQuantity()),
+                tags
+        );
+    }
+
+    public static ProductSearchResultResponse mapToSearchResult(ProductSearchRow row, List<TagResponse> tags) {
+        return new ProductSearchResultResponse(
+                row.getId(),
+                row.getName(),
+                row.getSku(),
+                row.getPrice(),
+                ProductType.valueOf(row.getProductType()),
+                row.getRank() != null ? row.getRank() : 0f,
+                row.getNameHighlight(),
+                row.getDescriptionHighlight(),
+                tags
+        );
+    }
+
+    public static ProductDetailResponse mapToDetail(ProductDetailRow row, List<TagResponse> tags,
+                                                    List<ProductVariantResponse> variants) {
+        return new ProductDetailResponse(
+                row.id(),
+                row.name(),
+                row.description(),
+                row.sku(),
+                row.price(),
+                row.productType(),
+                row.categoryId(),
+                row.categoryName(),
+                row.categorySlug(),
+                isInStock(row.trackingStrategy(), row.stockQuantity(), row.reservedQuantity()),
+                availableQuantity(row.trackingStrategy(), row.stockQuantity(), row.reservedQuantity()),
+                tags,
+                variants,
+                row.createdAt(),
+                row.updatedAt()
+        );
+    }
+
+    public static ProductVariantResponse mapToVariant(VariantRow row, Map<String, String> attributes) {
+        // Variants without inventory are not tracked
+        InventoryTrackingStrategy strategy = row.stockQuantity() != null
+                ? InventoryTrackingStrategy.FINITE
+                : InventoryTrackingStrategy.NOT_TRACKED;
+        return new ProductVariantResponse(
+                row.id(),
+                row.name(),
+                row.sku(),
+                row.price(),
+                isInStock(strategy, row.stockQuantity(), row.reservedQuantity()),
+                availableQuantity(strategy, row.stockQuantity(), row.reservedQuantity()),
+                attributes
+        );
+    }
+
+    public static TagResponse mapToTag(ProductTagRow row) {
+        return new TagResponse(row.tagId(), row.name(), row.slug());
+    }
+
+    public static TagSummaryResponse mapToTagSummary(TagRow row) {
+        return new TagSummaryResponse(row.id(), row.name(), row.slug(), row.categoryName());
+    }
+
+    public static CategoryResponse mapToCategory(CategoryRow row) {
+        return new CategoryResponse(row.id(), row.name(), row.slug(), row.description(), row.parentId(), row.sortOrder());
+    }
+
+    public static LowStockResponse mapToLowStock(LowStockRow row) {
+        return new LowStockResponse(row.productId(), row.productName(), row.sku(), row.stockQuantity(),
+                row.lowStockThreshold(), row.reservedQuantity());
+    }
+
+    public static StockReservationResponse mapToReservation(StockReservationRow row) {
+        return new StockReservationResponse(row.id(), row.owner(), row.productId(), row.variantId(),
+                row.quantity(), row.expiresAt());
+    }
+
+    public static CatalogImportResponse mapToImport(CatalogImportRow row) {
+        return new CatalogImportResponse(row.id(), row.fileName(), row.format(), row.status(), row.linesRead(),
+                row.rowsStaged(), row.rowsRejected(), row.productsMerged(), row.variantsMerged(), row.failure(),
+                row.createdAt(), row.updatedAt(), row.finishedAt());
+    }
+
+    public static CatalogImportErrorResponse mapToImportError(CatalogImportErrorRow row) {
+        return new CatalogImportErrorResponse(row.lineNumber(), row.field(), row.message());
+    }
+
+    public static boolean isInStock(InventoryTrackingStrategy strategy, Integer stockQuantity, Integer reservedQuantity) {
+        if (strategy == null || strategy != InventoryTrackingStrategy.FINITE) {
+            return true;
+        }
+        int reserved = reservedQuantity != null ? reservedQuantity : 0;
+        return stockQuantity != null && stockQuantity > 0 && stockQuantity > reserved;
+    }
+
+    private static Integer availableQuantity(InventoryTrackingStrategy strategy, Integer stockQuantity, Integer reservedQuantity) {
+        if (strategy == null || strategy == InventoryTrackingStrategy.NOT_TRACKED) {
+            return null;
+        }
+        if (strategy == InventoryTrackingStrategy.INFINITE) {
+            return Integer.MAX_VALUE;
+        }
+        int reserved = reservedQuantity != null ? reservedQuantity : 0;
+        return stockQuantity != null ? stockQuantity - reserved : 0;
+    }
+}
@@ -0,0 +1,315 @@
+package com.toubson.modulith.catalog.utils;
+
+import java.util.*;
+
+/**
+ * Immutable dictionary of the variant attribute names and values, interned into dense int codes.
+ * Names are numbered from 0 and values from 0 across all the names; the text, the name and the number of
+ * variants of each code are held in arrays indexed by the code, and the codes of each name are kept sorted
+ * by their text so that lookups are binary searches without any map.
+ * <p>
+ * Changes produce a new dictionary through {@link #withCounts(Collection)}. Codes are stable: a new name or
+ * value is appended with the next free code and a value whose count drops to zero keeps its code, it is only
+ * left out of the listings. Readers holding the previous instance are unaffected.
+ */
+public final class AttributeDictionary {
+
+    private static final int[] EMPTY = new int[0];
+    private static final AttributeDictionary NONE = new AttributeDictionary(new String[0], new int[0],
+            new int[0][], new String[0], new int[0], new int[0]);
+
+    private final String[] names;
+    private final int[] sortedNames;
+    private final int[][] nameValues;
+    private final String[] values;
+    private final int[] valueNames;
+    private final int[] counts;
+    private final int[] listedNames;
+    private final int[][] listedValues;
+
+    private AttributeDictionary(String[] names, int[] sortedNames, int[][] nameValues,
+                                String[] values, int[] valueNames, int[] counts) {
+        this.names = names;
+        this.sortedNames = sortedNames;
+        this.nameValues = nameValues;
+        this.values = values;
+        this.valueNames = valueNames;
+        this.counts = counts;
+
+        // The listings only hold the values carried by at least one variant, and the names with such values
+        this.listedValues = new int[names.length][];
+        int[] listed = new int[names.length];
+        int listedCount = 0;
+        for (int name : sortedNames) {
+            int[] all = nameValues[name];
+            int[] carried = new int[all.length];
+            int count = 0;
+            for (int value : all) {
+                if (counts[value] > 0) {
+                    carried[count++] = value;
+                }
+            }
+            listedValues[name] = count == 0 ? EMPTY : Arrays.copyOf(carried, count);
+            if (count > 0) {
+                listed[listedCount++] = name;
+            }
+        }
+        this.listedNames = Arrays.copyOf(listed, listedCount);
+    }
+
+    /**
+     * Creates a builder
+     *
+     * @return the new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Finds the code of an attribute name
+     *
+     * @param name the name
+     * @return the code, or -1 if the name is unknown
+     */
+    public int nameCode(String name) {
+        int position = search(sortedNames, names, name);
+        return position < 0 ? -1 : sortedNames[position];
+    }
+
+    /**
+     * Finds the code of a value of an attribute
+     *
+     * @param nameCode the code of the name
+     * @param value    the value
+     * @return the code, or -1 if the name does not have this value
+     */
+    public int valueCode(int nameCode, String value) {
+        if (nameCode < 0 || nameCode >= names.length) {
+            return -1;
+        }
+        int[] codes = nameValues[nameCode];
+        int position = search(codes, values, value);
+        return position < 0 ? -1 : codes[position];
+    }
+
+    /**
+     * Gets the text of a name
+     *
+     * @param nameCode the code of the name
+     * @return the name
+     */
+    public String name(int nameCode) {
+        return names[nameCode];
+    }
+
+    /**
+     * Gets the text of a value
+     *
+     * @param valueCode the code of the value
+     * @return the value
+     */
+    public String value(int valueCode) {
+        return values[valueCode];
+    }
+
+    /**
+     * Gets the name a value belongs to
+     *
+     * @param valueCode the code of the value
+     * @return the code of the name
+     */
+    public int nameOf(int valueCode) {
+        return valueNames[valueCode];
+    }
+
+    /**
+     * Gets the number of variants carrying a value
+     *
+     * @param valueCode the code of the value
+     * @return the number of variants
+     */
+    public int count(int valueCode) {
+        return counts[valueCode];
+    }
+
+    /**
+     * Gets the names carried by at least one variant
+     *
+     * @return the codes of the names, sorted by name; the array must not be modified
+     */
+    public int[] nameCodes() {
+        return listedNames;
+    }
+
+    /**
+     * Gets the values of a name carried by at least one variant
+     *
+     * @param nameCode the code of the name
+     * @return the codes of the values, sorted by value, empty if the name is unknown; the array must not be modified
+     */
+    public int[] valueCodes(int nameCode) {
+        return nameCode < 0 || nameCode >= names.length ? EMPTY : listedValues[nameCode];
+    }
+
+    /**
+     * Creates a new dictionary where the given values are carried by the given number of variants.
+     * Unknown names and values are appended with new codes.
+     *
+     * @param changed the changed counts; the last one wins if a value is given twice
+     * @return the new dictionary, or this one if nothing changed
+     */
+    public AttributeDictionary withCounts(Collection<Count> changed) {
+        if (changed.isEmpty()) {
+            return this;
+        }
+
+        String[] newNames = Arrays.copyOf(names, names.length + changed.size());
+        String[] newValues = Arrays.copyOf(values, values.length + changed.size());
+        int[] newValueNames = Arrays.copyOf(valueNames, values.length + changed.size());
+        int[] newCounts = Arrays.copyOf(counts, values.length + changed.size());
+        int nameTotal = names.length;
+        int valueTotal = values.length;
+        // Names and values appended by this change, which the sorted arrays do not hold yet
+        Map<String, Integer> addedNames = new HashMap<>();
+        Map<Integer, Map<String, Integer>> addedValues = new HashMap<>();
+
+        for (Count count : changed) {
+            int name = nameCode(count.name());
+            if (name < 0) {
+                Integer added = addedNames.get(count.name());
+                if (added == null) {
+                    added = nameTotal++;
+                    newNames[added] = count.name();
+                    addedNames.put(count.name(), added);
+                }
+                name = added;
+            }
+            int value = valueCode(name, count.value());
+            if (value < 0) {
+                Map<String, Integer> added = addedValues.computeIfAbsent(name, n -> new HashMap<>());
+                Integer code = added.get(count.value());
+                if (code == null) {
+                    code = valueTotal++;
+                    newValues[code] = count.value();
+                    newValueNames[code] = name;
+                    added.put(count.value(), code);
+                }
+                value = code;
+            }
+            newCounts[value] = count.variants();
+        }
+
+        newNames = Arrays.copyOf(newNames, nameTotal);
+        newValues = Arrays.copyOf(newValues, valueTotal);
+        int[] newSortedNames = sortedNames;
+        if (!addedNames.isEmpty()) {
+            newSortedNames = merge(sortedNames, addedNames.values(), newNames);
+        }
+        int[][] newNameValues = Arrays.copyOf(nameValues, nameTotal);
+        for (int name = names.length; name < nameTotal; name++) {
+            newNameValues[name] = EMPTY;
+        }
+        for (Map.Entry<Integer, Map<String, Integer>> added : addedValues.entrySet()) {
+            int name = added.getKey();
+            newNameValues[name] = merge(newNameValues[name], added.getValue().values(), newValues);
+        }
+        return new AttributeDictionary(newNames, newSortedNames, newNameValues, newValues,
+                Arrays.copyOf(newValueNames, valueTotal), Arrays.copyOf(newCounts, valueTotal));
+    }
+
+    /**
+     * Gets the number of interned names, including those no variant carries anymore
+     *
+     * @return the number of names
+     */
+    public int nameCount() {
+        return names.length;
+    }
+
+    /**
+     * Gets the number of interned values, including those no variant carries anymore
+     *
+     * @return the number of values
+     */
+    public int valueCount() {
+        return values.length;
+    }
+
+    private static int search(int[] codes, String[] text, String key) {
+        int low = 0;
+        int high = codes.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = text[codes[mid]].compareTo(key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] merge(int[] sorted, Collection<Integer> added, String[] text) {
+        Integer[] codes = new Integer[sorted.length + added.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            codes[i] = sorted[i];
+        }
+        int i = sorted.length;
+        for (Integer code : added) {
+            codes[i++] = code;
+        }
+        Arrays.sort(codes, Comparator.comparing(code -> text[code]));
+        int[] merged = new int[codes.length];
+        for (i = 0; i < codes.length; i++) {
+            merged[i] = codes[i];
+        }
+        return merged;
+    }
+
+    /**
+     * Number of variants carrying a value of an attribute
+     *
+     * @param name     the attribute name
+     * @param value    the attribute value
+     * @param variants the number of variants
+     */
+    public record Count(String name, String value, int variants) {
+    }
+
+    /**
+     * Collects the counts of the values, then interns them
+     */
+    public static final class Builder {
+
+        private final List<Count> counts = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a value of an attribute
+         *
+         * @param name     the attribute name
+         * @param value    the attribute value
+         * @param variants the number of variants carrying it
+         * @return this builder
+         */
+        public Builder add(String name, String value, int variants) {
+            counts.add(new Count(name, value, variants));
+            return this;
+        }
+
+        /**
+         * Builds the dictionary
+         *
+         * @return the new dictionary
+         */
+        public AttributeDictionary build() {
+            return NONE.withCounts(counts);
+        }
+    }
+}
@@ -0,0 +1,550 @@
+package com.toubson.modulith.catalog.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed bitmap of non-negative integers, organized like a Roaring bitmap.
+ * Values are split on their 16 high bits into chunks of 65536; a chunk holding at most
+ * {@value #ARRAY_MAX} values is stored as a sorted array of its 16 low bits, a denser chunk
+ * as a plain 8 KB bitset. Sparse sets stay small, dense sets are intersected a word at a time.
+ * <p>
+ * Instances are mutable and not thread-safe.
+ */
+public final class CompressedBitmap {
+
+    static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public CompressedBitmap() {
+        this.keys = new char[4];
+        this.containers = new Container[4];
+    }
+
+    private CompressedBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    /**
+     * Creates a bitmap holding the given values
+     *
+     * @param values the values
+     * @return the new bitmap
+     */
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Adds a value
+     *
+     * @param value the non-negative value
+     */
+    public void add(int value) {
+        char high = (char) (value >>> 16);
+        int index = indexOf(high);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, high, new ArrayContainer());
+        }
+        containers[index] = containers[index].add((char) value);
+    }
+
+    /**
+     * Removes a value
+     *
+     * @param value the value
+     */
+    public void remove(int value) {
+        int index = indexOf((char) (value >>> 16));
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove((char) value);
+        if (container.cardinality() == 0) {
+            removeContainer(index);
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    public boolean contains(int value) {
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Computes the intersection of two bitmaps
+     *
+     * @param other the other bitmap
+     * @return a new bitmap
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        char[] resultKeys = new char[Math.min(size, other.size)];
+        Container[] resultContainers = new Container[resultKeys.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    resultKeys[count] = keys[i];
+                    resultContainers[count] = container;
+                    count++;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new CompressedBitmap(resultKeys, resultContainers, count);
+    }
+
+    /**
+     * Computes the union of two bitmaps
+     *
+     * @param other the other bitmap
+     * @return a new bitmap
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        char[] resultKeys = new char[size + other.size];
+        Container[] resultContainers = new Container[resultKeys.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                resultKeys[count] = keys[i];
+                resultContainers[count++] = containers[i++].copy();
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                resultKeys[count] = other.keys[j];
+                resultContainers[count++] = other.containers[j++].copy();
+            } else {
+                resultKeys[count] = keys[i];
+                resultContainers[count++] = containers[i++].or(other.containers[j++]);
+            }
+        }
+        return new CompressedBitmap(resultKeys, resultContainers, count);
+    }
+
+    /**
+     * Counts the values of the intersection of two bitmaps without building it
+     *
+     * @param other the other bitmap
+     * @return the cardinality of the intersection
+     */
+    public int andCardinality(CompressedBitmap other) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i++].andCardinality(other.containers[j++]);
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * Calls the consumer for every value, in increasing order
+     *
+     * @param consumer the consumer
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int[] position = new int[1];
+        forEach(value -> values[position[0]++] = value);
+        return values;
+    }
+
+    public CompressedBitmap copy() {
+        Container[] copies = new Container[containers.length];
+        for (int i = 0; i < size; i++) {
+            copies[i] = containers[i].copy();
+        }
+        return new CompressedBitmap(Arrays.copyOf(keys, keys.length), copies, size);
+    }
+
+    /**
+     * Gets the approximate memory used by the containers
+     *
+     * @return the size of the containers in bytes
+     */
+    public long byteSize() {
+        long bytes = 0;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].byteSize();
+        }
+        return bytes;
+    }
+
+    private int indexOf(char high) {
+        // Values are usually added in increasing order, check the last container first
+        if (size > 0 && keys[size - 1] == high) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void insertContainer(int index, char high, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(4, size * 2));
+            containers = Arrays.copyOf(containers, Math.max(4, size * 2));
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = high;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    private sealed interface Container permits ArrayContainer, BitsetContainer {
+
+        Container add(char value);
+
+        Container remove(char value);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        Container and(Container other);
+
+        Container or(Container other);
+
+        int andCardinality(Container other);
+
+        void forEach(int base, IntConsumer consumer);
+
+        Container copy();
+
+        long byteSize();
+    }
+
+    private static final class ArrayContainer implements Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            // Appending in order is the common case when bitmaps are built
+            int index = cardinality > 0 && values[cardinality - 1] < value
+                    ? -cardinality - 1
+                    : Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitset().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container and(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitsetContainer bitset) {
+                return bitset.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j >= array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i >= cardinality || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer union = new ArrayContainer(result, count);
+            return count > ARRAY_MAX ? union.toBitset() : union;
+        }
+
+        @Override
+        public int andCardinality(Container other) {
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        count++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(base | values[i]);
+            }
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(1, cardinality)), cardinality);
+        }
+
+        @Override
+        public long byteSize() {
+            return 2L * values.length;
+        }
+
+        BitsetContainer toBitset() {
+            BitsetContainer bitset = new BitsetContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitset.add(values[i]);
+            }
+            return bitset;
+        }
+    }
+
+    private static final class BitsetContainer implements Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitsetContainer() {
+            this(new long[WORDS], 0);
+        }
+
+        BitsetContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            long before = words[value >>> 6];
+            long after = before | (1L << value);
+            if (before != after) {
+                words[value >>> 6] = after;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            long before = words[value >>> 6];
+            long after = before & ~(1L << value);
+            if (before != after) {
+                words[value >>> 6] = after;
+                cardinality--;
+            }
+            return cardinality <= ARRAY_MAX ? toArray() : this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (other instanceof ArrayContainer array) {
+                return array.and(this);
+            }
+            BitsetContainer bitset = (BitsetContainer) other;
+            long[] result = new long[WORDS];
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words[i] & bitset.words[i];
+                count += Long.bitCount(result[i]);
+            }
+            BitsetContainer intersection = new BitsetContainer(result, count);
+            return count <= ARRAY_MAX ? intersection.toArray() : intersection;
+        }
+
+        @Override
+        public Container or(Container other) {
+            long[] result = Arrays.copyOf(words, WORDS);
+            BitsetContainer union = new BitsetContainer(result, cardinality);
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) {
+                    union.add(array.values[i]);
+                }
+                return union;
+            }
+            BitsetContainer bitset = (BitsetContainer) other;
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                result[i] |= bitset.words[i];
+                count += Long.bitCount(result[i]);
+            }
+            union.cardinality = count;
+            return union;
+        }
+
+        @Override
+        public int andCardinality(Container other) {
+            if (other instanceof ArrayContainer array) {
+                return array.andCardinality(this);
+            }
+            BitsetContainer bitset = (BitsetContainer) other;
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                count += Long.bitCount(words[i] & bitset.words[i]);
+            }
+            return count;
+        }
+
+        @Override
+        public void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        public Container copy() {
+            return new BitsetContainer(Arrays.copyOf(words, WORDS), cardinality);
+        }
+
+        @Override
+        public long byteSize() {
+            return 8L * WORDS;
+        }
+
+        ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int[] count = new int[1];
+            forEach(0, value -> values[count[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.toubson.modulith.catalog.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader of RFC 4180 comma-separated values.
+ * Records are read one at a time, so memory stays bounded by the longest record whatever the size of
+ * the input. Quoted fields may hold commas, doubled quotes and line breaks; records end with LF or CRLF.
+ */
+public class CsvReader implements Closeable {
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private long recordNumber;
+    private int pushedBack = EOF - 1;
+
+    /**
+     * Creates a new reader
+     *
+     * @param reader          the input, read through its own buffering
+     * @param maxRecordLength the maximum number of characters of a record, guarding against an unclosed quote
+     *                        swallowing the rest of the input
+     */
+    public CsvReader(Reader reader, int maxRecordLength) {
+        if (maxRecordLength <= 0) {
+            throw new IllegalArgumentException("Maximum record length must be positive");
+        }
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Reads the next record, skipping blank lines
+     *
+     * @return the fields of the record, or null at the end of the input
+     * @throws IOException              if the input cannot be read
+     * @throws IllegalArgumentException if the record is longer than the maximum length or its last quote is not closed
+     */
+    public List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean started = false;
+        int length = 0;
+        while (true) {
+            int c = read();
+            if (c == EOF) {
+                if (quoted) {
+                    throw new IllegalArgumentException("Unclosed quote in record " + (recordNumber + 1));
+                }
+                if (!started) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return record(fields);
+            }
+            if (++length > maxRecordLength) {
+                throw new IllegalArgumentException("Record " + (recordNumber + 1) + " is longer than " +
+                        maxRecordLength + " characters");
+            }
+
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                } else {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+                started = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                started = true;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                if (started || !field.isEmpty()) {
+                    fields.add(field.toString());
+                    return record(fields);
+                }
+                length = 0;
+            } else {
+                field.append((char) c);
+                started = true;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of records read so far
+     *
+     * @return the number of the last record returned, 1 for the first one
+     */
+    public long recordNumber() {
+        return recordNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> record(List<String> fields) {
+        recordNumber++;
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack >= EOF) {
+            int c = pushedBack;
+            pushedBack = EOF - 1;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
@@ -0,0 +1,188 @@
+package com.toubson.modulith.catalog.utils;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index keeping a {@link CompressedBitmap} of dense document ordinals per facet value.
+ * Ordinals freed by removed documents are reused, so bitmaps stay dense over the lifetime of the index.
+ * <p>
+ * Counting follows multi-select faceting: the values selected within a facet are combined with OR,
+ * facets are combined with AND, and the counts of a facet ignore the selection made in that facet
+ * so that its other values stay selectable. Counts and updates are guarded by a read-write lock.
+ *
+ * @param <K> the type of the document keys
+ */
+public class FacetIndex<K> {
+
+    private final Map<K, Integer> ordinals = new HashMap<>();
+    private final List<Collection<FacetValue>> assignments = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<String, Map<String, CompressedBitmap>> facets = new HashMap<>();
+    private final CompressedBitmap all = new CompressedBitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexes a document under the given facet values, replacing its previous values
+     *
+     * @param key    the document key
+     * @param values the facet values of the document
+     */
+    public void put(K key, Collection<FacetValue> values) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(key);
+            if (ordinal == null) {
+                ordinal = freeOrdinals.isEmpty() ? assignments.size() : freeOrdinals.pop();
+                ordinals.put(key, ordinal);
+                all.add(ordinal);
+            } else {
+                unassign(ordinal);
+            }
+
+            List<FacetValue> copy = List.copyOf(new LinkedHashSet<>(values));
+            if (ordinal == assignments.size()) {
+                assignments.add(copy);
+            } else {
+                assignments.set(ordinal, copy);
+            }
+            for (FacetValue value : copy) {
+                facets.computeIfAbsent(value.facet(), facet -> new HashMap<>())
+                        .computeIfAbsent(value.value(), v -> new CompressedBitmap())
+                        .add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document
+     *
+     * @param key the document key
+     */
+    public void remove(K key) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(key);
+            if (ordinal != null) {
+                unassign(ordinal);
+                assignments.set(ordinal, List.of());
+                all.remove(ordinal);
+                freeOrdinals.push(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the documents matching the selection, and the documents per facet value
+     *
+     * @param selections the selected values of each facet
+     * @return the number of matching documents and the non-zero counts of every facet value;
+     * selected values are always counted, even when zero
+     */
+    public FacetCounts count(Map<String, Set<String>> selections) {
+        lock.readLock().lock();
+        try {
+            // One union per facet with a selection
+            Map<String, CompressedBitmap> selected = new HashMap<>();
+            selections.forEach((facet, values) -> {
+                if (!values.isEmpty()) {
+                    CompressedBitmap union = new CompressedBitmap();
+                    Map<String, CompressedBitmap> bitmaps = facets.getOrDefault(facet, Map.of());
+                    for (String value : values) {
+                        CompressedBitmap bitmap = bitmaps.get(value);
+                        if (bitmap != null) {
+                            union = union.or(bitmap);
+                        }
+                    }
+                    selected.put(facet, union);
+                }
+            });
+            CompressedBitmap matching = intersect(selected, null);
+
+            Map<String, Map<String, Integer>> counts = new HashMap<>();
+            for (Map.Entry<String, Map<String, CompressedBitmap>> facet : facets.entrySet()) {
+                CompressedBitmap base = selected.containsKey(facet.getKey())
+                        ? intersect(selected, facet.getKey())
+                        : matching;
+                Set<String> selectedValues = selections.getOrDefault(facet.getKey(), Set.of());
+                Map<String, Integer> valueCounts = new HashMap<>();
+                facet.getValue().forEach((value, bitmap) -> {
+                    int count = base.andCardinality(bitmap);
+                    if (count > 0 || selectedValues.contains(value)) {
+                        valueCounts.put(value, count);
+                    }
+                });
+                if (!valueCounts.isEmpty()) {
+                    counts.put(facet.getKey(), valueCounts);
+                }
+            }
+            // Selected values no document has any more
+            selections.forEach((facet, values) -> values.forEach(value ->
+                    counts.computeIfAbsent(facet, f -> new HashMap<>()).putIfAbsent(value, 0)));
+            return new FacetCounts(matching.cardinality(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of indexed documents
+     *
+     * @return the number of documents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private CompressedBitmap intersect(Map<String, CompressedBitmap> selected, String excludedFacet) {
+        CompressedBitmap result = all;
+        for (Map.Entry<String, CompressedBitmap> entry : selected.entrySet()) {
+            if (!entry.getKey().equals(excludedFacet)) {
+                result = result.and(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private void unassign(int ordinal) {
+        for (FacetValue value : assignments.get(ordinal)) {
+            Map<String, CompressedBitmap> bitmaps = facets.get(value.facet());
+            CompressedBitmap bitmap = bitmaps.get(value.value());
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(value.value());
+                if (bitmaps.isEmpty()) {
+                    facets.remove(value.facet());
+                }
+            }
+        }
+    }
+
+    /**
+     * A value of a facet
+     *
+     * @param facet the facet name
+     * @param value the value
+     */
+    public record FacetValue(String facet, String value) {
+    }
+
+    /**
+     * The result of a count
+     *
+     * @param total  the number of documents matching the selection
+     * @param counts the number of documents per value, by facet
+     */
+    public record FacetCounts(int total, Map<String, Map<String, Integer>> counts) {
+    }
+}
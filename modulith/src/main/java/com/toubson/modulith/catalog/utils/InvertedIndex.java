@@ -0,0 +1,331 @@
+package com.toubson.modulith.catalog.utils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory inverted index with BM25 ranking.
+ * Each document gets a sequential integer ID and every term maps to a compressed
+ * {@link PostingList}. Updating a document indexes it under a new ID and marks the old one
+ * as deleted, so posting lists only ever grow at their end; deleted documents are skipped
+ * at query time until the index is rebuilt.
+ * <p>
+ * Updates are serialized, while searches run concurrently without locking: a posting list
+ * is never modified once published, and document data is published before the postings
+ * that reference it.
+ *
+ * @param <K> the type of the document keys
+ * @param <V> the type of the values returned with search hits
+ */
+public class InvertedIndex<K, V> {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final ConcurrentHashMap<String, PostingList> postings;
+    private final Map<K, Integer> docIdsByKey;
+    private volatile AtomicReferenceArray<V> values;
+    private volatile int[] lengths;
+    private volatile int nextDocId;
+    private volatile int liveDocs;
+    private volatile long totalLength;
+
+    /**
+     * Creates an empty index
+     */
+    public InvertedIndex() {
+        this(new ConcurrentHashMap<>(), new HashMap<>(), new AtomicReferenceArray<>(16), new int[16], 0, 0, 0);
+    }
+
+    private InvertedIndex(ConcurrentHashMap<String, PostingList> postings, Map<K, Integer> docIdsByKey,
+                          AtomicReferenceArray<V> values, int[] lengths, int nextDocId, int liveDocs, long totalLength) {
+        this.postings = postings;
+        this.docIdsByKey = docIdsByKey;
+        this.values = values;
+        this.lengths = lengths;
+        this.nextDocId = nextDocId;
+        this.liveDocs = liveDocs;
+        this.totalLength = totalLength;
+    }
+
+    /**
+     * Builds an index from the given documents, building the posting lists in parallel.
+     * Terms are sharded by hash and every worker builds the posting lists of its own shard,
+     * so no synchronization is needed between workers.
+     *
+     * @param documents   the documents to index, without duplicate keys
+     * @param parallelism the number of worker threads
+     * @param <K>         the type of the document keys
+     * @param <V>         the type of the values returned with search hits
+     * @return the new index
+     */
+    public static <K, V> InvertedIndex<K, V> build(List<Document<K, V>> documents, int parallelism) {
+        int count = documents.size();
+        AtomicReferenceArray<V> values = new AtomicReferenceArray<>(Math.max(16, count));
+        int[] lengths = new int[Math.max(16, count)];
+        Map<K, Integer> docIdsByKey = new HashMap<>(count * 4 / 3 + 1);
+        long totalLength = 0;
+        for (int docId = 0; docId < count; docId++) {
+            Document<K, V> document = documents.get(docId);
+            values.set(docId, document.value());
+            lengths[docId] = document.length();
+            docIdsByKey.put(document.key(), docId);
+            totalLength += document.length();
+        }
+
+        int shards = Math.max(1, parallelism);
+        List<Map<String, PostingList.Builder>> builders = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            builders.add(new HashMap<>());
+        }
+        ForkJoinPool pool = new ForkJoinPool(shards);
+        try {
+            pool.submit(() -> IntStream.range(0, shards).parallel().forEach(shard -> {
+                Map<String, PostingList.Builder> shardBuilders = builders.get(shard);
+                for (int docId = 0; docId < count; docId++) {
+                    for (Map.Entry<String, Integer> term : documents.get(docId).termFrequencies().entrySet()) {
+                        if ((term.getKey().hashCode() & Integer.MAX_VALUE) % shards == shard) {
+                            shardBuilders.computeIfAbsent(term.getKey(), key -> new PostingList.Builder())
+                                    .add(docId, term.getValue());
+                        }
+                    }
+                }
+            })).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        ConcurrentHashMap<String, PostingList> postings = new ConcurrentHashMap<>();
+        for (Map<String, PostingList.Builder> shardBuilders : builders) {
+            shardBuilders.forEach((term, builder) -> postings.put(term, builder.build()));
+        }
+        return new InvertedIndex<>(postings, docIdsByKey, values, lengths, count, count, totalLength);
+    }
+
+    /**
+     * Indexes new versions of the given documents and removes the given keys
+     *
+     * @param documents   the documents to add or replace
+     * @param removedKeys the keys of the documents to remove
+     */
+    public synchronized void update(Collection<Document<K, V>> documents, Collection<K> removedKeys) {
+        removedKeys.forEach(this::delete);
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        int firstDocId = nextDocId;
+        ensureCapacity(firstDocId + documents.size());
+        AtomicReferenceArray<V> currentValues = values;
+        int[] currentLengths = lengths;
+
+        // Group the new postings by term; IDs are assigned in order so each group is sorted
+        Map<String, IntPairs> appended = new HashMap<>();
+        int docId = firstDocId;
+        long addedLength = 0;
+        for (Document<K, V> document : documents) {
+            delete(document.key());
+            currentValues.set(docId, document.value());
+            currentLengths[docId] = document.length();
+            addedLength += document.length();
+            for (Map.Entry<String, Integer> term : document.termFrequencies().entrySet()) {
+                appended.computeIfAbsent(term.getKey(), key -> new IntPairs()).add(docId, term.getValue());
+            }
+            docIdsByKey.put(document.key(), docId);
+            docId++;
+        }
+
+        // Documents are published before the postings that reference them
+        nextDocId = docId;
+        totalLength += addedLength;
+        liveDocs += documents.size();
+        appended.forEach((term, pairs) -> postings.compute(term, (key, list) ->
+                (list == null ? PostingList.EMPTY : list).append(pairs.docIds, pairs.values, pairs.size)));
+    }
+
+    /**
+     * Finds the documents containing all the given terms, best BM25 score first
+     *
+     * @param terms the query terms
+     * @param limit the maximum number of hits
+     * @return the hits, best match first
+     */
+    public List<Hit<V>> search(Collection<String> terms, int limit) {
+        Set<String> distinctTerms = new LinkedHashSet<>(terms);
+        if (distinctTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Read the posting lists before the document data, which is always published first
+        List<PostingList> lists = new ArrayList<>(distinctTerms.size());
+        for (String term : distinctTerms) {
+            PostingList list = postings.get(term);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        AtomicReferenceArray<V> currentValues = values;
+        int[] currentLengths = lengths;
+        int documentCount = Math.max(1, liveDocs);
+        float averageLength = Math.max(1f, (float) totalLength / documentCount);
+
+        // Drive the intersection with the rarest term
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        PostingList.Cursor[] cursors = new PostingList.Cursor[lists.size()];
+        float[] idf = new float[lists.size()];
+        for (int i = 0; i < lists.size(); i++) {
+            cursors[i] = lists.get(i).cursor();
+            int documentFrequency = Math.min(lists.get(i).size(), documentCount);
+            idf[i] = (float) Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        }
+
+        PriorityQueue<ScoredDoc> top = new PriorityQueue<>(limit + 1);
+        int doc = cursors[0].nextDoc();
+        candidates:
+        while (doc != PostingList.NO_MORE_DOCS) {
+            for (int i = 1; i < cursors.length; i++) {
+                int other = cursors[i].advance(doc);
+                if (other == PostingList.NO_MORE_DOCS) {
+                    break candidates;
+                }
+                if (other > doc) {
+                    doc = cursors[0].advance(other);
+                    continue candidates;
+                }
+            }
+
+            if (doc < currentLengths.length && currentValues.get(doc) != null) {
+                float norm = K1 * (1 - B + B * currentLengths[doc] / averageLength);
+                float score = 0;
+                for (int i = 0; i < cursors.length; i++) {
+                    int frequency = cursors[i].frequency();
+                    score += idf[i] * frequency * (K1 + 1) / (frequency + norm);
+                }
+                top.offer(new ScoredDoc(doc, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            doc = cursors[0].nextDoc();
+        }
+
+        List<Hit<V>> hits = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ScoredDoc scored = top.poll();
+            V value = currentValues.get(scored.docId());
+            if (value != null) {
+                hits.add(new Hit<>(value, scored.score()));
+            }
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    /**
+     * Gets the number of live documents
+     *
+     * @return the number of indexed documents that have not been replaced or removed
+     */
+    public int size() {
+        return liveDocs;
+    }
+
+    /**
+     * Gets the number of replaced or removed documents still present in the posting lists
+     *
+     * @return the number of deleted documents
+     */
+    public int deletedCount() {
+        return nextDocId - liveDocs;
+    }
+
+    /**
+     * Gets the number of distinct terms
+     *
+     * @return the number of terms
+     */
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Gets the memory used by the encoded posting lists
+     *
+     * @return the total size of the posting lists in bytes
+     */
+    public long postingBytes() {
+        return postings.values().stream().mapToLong(PostingList::byteSize).sum();
+    }
+
+    private void delete(K key) {
+        Integer docId = docIdsByKey.remove(key);
+        if (docId != null && values.getAndSet(docId, null) != null) {
+            liveDocs--;
+            totalLength -= lengths[docId];
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        AtomicReferenceArray<V> currentValues = values;
+        if (capacity <= currentValues.length()) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, currentValues.length() + (currentValues.length() >> 1));
+        AtomicReferenceArray<V> newValues = new AtomicReferenceArray<>(newCapacity);
+        for (int i = 0; i < nextDocId; i++) {
+            newValues.set(i, currentValues.get(i));
+        }
+        lengths = Arrays.copyOf(lengths, newCapacity);
+        values = newValues;
+    }
+
+    /**
+     * A document to index
+     *
+     * @param key             the unique key of the document
+     * @param value           the value returned with search hits
+     * @param termFrequencies the frequency of each term in the document
+     * @param length          the number of terms in the document
+     */
+    public record Document<K, V>(K key, V value, Map<String, Integer> termFrequencies, int length) {
+    }
+
+    /**
+     * A search hit
+     *
+     * @param value the value of the matching document
+     * @param score the BM25 score of the document
+     */
+    public record Hit<V>(V value, float score) {
+    }
+
+    private record ScoredDoc(int docId, float score) implements Comparable<ScoredDoc> {
+        @Override
+        public int compareTo(ScoredDoc other) {
+            // Worst hit first, later documents losing ties
+            int byScore = Float.compare(score, other.score);
+            return byScore != 0 ? byScore : Integer.compare(other.docId, docId);
+        }
+    }
+
+    private static final class IntPairs {
+
+        private int[] docIds = new int[4];
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int docId, int value) {
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            docIds[size] = docId;
+            values[size] = value;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.toubson.modulith.catalog.utils;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, compressed list of the documents containing a term.
+ * Postings are sorted by document ID and stored as variable-length encoded pairs of
+ * (delta from the previous document ID, term frequency), so that a posting usually takes
+ * two or three bytes. A skip entry is recorded every {@value #BLOCK_SIZE} postings, which
+ * lets {@link Cursor#advance(int)} jump over whole blocks when intersecting lists.
+ */
+public final class PostingList {
+
+    static final int BLOCK_SIZE = 64;
+    public static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+    public static final PostingList EMPTY = new PostingList(new byte[0], 0, 0, -1, new int[0], new int[0]);
+
+    private final byte[] data;
+    private final int length;
+    private final int size;
+    private final int lastDocId;
+    // Last document ID of each full block, and the byte offset of the block that follows it
+    private final int[] skipDocIds;
+    private final int[] skipOffsets;
+
+    private PostingList(byte[] data, int length, int size, int lastDocId, int[] skipDocIds, int[] skipOffsets) {
+        this.data = data;
+        this.length = length;
+        this.size = size;
+        this.lastDocId = lastDocId;
+        this.skipDocIds = skipDocIds;
+        this.skipOffsets = skipOffsets;
+    }
+
+    /**
+     * Gets the number of postings, which is the document frequency of the term
+     *
+     * @return the number of postings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of bytes used by the encoded postings
+     *
+     * @return the encoded size in bytes
+     */
+    public int byteSize() {
+        return length;
+    }
+
+    /**
+     * Returns a new list with the given postings appended
+     *
+     * @param docIds      the document IDs, in increasing order and greater than any ID of this list
+     * @param frequencies the term frequencies, one per document
+     * @param count       the number of postings to append
+     * @return the new list
+     */
+    public PostingList append(int[] docIds, int[] frequencies, int count) {
+        if (count == 0) {
+            return this;
+        }
+        Builder builder = new Builder(this, count);
+        for (int i = 0; i < count; i++) {
+            builder.add(docIds[i], frequencies[i]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Opens a cursor positioned before the first posting
+     *
+     * @return a new cursor
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Incrementally builds a posting list from postings added in document order
+     */
+    public static final class Builder {
+
+        private byte[] data;
+        private int length;
+        private int size;
+        private int lastDocId;
+        private int[] skipDocIds;
+        private int[] skipOffsets;
+        private int skips;
+
+        public Builder() {
+            this.data = new byte[16];
+            this.lastDocId = -1;
+            this.skipDocIds = new int[4];
+            this.skipOffsets = new int[4];
+        }
+
+        private Builder(PostingList list, int expectedPostings) {
+            this.data = Arrays.copyOf(list.data, Math.max(16, list.length + expectedPostings * 3));
+            this.length = list.length;
+            this.size = list.size;
+            this.lastDocId = list.lastDocId;
+            this.skips = list.skipDocIds.length;
+            int capacity = Math.max(4, skips + expectedPostings / BLOCK_SIZE + 1);
+            this.skipDocIds = Arrays.copyOf(list.skipDocIds, capacity);
+            this.skipOffsets = Arrays.copyOf(list.skipOffsets, capacity);
+        }
+
+        /**
+         * Adds a posting
+         *
+         * @param docId     the document ID, greater than the previous one
+         * @param frequency the term frequency in the document
+         * @throws IllegalArgumentException if the document ID is out of order
+         */
+        public void add(int docId, int frequency) {
+            if (docId <= lastDocId) {
+                throw new IllegalArgumentException("Postings must be added in increasing document order");
+            }
+            ensureCapacity(10);
+            length = writeVarInt(data, length, docId - lastDocId);
+            length = writeVarInt(data, length, Math.max(1, frequency));
+            lastDocId = docId;
+            size++;
+
+            if (size % BLOCK_SIZE == 0) {
+                if (skips == skipDocIds.length) {
+                    skipDocIds = Arrays.copyOf(skipDocIds, skips * 2);
+                    skipOffsets = Arrays.copyOf(skipOffsets, skips * 2);
+                }
+                skipDocIds[skips] = docId;
+                skipOffsets[skips] = length;
+                skips++;
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public PostingList build() {
+            return new PostingList(Arrays.copyOf(data, length), length, size, lastDocId,
+                    Arrays.copyOf(skipDocIds, skips), Arrays.copyOf(skipOffsets, skips));
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+            }
+        }
+    }
+
+    /**
+     * Forward-only iterator over the postings of a list
+     */
+    public final class Cursor {
+
+        private int offset;
+        private int index;
+        private int docId = -1;
+        private int frequency;
+
+        private Cursor() {
+        }
+
+        public int docId() {
+            return docId;
+        }
+
+        public int frequency() {
+            return frequency;
+        }
+
+        /**
+         * Moves to the next posting
+         *
+         * @return the next document ID, or {@link #NO_MORE_DOCS} when the list is exhausted
+         */
+        public int nextDoc() {
+            if (index >= size) {
+                return docId = NO_MORE_DOCS;
+            }
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            docId += value;
+
+            value = 0;
+            shift = 0;
+            do {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            frequency = value;
+
+            index++;
+            return docId;
+        }
+
+        /**
+         * Moves to the first posting whose document ID is greater than or equal to the target
+         *
+         * @param target the target document ID
+         * @return the document ID reached, or {@link #NO_MORE_DOCS} when the list is exhausted
+         */
+        public int advance(int target) {
+            if (docId >= target) {
+                return docId;
+            }
+            if (target > lastDocId) {
+                index = size;
+                return docId = NO_MORE_DOCS;
+            }
+            // Jump to the last block that ends before the target
+            int block = index / BLOCK_SIZE;
+            while (block < skipDocIds.length && skipDocIds[block] < target) {
+                block++;
+            }
+            if (block > 0 && block * BLOCK_SIZE > index) {
+                index = block * BLOCK_SIZE;
+                offset = skipOffsets[block - 1];
+                docId = skipDocIds[block - 1];
+            }
+            while (nextDoc() < target) {
+                // Linear scan inside the block
+            }
+            return docId;
+        }
+    }
+
+    private static int writeVarInt(byte[] buffer, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+}
@@ -0,0 +1,499 @@
+package com.toubson.modulith.catalog.utils;
+
+import java.util.*;
+
+/**
+ * Immutable index of the documents carrying each tag, answering AND and OR tag queries in memory.
+ * Documents are numbered in key order, so every posting list is a sorted {@code int[]} of ordinals:
+ * intersections gallop through the longer lists, unions are linear merges, and matches come out in
+ * key order, ready for keyset pagination on the key.
+ * <p>
+ * Ordinals are spread over the int range with gaps between them, so that a new document is numbered
+ * between its neighbours without renumbering the others. Changes produce a new index through
+ * {@link #withDocuments(Map)}, which only rewrites the posting lists of the tags the changed documents
+ * gained or lost; the other lists are shared with the previous index. Documents left without any tag
+ * keep their ordinal until the index is built again. Readers holding the previous instance are unaffected.
+ *
+ * @param <K> the type of the document keys
+ */
+public final class TagPostingIndex<K extends Comparable<? super K>> {
+
+    private static final int[] EMPTY = new int[0];
+
+    // Every document numbered so far, sorted by key, with its ordinal at the same position
+    private final Object[] keys;
+    private final int[] ordinals;
+    private final Map<String, int[]> postings;
+    private final int size;
+
+    private TagPostingIndex(Object[] keys, int[] ordinals, Map<String, int[]> postings, int size) {
+        this.keys = keys;
+        this.ordinals = ordinals;
+        this.postings = postings;
+        this.size = size;
+    }
+
+    /**
+     * Creates a builder
+     *
+     * @param <K> the type of the document keys
+     * @return the new builder
+     */
+    public static <K extends Comparable<? super K>> Builder<K> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Finds the documents carrying all the given tags
+     *
+     * @param tags the tags
+     * @return the sorted ordinals of the matching documents, empty if no tag is given
+     */
+    public int[] matchAll(Collection<String> tags) {
+        List<int[]> lists = new ArrayList<>(tags.size());
+        for (String tag : new HashSet<>(tags)) {
+            int[] list = postings.get(tag);
+            if (list == null) {
+                return EMPTY;
+            }
+            lists.add(list);
+        }
+        if (lists.isEmpty()) {
+            return EMPTY;
+        }
+
+        // Start from the shortest list: the result can only shrink
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the documents carrying any of the given tags
+     *
+     * @param tags the tags
+     * @return the sorted ordinals of the matching documents
+     */
+    public int[] matchAny(Collection<String> tags) {
+        List<int[]> lists = new ArrayList<>(tags.size());
+        for (String tag : new HashSet<>(tags)) {
+            int[] list = postings.get(tag);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        if (lists.isEmpty()) {
+            return EMPTY;
+        }
+
+        // Merge the shortest lists first so that long lists are copied as few times as possible
+        PriorityQueue<int[]> queue = new PriorityQueue<>(Comparator.comparingInt(list -> list.length));
+        queue.addAll(lists);
+        while (queue.size() > 1) {
+            queue.add(union(queue.poll(), queue.poll()));
+        }
+        return queue.poll();
+    }
+
+    /**
+     * Gets the keys of the matching documents following a key
+     *
+     * @param matches the sorted ordinals returned by a query
+     * @param after   the last key already read, or null to start from the first match
+     * @param limit   the maximum number of keys
+     * @return the keys, in key order
+     */
+    public List<K> keys(int[] matches, K after, int limit) {
+        int from = 0;
+        if (after != null) {
+            // First ordinal after the key, then its position among the matches
+            int position = Arrays.binarySearch(keys, after);
+            position = position >= 0 ? position + 1 : -position - 1;
+            if (position == keys.length) {
+                return List.of();
+            }
+            from = Arrays.binarySearch(matches, ordinals[position]);
+            from = from >= 0 ? from : -from - 1;
+        }
+
+        int to = (int) Math.min(matches.length, (long) from + limit);
+        List<K> page = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            page.add(key(matches[i]));
+        }
+        return page;
+    }
+
+    /**
+     * Finds the documents whose tags differ between this index and another one
+     *
+     * @param other the other index
+     * @return the keys of the documents carrying a tag in one index but not in the other
+     */
+    public Set<K> differingKeys(TagPostingIndex<K> other) {
+        Set<String> tags = new HashSet<>(postings.keySet());
+        tags.addAll(other.postings.keySet());
+
+        // Both lists of a tag are in key order, so they are compared in a single merge
+        Set<K> differing = new HashSet<>();
+        for (String tag : tags) {
+            int[] left = postings.getOrDefault(tag, EMPTY);
+            int[] right = other.postings.getOrDefault(tag, EMPTY);
+            int i = 0;
+            int j = 0;
+            while (i < left.length || j < right.length) {
+                int comparison = i == left.length ? 1
+                        : j == right.length ? -1
+                        : key(left[i]).compareTo(other.key(right[j]));
+                if (comparison < 0) {
+                    differing.add(key(left[i++]));
+                } else if (comparison > 0) {
+                    differing.add(other.key(right[j++]));
+                } else {
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return differing;
+    }
+
+    /**
+     * Creates a new index where the given documents carry the given tags.
+     * A document given an empty set of tags is removed.
+     * Only the posting lists of the tags gained or lost by these documents are rewritten.
+     *
+     * @param documents the tags of the changed documents
+     * @return the new index
+     */
+    public TagPostingIndex<K> withDocuments(Map<K, ? extends Collection<String>> documents) {
+        if (documents.isEmpty()) {
+            return this;
+        }
+
+        // Number the new documents between their neighbours
+        List<K> added = new ArrayList<>();
+        documents.forEach((key, tags) -> {
+            if (!tags.isEmpty() && Arrays.binarySearch(keys, key) < 0) {
+                added.add(key);
+            }
+        });
+        Object[] newKeys = keys;
+        int[] newOrdinals = ordinals;
+        if (!added.isEmpty()) {
+            added.sort(Comparator.naturalOrder());
+            newKeys = new Object[keys.length + added.size()];
+            newOrdinals = new int[keys.length + added.size()];
+            if (!insert(added, newKeys, newOrdinals)) {
+                // No gap left between two neighbours: number every document again
+                return rebuild(documents);
+            }
+        }
+
+        // Ordinals of the changed documents, and the ordinals each tag gains
+        IntList changedList = new IntList();
+        Map<String, IntList> gained = new HashMap<>();
+        int carrying = 0;
+        for (Map.Entry<K, ? extends Collection<String>> document : documents.entrySet()) {
+            int position = Arrays.binarySearch(newKeys, document.getKey());
+            if (position < 0) {
+                continue;
+            }
+            int ordinal = newOrdinals[position];
+            changedList.add(ordinal);
+            if (!document.getValue().isEmpty()) {
+                carrying++;
+            }
+            for (String tag : new HashSet<>(document.getValue())) {
+                gained.computeIfAbsent(tag, t -> new IntList()).add(ordinal);
+            }
+        }
+        int[] changed = changedList.toArray();
+        Arrays.sort(changed);
+
+        // Lists holding a changed document lose it, then the tags it carries now get it back
+        Map<String, int[]> newPostings = new HashMap<>(postings);
+        IntList carriedList = new IntList();
+        for (Map.Entry<String, int[]> posting : postings.entrySet()) {
+            int[] list = posting.getValue();
+            int[] removed = list.length < changed.length ? intersect(list, changed) : intersect(changed, list);
+            IntList gain = gained.remove(posting.getKey());
+            if (removed.length == 0 && gain == null) {
+                continue;
+            }
+            for (int ordinal : removed) {
+                carriedList.add(ordinal);
+            }
+            int[] updated = difference(list, removed);
+            if (gain != null) {
+                int[] gainedOrdinals = gain.toArray();
+                Arrays.sort(gainedOrdinals);
+                updated = union(updated, gainedOrdinals);
+            }
+            if (updated.length == 0) {
+                newPostings.remove(posting.getKey());
+            } else {
+                newPostings.put(posting.getKey(), updated);
+            }
+        }
+        gained.forEach((tag, gain) -> {
+            int[] gainedOrdinals = gain.toArray();
+            Arrays.sort(gainedOrdinals);
+            newPostings.put(tag, gainedOrdinals);
+        });
+
+        int[] carried = carriedList.toArray();
+        int carriedBefore = (int) Arrays.stream(carried).distinct().count();
+        return new TagPostingIndex<>(newKeys, newOrdinals, newPostings, size - carriedBefore + carrying);
+    }
+
+    /**
+     * Gets the number of documents carrying at least one tag
+     *
+     * @return the number of documents
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of distinct tags
+     *
+     * @return the number of tags
+     */
+    public int tagCount() {
+        return postings.size();
+    }
+
+    private K key(int ordinal) {
+        return keyAt(Arrays.binarySearch(ordinals, ordinal));
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int position) {
+        return (K) keys[position];
+    }
+
+    /**
+     * Merges the sorted new keys into the numbered ones, spreading the ordinals of the new keys found
+     * between the same two neighbours evenly over the gap between them
+     *
+     * @return false if a gap is too narrow for the keys to insert
+     */
+    private boolean insert(List<K> added, Object[] newKeys, int[] newOrdinals) {
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (j < added.size()) {
+            K next = added.get(j);
+            while (i < keys.length && keyAt(i).compareTo(next) < 0) {
+                newKeys[count] = keys[i];
+                newOrdinals[count++] = ordinals[i++];
+            }
+            int run = 1;
+            while (j + run < added.size() && (i == keys.length
+                    || keyAt(i).compareTo(added.get(j + run)) > 0)) {
+                run++;
+            }
+            long lower = count == 0 ? 0 : newOrdinals[count - 1];
+            long upper = i == keys.length ? Integer.MAX_VALUE : ordinals[i];
+            long step = (upper - lower) / (run + 1);
+            if (step == 0) {
+                return false;
+            }
+            for (int k = 1; k <= run; k++) {
+                newKeys[count] = added.get(j++);
+                newOrdinals[count++] = (int) (lower + step * k);
+            }
+        }
+        System.arraycopy(keys, i, newKeys, count, keys.length - i);
+        System.arraycopy(ordinals, i, newOrdinals, count, ordinals.length - i);
+        return true;
+    }
+
+    private TagPostingIndex<K> rebuild(Map<K, ? extends Collection<String>> documents) {
+        Builder<K> builder = new Builder<>();
+        postings.forEach((tag, list) -> {
+            for (int ordinal : list) {
+                K key = key(ordinal);
+                if (!documents.containsKey(key)) {
+                    builder.add(key, tag);
+                }
+            }
+        });
+        documents.forEach(builder::put);
+        return builder.build();
+    }
+
+    static int[] difference(int[] values, int[] removed) {
+        if (removed.length == 0) {
+            return values;
+        }
+        int[] result = new int[values.length];
+        int count = 0;
+        int j = 0;
+        for (int value : values) {
+            while (j < removed.length && removed[j] < value) {
+                j++;
+            }
+            if (j == removed.length || removed[j] != value) {
+                result[count++] = value;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    static int[] intersect(int[] smaller, int[] larger) {
+        int[] result = new int[smaller.length];
+        int count = 0;
+        int from = 0;
+        for (int value : smaller) {
+            from = gallop(larger, from, value);
+            if (from == larger.length) {
+                break;
+            }
+            if (larger[from] == value) {
+                result[count++] = value;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    static int[] union(int[] left, int[] right) {
+        int[] result = new int[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                result[count++] = left[i++];
+            } else if (left[i] > right[j]) {
+                result[count++] = right[j++];
+            } else {
+                result[count++] = left[i++];
+                j++;
+            }
+        }
+        while (i < left.length) {
+            result[count++] = left[i++];
+        }
+        while (j < right.length) {
+            result[count++] = right[j++];
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Finds the first position at or after {@code from} holding a value greater than or equal to the target,
+     * doubling the step before a binary search so that skipping far ahead costs O(log distance)
+     */
+    private static int gallop(int[] values, int from, int target) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < values.length && values[high] < target) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        high = Math.min(high, values.length);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Collects the tags of each document, then numbers the documents in key order
+     *
+     * @param <K> the type of the document keys
+     */
+    public static final class Builder<K extends Comparable<? super K>> {
+
+        private final Map<K, Set<String>> tagsByKey = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a tag to a document
+         *
+         * @param key the document key
+         * @param tag the tag
+         * @return this builder
+         */
+        public Builder<K> add(K key, String tag) {
+            tagsByKey.computeIfAbsent(key, k -> new HashSet<>()).add(tag);
+            return this;
+        }
+
+        /**
+         * Sets the tags of a document, replacing the tags added before
+         *
+         * @param key  the document key
+         * @param tags the tags; the document is left out of the index if empty
+         * @return this builder
+         */
+        public Builder<K> put(K key, Collection<String> tags) {
+            if (tags.isEmpty()) {
+                tagsByKey.remove(key);
+            } else {
+                tagsByKey.put(key, new HashSet<>(tags));
+            }
+            return this;
+        }
+
+        /**
+         * Builds the index
+         *
+         * @return the new index
+         */
+        public TagPostingIndex<K> build() {
+            List<K> sorted = new ArrayList<>(tagsByKey.keySet());
+            sorted.sort(Comparator.naturalOrder());
+            Object[] keys = sorted.toArray();
+
+            // Equal gaps leave room for new documents anywhere in the key order
+            int gap = (int) Math.max(1, Integer.MAX_VALUE / (keys.length + 1L));
+            int[] ordinals = new int[keys.length];
+
+            // Documents are visited in ordinal order, so every list is appended already sorted
+            Map<String, IntList> lists = new HashMap<>();
+            for (int position = 0; position < keys.length; position++) {
+                ordinals[position] = gap * (position + 1);
+                for (String tag : tagsByKey.get(sorted.get(position))) {
+                    lists.computeIfAbsent(tag, t -> new IntList()).add(ordinals[position]);
+                }
+            }
+
+            Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+            lists.forEach((tag, list) -> postings.put(tag, list.toArray()));
+            return new TagPostingIndex<>(keys, ordinals, postings, keys.length);
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.toubson.modulith.catalog.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into normalized search terms.
+ * Text is lower-cased and stripped of diacritics, split on anything that is not a letter
+ * or a digit, and common English stop words are dropped. Plurals are folded with a light
+ * suffix stripper so that "shirts" matches "shirt"; there is no further stemming.
+ */
+public final class Tokenizer {
+
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "to", "with");
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Tokenizes the given text
+     *
+     * @param text the text to tokenize, may be null
+     * @return the terms in order of appearance, duplicates included
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                addTerm(terms, term);
+            }
+        }
+        addTerm(terms, term);
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, StringBuilder term) {
+        if (term.isEmpty()) {
+            return;
+        }
+        String value = term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term.toString();
+        term.setLength(0);
+        if (!STOP_WORDS.contains(value)) {
+            terms.add(fold(value));
+        }
+    }
+
+    private static String fold(String term) {
+        int length = term.length();
+        if (length <= 3 || !Character.isLetter(term.charAt(length - 1))) {
+            return term;
+        }
+        if (term.endsWith("sses")) {
+            return term.substring(0, length - 2);
+        }
+        if (term.endsWith("ies") && length > 4) {
+            return term.substring(0, length - 3) + "y";
+        }
+        if (term.endsWith("s") && !term.endsWith("ss") && !term.endsWith("us") && !term.endsWith("is")) {
+            return term.substring(0, length - 1);
+        }
+        return term;
+    }
+}
@@ -3,7 +3,7 @@ package com.toubson.modulith.identity;
 
 @org.springframework.modulith.ApplicationModule(
         displayName = "Identity & Security",
-        allowedDependencies = {"shared::events"}
+        allowedDependencies = {"shared::events", "shared::utils"}
 )
 class IdentityModule {
 }
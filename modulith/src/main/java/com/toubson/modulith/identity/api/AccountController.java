@@ -1,6 +1,8 @@
 package com.toubson.modulith.identity.api;
 
+import com.toubson.modulith.identity.application.AuthAuditService;
 import com.toubson.modulith.identity.application.UserService;
+import com.toubson.modulith.identity.domain.AuthAuditEventType;
 import com.toubson.modulith.identity.domain.User;
 import com.toubson.modulith.identity.dto.*;
 import com.toubson.modulith.identity.mapper.UserToUserResponseMapper;
@@ -10,6 +12,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +32,7 @@ import java.util.Map;
 public class AccountController {
 
     private final UserService userService;
+    private final AuthAuditService auditService;
 
     @Operation(summary = "Register a new user", description = "Creates a new user account and sends a verification email")
     @ApiResponses(value = {
@@ -51,9 +55,11 @@ public class AccountController {
             @ApiResponse(responseCode = "400", description = "Invalid or expired token")
     })
     @PostMapping("/verify-email")
-    public ResponseEntity<UserResponse> verifyEmail(@Valid @RequestBody EmailVerificationRequest request) {
+    public ResponseEntity<UserResponse> verifyEmail(@Valid @RequestBody EmailVerificationRequest request,
+                                                    HttpServletRequest httpRequest) {
         log.debug("Processing email verification with token");
-        User user = userService.verifyEmail(request.getToken());
+        User user = auditService.audit(AuthAuditEventType.EMAIL_VERIFICATION, httpRequest,
+                () -> userService.verifyEmail(request.getToken()), User::getUsername);
         log.debug("Email verification successful for user ID: {}", user.getId());
         return ResponseEntity.ok(UserToUserResponseMapper.mapToResponse(user));
     }
@@ -64,9 +70,11 @@ public class AccountController {
             @ApiResponse(responseCode = "404", description = "User not found")
     })
     @PostMapping("/resend-verification")
-    public ResponseEntity<Map<String, String>> resendVerification(@RequestParam String email) {
+    public ResponseEntity<Map<String, String>> resendVerification(@RequestParam String email,
+                                                                  HttpServletRequest httpRequest) {
         log.debug("Resending verification email to: {}", email);
-        userService.generateNewVerificationToken(email);
+        auditService.audit(AuthAuditEventType.VERIFICATION_RESEND, email, httpRequest,
+                () -> userService.generateNewVerificationToken(email));
         log.debug("Verification email resent successfully to: {}", email);
         Map<String, String> response = new HashMap<>();
         response.put("message", "Verification email sent successfully");
@@ -79,9 +87,13 @@ public class AccountController {
             @ApiResponse(responseCode = "404", description = "User not found")
     })
     @PostMapping("/forgot-password")
-    public ResponseEntity<Map<String, String>> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request) {
+    public ResponseEntity<Map<String, String>> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request,
+                                                              HttpServletRequest httpRequest) {
         log.debug("Initiating password reset process for email: {}", request.getEmail());
-        userService.initiatePasswordReset(request.getEmail());
+        auditService.audit(AuthAuditEventType.PASSWORD_RESET_REQUEST, request.getEmail(), httpRequest, () -> {
+            userService.initiatePasswordReset(request.getEmail());
+            return null;
+        });
         log.debug("Password reset email sent successfully to: {}", request.getEmail());
         Map<String, String> response = new HashMap<>();
         response.put("message", "Password reset email sent successfully");
@@ -95,9 +107,12 @@ public class AccountController {
             @ApiResponse(responseCode = "400", description = "Invalid or expired token, or passwords don't match")
     })
     @PostMapping("/reset-password")
-    public ResponseEntity<UserResponse> resetPassword(@Valid @RequestBody ResetPasswordRequest request) {
+    public ResponseEntity<UserResponse> resetPassword(@Valid @RequestBody ResetPasswordRequest request,
+                                                      HttpServletRequest httpRequest) {
         log.debug("Processing password reset request with token");
-        User user = userService.resetPassword(request.getToken(), request.getNewPassword(), request.getConfirmPassword());
+        User user = auditService.audit(AuthAuditEventType.PASSWORD_RESET, httpRequest,
+                () -> userService.resetPassword(request.getToken(), request.getNewPassword(), request.getConfirmPassword()),
+                User::getUsername);
         log.debug("Password reset successful for user ID: {}", user.getId());
         return ResponseEntity.ok(UserToUserResponseMapper.mapToResponse(user));
     }
@@ -1,7 +1,10 @@
 package com.toubson.modulith.identity.api;
 
+import com.toubson.modulith.identity.application.AuthAuditService;
 import com.toubson.modulith.identity.application.AuthenticationService;
 import com.toubson.modulith.identity.config.JwtTokenProvider;
+import com.toubson.modulith.identity.domain.AuthAuditEventType;
+import com.toubson.modulith.identity.domain.AuthAuditOutcome;
 import com.toubson.modulith.identity.dto.LoginRequest;
 import com.toubson.modulith.identity.dto.RefreshTokenRequest;
 import com.toubson.modulith.identity.dto.TokenResponse;
@@ -37,6 +40,7 @@ public class AuthController {
     private final JwtTokenProvider tokenProvider;
     private final ClientTypeResolver clientTypeResolver;
     private final AuthenticationService authenticationService;
+    private final AuthAuditService auditService;
 
     /**
      * Login endpoint for web clients
@@ -51,10 +55,12 @@ public class AuthController {
     @PostMapping("/web/login")
     public ResponseEntity<TokenResponse> webLogin(
             @Valid @RequestBody LoginRequest loginRequest,
+            HttpServletRequest request,
             HttpServletResponse response) {
         log.debug("Processing web login request for username: {}", loginRequest.getUsername());
 
-        Authentication authentication = authenticationService.authenticate(loginRequest.getUsername(), loginRequest.getPassword());
+        Authentication authentication = auditService.audit(AuthAuditEventType.LOGIN, loginRequest.getUsername(), request,
+                () -> authenticationService.authenticate(loginRequest.getUsername(), loginRequest.getPassword()));
         log.debug("Authentication successful for web user: {}", loginRequest.getUsername());
 
         JwtTokenProvider.TokenPair tokenPair = tokenProvider.createTokenPair(
@@ -88,10 +94,12 @@ public class AuthController {
     })
     @PostMapping("/mobile/login")
     public ResponseEntity<TokenResponse> mobileLogin(
-            @Valid @RequestBody LoginRequest loginRequest) {
+            @Valid @RequestBody LoginRequest loginRequest,
+            HttpServletRequest request) {
         log.debug("Processing mobile login request for username: {}", loginRequest.getUsername());
 
-        Authentication authentication = authenticationService.authenticate(loginRequest.getUsername(), loginRequest.getPassword());
+        Authentication authentication = auditService.audit(AuthAuditEventType.LOGIN, loginRequest.getUsername(), request,
+                () -> authenticationService.authenticate(loginRequest.getUsername(), loginRequest.getPassword()));
         log.debug("Authentication successful for mobile user: {}", loginRequest.getUsername());
 
         JwtTokenProvider.TokenPair tokenPair = tokenProvider.createTokenPair(
@@ -126,6 +134,15 @@ public class AuthController {
             HttpServletResponse response) {
         log.debug("Processing token refresh request");
 
+        return auditService.audit(AuthAuditEventType.REFRESH, request,
+                () -> refresh(refreshRequest, request, response),
+                result -> result.getBody().getUsername());
+    }
+
+    private ResponseEntity<TokenResponse> refresh(
+            RefreshTokenRequest refreshRequest,
+            HttpServletRequest request,
+            HttpServletResponse response) {
         // Get refresh token from cookie or request body
         String refreshToken = authenticationService.getRefreshTokenFromRequest(refreshRequest, request);
         if (refreshToken == null) {
@@ -205,6 +222,10 @@ public class AuthController {
         String clientType = clientTypeResolver.resolveClientType(request).toString();
         log.debug("Client type for logout: {}", clientType);
 
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        auditService.record(AuthAuditEventType.LOGOUT, authentication != null ? authentication.getName() : null,
+                request, AuthAuditOutcome.SUCCESS, null);
+
         // For web clients, clear cookies
         log.debug("Clearing token cookies from response");
         tokenProvider.clearTokenCookies(response);
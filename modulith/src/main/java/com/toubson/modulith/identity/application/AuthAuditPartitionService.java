@@ -0,0 +1,63 @@
+package com.toubson.modulith.identity.application;
+
+import com.toubson.modulith.identity.infrastructure.AuthAuditRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Maintains the monthly partitions of the authentication audit log.
+ * Upcoming partitions are created ahead of time and partitions older than the
+ * retention period are dropped, which is how old audit rows are purged.
+ * The table has no default partition: the partitions are created before the
+ * audit writer starts, and the next month always has one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuthAuditPartitionService {
+
+    private final AuthAuditRepository auditRepository;
+
+    @Value("${app.audit.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${app.audit.partitions-ahead:2}")
+    private int partitionsAhead;
+
+    /**
+     * Creates the partitions of the current month and the upcoming ones
+     */
+    @PostConstruct
+    public void createPartitions() {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        // Rows of a month without a partition are rejected, so the next month is always ready
+        int monthsAhead = Math.max(partitionsAhead, 1);
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            auditRepository.createPartition(currentMonth.plusMonths(i));
+        }
+        log.debug("Audit partitions ensured up to {}", currentMonth.plusMonths(monthsAhead));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.audit.partition-cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        createPartitions();
+
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        List<String> dropped = auditRepository.dropPartitionsBefore(currentMonth.minusMonths(retentionMonths));
+        if (!dropped.isEmpty()) {
+            log.info("Dropped expired audit partitions: {}", dropped);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.toubson.modulith.identity.application;
+
+import com.toubson.modulith.identity.domain.AuthAuditEvent;
+import com.toubson.modulith.identity.domain.AuthAuditEventType;
+import com.toubson.modulith.identity.domain.AuthAuditOutcome;
+import com.toubson.modulith.identity.infrastructure.AuthAuditRepository;
+import com.toubson.modulith.identity.utils.BoundedRingBuffer;
+import com.toubson.modulith.identity.utils.ClientTypeResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous authentication audit log.
+ * Request threads push events into a bounded lock-free ring buffer and return immediately;
+ * a single writer thread drains the buffer and inserts the events in batches.
+ * When the buffer is full, events are either dropped right away or after waiting
+ * for a short time, depending on the configured {@link OverflowPolicy}.
+ * The writer starts once {@link AuthAuditPartitionService} has created the partitions.
+ */
+@Slf4j
+@Service
+@DependsOn("authAuditPartitionService")
+@RequiredArgsConstructor
+public class AuthAuditService {
+
+    private final AuthAuditRepository auditRepository;
+    private final ClientTypeResolver clientTypeResolver;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.audit.buffer-capacity:8192}")
+    private int bufferCapacity;
+
+    @Value("${app.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval:200}")
+    private long flushInterval;
+
+    @Value("${app.audit.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${app.audit.offer-timeout:5}")
+    private long offerTimeout;
+
+    private BoundedRingBuffer<AuthAuditEvent> buffer;
+    private Thread writer;
+    private volatile boolean running;
+
+    private Counter enqueuedCounter;
+    private Counter droppedCounter;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Timer flushTimer;
+
+    @PostConstruct
+    protected void start() {
+        buffer = new BoundedRingBuffer<>(bufferCapacity);
+        enqueuedCounter = eventCounter("enqueued");
+        droppedCounter = eventCounter("dropped");
+        writtenCounter = eventCounter("written");
+        failedCounter = eventCounter("failed");
+        flushTimer = Timer.builder("auth.audit.flush")
+                .description("Time spent writing a batch of audit events")
+                .register(meterRegistry);
+        Gauge.builder("auth.audit.buffer.size", buffer, BoundedRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::runWriter, "auth-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.debug("Audit writer started with buffer capacity {} and {} policy", buffer.capacity(), overflowPolicy);
+    }
+
+    @PreDestroy
+    protected void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        log.debug("Audit writer stopped with {} events left in buffer", buffer.size());
+    }
+
+    /**
+     * Runs an operation and records its outcome
+     *
+     * @param type     the audited operation
+     * @param username the username or email involved
+     * @param request  the HTTP request
+     * @param action   the operation to run
+     * @return the result of the operation
+     */
+    public <T> T audit(AuthAuditEventType type, String username, HttpServletRequest request, Supplier<T> action) {
+        return audit(type, username, request, action, result -> username);
+    }
+
+    /**
+     * Runs an operation and records its outcome, resolving the username from the result.
+     * Failures are recorded without a username.
+     *
+     * @param type             the audited operation
+     * @param request          the HTTP request
+     * @param action           the operation to run
+     * @param usernameResolver extracts the username from the result
+     * @return the result of the operation
+     */
+    public <T> T audit(AuthAuditEventType type, HttpServletRequest request, Supplier<T> action,
+                       Function<T, String> usernameResolver) {
+        return audit(type, null, request, action, usernameResolver);
+    }
+
+    private <T> T audit(AuthAuditEventType type, String username, HttpServletRequest request, Supplier<T> action,
+                        Function<T, String> usernameResolver) {
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            record(type, username, request, AuthAuditOutcome.FAILURE, e.getMessage());
+            throw e;
+        }
+        record(type, usernameResolver.apply(result), request, AuthAuditOutcome.SUCCESS, null);
+        return result;
+    }
+
+    /**
+     * Records an audit event without blocking the caller beyond the overflow policy
+     *
+     * @param type     the audited operation
+     * @param username the username or email involved
+     * @param request  the HTTP request
+     * @param outcome  the outcome of the operation
+     * @param detail   optional failure reason
+     */
+    public void record(AuthAuditEventType type, String username, HttpServletRequest request,
+                       AuthAuditOutcome outcome, String detail) {
+        AuthAuditEvent event = new AuthAuditEvent(
+                Instant.now(),
+                type,
+                username,
+                request.getRemoteAddr(),
+                clientTypeResolver.resolveClientType(request),
+                outcome,
+                detail != null && detail.length() > 255 ? detail.substring(0, 255) : detail);
+        enqueue(event);
+    }
+
+    void enqueue(AuthAuditEvent event) {
+        if (buffer.offer(event) || (overflowPolicy == OverflowPolicy.BLOCK && offerWithTimeout(event))) {
+            enqueuedCounter.increment();
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+        droppedCounter.increment();
+        log.debug("Audit buffer full, dropping {} event for: {}", event.type(), event.username());
+    }
+
+    private boolean offerWithTimeout(AuthAuditEvent event) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeout);
+        while (System.nanoTime() < deadline) {
+            // Wake the writer up so that it makes room
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            if (buffer.offer(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runWriter() {
+        List<AuthAuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushInterval));
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<AuthAuditEvent> batch) {
+        try {
+            flushTimer.record(() -> auditRepository.insertAll(batch));
+            writtenCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            failedCounter.increment(batch.size());
+            log.error("Failed to write {} audit events: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    private Counter eventCounter(String result) {
+        return Counter.builder("auth.audit.events")
+                .description("Authentication audit events by processing result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * What to do with an event when the buffer is full
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the event immediately, never slowing the request down
+         */
+        DROP,
+
+        /**
+         * Wait up to the offer timeout for the writer to make room, then drop
+         */
+        BLOCK
+    }
+}
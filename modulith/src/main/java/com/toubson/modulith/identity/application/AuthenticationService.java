@@ -7,6 +7,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,6 +22,7 @@ import java.util.Optional;
 public class AuthenticationService {
 
     private final AuthenticationManager authenticationManager;
+    private final LoginAttemptService loginAttemptService;
 
     /**
      * Authenticates a user with username and password
@@ -29,6 +31,13 @@ public class AuthenticationService {
     public Authentication authenticate(String username, String password) {
         log.debug("Authentication attempt for user: {}", username);
 
+        // A username and an email of the same account share its failed attempts
+        String account = loginAttemptService.accountOf(username);
+        if (loginAttemptService.isLocked(account)) {
+            log.warn("Authentication rejected for locked user: {}", username);
+            throw new AuthenticationException("Authentication failed: Account is temporarily locked");
+        }
+
         try {
             // Create authentication token
             UsernamePasswordAuthenticationToken authToken =
@@ -40,10 +49,14 @@ public class AuthenticationService {
             // Set security context
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
+            loginAttemptService.loginSucceeded(account);
             log.debug("Authentication successful for user: {}", username);
             return authentication;
 
         } catch (org.springframework.security.core.AuthenticationException springAuthEx) {
+            if (springAuthEx instanceof BadCredentialsException) {
+                loginAttemptService.loginFailed(account);
+            }
             log.warn("Authentication failed for user: {} - Reason: {}",
                     username, springAuthEx.getMessage());
             throw new AuthenticationException("Authentication failed: " + springAuthEx.getMessage(), springAuthEx);
@@ -0,0 +1,239 @@
+package com.toubson.modulith.identity.application;
+
+import com.toubson.modulith.identity.domain.User;
+import com.toubson.modulith.identity.infrastructure.UserRepository;
+import com.toubson.modulith.shared.utils.TimerWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks failed login attempts and temporarily locks accounts.
+ * Logins are resolved to their account first, so that a username and an email of the same account share
+ * one failure window and one lock. Failures are counted in memory in a striped map of sliding windows; lock and unlock
+ * state changes are coalesced and written to the database in batches by {@link #flush()}.
+ * Expired locks are released by a timer wheel advanced on each flush.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoginAttemptService {
+
+    private static final int STRIPES = 16;
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    private final UserRepository userRepository;
+
+    @Value("${app.security.lockout.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.security.lockout.window:900000}")
+    private long failureWindow;
+
+    @Value("${app.security.lockout.duration:900000}")
+    private long lockDuration;
+
+    @Value("${app.security.lockout.tick:1000}")
+    private long tick;
+
+    private Clock clock = Clock.systemUTC();
+
+    private ConcurrentHashMap<String, FailureWindow>[] stripes;
+    private final ConcurrentHashMap<String, Long> lockedUntil = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PendingLockState> pendingWrites = new ConcurrentHashMap<>();
+    private TimerWheel<String> unlockWheel;
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    protected void init() {
+        stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        unlockWheel = new TimerWheel<>(tick, clock.millis());
+    }
+
+    /**
+     * Reschedules the release of the locks persisted before the last shutdown
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreLocks() {
+        List<User> lockedUsers = userRepository.findByAccountNonLockedFalseAndLockExpiresAtIsNotNull();
+        log.debug("Restoring {} temporary account locks", lockedUsers.size());
+        for (User user : lockedUsers) {
+            long expiresAt = user.getLockExpiresAt().toEpochMilli();
+            lockedUntil.put(user.getUsername(), expiresAt);
+            unlockWheel.schedule(user.getUsername(), expiresAt);
+        }
+    }
+
+    /**
+     * Resolves a login to the account it logs in to
+     *
+     * @param login the username or email used to log in
+     * @return the username of the account, or the login itself if it matches no account
+     */
+    public String accountOf(String login) {
+        List<String> usernames = userRepository.findUsernamesByLogin(login);
+        return usernames.isEmpty() ? login : usernames.getFirst();
+    }
+
+    /**
+     * Checks if the given account is currently locked out
+     *
+     * @param account the account, as resolved by {@link #accountOf(String)}
+     * @return true if the account is locked, false otherwise
+     */
+    public boolean isLocked(String account) {
+        Long expiresAt = lockedUntil.get(account);
+        return expiresAt != null && expiresAt > clock.millis();
+    }
+
+    /**
+     * Records a failed login and locks the account once the threshold is reached
+     *
+     * @param login the account, as resolved by {@link #accountOf(String)}
+     */
+    public void loginFailed(String login) {
+        long now = clock.millis();
+        int failures = stripeFor(login)
+                .computeIfAbsent(login, key -> new FailureWindow(maxAttempts))
+                .record(now, failureWindow);
+        log.debug("Failed login {} of {} for: {}", failures, maxAttempts, login);
+
+        if (failures >= maxAttempts && !isLocked(login)) {
+            // Round the expiry up to a tick so that locks taken together are flushed together
+            long expiresAt = ((now + lockDuration + tick - 1) / tick) * tick;
+            lockedUntil.put(login, expiresAt);
+            unlockWheel.schedule(login, expiresAt);
+            pendingWrites.put(login, new PendingLockState(true, Instant.ofEpochMilli(expiresAt)));
+            stripeFor(login).remove(login);
+            log.warn("Account locked after {} failed logins: {}", failures, login);
+        }
+    }
+
+    /**
+     * Clears the failure history after a successful login
+     *
+     * @param login the account, as resolved by {@link #accountOf(String)}
+     */
+    public void loginSucceeded(String login) {
+        stripeFor(login).remove(login);
+    }
+
+    /**
+     * Releases expired locks, evicts stale failure windows and writes
+     * pending lock state changes in a few batched UPDATE statements
+     */
+    @Transactional
+    @Scheduled(fixedDelayString = "${app.security.lockout.tick:1000}")
+    public void flush() {
+        long now = clock.millis();
+        releaseExpiredLocks(now);
+        evictStaleWindows(now);
+
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+
+        Map<Instant, List<String>> locks = new HashMap<>();
+        List<String> unlocks = new ArrayList<>();
+        for (Map.Entry<String, PendingLockState> entry : pendingWrites.entrySet()) {
+            // Only remove the exact state we read, a newer one will be picked up by the next flush
+            if (!pendingWrites.remove(entry.getKey(), entry.getValue())) {
+                continue;
+            }
+            if (entry.getValue().locked()) {
+                locks.computeIfAbsent(entry.getValue().expiresAt(), key -> new ArrayList<>()).add(entry.getKey());
+            } else {
+                unlocks.add(entry.getKey());
+            }
+        }
+
+        Instant updatedAt = Instant.ofEpochMilli(now);
+        locks.forEach((expiresAt, logins) -> chunked(logins)
+                .forEach(chunk -> userRepository.lockAccounts(chunk, expiresAt, updatedAt)));
+        chunked(unlocks).forEach(chunk -> userRepository.unlockAccounts(chunk, updatedAt));
+        log.debug("Flushed {} account locks and {} unlocks", locks.values().stream().mapToInt(List::size).sum(), unlocks.size());
+    }
+
+    private void releaseExpiredLocks(long now) {
+        for (String login : unlockWheel.advance(now)) {
+            Long expiresAt = lockedUntil.get(login);
+            // The login may have been locked again after this timeout was scheduled
+            if (expiresAt != null && expiresAt <= now && lockedUntil.remove(login, expiresAt)) {
+                pendingWrites.put(login, new PendingLockState(false, null));
+                log.debug("Account lock expired for: {}", login);
+            }
+        }
+    }
+
+    private void evictStaleWindows(long now) {
+        long windowStart = now - failureWindow;
+        for (ConcurrentHashMap<String, FailureWindow> stripe : stripes) {
+            stripe.values().removeIf(window -> window.isStale(windowStart));
+        }
+    }
+
+    private ConcurrentHashMap<String, FailureWindow> stripeFor(String login) {
+        int hash = login.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static List<List<String>> chunked(List<String> logins) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < logins.size(); i += FLUSH_CHUNK_SIZE) {
+            chunks.add(logins.subList(i, Math.min(logins.size(), i + FLUSH_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    private record PendingLockState(boolean locked, Instant expiresAt) {
+    }
+
+    /**
+     * Sliding window log holding the timestamps of the most recent failures.
+     * Only the last {@code maxAttempts} failures are kept, which is all that is
+     * needed to decide whether the threshold is reached inside the window.
+     */
+    private static final class FailureWindow {
+
+        private final long[] timestamps;
+        private int next;
+        private int size;
+
+        private FailureWindow(int capacity) {
+            this.timestamps = new long[Math.max(1, capacity)];
+        }
+
+        synchronized int record(long now, long windowMillis) {
+            timestamps[next] = now;
+            next = (next + 1) % timestamps.length;
+            size = Math.min(size + 1, timestamps.length);
+
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (timestamps[i] > now - windowMillis) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        synchronized boolean isStale(long windowStart) {
+            int newest = (next - 1 + timestamps.length) % timestamps.length;
+            return size == 0 || timestamps[newest] <= windowStart;
+        }
+    }
+}
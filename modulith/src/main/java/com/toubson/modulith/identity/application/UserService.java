@@ -6,6 +6,8 @@ import com.toubson.modulith.identity.dto.RegistrationRequest;
 import com.toubson.modulith.identity.dto.UpdateUserDetailsRequest;
 import com.toubson.modulith.identity.infrastructure.UserRepository;
 import com.toubson.modulith.shared.events.UserCreatedEvent;
+import com.toubson.modulith.shared.utils.TtlCache;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,7 +15,10 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Clock;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
@@ -35,6 +40,17 @@ public class UserService {
     @Value("${app.token.reset-password.expiration:3600000}")
     private long resetPasswordTokenExpiration;
 
+    @Value("${app.token.verification.resend-window:60000}")
+    private long verificationResendWindow;
+
+    // Verification tokens issued per email during the current resend window
+    private TtlCache<String, String> pendingVerificationResends;
+
+    @PostConstruct
+    protected void init() {
+        pendingVerificationResends = new TtlCache<>(verificationResendWindow, 1000, Clock.systemUTC());
+    }
+
     @Transactional
     public User createUser(String username, String email, String password, Set<UserRole> roles) {
         log.debug("Creating new user with username: {} and email: {}", username, email);
@@ -158,6 +174,7 @@ public class UserService {
         user.setUpdatedAt(Instant.now());
 
         User savedUser = userRepository.save(user);
+        pendingVerificationResends.remove(savedUser.getEmail());
         log.debug("Email verification completed successfully for user ID: {}", savedUser.getId());
 
         return savedUser;
@@ -272,11 +289,40 @@ public class UserService {
         return savedUser;
     }
 
+    /**
+     * Generates a new verification token and sends it by email.
+     * Repeated requests for the same email within the resend window are coalesced: they return the pending
+     * token without sending another email. Tokens are published to the resend window once their transaction
+     * has committed, so the window never returns a token that was rolled back.
+     *
+     * @param email the email of the user
+     * @return the pending verification token
+     */
     @Transactional
     public String generateNewVerificationToken(String email) {
         log.debug("Generating new verification token for email: {}", email);
+        String pending = pendingVerificationResends.get(email);
+        if (pending != null) {
+            return pending;
+        }
 
-        User user = userRepository.findByEmail(email)
+        String verificationToken = issueVerificationToken(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendingVerificationResends.putIfAbsent(email, verificationToken);
+                }
+            });
+        } else {
+            pendingVerificationResends.putIfAbsent(email, verificationToken);
+        }
+        return verificationToken;
+    }
+
+    private String issueVerificationToken(String email) {
+        // Locked, so that concurrent requests queue and the later ones find the token of the first
+        User user = userRepository.findByEmailForUpdate(email)
                 .orElseThrow(() -> {
                     log.debug("User not found with email: {}", email);
                     return new IllegalArgumentException("User not found with email: " + email);
@@ -284,12 +330,20 @@ public class UserService {
 
         log.debug("Found user with ID: {} for new verification token", user.getId());
 
+        Instant now = Instant.now();
+        Instant expiryDate = user.getVerificationTokenExpiryDate();
+        if (user.getVerificationToken() != null && expiryDate != null
+                && expiryDate.minusMillis(verificationTokenExpiration).plusMillis(verificationResendWindow).isAfter(now)) {
+            log.debug("Reusing verification token issued within the resend window for user ID: {}", user.getId());
+            return user.getVerificationToken();
+        }
+
         // Generate new verification token
         log.debug("Creating new verification token for user ID: {}", user.getId());
         String verificationToken = generateToken();
         user.setVerificationToken(verificationToken);
-        user.setVerificationTokenExpiryDate(Instant.now().plusMillis(verificationTokenExpiration));
-        user.setUpdatedAt(Instant.now());
+        user.setVerificationTokenExpiryDate(now.plusMillis(verificationTokenExpiration));
+        user.setUpdatedAt(now);
 
         userRepository.save(user);
         log.debug("New verification token saved for user ID: {}", user.getId());
@@ -0,0 +1,26 @@
+package com.toubson.modulith.identity.domain;
+
+import com.toubson.modulith.identity.config.JwtTokenProvider;
+
+import java.time.Instant;
+
+/**
+ * A single authentication audit record.
+ *
+ * @param occurredAt when the operation happened
+ * @param type       the audited operation
+ * @param username   the username or email involved, if known
+ * @param ipAddress  the client IP address
+ * @param clientType the client type (web or mobile)
+ * @param outcome    whether the operation succeeded
+ * @param detail     optional failure reason
+ */
+public record AuthAuditEvent(
+        Instant occurredAt,
+        AuthAuditEventType type,
+        String username,
+        String ipAddress,
+        JwtTokenProvider.ClientType clientType,
+        AuthAuditOutcome outcome,
+        String detail) {
+}
@@ -0,0 +1,14 @@
+package com.toubson.modulith.identity.domain;
+
+/**
+ * Authentication operations recorded in the audit log.
+ */
+public enum AuthAuditEventType {
+    LOGIN,
+    REFRESH,
+    LOGOUT,
+    PASSWORD_RESET_REQUEST,
+    PASSWORD_RESET,
+    EMAIL_VERIFICATION,
+    VERIFICATION_RESEND
+}
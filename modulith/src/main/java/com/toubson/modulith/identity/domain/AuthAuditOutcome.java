@@ -0,0 +1,9 @@
+package com.toubson.modulith.identity.domain;
+
+/**
+ * Outcome of an audited authentication operation.
+ */
+public enum AuthAuditOutcome {
+    SUCCESS,
+    FAILURE
+}
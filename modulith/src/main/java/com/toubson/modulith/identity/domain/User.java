@@ -49,6 +49,9 @@ public class User implements UserDetails {
     private boolean credentialsNonExpired = true;
     private boolean enabled = false; // Default to false until email is verified
 
+    // Temporary lockout after too many failed logins
+    private Instant lockExpiresAt;
+
     // Email verification
     private String verificationToken;
     private Instant verificationTokenExpiryDate;
@@ -0,0 +1,97 @@
+package com.toubson.modulith.identity.infrastructure;
+
+import com.toubson.modulith.identity.domain.AuthAuditEvent;
+import com.toubson.modulith.shared.utils.MonthlyPartitions;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * JDBC repository for the month-partitioned {@code auth_audit_log} table.
+ * Rows are written with {@code COPY}, one statement per batch; retention is handled by
+ * creating and dropping monthly partitions. {@code occurred_at} holds UTC time, as the
+ * partition months are UTC months, whatever the time zones of the JVM and the session.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuthAuditRepository {
+
+    private static final String TABLE = "auth_audit_log";
+    private static final String COPY = "COPY " + TABLE +
+            " (occurred_at, event_type, username, ip_address, client_type, outcome, detail) FROM STDIN WITH (FORMAT csv)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the given events with a single {@code COPY}
+     *
+     * @param events the events to insert
+     * @return the number of inserted rows
+     */
+    public int insertAll(List<AuthAuditEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder csv = new StringBuilder(events.size() * 128);
+        for (AuthAuditEvent event : events) {
+            appendRow(csv, LocalDateTime.ofInstant(event.occurredAt(), ZoneOffset.UTC), event.type().name(),
+                    event.username(), event.ipAddress(), event.clientType() != null ? event.clientType().name() : null,
+                    event.outcome().name(), event.detail());
+        }
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return new CopyManager(connection.unwrap(BaseConnection.class)).copyIn(COPY, new StringReader(csv.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return copied != null ? copied.intValue() : 0;
+    }
+
+    /**
+     * Creates the partition holding the given month if it does not exist yet
+     *
+     * @param month the month to create the partition for
+     */
+    public void createPartition(YearMonth month) {
+        MonthlyPartitions.create(jdbcTemplate, TABLE, month);
+    }
+
+    /**
+     * Drops every monthly partition older than the given month
+     *
+     * @param oldestKept the oldest month to keep
+     * @return the names of the dropped partitions
+     */
+    public List<String> dropPartitionsBefore(YearMonth oldestKept) {
+        List<String> dropped = MonthlyPartitions.findBefore(jdbcTemplate, TABLE, oldestKept);
+        dropped.forEach(name -> MonthlyPartitions.drop(jdbcTemplate, name));
+        return dropped;
+    }
+
+    private static void appendRow(StringBuilder csv, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            // Unquoted empty fields are NULL in the CSV format of COPY, quoted ones are empty strings
+            if (values[i] != null) {
+                csv.append('"').append(values[i].toString().replace("\"", "\"\"")).append('"');
+            }
+        }
+        csv.append('\n');
+    }
+
+}
@@ -1,8 +1,16 @@
 package com.toubson.modulith.identity.infrastructure;
 
 import com.toubson.modulith.identity.domain.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,6 +19,10 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByEmail(String email);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.email = :email")
+    Optional<User> findByEmailForUpdate(@Param("email") String email);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
@@ -18,4 +30,36 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByVerificationToken(String token);
 
     Optional<User> findByResetPasswordToken(String token);
+
+    List<User> findByAccountNonLockedFalseAndLockExpiresAtIsNotNull();
+
+    /**
+     * Find the usernames of the accounts a login may resolve to, the account whose username it is first,
+     * like the user details service resolves it
+     *
+     * @param login the username or email used to log in
+     * @return the usernames
+     */
+    @Query("SELECT u.username FROM User u WHERE u.username = :login OR u.email = :login " +
+            "ORDER BY CASE WHEN u.username = :login THEN 0 ELSE 1 END")
+    List<String> findUsernamesByLogin(@Param("login") String login);
+
+    /**
+     * Lock accounts until the given time. Accounts locked without an expiry stay locked for good.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.accountNonLocked = false, u.lockExpiresAt = :lockExpiresAt, u.updatedAt = :now " +
+            "WHERE u.username IN :usernames AND (u.accountNonLocked = true OR u.lockExpiresAt IS NOT NULL)")
+    int lockAccounts(@Param("usernames") Collection<String> usernames,
+                     @Param("lockExpiresAt") Instant lockExpiresAt,
+                     @Param("now") Instant now);
+
+    /**
+     * Release the expired temporary locks of accounts. Accounts locked without an expiry, or locked again
+     * until later, stay locked.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.accountNonLocked = true, u.lockExpiresAt = null, u.updatedAt = :now " +
+            "WHERE u.username IN :usernames AND u.accountNonLocked = false AND u.lockExpiresAt <= :now")
+    int unlockAccounts(@Param("usernames") Collection<String> usernames, @Param("now") Instant now);
 }
@@ -0,0 +1,122 @@
+package com.toubson.modulith.identity.utils;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer.
+ * Each slot carries a sequence number telling producers whether it is free and
+ * the consumer whether it is published, so neither side ever takes a lock.
+ *
+ * @param <E> the type of the buffered elements
+ */
+public class BoundedRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Creates a new ring buffer
+     *
+     * @param capacity the maximum number of buffered elements, rounded up to a power of two
+     */
+    public BoundedRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is room left. Safe to call from any thread.
+     *
+     * @param element the element to add
+     * @return true if the element was added, false if the buffer is full
+     */
+    public boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    // Publishing the sequence makes the element visible to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element. Must only be called from the consumer thread.
+     *
+     * @return the oldest element, or null if the buffer is empty
+     */
+    public E poll() {
+        long position = head.get();
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.set(index, null);
+        head.set(position + 1);
+        // Hand the slot back to producers for the next lap
+        sequences.set(index, position + mask + 1);
+        return element;
+    }
+
+    /**
+     * Moves up to {@code maxElements} elements into the given collection.
+     * Must only be called from the consumer thread.
+     *
+     * @param target      the collection to add the elements to
+     * @param maxElements the maximum number of elements to move
+     * @return the number of elements moved
+     */
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Gets an estimate of the number of buffered elements
+     *
+     * @return the number of buffered elements
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(mask + 1, tail.get() - head.get()));
+    }
+
+    /**
+     * Gets the capacity of the buffer
+     *
+     * @return the maximum number of buffered elements
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -1,5 +1,7 @@
 package com.toubson.modulith.notification.api;
 
+import java.util.List;
+
 /**
  * Interface for email services.
  * This interface is exposed for use by other modules.
@@ -21,4 +23,12 @@ public interface EmailService {
      * @param token the password reset token
      */
     void sendPasswordResetEmail(String to, String token);
-}
\ No newline at end of file
+
+    /**
+     * Send a digest of stock alerts to an operator
+     *
+     * @param to     the email address to send to
+     * @param alerts the stock alerts, oldest first
+     */
+    void sendStockAlertDigest(String to, List<StockAlert> alerts);
+}
@@ -0,0 +1,22 @@
+package com.toubson.modulith.notification.api;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A stock alert of a product, or of one of its variants, listed in a stock alert digest.
+ *
+ * @param productId  the product ID
+ * @param variantId  the variant ID, null for the product itself
+ * @param status     the stock status the product or variant reached
+ * @param quantity   the stock quantity behind the status, null when it does not apply
+ * @param occurredAt when the status was reached
+ */
+public record StockAlert(UUID productId, UUID variantId, Status status, Integer quantity, Instant occurredAt) {
+
+    public enum Status {
+        LOW_STOCK,
+        OUT_OF_STOCK,
+        BACK_IN_STOCK
+    }
+}
@@ -1,6 +1,7 @@
 package com.toubson.modulith.notification.application;
 
 import com.toubson.modulith.notification.api.EmailService;
+import com.toubson.modulith.notification.api.StockAlert;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +11,9 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -69,6 +73,34 @@ public class EmailServiceImpl implements EmailService {
         sendHtmlEmail(to, subject, content);
     }
 
+    @Override
+    public void sendStockAlertDigest(String to, List<StockAlert> alerts) {
+        log.debug("Preparing stock alert digest of {} alerts for: {}", alerts.size(), to);
+
+        String subject = "Stock Alerts (" + alerts.size() + ")";
+        String rows = alerts.stream()
+                .map(alert -> """
+                        <tr><td>%s</td><td>%s</td><td>%s</td><td>%s</td><td>%s</td></tr>
+                        """.formatted(alert.occurredAt(), alert.productId(),
+                        alert.variantId() != null ? alert.variantId() : "", alert.status(),
+                        alert.quantity() != null ? alert.quantity() : ""))
+                .collect(Collectors.joining());
+
+        String content = """
+                <html>
+                <body>
+                <h2>Stock Alerts</h2>
+                <table>
+                <tr><th>Time</th><th>Product</th><th>Variant</th><th>Status</th><th>Quantity</th></tr>
+                %s</table>
+                </body>
+                </html>
+                """.formatted(rows);
+
+        log.debug("Sending stock alert digest to: {}", to);
+        sendHtmlEmail(to, subject, content);
+    }
+
     private void sendHtmlEmail(String to, String subject, String htmlContent) {
         log.debug("Creating email message with subject: '{}' for recipient: {}", subject, to);
         try {
@@ -0,0 +1,102 @@
+package com.toubson.modulith.notification.application;
+
+import com.toubson.modulith.notification.api.EmailService;
+import com.toubson.modulith.notification.api.StockAlert;
+import com.toubson.modulith.notification.infrastructure.StockAlertRepository;
+import com.toubson.modulith.shared.events.BackInStockEvent;
+import com.toubson.modulith.shared.events.LowStockEvent;
+import com.toubson.modulith.shared.events.OutOfStockEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Batches the stock alerts published by the catalog into digests for the operators.
+ * The events reach this service through the event publication registry, and each listener stores its
+ * alert in the transaction completing the publication: an alert published by a committed stock change is
+ * either still in the registry or stored, whenever the application stops. Alerts are stored per product or
+ * variant, the latest one replacing the previous ones, and sent every few seconds as a single email per
+ * recipient instead of one email per stock change.
+ * <p>
+ * Stored alerts are deleted only once the digest has reached every recipient. When sending fails they are
+ * sent again with the next digest, so a recipient may receive an alert twice but never misses one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockAlertDigestService {
+
+    private final EmailService emailService;
+    private final StockAlertRepository alertRepository;
+
+    @Value("${app.notification.stock-alerts.recipients:}")
+    private List<String> recipients;
+
+    @Value("${app.notification.stock-alerts.digest-size:500}")
+    private int digestSize;
+
+    private Clock clock = Clock.systemUTC();
+
+    @ApplicationModuleListener
+    public void onLowStock(LowStockEvent event) {
+        add(new StockAlert(event.productId(), event.variantId(), StockAlert.Status.LOW_STOCK, event.stockQuantity(),
+                clock.instant()));
+    }
+
+    @ApplicationModuleListener
+    public void onOutOfStock(OutOfStockEvent event) {
+        add(new StockAlert(event.productId(), event.variantId(), StockAlert.Status.OUT_OF_STOCK, null, clock.instant()));
+    }
+
+    @ApplicationModuleListener
+    public void onBackInStock(BackInStockEvent event) {
+        add(new StockAlert(event.productId(), event.variantId(), StockAlert.Status.BACK_IN_STOCK,
+                event.availableQuantity(), clock.instant()));
+    }
+
+    /**
+     * Sends the stored alerts to every recipient, and deletes them once every recipient has received them.
+     * The alerts are locked while they are sent, so that instances flushing at the same time send
+     * different alerts.
+     */
+    @Transactional
+    @Scheduled(fixedDelayString = "${app.notification.stock-alerts.digest-interval:10000}")
+    public void flush() {
+        List<StockAlert> alerts = alertRepository.lockPending(digestSize);
+        if (alerts.isEmpty()) {
+            return;
+        }
+
+        if (recipients.isEmpty()) {
+            log.info("No stock alert recipient configured, dropping {} alerts: {}", alerts.size(), alerts);
+            alertRepository.deleteAll(alerts);
+            return;
+        }
+        int failed = 0;
+        for (String recipient : recipients) {
+            try {
+                emailService.sendStockAlertDigest(recipient, alerts);
+            } catch (RuntimeException e) {
+                failed++;
+                log.error("Failed to send stock alert digest to: {}", recipient, e);
+            }
+        }
+        if (failed > 0) {
+            log.warn("Keeping {} stock alerts for the next digest", alerts.size());
+            return;
+        }
+        alertRepository.deleteAll(alerts);
+    }
+
+    private void add(StockAlert alert) {
+        log.debug("Storing stock alert: {}", alert);
+        alertRepository.save(alert);
+    }
+}
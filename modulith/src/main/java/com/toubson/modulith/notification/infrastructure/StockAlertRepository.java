@@ -0,0 +1,83 @@
+package com.toubson.modulith.notification.infrastructure;
+
+import com.toubson.modulith.notification.api.StockAlert;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC repository for the stock alerts waiting for a digest.
+ * Each product or variant has at most one pending alert, the latest one replacing the previous ones.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockAlertRepository {
+
+    // A newer alert replaces the pending one; an alert handled late does not replace a newer one
+    private static final String UPSERT = "INSERT INTO stock_alerts " +
+            "(item_id, product_id, variant_id, status, quantity, occurred_at) " +
+            "VALUES (:itemId, :productId, :variantId, :status, :quantity, :occurredAt) " +
+            "ON CONFLICT (item_id) DO UPDATE SET status = excluded.status, quantity = excluded.quantity, " +
+            "occurred_at = excluded.occurred_at WHERE stock_alerts.occurred_at <= excluded.occurred_at";
+
+    // Skips the alerts another instance is sending, so that each alert is sent by a single instance
+    private static final String LOCK_PENDING = "SELECT product_id, variant_id, status, quantity, occurred_at " +
+            "FROM stock_alerts ORDER BY occurred_at, item_id LIMIT :limit FOR UPDATE SKIP LOCKED";
+
+    private static final RowMapper<StockAlert> ROW_MAPPER = (rs, rowNum) -> new StockAlert(
+            rs.getObject("product_id", UUID.class), rs.getObject("variant_id", UUID.class),
+            StockAlert.Status.valueOf(rs.getString("status")), rs.getObject("quantity", Integer.class),
+            rs.getTimestamp("occurred_at").toInstant());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Saves an alert as the pending alert of its product or variant
+     *
+     * @param alert the alert
+     */
+    public void save(StockAlert alert) {
+        jdbcTemplate.update(UPSERT, new MapSqlParameterSource()
+                .addValue("itemId", itemId(alert))
+                .addValue("productId", alert.productId())
+                .addValue("variantId", alert.variantId())
+                .addValue("status", alert.status().name())
+                .addValue("quantity", alert.quantity())
+                .addValue("occurredAt", Timestamp.from(alert.occurredAt())));
+    }
+
+    /**
+     * Locks the pending alerts until the end of the transaction, skipping those already locked
+     *
+     * @param limit the maximum number of alerts
+     * @return the alerts, oldest first
+     */
+    public List<StockAlert> lockPending(int limit) {
+        return jdbcTemplate.query(LOCK_PENDING, new MapSqlParameterSource("limit", limit), ROW_MAPPER);
+    }
+
+    /**
+     * Deletes sent alerts
+     *
+     * @param alerts the alerts, locked by {@link #lockPending(int)} in the current transaction
+     * @return the number of deleted alerts
+     */
+    public int deleteAll(Collection<StockAlert> alerts) {
+        if (alerts.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM stock_alerts WHERE item_id IN (:itemIds)",
+                new MapSqlParameterSource("itemIds", alerts.stream().map(StockAlertRepository::itemId).toList()));
+    }
+
+    private static UUID itemId(StockAlert alert) {
+        return alert.variantId() != null ? alert.variantId() : alert.productId();
+    }
+}
@@ -0,0 +1,10 @@
+package com.toubson.modulith.shared.events;
+
+import java.util.UUID;
+
+/**
+ * Event published when a stock change makes stock of an out of stock product, or of one of its
+ * variants, available again.
+ */
+public record BackInStockEvent(UUID productId, UUID variantId, int availableQuantity) {
+}
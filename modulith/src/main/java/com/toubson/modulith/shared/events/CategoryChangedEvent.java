@@ -0,0 +1,10 @@
+package com.toubson.modulith.shared.events;
+
+import java.util.UUID;
+
+/**
+ * Event published when a category is created, updated, moved or deleted.
+ * Consumers are expected to reload the category, which may no longer exist.
+ */
+public record CategoryChangedEvent(UUID categoryId) {
+}
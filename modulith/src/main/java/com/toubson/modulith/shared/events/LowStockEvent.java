@@ -0,0 +1,10 @@
+package com.toubson.modulith.shared.events;
+
+import java.util.UUID;
+
+/**
+ * Event published when a stock change brings the stock quantity of a product, or of one of its
+ * variants, down to its low stock threshold.
+ */
+public record LowStockEvent(UUID productId, UUID variantId, int stockQuantity, int lowStockThreshold) {
+}
@@ -0,0 +1,10 @@
+package com.toubson.modulith.shared.events;
+
+import java.util.UUID;
+
+/**
+ * Event published when a stock change leaves a product, or one of its variants, without any stock
+ * that is not reserved.
+ */
+public record OutOfStockEvent(UUID productId, UUID variantId) {
+}
@@ -0,0 +1,11 @@
+package com.toubson.modulith.shared.events;
+
+import java.util.UUID;
+
+/**
+ * Event published when a product, one of its variants or their attributes, or the tags of the product
+ * are created, updated or deleted.
+ * Consumers are expected to reload the product, which may no longer exist.
+ */
+public record ProductChangedEvent(UUID productId) {
+}
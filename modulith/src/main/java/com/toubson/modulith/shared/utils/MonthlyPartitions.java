@@ -0,0 +1,79 @@
+package com.toubson.modulith.shared.utils;
+
+import org.springframework.jdbc.core.JdbcOperations;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Monthly partitions of a PostgreSQL table partitioned by range of a timestamp column.
+ * Partitions are named after the table and the month, such as {@code audit_log_y2026m05}, and cover UTC
+ * months: their bounds carry an explicit UTC offset, so they do not depend on the session time zone for a
+ * {@code TIMESTAMP WITH TIME ZONE} column, and a {@code TIMESTAMP} column must hold UTC time.
+ */
+public final class MonthlyPartitions {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    private MonthlyPartitions() {
+    }
+
+    /**
+     * Creates the partition holding the given month if it does not exist yet
+     *
+     * @param jdbcTemplate the JDBC template
+     * @param table        the partitioned table
+     * @param month        the month to create the partition for
+     */
+    public static void create(JdbcOperations jdbcTemplate, String table, YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name(table, month) + " PARTITION OF " + table +
+                " FOR VALUES FROM ('" + month.atDay(1) + " 00:00:00+00') TO ('" + month.plusMonths(1).atDay(1) +
+                " 00:00:00+00')");
+    }
+
+    /**
+     * Finds the monthly partitions older than the given month
+     *
+     * @param jdbcTemplate the JDBC template
+     * @param table        the partitioned table
+     * @param oldestKept   the oldest month to keep
+     * @return the names of the older partitions, oldest first
+     */
+    public static List<String> findBefore(JdbcOperations jdbcTemplate, String table, YearMonth oldestKept) {
+        String oldestName = name(table, oldestKept);
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = ? AND c.relname ~ '_y[0-9]{4}m[0-9]{2}$'",
+                String.class, table);
+
+        // Partition names sort chronologically thanks to the zero-padded suffix
+        return partitions.stream()
+                .filter(name -> name.compareTo(oldestName) < 0)
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Drops a partition and its rows
+     *
+     * @param jdbcTemplate the JDBC template
+     * @param partition    the partition name, as returned by {@link #findBefore(JdbcOperations, String, YearMonth)}
+     */
+    public static void drop(JdbcOperations jdbcTemplate, String partition) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+    }
+
+    /**
+     * Gets the name of the partition holding a month
+     *
+     * @param table the partitioned table
+     * @param month the month
+     * @return the partition name
+     */
+    public static String name(String table, YearMonth month) {
+        return table + "_" + month.format(SUFFIX);
+    }
+}
@@ -0,0 +1,127 @@
+package com.toubson.modulith.shared.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timer wheel used to expire keys at a given deadline, however far away.
+ * Level 0 has one bucket per tick; each level above has buckets 64 times as wide. A key is kept in
+ * the lowest level that can hold its deadline and moves down one level each time the wheel reaches
+ * its bucket, so scheduling is O(1) and each key is moved at most once per level before it expires,
+ * whatever the number of pending keys. The wheel is passive and is advanced by the caller, so it
+ * does not own any thread.
+ * <p>
+ * Keys cannot be cancelled: callers check whether an expired key is still relevant.
+ *
+ * @param <K> the type of the scheduled keys
+ */
+public class TimerWheel<K> {
+
+    private static final int BITS = 6;
+    private static final int BUCKETS = 1 << BITS;
+    private static final int MASK = BUCKETS - 1;
+    private static final int LEVELS = 5;
+    // Deadlines beyond the span of the top level are parked at its far end and placed again from there
+    private static final long SPAN = 1L << (BITS * LEVELS);
+
+    private final long tickMillis;
+    private final ArrayDeque<Timeout<K>>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates a new timer wheel
+     *
+     * @param tickMillis the duration of one tick in milliseconds
+     * @param nowMillis  the current time in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.wheels = new ArrayDeque[LEVELS][BUCKETS];
+        for (ArrayDeque<Timeout<K>>[] wheel : wheels) {
+            for (int i = 0; i < BUCKETS; i++) {
+                wheel[i] = new ArrayDeque<>();
+            }
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules a key to expire at the given deadline
+     *
+     * @param key            the key to schedule
+     * @param deadlineMillis the deadline in milliseconds
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        // Round up so that a key never expires before its deadline
+        long deadlineTick = Math.max(currentTick + 1, (deadlineMillis + tickMillis - 1) / tickMillis);
+        place(new Timeout<>(key, deadlineTick));
+        size++;
+    }
+
+    /**
+     * Advances the wheel up to the given time and returns the expired keys
+     *
+     * @param nowMillis the current time in milliseconds
+     * @return the keys whose deadline has passed, in no particular order
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (size == 0) {
+            // Nothing to cascade or expire, an idle wheel jumps straight to the target
+            currentTick = Math.max(currentTick, targetTick);
+            return List.of();
+        }
+        List<K> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            long tick = ++currentTick;
+            // Higher levels first, so that keys moved down are moved again in the same tick if needed
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (BITS * level)) - 1)) == 0) {
+                    ArrayDeque<Timeout<K>> bucket = wheels[level][index(tick, level)];
+                    int count = bucket.size();
+                    for (int i = 0; i < count; i++) {
+                        place(bucket.poll());
+                    }
+                }
+            }
+            ArrayDeque<Timeout<K>> due = wheels[0][index(tick, 0)];
+            while (!due.isEmpty()) {
+                expired.add(due.poll().key());
+                size--;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Gets the number of pending timeouts
+     *
+     * @return the number of keys that have not expired yet
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private void place(Timeout<K> timeout) {
+        long delta = timeout.deadlineTick() - currentTick;
+        long tick = delta < SPAN ? timeout.deadlineTick() : currentTick + SPAN - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && tick - currentTick >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        wheels[level][index(tick, level)].add(timeout);
+    }
+
+    private static int index(long tick, int level) {
+        return (int) ((tick >>> (BITS * level)) & MASK);
+    }
+
+    private record Timeout<K>(K key, long deadlineTick) {
+    }
+}
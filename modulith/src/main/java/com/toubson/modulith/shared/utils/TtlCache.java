@@ -0,0 +1,168 @@
+package com.toubson.modulith.shared.utils;
+
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Map whose entries expire a fixed time after they are stored, optionally bounded.
+ * Entries are evicted by a {@link TimerWheel} advanced on each access, so the cache does not need a
+ * background thread and never scans its entries. Values are loaded outside of any lock, so a slow load
+ * does not block other keys; concurrent misses on the same key may each load a value, and the first one
+ * stored is returned to all of them. Once the cache is full, new values are returned without being
+ * stored until entries expire.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class TtlCache<K, V> {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Clock clock;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final TimerWheel<K> expiryWheel;
+
+    /**
+     * Creates a new unbounded cache
+     *
+     * @param ttlMillis  the lifetime of an entry in milliseconds
+     * @param tickMillis the eviction resolution in milliseconds
+     * @param clock      the clock used to expire the entries
+     */
+    public TtlCache(long ttlMillis, long tickMillis, Clock clock) {
+        this(ttlMillis, tickMillis, Integer.MAX_VALUE, clock);
+    }
+
+    /**
+     * Creates a new cache
+     *
+     * @param ttlMillis  the lifetime of an entry in milliseconds
+     * @param tickMillis the eviction resolution in milliseconds
+     * @param maxEntries the maximum number of entries
+     * @param clock      the clock used to expire the entries
+     */
+    public TtlCache(long ttlMillis, long tickMillis, int maxEntries, Clock clock) {
+        if (ttlMillis <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("Time to live and maximum size must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.expiryWheel = new TimerWheel<>(tickMillis, clock.millis());
+    }
+
+    /**
+     * Gets the stored value
+     *
+     * @param key the key
+     * @return the value, or null if there is none or it has expired
+     */
+    public V get(K key) {
+        long now = clock.millis();
+        evictExpired(now);
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.expiresAt() > now ? entry.value() : null;
+    }
+
+    /**
+     * Returns the stored value, or loads and stores a new one.
+     * If the load throws, nothing is stored.
+     *
+     * @param key    the key
+     * @param loader the function loading the value on a miss
+     * @return the result, telling whether the value was already stored
+     */
+    public Lookup<V> lookup(K key, Function<? super K, ? extends V> loader) {
+        V stored = get(key);
+        if (stored != null) {
+            return new Lookup<>(stored, true);
+        }
+        return new Lookup<>(putIfAbsent(key, loader.apply(key)), false);
+    }
+
+    /**
+     * Returns the stored value, or loads and stores a new one.
+     * If the load throws, nothing is stored.
+     *
+     * @param key    the key
+     * @param loader the function loading the value on a miss
+     * @return the stored or loaded value
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        return lookup(key, loader).value();
+    }
+
+    /**
+     * Stores a value, unless a value that has not expired is already stored
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the value stored for the key: the given one, or the one already stored;
+     * the given one also when the cache is full and it could not be stored
+     */
+    public V putIfAbsent(K key, V value) {
+        long now = clock.millis();
+        evictExpired(now);
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            return value;
+        }
+
+        boolean[] created = new boolean[1];
+        Entry<V> entry = entries.compute(key, (k, existing) -> {
+            if (existing != null && existing.expiresAt() > now) {
+                return existing;
+            }
+            created[0] = true;
+            return new Entry<>(value, now + ttlMillis);
+        });
+        if (created[0]) {
+            expiryWheel.schedule(key, entry.expiresAt());
+        }
+        return entry.value();
+    }
+
+    /**
+     * Removes the value stored for a key before it expires
+     *
+     * @param key the key
+     */
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every entry
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of entries, including expired entries not evicted yet
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictExpired(long now) {
+        for (K key : expiryWheel.advance(now)) {
+            // The key may have been stored again after this timeout was scheduled
+            entries.computeIfPresent(key, (k, entry) -> entry.expiresAt() <= now ? null : entry);
+        }
+    }
+
+    /**
+     * The result of a lookup
+     *
+     * @param value the value
+     * @param hit   true if the value was served from the cache
+     */
+    public record Lookup<V>(V value, boolean hit) {
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
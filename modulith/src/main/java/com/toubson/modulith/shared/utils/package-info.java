@@ -0,0 +1,2 @@
+@org.springframework.modulith.NamedInterface("utils")
+package com.toubson.modulith.shared.utils;
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.AttributeResponse;
+import com.toubson.modulith.catalog.dto.AttributeValueResponse;
+import com.toubson.modulith.catalog.infrastructure.AttributeValueRepository;
+import com.toubson.modulith.catalog.infrastructure.AttributeValueRow;
+import com.toubson.modulith.catalog.utils.AttributeDictionary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttributeDictionaryServiceTest {
+
+    @Mock
+    private AttributeValueRepository valueRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AttributeDictionaryService dictionaryService;
+
+    @BeforeEach
+    void setUp() {
+        dictionaryService = new AttributeDictionaryService(valueRepository, meterRegistry);
+        ReflectionTestUtils.setField(dictionaryService, "batchSize", 2);
+        ReflectionTestUtils.setField(dictionaryService, "zeroRetention", 60_000L);
+        ReflectionTestUtils.invokeMethod(dictionaryService, "init");
+    }
+
+    @Test
+    void findAttributes_ServesFromDictionary_WithoutRequerying() {
+        // Arrange
+        when(valueRepository.currentWatermark()).thenReturn("100");
+        when(valueRepository.findAll()).thenReturn(List.of(row("color", "red", 2), row("size", "L", 0),
+                row("size", "M", 4)));
+        dictionaryService.loadOnStartup();
+
+        // Act
+        List<AttributeResponse> attributes = dictionaryService.findAttributes();
+        AttributeResponse size = dictionaryService.findAttribute("size").orElseThrow();
+
+        // Assert
+        assertEquals(List.of("color", "size"), attributes.stream().map(AttributeResponse::name).toList());
+        assertEquals(List.of(new AttributeValueResponse("M", 4)), size.values());
+        assertTrue(dictionaryService.findAttribute("material").isEmpty());
+        verify(valueRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refresh_AppliesCountsChangedSinceWatermark() {
+        // Arrange
+        when(valueRepository.currentWatermark()).thenReturn("100", "105", "107");
+        when(valueRepository.findAll()).thenReturn(List.of(row("size", "M", 4)));
+        when(valueRepository.findChangedSince("100")).thenReturn(List.of(row("size", "M", 3), row("fit", "slim", 1)));
+        dictionaryService.loadOnStartup();
+        int medium = dictionaryService.dictionary().valueCode(dictionaryService.dictionary().nameCode("size"), "M");
+
+        // Act
+        dictionaryService.refresh();
+        dictionaryService.refresh();
+
+        // Assert
+        AttributeDictionary dictionary = dictionaryService.dictionary();
+        assertEquals(medium, dictionary.valueCode(dictionary.nameCode("size"), "M"));
+        assertEquals(3, dictionary.count(medium));
+        assertEquals(List.of(new AttributeValueResponse("slim", 1)),
+                dictionaryService.findAttribute("fit").orElseThrow().values());
+        verify(valueRepository).findChangedSince("105");
+        assertEquals(2, meterRegistry.get("catalog.attributes.dictionary.changes").counter().count());
+        assertEquals(2, meterRegistry.get("catalog.attributes.dictionary.values").gauge().value());
+    }
+
+    @Test
+    void refresh_FoldsEveryPendingDelta_BeforeTakingTheWatermark() {
+        // Arrange
+        when(valueRepository.currentWatermark()).thenReturn("100", "105");
+        when(valueRepository.findAll()).thenReturn(List.of(row("size", "M", 4)));
+        dictionaryService.loadOnStartup();
+        clearInvocations(valueRepository);
+        when(valueRepository.applyDeltas(2)).thenReturn(2, 2, 1);
+
+        // Act
+        dictionaryService.refresh();
+
+        // Assert
+        InOrder inOrder = inOrder(valueRepository);
+        inOrder.verify(valueRepository, times(3)).applyDeltas(2);
+        inOrder.verify(valueRepository).currentWatermark();
+        inOrder.verify(valueRepository).findChangedSince("100");
+    }
+
+    @Test
+    void reload_DeletesCountsAtZeroSinceTheRetention_BeforeLoading() {
+        // Arrange
+        when(valueRepository.currentWatermark()).thenReturn("100");
+        long before = System.currentTimeMillis();
+
+        // Act
+        dictionaryService.reload();
+
+        // Assert
+        ArgumentCaptor<Instant> zeroedBefore = ArgumentCaptor.forClass(Instant.class);
+        InOrder inOrder = inOrder(valueRepository);
+        inOrder.verify(valueRepository).applyDeltas(2);
+        inOrder.verify(valueRepository).deleteZeroCounts(zeroedBefore.capture());
+        inOrder.verify(valueRepository).findAll();
+        assertFalse(zeroedBefore.getValue().isBefore(Instant.ofEpochMilli(before - 60_000)));
+        assertFalse(zeroedBefore.getValue().isAfter(Instant.ofEpochMilli(System.currentTimeMillis() - 60_000)));
+    }
+
+    @Test
+    void refresh_BeforeLoad_DoesNothing() {
+        // Act
+        dictionaryService.refresh();
+
+        // Assert
+        verifyNoInteractions(valueRepository);
+    }
+
+    private static AttributeValueRow row(String name, String value, int variantCount) {
+        return new AttributeValueRow(name, value, variantCount);
+    }
+}
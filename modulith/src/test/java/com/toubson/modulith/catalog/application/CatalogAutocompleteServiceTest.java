@@ -0,0 +1,86 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.SuggestionResponse;
+import com.toubson.modulith.catalog.dto.SuggestionType;
+import com.toubson.modulith.catalog.infrastructure.AutocompleteRepository;
+import com.toubson.modulith.catalog.infrastructure.SuggestionRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogAutocompleteServiceTest {
+
+    @Mock
+    private AutocompleteRepository autocompleteRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogAutocompleteService autocompleteService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        autocompleteService = new CatalogAutocompleteService(autocompleteRepository, meterRegistry);
+        ReflectionTestUtils.setField(autocompleteService, "maxLimit", 5);
+        ReflectionTestUtils.setField(autocompleteService, "cacheMaxPrefixLength", 3);
+        ReflectionTestUtils.setField(autocompleteService, "cacheTtl", 30_000L);
+        ReflectionTestUtils.setField(autocompleteService, "cacheMaxEntries", 100);
+        ReflectionTestUtils.invokeMethod(autocompleteService, "init");
+    }
+
+    @Test
+    void suggest_ShortPrefix_IsLoadedOnceWithMaxLimit() {
+        // Arrange
+        when(autocompleteRepository.findSuggestions("wo", 5)).thenReturn(rows(5));
+
+        // Act
+        List<SuggestionResponse> first = autocompleteService.suggest(" Wo", 2);
+        List<SuggestionResponse> second = autocompleteService.suggest("wo", 4);
+
+        // Assert
+        assertEquals(2, first.size());
+        assertEquals(4, second.size());
+        verify(autocompleteRepository, times(1)).findSuggestions("wo", 5);
+        assertEquals(1, meterRegistry.get("catalog.autocomplete.latency").tag("source", "cache").timer().count());
+    }
+
+    @Test
+    void suggest_LongQuery_SkipsCacheAndCapsLimit() {
+        // Arrange
+        when(autocompleteRepository.findSuggestions("wool soc", 5)).thenReturn(rows(5));
+
+        // Act
+        autocompleteService.suggest("Wool   soc", 50);
+        autocompleteService.suggest("wool soc", 50);
+
+        // Assert
+        verify(autocompleteRepository, times(2)).findSuggestions("wool soc", 5);
+        assertEquals(2, meterRegistry.get("catalog.autocomplete.latency").tag("source", "database").timer().count());
+    }
+
+    @Test
+    void suggest_BlankQuery_ReturnsNothing() {
+        // Act
+        List<SuggestionResponse> result = autocompleteService.suggest("   ", 10);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(autocompleteRepository);
+    }
+
+    private static List<SuggestionRow> rows(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new SuggestionRow(SuggestionType.PRODUCT, UUID.randomUUID(), "Wool " + i, null, 1.0 - i / 10.0))
+                .toList();
+    }
+}
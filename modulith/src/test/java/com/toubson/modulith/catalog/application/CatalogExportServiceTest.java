@@ -0,0 +1,91 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.infrastructure.CatalogExportRepository;
+import com.toubson.modulith.catalog.infrastructure.CatalogExportRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogExportServiceTest {
+
+    private static final CatalogExportRow FIRST = new CatalogExportRow(new UUID(0, 1), "{\"sku\":\"A\",\"name\":\"Crème\"}");
+    private static final CatalogExportRow SECOND = new CatalogExportRow(new UUID(0, 2), "{\"sku\":\"B\"}");
+    private static final CatalogExportRow THIRD = new CatalogExportRow(new UUID(0, 3), "{\"sku\":\"C\"}");
+
+    @Mock
+    private CatalogExportRepository exportRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CatalogExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new CatalogExportService(exportRepository, meterRegistry);
+        ReflectionTestUtils.setField(exportService, "batchSize", 2);
+        ReflectionTestUtils.invokeMethod(exportService, "init");
+    }
+
+    @Test
+    void export_WritesOneLinePerProduct_ReadingPagesByKeyset() throws IOException {
+        // Arrange
+        when(exportRepository.findFirst(2)).thenReturn(List.of(FIRST, SECOND));
+        when(exportRepository.findAfter(SECOND.id(), 2)).thenReturn(List.of(THIRD));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = exportService.export(out, false);
+
+        // Assert
+        assertEquals(3, exported);
+        assertEquals(FIRST.document() + "\n" + SECOND.document() + "\n" + THIRD.document() + "\n",
+                out.toString(StandardCharsets.UTF_8));
+        verify(exportRepository, times(1)).findAfter(any(), anyInt());
+        assertEquals(3, meterRegistry.get("catalog.export.products").counter().count());
+    }
+
+    @Test
+    void export_WhenLastPageIsFull_StopsOnEmptyPage() throws IOException {
+        // Arrange
+        when(exportRepository.findFirst(2)).thenReturn(List.of(FIRST, SECOND));
+        when(exportRepository.findAfter(SECOND.id(), 2)).thenReturn(List.of());
+
+        // Act
+        long exported = exportService.export(new ByteArrayOutputStream(), false);
+
+        // Assert
+        assertEquals(2, exported);
+    }
+
+    @Test
+    void export_WithGzip_WritesCompressedNdjson() throws IOException {
+        // Arrange
+        when(exportRepository.findFirst(2)).thenReturn(List.of(FIRST));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.export(out, true);
+
+        // Assert
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(FIRST.document() + "\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        verify(exportRepository, never()).findAfter(any(), anyInt());
+    }
+}
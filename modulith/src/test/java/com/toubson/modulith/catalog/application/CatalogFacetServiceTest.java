@@ -0,0 +1,154 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.ProductType;
+import com.toubson.modulith.catalog.dto.FacetResponse;
+import com.toubson.modulith.catalog.dto.FacetValueResponse;
+import com.toubson.modulith.catalog.dto.FacetsResponse;
+import com.toubson.modulith.catalog.exception.SearchIndexUnavailableException;
+import com.toubson.modulith.catalog.infrastructure.*;
+import com.toubson.modulith.shared.events.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogFacetServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private TagRepository tagRepository;
+    @Mock
+    private VariantAttributeRepository attributeRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogFacetService facetService;
+
+    private final UUID categoryId = UUID.randomUUID();
+    private final ProductFacetRow socks = new ProductFacetRow(new UUID(0L, 1L), categoryId, ProductType.STANDARD, new BigDecimal("12.50"));
+    private final ProductFacetRow hat = new ProductFacetRow(new UUID(0L, 2L), categoryId, ProductType.STANDARD, new BigDecimal("30"));
+    private final ProductFacetRow kit = new ProductFacetRow(new UUID(0L, 3L), null, ProductType.BUNDLE, new BigDecimal("120"));
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        facetService = new CatalogFacetService(productRepository, tagRepository, attributeRepository, meterRegistry,
+                new SyncTaskExecutor());
+        ReflectionTestUtils.setField(facetService, "enabled", true);
+        ReflectionTestUtils.setField(facetService, "priceBuckets", List.of(new BigDecimal("100"), new BigDecimal("25"), new BigDecimal("50")));
+        ReflectionTestUtils.setField(facetService, "maxValues", 50);
+        ReflectionTestUtils.setField(facetService, "batchSize", 2);
+        ReflectionTestUtils.invokeMethod(facetService, "init");
+    }
+
+    @Test
+    void countFacets_BeforeFirstBuild_ThrowsException() {
+        // Act & Assert
+        assertThrows(SearchIndexUnavailableException.class, () -> facetService.countFacets(Map.of()));
+        assertFalse(facetService.isReady());
+    }
+
+    @Test
+    void countFacets_AfterRebuild_CountsEveryFacet() {
+        // Arrange
+        givenCatalog();
+
+        // Act
+        facetService.rebuild();
+        FacetsResponse response = facetService.countFacets(Map.of(CatalogFacetService.TAG, Set.of("wool")));
+
+        // Assert
+        assertTrue(facetService.isReady());
+        assertEquals(2, response.total());
+        assertEquals(Map.of("wool", 2, "winter", 2), counts(response, "tag"));
+        assertEquals(Map.of("STANDARD", 1, "BUNDLE", 1), counts(response, "type"));
+        assertEquals(Map.of("0-25", 1, "100+", 1), counts(response, "price"));
+        assertEquals(Map.of("clothing", 2), counts(response, "tagCategory"));
+        assertEquals(Map.of("red", 1), counts(response, "attribute.color"));
+        assertEquals(Map.of(categoryId.toString(), 1), counts(response, "category"));
+        List<FacetValueResponse> tags = facet(response, "tag").values();
+        assertEquals(List.of("winter", "wool"), tags.stream().map(FacetValueResponse::value).toList());
+        assertEquals(List.of(false, true), tags.stream().map(FacetValueResponse::selected).toList());
+        assertEquals(1, meterRegistry.get("catalog.facets.count").timer().count());
+    }
+
+    @Test
+    void countFacets_WithManyValues_CapsValuesPerFacet() {
+        // Arrange
+        givenCatalog();
+        ReflectionTestUtils.setField(facetService, "maxValues", 1);
+        facetService.rebuild();
+
+        // Act
+        FacetsResponse response = facetService.countFacets(Map.of());
+
+        // Assert
+        assertEquals(List.of("STANDARD"), facet(response, "type").values().stream().map(FacetValueResponse::value).toList());
+    }
+
+    @Test
+    void refresh_WithChangedProducts_ReindexesAndRemovesThem() {
+        // Arrange
+        givenCatalog();
+        facetService.rebuild();
+        ProductFacetRow pricierHat = new ProductFacetRow(hat.id(), categoryId, ProductType.STANDARD, new BigDecimal("60"));
+        when(productRepository.findFacetRowsByIds(anyCollection())).thenReturn(List.of(pricierHat));
+        facetService.onProductChanged(new ProductChangedEvent(hat.id()));
+        facetService.onProductChanged(new ProductChangedEvent(kit.id()));
+
+        // Act
+        facetService.refresh();
+        FacetsResponse response = facetService.countFacets(Map.of());
+
+        // Assert
+        assertEquals(2, response.total());
+        assertEquals(Map.of("0-25", 1, "50-100", 1), counts(response, "price"));
+        assertEquals(Map.of("STANDARD", 2), counts(response, "type"));
+        assertNull(facet(response, "attribute.color"));
+    }
+
+    @Test
+    void priceBucket_WithBoundaryPrice_UsesUpperBucket() {
+        // Act & Assert
+        assertEquals("0-25", facetService.priceBucket(new BigDecimal("24.99")));
+        assertEquals("25-50", facetService.priceBucket(new BigDecimal("25.00")));
+        assertEquals("100+", facetService.priceBucket(new BigDecimal("100")));
+    }
+
+    private void givenCatalog() {
+        when(productRepository.findFacetRows(Limit.of(2))).thenReturn(List.of(socks, hat));
+        when(productRepository.findFacetRowsAfter(hat.id(), Limit.of(2))).thenReturn(List.of(kit));
+        when(tagRepository.findFacetRowsByProductIds(anyCollection())).thenReturn(List.of(
+                new TagFacetRow(socks.id(), "wool", "clothing"),
+                new TagFacetRow(socks.id(), "winter", "clothing"),
+                new TagFacetRow(hat.id(), "winter", null),
+                new TagFacetRow(kit.id(), "wool", "clothing")));
+        when(attributeRepository.findFacetRowsByProductIds(anyCollection())).thenReturn(List.of(
+                new AttributeFacetRow(kit.id(), "color", "red")));
+    }
+
+    private static FacetResponse facet(FacetsResponse response, String name) {
+        return response.facets().stream().filter(facet -> facet.name().equals(name)).findFirst().orElse(null);
+    }
+
+    private static Map<String, Integer> counts(FacetsResponse response, String name) {
+        return facet(response, name).values().stream()
+                .collect(Collectors.toMap(FacetValueResponse::value, FacetValueResponse::count));
+    }
+}
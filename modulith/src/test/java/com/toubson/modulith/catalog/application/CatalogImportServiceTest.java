@@ -0,0 +1,215 @@
+package com.toubson.modulith.catalog.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toubson.modulith.catalog.domain.CatalogImportFormat;
+import com.toubson.modulith.catalog.domain.CatalogImportStatus;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportErrorRow;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportLine;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportMergeRow;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportRepository;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogImportServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-01T08:00:00Z");
+    private static final String HEADER = "product_sku,product_name,product_price,variant_sku,variant_name,attributes\n";
+
+    @Mock
+    private CatalogImportRepository importRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private CatalogFacetService facetService;
+
+    @Mock
+    private ProductTagIndex tagIndex;
+
+    @Mock
+    private CategoryTreeService categoryTreeService;
+
+    @TempDir
+    private Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CatalogImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new CatalogImportService(importRepository, new TransactionTemplate(transactionManager),
+                new ObjectMapper(), searchIndex, facetService, tagIndex, categoryTreeService, meterRegistry,
+                new SyncTaskExecutor());
+        ReflectionTestUtils.setField(importService, "enabled", true);
+        ReflectionTestUtils.setField(importService, "directory", directory);
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        ReflectionTestUtils.setField(importService, "maxErrors", 10L);
+        ReflectionTestUtils.setField(importService, "maxLineLength", 1_000);
+        ReflectionTestUtils.setField(importService, "staleAfter", 600_000L);
+        ReflectionTestUtils.setField(importService, "clock", Clock.fixed(NOW, ZoneOffset.UTC));
+        ReflectionTestUtils.invokeMethod(importService, "init");
+    }
+
+    @Test
+    void run_StagesChunksWithErrorsThenMergesAndRebuildsIndexes() throws IOException {
+        // Arrange
+        CatalogImportRow claimed = claimed(CatalogImportStatus.RUNNING, CatalogImportFormat.CSV, 0, 0);
+        Files.writeString(directory.resolve(claimed.id() + ".csv"), HEADER +
+                "TSH-1,T-shirt,19.90,TSH-1-XL,XL,size=XL\n" +
+                "TSH-1,T-shirt,19.90,TSH-1-S,S,size=S\n" +
+                ",Nameless,5,,,\n");
+        when(importRepository.lock(claimed.id())).thenReturn(Optional.of(claimed(CatalogImportStatus.MERGING,
+                CatalogImportFormat.CSV, 3, 2)));
+        when(importRepository.merge(claimed.id(), NOW)).thenReturn(new CatalogImportMergeRow(1, 2));
+        when(searchIndex.isReady()).thenReturn(true);
+
+        // Act
+        importService.run(claimed);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CatalogImportLine>> staged = ArgumentCaptor.forClass(List.class);
+        verify(importRepository, times(2)).stage(eq(claimed.id()), staged.capture());
+        assertEquals(List.of("TSH-1-XL", "TSH-1-S"), staged.getAllValues().getFirst().stream()
+                .map(CatalogImportLine::variantSku).toList());
+        assertTrue(staged.getAllValues().getLast().isEmpty());
+        verify(importRepository).recordProgress(claimed.id(), 2, 2, 0, NOW);
+        verify(importRepository).recordProgress(claimed.id(), 3, 0, 1, NOW);
+        verify(importRepository).insertErrors(claimed.id(), List.of());
+        verify(importRepository).insertErrors(claimed.id(), List.of(new CatalogImportErrorRow(3, "product_sku", "Required")));
+        verify(importRepository).updateStatus(claimed.id(), CatalogImportStatus.MERGING, NOW);
+        verify(importRepository).complete(claimed.id(), new CatalogImportMergeRow(1, 2), NOW);
+        verify(searchIndex).startRebuild();
+        verify(categoryTreeService).reload();
+        assertFalse(Files.exists(directory.resolve(claimed.id() + ".csv")));
+        assertEquals(2, meterRegistry.get("catalog.import.lines").tag("outcome", "staged").counter().count());
+        assertEquals(1, meterRegistry.get("catalog.import.lines").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void run_WhenResumed_SkipsLinesAlreadyStaged() throws IOException {
+        // Arrange
+        CatalogImportRow claimed = claimed(CatalogImportStatus.RUNNING, CatalogImportFormat.NDJSON, 2, 2);
+        Files.writeString(directory.resolve(claimed.id() + ".ndjson"),
+                "{\"product_sku\":\"A\",\"product_name\":\"A\",\"product_price\":1}\n" +
+                "{\"product_sku\":\"B\",\"product_name\":\"B\",\"product_price\":2}\n" +
+                "\n" +
+                "{\"product_sku\":\"C\",\"product_name\":\"C\",\"product_price\":3.5,\"tags\":[\"New\"]}\n" +
+                "not json\n");
+        when(importRepository.countStaged(claimed.id())).thenReturn(2L);
+        when(importRepository.lock(claimed.id())).thenReturn(Optional.empty());
+        ReflectionTestUtils.setField(importService, "chunkSize", 10);
+
+        // Act
+        importService.run(claimed);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CatalogImportLine>> staged = ArgumentCaptor.forClass(List.class);
+        verify(importRepository).stage(eq(claimed.id()), staged.capture());
+        assertEquals(List.of("C"), staged.getValue().stream().map(CatalogImportLine::productSku).toList());
+        assertEquals(4, staged.getValue().getFirst().lineNumber());
+        verify(importRepository).insertErrors(claimed.id(), List.of(new CatalogImportErrorRow(5, "line", "Malformed JSON")));
+        verify(importRepository).recordProgress(claimed.id(), 5, 1, 1, NOW);
+        verify(importRepository, never()).restart(any(), any());
+        verify(importRepository, never()).merge(any(), any());
+    }
+
+    @Test
+    void run_WhenStagedLinesLost_StartsOver() throws IOException {
+        // Arrange
+        CatalogImportRow claimed = claimed(CatalogImportStatus.RUNNING, CatalogImportFormat.CSV, 2, 2);
+        Files.writeString(directory.resolve(claimed.id() + ".csv"), HEADER + "A,A,1,,,\nB,B,2,,,\n");
+        when(importRepository.countStaged(claimed.id())).thenReturn(0L);
+        when(importRepository.lock(claimed.id())).thenReturn(Optional.empty());
+
+        // Act
+        importService.run(claimed);
+
+        // Assert
+        verify(importRepository).restart(claimed.id(), NOW);
+        verify(importRepository).recordProgress(claimed.id(), 2, 2, 0, NOW);
+    }
+
+    @Test
+    void run_WhenMergeFails_MarksImportFailed() throws IOException {
+        // Arrange
+        CatalogImportRow claimed = claimed(CatalogImportStatus.MERGING, CatalogImportFormat.CSV, 2, 2);
+        Files.writeString(directory.resolve(claimed.id() + ".csv"), HEADER);
+        when(importRepository.lock(claimed.id())).thenReturn(Optional.of(claimed));
+        when(importRepository.merge(claimed.id(), NOW)).thenThrow(new IllegalStateException("deadlock detected"));
+
+        // Act
+        importService.run(claimed);
+
+        // Assert
+        verify(importRepository, never()).stage(any(), any());
+        verify(importRepository).fail(claimed.id(), "deadlock detected", NOW);
+        verify(importRepository, never()).complete(any(), any(), any());
+        verifyNoInteractions(searchIndex);
+        assertTrue(Files.exists(directory.resolve(claimed.id() + ".csv")));
+    }
+
+    @Test
+    void resume_WhenImportNotFailed_ReturnsFalse() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(importRepository.resume(id, NOW)).thenReturn(false);
+
+        // Act
+        boolean resumed = importService.resume(id);
+
+        // Assert
+        assertFalse(resumed);
+        verify(importRepository, never()).claimNext(any(), any());
+    }
+
+    @Test
+    void poll_WhenNothingQueued_ReleasesWorker() {
+        // Arrange
+        when(importRepository.claimNext(NOW.minusMillis(600_000), NOW)).thenReturn(Optional.empty());
+
+        // Act
+        importService.poll();
+        importService.poll();
+
+        // Assert
+        verify(importRepository, times(2)).claimNext(any(), any());
+    }
+
+    private static CatalogImportRow claimed(CatalogImportStatus status, CatalogImportFormat format, long linesRead,
+                                            long rowsStaged) {
+        return new CatalogImportRow(new UUID(1, 2), "supplier." + format.name().toLowerCase(), format, status,
+                linesRead, rowsStaged, 0, null, null, null, NOW, NOW, null);
+    }
+}
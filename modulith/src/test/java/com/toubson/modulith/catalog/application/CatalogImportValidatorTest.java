@@ -0,0 +1,78 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.infrastructure.CatalogImportErrorRow;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportLine;
+import com.toubson.modulith.catalog.infrastructure.CatalogImportLine.ImportedTag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogImportValidatorTest {
+
+    @Test
+    void validate_WithCsvValues_ParsesListsAndNumbers() {
+        // Arrange
+        Map<String, Object> values = new HashMap<>(Map.of(
+                "product_sku", " TSH-1 ", "product_name", "T-shirt", "product_price", "19.90",
+                "product_type", "standard", "category_slug", "apparel", "category_name", "Apparel",
+                "tags", "Summer | Crème brûlée|", "stock_quantity", "12",
+                "variant_sku", "TSH-1-XL", "variant_name", "XL"));
+        values.put("attributes", "size=XL|color = blue");
+        List<CatalogImportErrorRow> errors = new ArrayList<>();
+
+        // Act
+        CatalogImportLine line = CatalogImportValidator.validate(3, values, errors);
+
+        // Assert
+        assertTrue(errors.isEmpty());
+        assertEquals("TSH-1", line.productSku());
+        assertEquals(new BigDecimal("19.90"), line.productPrice());
+        assertEquals("STANDARD", line.productType());
+        assertEquals(List.of(new ImportedTag("Summer", "summer"), new ImportedTag("Crème brûlée", "creme-brulee")),
+                line.tags());
+        assertEquals(12, line.stockQuantity());
+        assertEquals(Map.of("size", "XL", "color", "blue"), line.attributes());
+    }
+
+    @Test
+    void validate_WithNdjsonValues_AcceptsArraysAndObjects() {
+        // Arrange
+        Map<String, Object> values = Map.of("product_sku", "MUG-1", "product_name", "Mug", "product_price", "8",
+                "tags", List.of("Kitchen"), "variant_sku", "MUG-1-RED", "variant_name", "Red",
+                "attributes", Map.of("color", "red"));
+        List<CatalogImportErrorRow> errors = new ArrayList<>();
+
+        // Act
+        CatalogImportLine line = CatalogImportValidator.validate(1, values, errors);
+
+        // Assert
+        assertTrue(errors.isEmpty());
+        assertEquals(List.of(new ImportedTag("Kitchen", "kitchen")), line.tags());
+        assertEquals(Map.of("color", "red"), line.attributes());
+        assertNull(line.productType());
+    }
+
+    @Test
+    void validate_WithInvalidFields_RejectsLineWithOneErrorPerField() {
+        // Arrange
+        Map<String, Object> values = Map.of("product_name", "Mug", "product_price", "8.999",
+                "product_type", "GADGET", "category_slug", "Bad Slug", "category_name", "Bad",
+                "stock_quantity", "-1", "variant_price", "4");
+        List<CatalogImportErrorRow> errors = new ArrayList<>();
+
+        // Act
+        CatalogImportLine line = CatalogImportValidator.validate(7, values, errors);
+
+        // Assert
+        assertNull(line);
+        assertEquals(List.of("product_sku", "product_price", "product_type", "category_slug", "stock_quantity",
+                "variant_sku"), errors.stream().map(CatalogImportErrorRow::field).toList());
+        assertTrue(errors.stream().allMatch(error -> error.lineNumber() == 7));
+    }
+}
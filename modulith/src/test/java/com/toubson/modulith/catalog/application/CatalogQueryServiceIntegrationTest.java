@@ -0,0 +1,246 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.*;
+import com.toubson.modulith.catalog.dto.CursorPageResponse;
+import com.toubson.modulith.catalog.dto.PageResponse;
+import com.toubson.modulith.catalog.dto.ProductDetailResponse;
+import com.toubson.modulith.catalog.dto.ProductSummaryResponse;
+import com.toubson.modulith.catalog.infrastructure.ProductFilter;
+import com.toubson.modulith.catalog.infrastructure.ProductSortKey;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * N+1 regression test: the number of statements issued by the catalog read API
+ * must not depend on the number of products, tags or variants returned.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(CatalogQueryService.class)
+class CatalogQueryServiceIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest");
+    @Autowired
+    private CatalogQueryService queryService;
+    // The tag index is built from the database at startup; listings by tag are covered by unit tests
+    @MockitoBean
+    private ProductTagIndex tagIndex;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private Category category;
+    private List<Tag> tags;
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        category = new Category();
+        category.setName("Clothing");
+        category.setSlug("clothing");
+        entityManager.persist(category);
+
+        tags = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Tag tag = new Tag();
+            tag.setName("Tag " + i);
+            tag.setSlug("tag-" + i);
+            entityManager.persist(tag);
+            tags.add(tag);
+        }
+    }
+
+    @Test
+    void findProducts_shouldUseConstantNumberOfQueries_whateverThePageSize() {
+        // Given
+        createProducts(40, 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        long smallPageStatements = countStatements(() ->
+                queryService.findProducts(PageRequest.of(0, 2, Sort.by("name"))));
+        entityManager.clear();
+        long largePageStatements = countStatements(() ->
+                queryService.findProducts(PageRequest.of(0, 40, Sort.by("name"))));
+
+        // Then
+        assertEquals(3, smallPageStatements);
+        assertEquals(smallPageStatements, largePageStatements);
+    }
+
+    @Test
+    void findProducts_shouldReturnTagsCategoryAndStock() {
+        // Given
+        createProducts(5, 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        PageResponse<ProductSummaryResponse> page = queryService.findProducts(PageRequest.of(0, 10, Sort.by("name")));
+
+        // Then
+        assertEquals(5, page.totalElements());
+        ProductSummaryResponse first = page.content().get(0);
+        assertEquals("Product 000", first.name());
+        assertEquals(category.getId(), first.categoryId());
+        assertEquals(3, first.tags().size());
+        assertTrue(first.inStock());
+        assertEquals(8, first.availableQuantity());
+    }
+
+    @Test
+    void findProductsByTag_shouldUseConstantNumberOfQueries() {
+        // Given
+        createProducts(30, 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        long statements = countStatements(() ->
+                queryService.findProductsByTag("tag-1", PageRequest.of(0, 30, Sort.by("name"))));
+
+        // Then
+        assertEquals(3, statements);
+    }
+
+    @Test
+    void findProduct_shouldUseConstantNumberOfQueries_whateverTheNumberOfVariants() {
+        // Given
+        Product product = createProducts(1, 25).get(0);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        ProductDetailResponse[] detail = new ProductDetailResponse[1];
+        long statements = countStatements(() -> detail[0] = queryService.findProduct(product.getId()).orElseThrow());
+
+        // Then
+        assertEquals(4, statements);
+        assertEquals(25, detail[0].variants().size());
+        assertEquals("M", detail[0].variants().get(0).attributes().get("size"));
+    }
+
+    @Test
+    void scrollProducts_shouldVisitEveryProductOnce_inSortOrder() {
+        // Given
+        createProducts(25, 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageResponse<ProductSummaryResponse> page = queryService.scrollProducts(
+                    ProductFilter.none(), ProductSortKey.PRICE, Sort.Direction.DESC, cursor, 10);
+            page.content().forEach(product -> names.add(product.name()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertEquals(25, names.size());
+        assertEquals("Product 024", names.get(0));
+        assertEquals("Product 000", names.get(24));
+    }
+
+    @Test
+    void scrollProducts_shouldUseConstantNumberOfQueries_forDeepPages() {
+        // Given
+        createProducts(40, 0);
+        entityManager.flush();
+        entityManager.clear();
+        CursorPageResponse<ProductSummaryResponse> firstPage = queryService.scrollProducts(
+                ProductFilter.none(), ProductSortKey.NAME, Sort.Direction.ASC, null, 30);
+
+        // When
+        long firstPageStatements = countStatements(() -> queryService.scrollProducts(
+                ProductFilter.none(), ProductSortKey.NAME, Sort.Direction.ASC, null, 5));
+        long deepPageStatements = countStatements(() -> queryService.scrollProducts(
+                ProductFilter.none(), ProductSortKey.NAME, Sort.Direction.ASC, firstPage.nextCursor(), 5));
+
+        // Then, one row query and one tag query, without any count query
+        assertEquals(2, firstPageStatements);
+        assertEquals(firstPageStatements, deepPageStatements);
+    }
+
+    @Test
+    void findProduct_shouldReturnEmpty_whenProductDoesNotExist() {
+        assertTrue(queryService.findProduct(UUID.randomUUID()).isEmpty());
+    }
+
+    private List<Product> createProducts(int count, int variantsPerProduct) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setName(String.format("Product %03d", i));
+            product.setSku("SKU-" + i);
+            product.setPrice(BigDecimal.valueOf(10 + i));
+            product.setCategory(category);
+            tags.forEach(product::addTag);
+
+            Inventory inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setStockQuantity(10);
+            inventory.setReservedQuantity(2);
+            product.setInventory(inventory);
+
+            for (int v = 0; v < variantsPerProduct; v++) {
+                ProductVariant variant = new ProductVariant();
+                variant.setName(String.format("Variant %03d", v));
+                variant.setSku("SKU-" + i + "-" + v);
+                VariantAttribute size = new VariantAttribute();
+                size.setName("size");
+                size.setValue("M");
+                variant.addAttribute(size);
+                product.addVariant(variant);
+            }
+
+            entityManager.persist(product);
+            products.add(product);
+        }
+        return products;
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,333 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
+import com.toubson.modulith.catalog.domain.ProductType;
+import com.toubson.modulith.catalog.dto.*;
+import com.toubson.modulith.catalog.infrastructure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogQueryServiceTest {
+
+    private final Pageable pageable = PageRequest.of(0, 20);
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private TagRepository tagRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private ProductVariantRepository variantRepository;
+    @Mock
+    private VariantAttributeRepository attributeRepository;
+    @Mock
+    private InventoryRepository inventoryRepository;
+    @Mock
+    private ProductTagIndex tagIndex;
+    @InjectMocks
+    private CatalogQueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(queryService, "defaultSearchLanguage", "english");
+        ReflectionTestUtils.setField(queryService, "searchLanguages", Set.of("english", "french", "simple"));
+    }
+
+    @Test
+    void findProducts_LoadsTagsOfWholePageInOneQuery() {
+        // Arrange
+        ProductRow first = productRow(InventoryTrackingStrategy.FINITE, 10, 4);
+        ProductRow second = productRow(InventoryTrackingStrategy.INFINITE, null, 0);
+        when(productRepository.findAllRows(pageable)).thenReturn(new PageImpl<>(List.of(first, second), pageable, 2));
+        when(tagRepository.findRowsByProductIds(List.of(first.id(), second.id()))).thenReturn(List.of(
+                new ProductTagRow(first.id(), UUID.randomUUID(), "Sale", "sale"),
+                new ProductTagRow(first.id(), UUID.randomUUID(), "New", "new")));
+
+        // Act
+        PageResponse<ProductSummaryResponse> result = queryService.findProducts(pageable);
+
+        // Assert
+        assertEquals(2, result.totalElements());
+        assertEquals(2, result.content().get(0).tags().size());
+        assertEquals(6, result.content().get(0).availableQuantity());
+        assertTrue(result.content().get(1).tags().isEmpty());
+        assertEquals(Integer.MAX_VALUE, result.content().get(1).availableQuantity());
+        verify(tagRepository, times(1)).findRowsByProductIds(anyCollection());
+    }
+
+    @Test
+    void findProducts_EmptyPage_SkipsTagQuery() {
+        // Arrange
+        when(productRepository.findAllRows(pageable)).thenReturn(new PageImpl<>(List.of(), pageable, 0));
+
+        // Act
+        PageResponse<ProductSummaryResponse> result = queryService.findProducts(pageable);
+
+        // Assert
+        assertTrue(result.content().isEmpty());
+        verifyNoInteractions(tagRepository);
+    }
+
+    @Test
+    void findProductsInCategorySubtree_UsesClosureQuery() {
+        // Arrange
+        UUID categoryId = UUID.randomUUID();
+        ProductRow row = productRow(InventoryTrackingStrategy.INFINITE, null, 0);
+        when(productRepository.findRowsInCategorySubtree(categoryId, pageable)).thenReturn(new PageImpl<>(List.of(row), pageable, 1));
+
+        // Act
+        PageResponse<ProductSummaryResponse> result = queryService.findProductsInCategorySubtree(categoryId, pageable);
+
+        // Assert
+        assertEquals(1, result.totalElements());
+        assertEquals(row.id(), result.content().get(0).id());
+        verify(productRepository, never()).findRowsByCategoryId(any(), any());
+    }
+
+    @Test
+    void findProducts_OutOfStock_WhenStockIsReserved() {
+        // Arrange
+        ProductRow row = productRow(InventoryTrackingStrategy.FINITE, 3, 3);
+        when(productRepository.findAllRows(pageable)).thenReturn(new PageImpl<>(List.of(row), pageable, 1));
+
+        // Act
+        ProductSummaryResponse result = queryService.findProducts(pageable).content().get(0);
+
+        // Assert
+        assertFalse(result.inStock());
+        assertEquals(0, result.availableQuantity());
+    }
+
+    @Test
+    void findProduct_GroupsAttributesByVariant() {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        UUID variantId = UUID.randomUUID();
+        when(productRepository.findDetailRowById(productId)).thenReturn(Optional.of(new ProductDetailRow(
+                productId, "T-shirt", "Cotton", "TS-1", BigDecimal.TEN, ProductType.STANDARD,
+                null, null, null, null, null, null, Instant.now(), null)));
+        when(variantRepository.findRowsByProductId(productId)).thenReturn(List.of(
+                new VariantRow(variantId, "Red M", "TS-1-RM", BigDecimal.TEN, 5, 1)));
+        when(attributeRepository.findRowsByProductId(productId)).thenReturn(List.of(
+                new VariantAttributeRow(variantId, "color", "red"),
+                new VariantAttributeRow(variantId, "size", "M")));
+
+        // Act
+        ProductDetailResponse result = queryService.findProduct(productId).orElseThrow();
+
+        // Assert
+        assertTrue(result.inStock());
+        assertNull(result.availableQuantity());
+        assertEquals(1, result.variants().size());
+        assertEquals("red", result.variants().get(0).attributes().get("color"));
+        assertEquals(4, result.variants().get(0).availableQuantity());
+    }
+
+    @Test
+    void findProduct_NotFound_ReturnsEmpty() {
+        // Arrange
+        when(productRepository.findDetailRowById(any())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertTrue(queryService.findProduct(UUID.randomUUID()).isEmpty());
+        verifyNoInteractions(variantRepository, attributeRepository);
+    }
+
+    @Test
+    void scrollProducts_ReturnsNextCursor_WhenMoreRowsExist() {
+        // Arrange
+        ProductRow first = productRow(InventoryTrackingStrategy.FINITE, 10, 0);
+        ProductRow second = productRow(InventoryTrackingStrategy.FINITE, 10, 0);
+        ProductRow extra = productRow(InventoryTrackingStrategy.FINITE, 10, 0);
+        when(productRepository.findRowsAfter(ProductFilter.none(), ProductSortKey.PRICE, Sort.Direction.ASC, null, 3))
+                .thenReturn(List.of(first, second, extra));
+
+        // Act
+        CursorPageResponse<ProductSummaryResponse> result =
+                queryService.scrollProducts(ProductFilter.none(), ProductSortKey.PRICE, Sort.Direction.ASC, null, 2);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertTrue(result.hasNext());
+        KeysetCursor cursor = KeysetCursor.decode(result.nextCursor(), "PRICE", Sort.Direction.ASC);
+        assertEquals(second.id(), cursor.id());
+        assertEquals("1", cursor.value());
+    }
+
+    @Test
+    void scrollProducts_SeeksAfterCursorPosition() {
+        // Arrange
+        UUID lastId = UUID.randomUUID();
+        String cursor = new KeysetCursor("PRICE", Sort.Direction.ASC, "12.50", lastId).encode();
+        when(productRepository.findRowsAfter(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        // Act
+        CursorPageResponse<ProductSummaryResponse> result =
+                queryService.scrollProducts(ProductFilter.none(), ProductSortKey.PRICE, Sort.Direction.ASC, cursor, 20);
+
+        // Assert
+        assertFalse(result.hasNext());
+        assertNull(result.nextCursor());
+        verify(productRepository).findRowsAfter(ProductFilter.none(), ProductSortKey.PRICE, Sort.Direction.ASC,
+                new Keyset(new BigDecimal("12.50"), lastId), 21);
+    }
+
+    @Test
+    void scrollProducts_InvalidCursorValue_ThrowsException() {
+        // Arrange
+        String cursor = new KeysetCursor("PRICE", Sort.Direction.ASC, "cheap", UUID.randomUUID()).encode();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                queryService.scrollProducts(ProductFilter.none(), ProductSortKey.PRICE, Sort.Direction.ASC, cursor, 20));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void scrollLowStock_SeeksAfterCursorPosition() {
+        // Arrange
+        LowStockRow row = new LowStockRow(UUID.randomUUID(), UUID.randomUUID(), "Product", "SKU", 3, 5, 0);
+        when(inventoryRepository.findLowStockRows(Limit.of(2))).thenReturn(List.of(row, row));
+        when(inventoryRepository.findLowStockRowsAfter(3, row.inventoryId(), Limit.of(2))).thenReturn(List.of());
+
+        // Act
+        CursorPageResponse<LowStockResponse> first = queryService.scrollLowStock(null, 1);
+        CursorPageResponse<LowStockResponse> second = queryService.scrollLowStock(first.nextCursor(), 1);
+
+        // Assert
+        assertTrue(first.hasNext());
+        assertEquals(3, first.content().get(0).stockQuantity());
+        assertFalse(second.hasNext());
+        assertTrue(second.content().isEmpty());
+    }
+
+    @Test
+    void scrollProductsByTags_KeepsIndexOrderAndSkipsDeletedProducts() {
+        // Arrange
+        ProductRow first = productRow(InventoryTrackingStrategy.INFINITE, null, null);
+        ProductRow second = productRow(InventoryTrackingStrategy.INFINITE, null, null);
+        UUID deleted = UUID.randomUUID();
+        UUID next = UUID.randomUUID();
+        List<String> tags = List.of("Winter", "Wool");
+        when(tagIndex.findProductIds(tags, true, null, 4)).thenReturn(List.of(second.id(), deleted, first.id(), next));
+        when(productRepository.findRowsByIds(List.of(second.id(), deleted, first.id()))).thenReturn(List.of(first, second));
+
+        // Act
+        CursorPageResponse<ProductSummaryResponse> result = queryService.scrollProductsByTags(tags, true, null, 3);
+
+        // Assert
+        assertTrue(result.hasNext());
+        assertEquals(List.of(second.id(), first.id()), result.content().stream().map(ProductSummaryResponse::id).toList());
+        verify(tagRepository, times(1)).findRowsByProductIds(anyCollection());
+    }
+
+    @Test
+    void scrollProductsByTags_SeeksAfterCursorId_AndRejectsOtherMatch() {
+        // Arrange
+        UUID last = UUID.randomUUID();
+        String cursor = new KeysetCursor("allTags", Sort.Direction.ASC, last.toString(), last).encode();
+        when(tagIndex.findProductIds(List.of("Wool"), true, last, 21)).thenReturn(List.of());
+
+        // Act
+        CursorPageResponse<ProductSummaryResponse> result = queryService.scrollProductsByTags(List.of("Wool"), true, cursor, 20);
+
+        // Assert
+        assertFalse(result.hasNext());
+        assertTrue(result.content().isEmpty());
+        verify(productRepository, never()).findRowsByIds(anyCollection());
+        assertThrows(IllegalArgumentException.class,
+                () -> queryService.scrollProductsByTags(List.of("Wool"), false, cursor, 20));
+    }
+
+    @Test
+    void searchProducts_FetchesOneExtraRowAndLoadsTagsOnce() {
+        // Arrange
+        ProductSearchRow first = searchRow("<mark>Wool</mark> socks");
+        ProductSearchRow second = searchRow("<mark>Wool</mark> hat");
+        when(productRepository.searchRows("wool", "english", 2, 2)).thenReturn(List.of(first, second));
+        when(tagRepository.findRowsByProductIds(List.of(first.getId()))).thenReturn(List.of(
+                new ProductTagRow(first.getId(), UUID.randomUUID(), "Winter", "winter")));
+
+        // Act
+        SearchPageResponse<ProductSearchResultResponse> result = queryService.searchProducts(" wool ", null, 2, 1);
+
+        // Assert
+        assertTrue(result.hasNext());
+        assertEquals("english", result.language());
+        assertEquals(1, result.content().size());
+        assertEquals("<mark>Wool</mark> socks", result.content().get(0).nameHighlight());
+        assertEquals(1, result.content().get(0).tags().size());
+        verify(tagRepository, times(1)).findRowsByProductIds(anyCollection());
+    }
+
+    @Test
+    void searchProducts_NormalizesLanguage() {
+        // Arrange
+        when(productRepository.searchRows("laine", "french", 21, 0)).thenReturn(List.of());
+
+        // Act
+        SearchPageResponse<ProductSearchResultResponse> result = queryService.searchProducts("laine", "French", 0, 20);
+
+        // Assert
+        assertFalse(result.hasNext());
+        assertEquals("french", result.language());
+        verifyNoInteractions(tagRepository);
+    }
+
+    @Test
+    void searchProducts_UnsupportedLanguage_ThrowsException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> queryService.searchProducts("wool", "klingon", 0, 20));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void searchProducts_BlankQuery_ThrowsException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> queryService.searchProducts("  ", null, 0, 20));
+        verifyNoInteractions(productRepository);
+    }
+
+    private static ProductSearchRow searchRow(String nameHighlight) {
+        UUID id = UUID.randomUUID();
+        return new ProductSearchRow() {
+            public UUID getId() { return id; }
+            public String getName() { return "Product"; }
+            public String getSku() { return "SKU-" + id; }
+            public BigDecimal getPrice() { return BigDecimal.ONE; }
+            public String getProductType() { return ProductType.STANDARD.name(); }
+            public Float getRank() { return 0.5f; }
+            public String getNameHighlight() { return nameHighlight; }
+            public String getDescriptionHighlight() { return null; }
+        };
+    }
+
+    private static ProductRow productRow(InventoryTrackingStrategy strategy, Integer stock, Integer reserved) {
+        return new ProductRow(UUID.randomUUID(), "Product", "SKU-" + UUID.randomUUID(), BigDecimal.ONE,
+                ProductType.STANDARD, null, null, null, strategy, stock, reserved, Instant.now());
+    }
+}
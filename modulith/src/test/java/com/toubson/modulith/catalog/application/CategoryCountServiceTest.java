@@ -0,0 +1,100 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.CategoryCountResponse;
+import com.toubson.modulith.catalog.infrastructure.CategoryCountRepository;
+import com.toubson.modulith.catalog.infrastructure.CategoryCountRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryCountServiceTest {
+
+    private static final UUID FIRST = new UUID(0, 0);
+
+    @Mock
+    private CategoryCountRepository countRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CategoryCountService categoryCountService;
+
+    @BeforeEach
+    void setUp() {
+        categoryCountService = new CategoryCountService(countRepository, meterRegistry,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(categoryCountService, "verifyEnabled", true);
+        ReflectionTestUtils.setField(categoryCountService, "verifyBatchSize", 2);
+        ReflectionTestUtils.invokeMethod(categoryCountService, "init");
+    }
+
+    @Test
+    void findCounts_ReturnsMaterializedCounts() {
+        // Arrange
+        UUID categoryId = UUID.randomUUID();
+        when(countRepository.findCounts(categoryId)).thenReturn(Optional.of(new CategoryCountRow(categoryId, 2, 7)));
+
+        // Act
+        CategoryCountResponse counts = categoryCountService.findCounts(categoryId).orElseThrow();
+
+        // Assert
+        assertEquals(new CategoryCountResponse(categoryId, 2, 7), counts);
+    }
+
+    @Test
+    void verify_WithDrift_CorrectsAndRecordsDrift() {
+        // Arrange
+        List<UUID> firstProducts = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> lastProducts = List.of(UUID.randomUUID());
+        List<UUID> categories = List.of(UUID.randomUUID());
+        when(countRepository.findProductIds(FIRST, 2)).thenReturn(firstProducts);
+        when(countRepository.findProductIds(firstProducts.getLast(), 2)).thenReturn(lastProducts);
+        when(countRepository.reconcileListings(firstProducts)).thenReturn(2);
+        when(countRepository.lockCounts(FIRST, 2)).thenReturn(categories);
+        when(countRepository.recountCategories(categories)).thenReturn(1);
+
+        // Act
+        int corrected = categoryCountService.verify();
+
+        // Assert
+        assertEquals(3, corrected);
+        assertEquals(3.0, meterRegistry.counter("catalog.category.counts.drift").count());
+        InOrder inOrder = inOrder(countRepository, transactionManager);
+        inOrder.verify(countRepository).insertMissingCounts();
+        inOrder.verify(countRepository).reconcileListings(firstProducts);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(countRepository).reconcileListings(lastProducts);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(countRepository).lockCounts(FIRST, 2);
+        inOrder.verify(countRepository).recountCategories(categories);
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void verify_WhenDisabled_DoesNothing() {
+        // Arrange
+        ReflectionTestUtils.setField(categoryCountService, "verifyEnabled", false);
+
+        // Act
+        int corrected = categoryCountService.verify();
+
+        // Assert
+        assertEquals(0, corrected);
+        verifyNoInteractions(countRepository);
+    }
+}
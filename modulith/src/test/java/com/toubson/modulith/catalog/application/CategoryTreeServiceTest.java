@@ -0,0 +1,75 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.CategoryResponse;
+import com.toubson.modulith.catalog.infrastructure.CategoryRepository;
+import com.toubson.modulith.catalog.infrastructure.CategoryRow;
+import com.toubson.modulith.shared.events.CategoryChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryTreeServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+    @InjectMocks
+    private CategoryTreeService categoryTreeService;
+
+    private final CategoryRow clothing = new CategoryRow(UUID.randomUUID(), "Clothing", "clothing", null, null, 0);
+    private final CategoryRow socks = new CategoryRow(UUID.randomUUID(), "Socks", "socks", null, clothing.id(), 0);
+
+    @Test
+    void findBreadcrumb_ServesFromSnapshot_WithoutRequerying() {
+        // Arrange
+        when(categoryRepository.findAllRows()).thenReturn(List.of(clothing, socks));
+        categoryTreeService.loadOnStartup();
+
+        // Act
+        List<CategoryResponse> breadcrumb = categoryTreeService.findBreadcrumb(socks.id()).orElseThrow();
+        CategoryResponse bySlug = categoryTreeService.findBySlug("socks").orElseThrow();
+
+        // Assert
+        assertEquals(List.of(clothing.id(), socks.id()), breadcrumb.stream().map(CategoryResponse::id).toList());
+        assertEquals(socks.id(), bySlug.id());
+        assertTrue(categoryTreeService.findBreadcrumb(UUID.randomUUID()).isEmpty());
+        verify(categoryRepository, times(1)).findAllRows();
+    }
+
+    @Test
+    void refresh_AfterChange_SwapsSnapshot() {
+        // Arrange
+        when(categoryRepository.findAllRows()).thenReturn(List.of(clothing)).thenReturn(List.of(clothing, socks));
+        categoryTreeService.loadOnStartup();
+        categoryTreeService.refresh();
+        assertTrue(categoryTreeService.findBySlug("socks").isEmpty());
+
+        // Act
+        categoryTreeService.onCategoryChanged(new CategoryChangedEvent(socks.id()));
+        categoryTreeService.refresh();
+        categoryTreeService.refresh();
+
+        // Assert
+        assertTrue(categoryTreeService.findBySlug("socks").isPresent());
+        verify(categoryRepository, times(2)).findAllRows();
+    }
+
+    @Test
+    void findMenu_BeforeStartupLoad_LoadsSnapshot() {
+        // Arrange
+        when(categoryRepository.findAllRows()).thenReturn(List.of(clothing, socks));
+
+        // Act & Assert
+        assertEquals(1, categoryTreeService.findMenu().size());
+        assertEquals(1, categoryTreeService.findMenu().get(0).children().size());
+        verify(categoryRepository, times(1)).findAllRows();
+    }
+}
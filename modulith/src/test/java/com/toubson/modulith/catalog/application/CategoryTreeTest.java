@@ -0,0 +1,61 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.CategoryResponse;
+import com.toubson.modulith.catalog.dto.CategoryTreeResponse;
+import com.toubson.modulith.catalog.infrastructure.CategoryRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryTreeTest {
+
+    private final CategoryRow clothing = row("Clothing", null, 1);
+    private final CategoryRow shoes = row("Shoes", null, 0);
+    private final CategoryRow socks = row("Socks", clothing.id(), 2);
+    private final CategoryRow hats = row("Hats", clothing.id(), 1);
+    private final CategoryRow woolSocks = row("Wool socks", socks.id(), 0);
+
+    @Test
+    void build_shouldSortChildren_andComputePaths() {
+        // When
+        CategoryTree tree = CategoryTree.build(List.of(woolSocks, socks, hats, clothing, shoes));
+
+        // Then
+        assertEquals(5, tree.size());
+        assertEquals(List.of("Shoes", "Clothing"), tree.roots().stream().map(node -> node.category().name()).toList());
+        CategoryTree.Node node = tree.findById(woolSocks.id()).orElseThrow();
+        assertEquals(2, node.depth());
+        assertEquals(List.of("Clothing", "Socks", "Wool socks"), node.path().stream().map(CategoryResponse::name).toList());
+        assertEquals(List.of("Hats", "Socks"), tree.findBySlug("clothing").orElseThrow()
+                .children().stream().map(child -> child.category().name()).toList());
+    }
+
+    @Test
+    void build_shouldLeaveOutOrphanedSubtrees() {
+        // Given socks whose parent category was deleted
+        CategoryTree tree = CategoryTree.build(List.of(socks, woolSocks, shoes));
+
+        // Then
+        assertEquals(1, tree.size());
+        assertTrue(tree.findById(socks.id()).isEmpty());
+        assertTrue(tree.findBySlug("wool-socks").isEmpty());
+    }
+
+    @Test
+    void menu_shouldNestChildren() {
+        // When
+        List<CategoryTreeResponse> menu = CategoryTree.build(List.of(clothing, socks, woolSocks)).menu();
+
+        // Then
+        assertEquals(1, menu.size());
+        assertEquals("socks", menu.get(0).children().get(0).slug());
+        assertEquals("wool-socks", menu.get(0).children().get(0).children().get(0).slug());
+    }
+
+    private static CategoryRow row(String name, UUID parentId, int sortOrder) {
+        return new CategoryRow(UUID.randomUUID(), name, name.toLowerCase().replace(' ', '-'), null, parentId, sortOrder);
+    }
+}
@@ -0,0 +1,217 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.Inventory;
+import com.toubson.modulith.catalog.domain.Product;
+import com.toubson.modulith.catalog.infrastructure.InventoryBatchRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryStockRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository;
+import com.toubson.modulith.catalog.infrastructure.StockMovementRepository;
+import com.toubson.modulith.catalog.infrastructure.ProductRepository;
+import com.toubson.modulith.catalog.infrastructure.StockBalanceRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Oversell stress test: many threads reserving and committing the same inventory at once, each
+ * command in its own transaction, must never take more stock than there is, and batches sharing
+ * inventories must never deadlock.
+ */
+@DataJpaTest(properties = "spring.datasource.hikari.maximum-pool-size=" + InventoryCommandServiceIntegrationTest.THREADS)
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({InventoryCommandService.class, InventoryStripeRepository.class, InventoryBatchRepository.class,
+        InventoryStockRepository.class, StockAlertPublisher.class, StockJournal.class, StockMovementRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryCommandServiceIntegrationTest {
+
+    static final int THREADS = 32;
+    private static final int STOCK = 100;
+    private static final int ATTEMPTS_PER_THREAD = 20;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest");
+    @Autowired
+    private InventoryCommandService commandService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private StockMovementRepository movementRepository;
+    private UUID productId;
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        Product product = new Product();
+        product.setName("Flash sale product");
+        product.setSku("FLASH-" + UUID.randomUUID());
+        product.setPrice(BigDecimal.TEN);
+        Inventory inventory = new Inventory();
+        inventory.setProduct(product);
+        inventory.setStockQuantity(STOCK);
+        product.setInventory(inventory);
+        productId = productRepository.save(product).getId();
+    }
+
+    @Test
+    void reserve_shouldNeverOversell_underConcurrentReservations() throws Exception {
+        // Given
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // When
+        runConcurrently(() -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                StockCommandResult result = commandService.reserve(productId, 1);
+                (result == StockCommandResult.APPLIED ? reserved : rejected).incrementAndGet();
+                assertTrue(result == StockCommandResult.APPLIED || result == StockCommandResult.INSUFFICIENT_STOCK);
+            }
+        });
+
+        // Then
+        Inventory inventory = inventoryRepository.findByProductId(productId).orElseThrow();
+        assertEquals(STOCK, reserved.get());
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - STOCK, rejected.get());
+        assertEquals(STOCK, inventory.getReservedQuantity());
+        assertEquals(STOCK, inventory.getStockQuantity());
+    }
+
+    @Test
+    void reserveAndCommit_shouldKeepQuantitiesConsistent_underConcurrentOrders() throws Exception {
+        // Given
+        AtomicInteger sold = new AtomicInteger();
+
+        // When
+        runConcurrently(() -> placeOrders(sold));
+
+        // Then
+        Inventory inventory = inventoryRepository.findByProductId(productId).orElseThrow();
+        assertEquals(0, inventory.getReservedQuantity());
+        assertEquals(STOCK - sold.get(), inventory.getStockQuantity());
+        assertTrue(inventory.getStockQuantity() >= 0);
+        // Every applied command was journaled exactly once, in its own transaction
+        StockBalanceRow balance = movementRepository.findBalance(InventoryStripeRepository.Owner.PRODUCT, productId).orElseThrow();
+        assertEquals(balance.reservedQuantity(), balance.journalReservedQuantity());
+    }
+
+    @Test
+    void reserveAndCommit_shouldKeepStripedQuantitiesConsistent_underConcurrentOrders() throws Exception {
+        // Given
+        assertTrue(commandService.setStripeCount(productId, 4));
+        Inventory striped = inventoryRepository.findByProductId(productId).orElseThrow();
+        AtomicInteger sold = new AtomicInteger();
+
+        // When
+        runConcurrently(() -> placeOrders(sold));
+
+        // Then
+        StockBalanceRow balance = movementRepository.findBalance(InventoryStripeRepository.Owner.PRODUCT, productId).orElseThrow();
+        assertEquals(0, balance.reservedQuantity());
+        assertEquals(balance.reservedQuantity(), balance.journalReservedQuantity());
+        assertEquals(STOCK - sold.get(), balance.stockQuantity());
+        assertEquals(balance.stockQuantity(), balance.journalStockQuantity());
+        // The entity only sees the stock outside the stripes, all of which was allotted
+        assertEquals(0, striped.getAvailableQuantity());
+        assertFalse(striped.reserveStock(1));
+    }
+
+    @Test
+    void reserveAll_shouldNeverDeadlockOrOversell_whenBatchesShareInventoriesInAnyOrder() throws Exception {
+        // Given: a second product, reserved together with the first one in both line orders
+        Product other = new Product();
+        other.setName("Flash sale companion");
+        other.setSku("FLASH-" + UUID.randomUUID());
+        other.setPrice(BigDecimal.ONE);
+        Inventory otherInventory = new Inventory();
+        otherInventory.setProduct(other);
+        otherInventory.setStockQuantity(STOCK);
+        other.setInventory(otherInventory);
+        UUID otherId = productRepository.save(other).getId();
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger order = new AtomicInteger();
+
+        // When
+        runConcurrently(() -> {
+            boolean reversed = order.incrementAndGet() % 2 == 0;
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                List<StockLine> lines = reversed
+                        ? List.of(StockLine.product(otherId, 1), StockLine.product(productId, 1))
+                        : List.of(StockLine.product(productId, 1), StockLine.product(otherId, 1));
+                if (commandService.reserveAll(lines).applied()) {
+                    applied.incrementAndGet();
+                }
+            }
+        });
+
+        // Then: every batch either took one unit of each product or nothing
+        assertEquals(STOCK, applied.get());
+        assertEquals(STOCK, inventoryRepository.findByProductId(productId).orElseThrow().getReservedQuantity());
+        assertEquals(STOCK, inventoryRepository.findByProductId(otherId).orElseThrow().getReservedQuantity());
+    }
+
+    // Every order reserves two units, then either commits or releases them
+    private void placeOrders(AtomicInteger sold) {
+        for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+            if (commandService.reserve(productId, 2) != StockCommandResult.APPLIED) {
+                continue;
+            }
+            if (i % 3 == 0) {
+                assertEquals(StockCommandResult.APPLIED, commandService.release(productId, 2));
+            } else {
+                assertEquals(StockCommandResult.APPLIED, commandService.commit(productId, 2));
+                sold.addAndGet(2);
+            }
+        }
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
+import com.toubson.modulith.catalog.domain.StockMovementType;
+import com.toubson.modulith.catalog.infrastructure.InventoryBatchRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryStockRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository.Owner;
+import com.toubson.modulith.catalog.infrastructure.LockedStockRow;
+import com.toubson.modulith.catalog.infrastructure.StockLevelRow;
+import com.toubson.modulith.catalog.infrastructure.StockModeRow;
+import com.toubson.modulith.catalog.infrastructure.StripedStockRow;
+import com.toubson.modulith.catalog.infrastructure.VariantInventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryCommandServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+    @Mock
+    private VariantInventoryRepository variantInventoryRepository;
+    @Mock
+    private InventoryStripeRepository stripeRepository;
+    @Mock
+    private InventoryBatchRepository batchRepository;
+    @Mock
+    private InventoryStockRepository stockRepository;
+    @Mock
+    private StockAlertPublisher alertPublisher;
+    @Mock
+    private StockJournal journal;
+    @InjectMocks
+    private InventoryCommandService commandService;
+
+    private final UUID productId = UUID.randomUUID();
+    private final UUID inventoryId = UUID.randomUUID();
+
+    @Test
+    void reserve_WhenGuardedUpdateApplies_SkipsStrategyLookup() {
+        // Arrange
+        StockLevelRow level = new StockLevelRow(inventoryId, productId, null, 10, 3, 2);
+        when(stockRepository.reserve(eq(Owner.PRODUCT), eq(productId), eq(3), any())).thenReturn(Optional.of(level));
+
+        // Act
+        StockCommandResult result = commandService.reserve(productId, 3);
+
+        // Assert
+        assertEquals(StockCommandResult.APPLIED, result);
+        verify(alertPublisher).publishCrossings(level, 0, 3);
+        verify(journal).append(Owner.PRODUCT, inventoryId, StockMovementType.RESERVATION, 0, 3);
+        verify(inventoryRepository, never()).findStockModeByProductId(any());
+    }
+
+    @Test
+    void reserve_WhenFiniteStockIsShort_ReturnsInsufficientStock() {
+        // Arrange
+        when(stockRepository.reserve(eq(Owner.PRODUCT), eq(productId), eq(3), any())).thenReturn(Optional.empty());
+        when(inventoryRepository.findStockModeByProductId(productId))
+                .thenReturn(Optional.of(new StockModeRow(inventoryId, InventoryTrackingStrategy.FINITE, 0)));
+
+        // Act
+        StockCommandResult result = commandService.reserve(productId, 3);
+
+        // Assert
+        assertEquals(StockCommandResult.INSUFFICIENT_STOCK, result);
+        assertFalse(result.succeeded());
+        verifyNoInteractions(journal);
+    }
+
+    @Test
+    void commit_WhenInventoryIsNotTracked_SucceedsWithoutUpdate() {
+        // Arrange
+        when(stockRepository.commit(eq(Owner.PRODUCT), eq(productId), eq(1), any())).thenReturn(Optional.empty());
+        when(inventoryRepository.findStockModeByProductId(productId))
+                .thenReturn(Optional.of(new StockModeRow(inventoryId, InventoryTrackingStrategy.NOT_TRACKED, 0)));
+
+        // Act
+        StockCommandResult result = commandService.commit(productId, 1);
+
+        // Assert
+        assertEquals(StockCommandResult.UNTRACKED, result);
+        assertTrue(result.succeeded());
+    }
+
+    @Test
+    void releaseVariant_WhenVariantHasNoInventory_ReturnsNotFound() {
+        // Arrange
+        UUID variantId = UUID.randomUUID();
+        when(stockRepository.release(eq(Owner.VARIANT), eq(variantId), eq(1), any())).thenReturn(Optional.empty());
+        when(variantInventoryRepository.findStockModeByVariantId(variantId)).thenReturn(Optional.empty());
+
+        // Act
+        StockCommandResult result = commandService.releaseVariant(variantId, 1);
+
+        // Assert
+        assertEquals(StockCommandResult.NOT_FOUND, result);
+    }
+
+    @Test
+    void reserve_WithNonPositiveQuantity_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> commandService.reserve(productId, 0));
+        verifyNoInteractions(stockRepository);
+    }
+
+    @Test
+    void reserve_WhenStriped_TakesStockFromAStripe() {
+        // Arrange
+        when(stockRepository.reserve(eq(Owner.PRODUCT), eq(productId), eq(2), any())).thenReturn(Optional.empty());
+        when(inventoryRepository.findStockModeByProductId(productId))
+                .thenReturn(Optional.of(new StockModeRow(inventoryId, InventoryTrackingStrategy.FINITE, 4)));
+        when(stripeRepository.reserve(eq(Owner.PRODUCT), eq(inventoryId), anyInt(), eq(2))).thenReturn(OptionalInt.of(5));
+
+        // Act
+        StockCommandResult result = commandService.reserve(productId, 2);
+
+        // Assert
+        assertEquals(StockCommandResult.APPLIED, result);
+        verify(stripeRepository, times(1)).reserve(eq(Owner.PRODUCT), eq(inventoryId), anyInt(), eq(2));
+        verify(stripeRepository, never()).lockStock(any(), any());
+        verify(journal).append(Owner.PRODUCT, inventoryId, StockMovementType.RESERVATION, 0, 2);
+        verifyNoInteractions(alertPublisher);
+    }
+
+    @Test
+    void reserve_WhenStripeRunsOut_ChecksWhetherInventoryIsOutOfStock() {
+        // Arrange
+        StockLevelRow level = new StockLevelRow(inventoryId, productId, null, 10, 10, 2);
+        when(stockRepository.reserve(eq(Owner.PRODUCT), eq(productId), eq(2), any())).thenReturn(Optional.empty());
+        when(inventoryRepository.findStockModeByProductId(productId))
+                .thenReturn(Optional.of(new StockModeRow(inventoryId, InventoryTrackingStrategy.FINITE, 4)));
+        when(stripeRepository.reserve(eq(Owner.PRODUCT), eq(inventoryId), anyInt(), eq(2))).thenReturn(OptionalInt.of(0));
+        when(stripeRepository.findStockLevel(Owner.PRODUCT, inventoryId)).thenReturn(Optional.of(level));
+
+        // Act
+        StockCommandResult result = commandService.reserve(productId, 2);
+
+        // Assert
+        assertEquals(StockCommandResult.APPLIED, result);
+        verify(alertPublisher).publishCrossings(level, 0, 2);
+    }
+
+    @Test
+    void commitVariant_WhenStriped_PublishesCrossingsOfTheCommit() {
+        // Arrange
+        UUID variantId = UUID.randomUUID();
+        StockLevelRow level = new StockLevelRow(inventoryId, productId, variantId, 4, 1, 5);
+        when(stockRepository.commit(eq(Owner.VARIANT), eq(variantId), eq(2), any())).thenReturn(Optional.empty());
+        when(variantInventoryRepository.findStockModeByVariantId(variantId))
+                .thenReturn(Optional.of(new StockModeRow(inventoryId, InventoryTrackingStrategy.FINITE, 2)));
+        when(stripeRepository.commit(Owner.VARIANT, inventoryId, 2)).thenReturn(Optional.of(level));
+
+        // Act
+        StockCommandResult result = commandService.commitVariant(variantId, 2);
+
+        // Assert
+        assertEquals(StockCommandResult.APPLIED, result);
+        verify(alertPublisher).publishCrossings(level, -2, -2);
+        verify(journal).append(Owner.VARIANT, inventoryId, StockMovementType.SALE, -2, -2);
+    }
+
+    @Test
+    void receive_WhenStriped_AddsStockAndJournalsReceipt() {
+        // Arrange
+        StockLevelRow level = new StockLevelRow(inventoryId, productId, null, 15, 0, 5);
+        when(stockRepository.receive(eq(Owner.PRODUCT), eq(productId), eq(10), any())).thenReturn(Optional.of(level));
+
+        // Act
+        StockCommandResult result = commandService.receive(productId, 10);
+
+        // Assert
+        assertEquals(StockCommandResult.APPLIED, result);
+        verify(journal).append(Owner.PRODUCT, inventoryId, StockMovementType.RECEIPT, 10, 0);
+        verify(alertPublisher).publishCrossings(level, 10, 0);
+    }
+
+    @Test
+    void adjust_WhenShrinkageWouldUncoverReservedStock_ReturnsInsufficientStock() {
+        // Arrange
+        when(stockRepository.adjust(eq(Owner.PRODUCT), eq(productId), eq(-4), any())).thenReturn(Optional.empty());
+        when(inventoryRepository.findStockModeByProductId(productId))
+                .thenReturn(Optional.of(new StockModeRow(inventoryId, InventoryTrackingStrategy.FINITE, 0)));
+
+        // Act
+        StockCommandResult result = commandService.adjust(productId, -4);
+
+        // Assert
+        assertEquals(StockCommandResult.INSUFFICIENT_STOCK, result);
+        verifyNoInteractions(journal, alertPublisher);
+    }
+
+    @Test
+    void adjust_WithZeroChange_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> commandService.adjust(productId, 0));
+        verifyNoInteractions(stockRepository);
+    }
+
+    @Test
+    void reserve_WhenStripesAreDrained_RebalancesRemainingStock() {
+        // Arrange: 3 units left across the stripes, none of which holds 3
+        when(stockRepository.reserve(eq(Owner.PRODUCT), eq(productId), eq(3), any())).thenReturn(Optional.empty());
+        when(inventoryRepository.findStockModeByProductId(productId))
+                .thenReturn(Optional.of(new StockModeRow(inventoryId, InventoryTrackingStrategy.FINITE, 2)));
+        when(stripeRepository.reserve(eq(Owner.PRODUCT), eq(inventoryId), anyInt(), eq(3))).thenReturn(OptionalInt.empty());
+        when(stripeRepository.findAvailableQuantity(Owner.PRODUCT, inventoryId)).thenReturn(8);
+        // 20 in stock, 10 reserved, 10 allotted to stripes of which 2 were reserved since: 12 reserved by orders
+        when(stripeRepository.lockStock(Owner.PRODUCT, inventoryId))
+                .thenReturn(Optional.of(new StripedStockRow(20, 10, 10, 2, 8)));
+
+        // Act
+        StockCommandResult result = commandService.reserve(productId, 3);
+
+        // Assert
+        assertEquals(StockCommandResult.APPLIED, result);
+        verify(stripeRepository).allot(Owner.PRODUCT, inventoryId, 15, new int[]{3, 2});
+    }
+
+    @Test
+    void reserve_WhenStripedInventoryIsSoldOut_SkipsRebalance() {
+        // Arrange
+        when(stockRepository.reserve(eq(Owner.PRODUCT), eq(productId), eq(1), any())).thenReturn(Optional.empty());
+        when(inventoryRepository.findStockModeByProductId(productId))
+                .thenReturn(Optional.of(new StockModeRow(inventoryId, InventoryTrackingStrategy.FINITE, 2)));
+        when(stripeRepository.findAvailableQuantity(Owner.PRODUCT, inventoryId)).thenReturn(0);
+
+        // Act
+        StockCommandResult result = commandService.reserve(productId, 1);
+
+        // Assert
+        assertEquals(StockCommandResult.INSUFFICIENT_STOCK, result);
+        verify(stripeRepository, never()).lockStock(any(), any());
+    }
+
+    @Test
+    void setStripeCount_AllotsAvailableStockEvenly() {
+        // Arrange: 10 in stock, 3 reserved by orders
+        when(inventoryRepository.findStockModeByProductId(productId))
+                .thenReturn(Optional.of(new StockModeRow(inventoryId, InventoryTrackingStrategy.FINITE, 0)));
+        when(stripeRepository.lockStock(Owner.PRODUCT, inventoryId))
+                .thenReturn(Optional.of(new StripedStockRow(10, 3, 0, 0, 0)));
+
+        // Act
+        boolean updated = commandService.setStripeCount(productId, 3);
+
+        // Assert
+        assertTrue(updated);
+        verify(stripeRepository).allot(Owner.PRODUCT, inventoryId, 3, new int[]{3, 2, 2});
+    }
+
+    @Test
+    void setStripeCount_WhenInventoryIsNotFinite_ThrowsIllegalArgumentException() {
+        // Arrange
+        when(inventoryRepository.findStockModeByProductId(productId))
+                .thenReturn(Optional.of(new StockModeRow(inventoryId, InventoryTrackingStrategy.INFINITE, 0)));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> commandService.setStripeCount(productId, 4));
+        verifyNoInteractions(stripeRepository);
+    }
+
+    @Test
+    void reserveAll_WhenEveryLineHasStock_ReservesProductsAndVariantsTogether() {
+        // Arrange: two lines for the same product, one untracked product and one variant
+        UUID untrackedId = UUID.randomUUID();
+        UUID variantId = UUID.randomUUID();
+        UUID variantInventoryId = UUID.randomUUID();
+        when(batchRepository.lockStock(eq(Owner.PRODUCT), any())).thenReturn(List.of(
+                new LockedStockRow(inventoryId, productId, InventoryTrackingStrategy.FINITE, 10, 4, 0),
+                new LockedStockRow(UUID.randomUUID(), untrackedId, InventoryTrackingStrategy.INFINITE, 0, 0, 0)));
+        when(batchRepository.lockStock(eq(Owner.VARIANT), any())).thenReturn(List.of(
+                new LockedStockRow(variantInventoryId, variantId, InventoryTrackingStrategy.FINITE, 2, 0, 0)));
+        StockLevelRow productLevel = new StockLevelRow(inventoryId, productId, null, 10, 10, 2);
+        StockLevelRow variantLevel = new StockLevelRow(variantInventoryId, productId, variantId, 2, 2, null);
+        when(batchRepository.reserve(eq(Owner.PRODUCT), eq(Map.of(inventoryId, 6)), any())).thenReturn(List.of(productLevel));
+        when(batchRepository.reserve(eq(Owner.VARIANT), eq(Map.of(variantInventoryId, 2)), any())).thenReturn(List.of(variantLevel));
+
+        // Act
+        BatchStockCommandResult result = commandService.reserveAll(List.of(StockLine.product(productId, 2),
+                StockLine.variant(variantId, 2), StockLine.product(untrackedId, 5), StockLine.product(productId, 4)));
+
+        // Assert
+        assertTrue(result.applied());
+        assertEquals(List.of(StockCommandResult.APPLIED, StockCommandResult.APPLIED, StockCommandResult.UNTRACKED,
+                StockCommandResult.APPLIED), result.lines().stream().map(StockLineResult::result).toList());
+        verify(alertPublisher).publishCrossings(productLevel, 0, 6);
+        verify(alertPublisher).publishCrossings(variantLevel, 0, 2);
+        verify(journal).append(Owner.PRODUCT, inventoryId, StockMovementType.RESERVATION, 0, 6);
+        verify(journal).append(Owner.VARIANT, variantInventoryId, StockMovementType.RESERVATION, 0, 2);
+    }
+
+    @Test
+    void reserveAll_WhenOneLineIsShort_ReservesNothing() {
+        // Arrange
+        UUID missingId = UUID.randomUUID();
+        when(batchRepository.lockStock(eq(Owner.PRODUCT), any())).thenReturn(List.of(
+                new LockedStockRow(inventoryId, productId, InventoryTrackingStrategy.FINITE, 10, 9, 0)));
+
+        // Act
+        BatchStockCommandResult result = commandService.reserveAll(List.of(StockLine.product(productId, 2),
+                StockLine.product(missingId, 1)));
+
+        // Assert
+        assertFalse(result.applied());
+        assertEquals(List.of(StockCommandResult.INSUFFICIENT_STOCK, StockCommandResult.NOT_FOUND),
+                result.lines().stream().map(StockLineResult::result).toList());
+        verify(batchRepository, never()).reserve(any(), any(), any());
+        verify(stripeRepository, never()).allot(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void reserveAll_WhenInventoryIsStriped_ReservesFromGatheredStripes() {
+        // Arrange: 10 in stock, 2 reserved by orders and 5 allotted to 2 stripes
+        when(batchRepository.lockStock(eq(Owner.PRODUCT), any())).thenReturn(List.of(
+                new LockedStockRow(inventoryId, productId, InventoryTrackingStrategy.FINITE, 10, 2, 2)));
+        when(stripeRepository.lockStock(Owner.PRODUCT, inventoryId))
+                .thenReturn(Optional.of(new StripedStockRow(10, 2, 5, 2, 5)));
+
+        // Act
+        BatchStockCommandResult result = commandService.reserveAll(List.of(StockLine.product(productId, 7)));
+
+        // Assert
+        assertTrue(result.applied());
+        verify(stripeRepository).allot(Owner.PRODUCT, inventoryId, 9, new int[]{1, 0});
+        verify(batchRepository).reserve(eq(Owner.PRODUCT), eq(Map.of()), any());
+    }
+
+    @Test
+    void reserveAll_WithTooManyLines_ThrowsIllegalArgumentException() {
+        // Arrange
+        List<StockLine> lines = Collections.nCopies(InventoryCommandService.MAX_BATCH_LINES + 1, StockLine.product(productId, 1));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> commandService.reserveAll(lines));
+        verifyNoInteractions(batchRepository);
+    }
+
+    @Test
+    void releaseAll_LocksEveryInventoryFirst_ThenReleasesEachItemOnce() {
+        // Arrange: two lines for the same product and one variant
+        UUID variantId = UUID.randomUUID();
+        UUID variantInventoryId = UUID.randomUUID();
+        StockLevelRow productLevel = new StockLevelRow(inventoryId, productId, null, 10, 0, 2);
+        StockLevelRow variantLevel = new StockLevelRow(variantInventoryId, productId, variantId, 2, 0, null);
+        when(stockRepository.release(eq(Owner.PRODUCT), eq(productId), eq(5), any())).thenReturn(Optional.of(productLevel));
+        when(stockRepository.release(eq(Owner.VARIANT), eq(variantId), eq(1), any())).thenReturn(Optional.of(variantLevel));
+
+        // Act
+        List<StockLineResult> results = commandService.releaseAll(List.of(StockLine.product(productId, 2),
+                StockLine.variant(variantId, 1), StockLine.product(productId, 3)));
+
+        // Assert
+        assertEquals(List.of(StockCommandResult.APPLIED, StockCommandResult.APPLIED, StockCommandResult.APPLIED),
+                results.stream().map(StockLineResult::result).toList());
+        InOrder inOrder = inOrder(batchRepository, stockRepository);
+        inOrder.verify(batchRepository).lockStock(Owner.PRODUCT, Set.of(productId));
+        inOrder.verify(batchRepository).lockStock(Owner.VARIANT, Set.of(variantId));
+        inOrder.verify(stockRepository).release(eq(Owner.PRODUCT), eq(productId), eq(5), any());
+        inOrder.verify(stockRepository).release(eq(Owner.VARIANT), eq(variantId), eq(1), any());
+        verify(alertPublisher).publishCrossings(productLevel, 0, -5);
+        verify(journal).append(Owner.VARIANT, variantInventoryId, StockMovementType.RELEASE, 0, -1);
+    }
+}
@@ -0,0 +1,133 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.Inventory;
+import com.toubson.modulith.catalog.domain.Product;
+import com.toubson.modulith.catalog.infrastructure.InventoryBatchRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryStockRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository;
+import com.toubson.modulith.catalog.infrastructure.StockMovementRepository;
+import com.toubson.modulith.catalog.infrastructure.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contention benchmark: a single hot product is reserved one unit at a time by many threads until
+ * it sells out, unstriped and with increasing stripe counts. Reports the reservation throughput of
+ * each stripe count and checks that every count sells exactly the stock, no more.
+ * Only runs with the benchmark profile: {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.datasource.hikari.maximum-pool-size=" + InventoryStripeContentionBenchmarkTest.THREADS)
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({InventoryCommandService.class, InventoryStripeRepository.class, InventoryBatchRepository.class,
+        InventoryStockRepository.class, StockAlertPublisher.class, StockJournal.class, StockMovementRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryStripeContentionBenchmarkTest {
+
+    static final int THREADS = 32;
+    private static final int STOCK = 2000;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest");
+    @Autowired
+    private InventoryCommandService commandService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @ParameterizedTest(name = "{0} stripes")
+    @ValueSource(ints = {0, 1, 4, 16})
+    void reserve_shouldSellExactlyTheStock_whateverTheStripeCount(int stripeCount) throws Exception {
+        // Given
+        UUID productId = createProduct();
+        if (stripeCount > 0) {
+            assertTrue(commandService.setStripeCount(productId, stripeCount));
+        }
+        AtomicInteger reserved = new AtomicInteger();
+
+        // When
+        long start = System.nanoTime();
+        runConcurrently(() -> {
+            while (commandService.reserve(productId, 1) == StockCommandResult.APPLIED) {
+                reserved.incrementAndGet();
+            }
+        });
+        long elapsedNanos = System.nanoTime() - start;
+
+        // Then
+        Inventory inventory = inventoryRepository.findByProductId(productId).orElseThrow();
+        assertEquals(STOCK, reserved.get());
+        assertEquals(0, inventory.getAvailableQuantity());
+        assertEquals(STOCK, inventory.getStockQuantity());
+        log.info("{} stripes: {} reservations in {} ms, {} reservations/s", stripeCount, reserved.get(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(reserved.get() * 1e9 / elapsedNanos));
+    }
+
+    private UUID createProduct() {
+        Product product = new Product();
+        product.setName("Hot product");
+        product.setSku("HOT-" + UUID.randomUUID());
+        product.setPrice(BigDecimal.TEN);
+        Inventory inventory = new Inventory();
+        inventory.setProduct(product);
+        inventory.setStockQuantity(STOCK);
+        product.setInventory(inventory);
+        return productRepository.save(product).getId();
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.toubson.modulith.catalog.application;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void decode_shouldRestoreEncodedCursor() {
+        // Given
+        KeysetCursor cursor = new KeysetCursor("NAME", Sort.Direction.DESC, "Shirt\nwith: separators", UUID.randomUUID());
+
+        // When
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode(), "NAME", Sort.Direction.DESC);
+
+        // Then
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_shouldRejectCursor_issuedForAnotherSort() {
+        // Given
+        String token = new KeysetCursor("PRICE", Sort.Direction.ASC, "10.00", UUID.randomUUID()).encode();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(token, "NAME", Sort.Direction.ASC));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(token, "PRICE", Sort.Direction.DESC));
+    }
+
+    @Test
+    void decode_shouldRejectMalformedToken() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor", "NAME", Sort.Direction.ASC));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("Zm9v", "NAME", Sort.Direction.ASC));
+    }
+}
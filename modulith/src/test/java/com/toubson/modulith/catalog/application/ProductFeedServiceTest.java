@@ -0,0 +1,201 @@
+package com.toubson.modulith.catalog.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.toubson.modulith.catalog.domain.InventoryTrackingStrategy;
+import com.toubson.modulith.catalog.domain.ProductFeedFormat;
+import com.toubson.modulith.catalog.infrastructure.ProductFeedRepository;
+import com.toubson.modulith.catalog.infrastructure.ProductFeedRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFeedServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-01T08:00:00Z");
+    private static final UUID FIRST_SHARD_PRODUCT = new UUID(0x0123_4567_89AB_CDEFL, 1L);
+    private static final UUID LAST_SHARD_PRODUCT = new UUID(0xFC00_0000_0000_0001L, 2L);
+
+    @Mock
+    private ProductFeedRepository feedRepository;
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProductFeedService feedService;
+
+    @BeforeEach
+    void setUp() {
+        feedService = newService(NOW);
+    }
+
+    @Test
+    void run_OnFirstRun_WritesEveryShardAndTheSitemapIndex() throws IOException {
+        // Arrange
+        when(feedRepository.findFirstInShard(anyInt(), eq(100))).thenReturn(List.of());
+        when(feedRepository.findFirstInShard(0, 100)).thenReturn(List.of(product(FIRST_SHARD_PRODUCT, "Tee, \"basic\"",
+                "Soft & light", InventoryTrackingStrategy.FINITE, 0)));
+
+        // Act
+        feedService.run();
+
+        // Assert
+        verify(feedRepository, times(ProductFeedRepository.SHARDS)).findFirstInShard(anyInt(), eq(100));
+        verify(feedRepository, never()).findChangedShards(any());
+        String xml = read(feedService, "products-00.xml");
+        assertTrue(xml.contains("<title>Tee, &quot;basic&quot;</title>"));
+        assertTrue(xml.contains("<description>Soft &amp; light</description>"));
+        assertTrue(xml.contains("<g:price>19.90 EUR</g:price><g:availability>out_of_stock</g:availability>"));
+        assertTrue(read(feedService, "products-00.csv").contains(
+                "TEE-1,\"Tee, \"\"basic\"\"\",Soft & light,https://shop.test/products/" + FIRST_SHARD_PRODUCT +
+                        ",19.90 EUR,out_of_stock,Clothing\r\n"));
+        String index = read(feedService, "sitemap.xml");
+        assertTrue(index.contains("<loc>https://api.test/catalog/feeds/sitemap-00.xml</loc>"));
+        assertFalse(index.contains("sitemap-01.xml"));
+        assertEquals(3 * ProductFeedRepository.SHARDS + 1, feedService.list().size());
+        assertTrue(Files.exists(directory.resolve("manifest.json")));
+        try (var files = Files.list(directory)) {
+            assertTrue(files.noneMatch(path -> path.toString().endsWith(".tmp")));
+        }
+        assertEquals(ProductFeedRepository.SHARDS, meterRegistry.get("catalog.feeds.shards").counter().count());
+    }
+
+    @Test
+    void run_AfterPreviousRun_RewritesOnlyChangedShards() throws IOException {
+        // Arrange
+        when(feedRepository.findFirstInShard(anyInt(), eq(100))).thenReturn(List.of());
+        feedService.run();
+        ProductFeedFile untouched = feedService.find("products-00.xml").orElseThrow();
+        Instant later = NOW.plusSeconds(300);
+        ProductFeedService restarted = newService(later);
+        when(feedRepository.findChangedShards(NOW.minusMillis(60_000))).thenReturn(List.of(63));
+        when(feedRepository.findFirstInShard(63, 100)).thenReturn(List.of(product(LAST_SHARD_PRODUCT, "Mug", null,
+                InventoryTrackingStrategy.NOT_TRACKED, null)));
+
+        // Act
+        restarted.run();
+
+        // Assert
+        verify(feedRepository, times(ProductFeedRepository.SHARDS + 1)).findFirstInShard(anyInt(), eq(100));
+        assertEquals(untouched, restarted.find("products-00.xml").orElseThrow());
+        ProductFeedFile rewritten = restarted.find("sitemap-63.xml").orElseThrow();
+        assertEquals(later, rewritten.lastModified());
+        assertEquals(1, rewritten.products());
+        assertTrue(read(restarted, "products-63.xml")
+                .contains("<description>Mug</description>"));
+        assertTrue(read(restarted, "sitemap.xml").contains("sitemap-63.xml"));
+    }
+
+    @Test
+    void init_WhenFileMissing_RewritesEveryShard() throws IOException {
+        // Arrange
+        when(feedRepository.findFirstInShard(anyInt(), eq(100))).thenReturn(List.of());
+        feedService.run();
+        Files.delete(feedService.path(feedService.find("products-07.csv").orElseThrow()));
+        ProductFeedService restarted = newService(NOW.plusSeconds(300));
+
+        // Act
+        restarted.run();
+
+        // Assert
+        verify(feedRepository, never()).findChangedShards(any());
+        verify(feedRepository, times(2 * ProductFeedRepository.SHARDS)).findFirstInShard(anyInt(), eq(100));
+        assertTrue(Files.exists(restarted.path(restarted.find("products-07.csv").orElseThrow())));
+    }
+
+    @Test
+    void path_StoresContentUnderItsEntityTag() throws IOException, NoSuchAlgorithmException {
+        // Arrange
+        when(feedRepository.findFirstInShard(anyInt(), eq(100))).thenReturn(List.of());
+        when(feedRepository.findFirstInShard(0, 100)).thenReturn(List.of(product(FIRST_SHARD_PRODUCT, "Tee", null,
+                InventoryTrackingStrategy.FINITE, 5)));
+        feedService.run();
+
+        // Act
+        ProductFeedFile file = feedService.find("products-00.xml").orElseThrow();
+        byte[] content = Files.readAllBytes(feedService.path(file));
+
+        // Assert
+        assertEquals(content.length, file.size());
+        assertEquals(ProductFeedFormat.MERCHANT_XML, file.format());
+        String digest = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content), 0, 16);
+        assertEquals("\"" + digest + "\"", file.etag());
+        assertEquals(directory.resolve("products-00." + digest + ".xml"), feedService.path(file));
+        assertTrue(feedService.find("products-64.xml").isEmpty());
+    }
+
+    @Test
+    void run_KeepsSupersededVersions_UntilTheirRetentionHasPassed() throws IOException {
+        // Arrange
+        when(feedRepository.findFirstInShard(anyInt(), eq(100))).thenReturn(List.of());
+        feedService.run();
+        Path first = feedService.path(feedService.find("products-00.xml").orElseThrow());
+        when(feedRepository.findFirstInShard(0, 100)).thenReturn(List.of(product(FIRST_SHARD_PRODUCT, "Tee", null,
+                InventoryTrackingStrategy.FINITE, 5)));
+        ReflectionTestUtils.setField(feedService, "fullInterval", 0L);
+
+        // Act & Assert
+        feedService.run();
+        Path second = feedService.path(feedService.find("products-00.xml").orElseThrow());
+        assertNotEquals(first, second);
+        assertTrue(Files.exists(first));
+
+        ReflectionTestUtils.setField(feedService, "clock", Clock.fixed(NOW.plusSeconds(600), ZoneOffset.UTC));
+        feedService.run();
+        assertFalse(Files.exists(first));
+        assertTrue(Files.exists(second));
+    }
+
+    private ProductFeedService newService(Instant now) {
+        ProductFeedService service = new ProductFeedService(feedRepository, objectMapper, meterRegistry,
+                new SyncTaskExecutor());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "directory", directory);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        ReflectionTestUtils.setField(service, "productUrl", "https://shop.test/products/");
+        ReflectionTestUtils.setField(service, "feedUrl", "https://api.test/catalog/feeds/");
+        ReflectionTestUtils.setField(service, "currency", "EUR");
+        ReflectionTestUtils.setField(service, "overlap", 60_000L);
+        ReflectionTestUtils.setField(service, "fullInterval", 86_400_000L);
+        ReflectionTestUtils.setField(service, "supersededRetention", 600_000L);
+        ReflectionTestUtils.setField(service, "clock", Clock.fixed(now, ZoneOffset.UTC));
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    private static String read(ProductFeedService service, String name) throws IOException {
+        return Files.readString(service.path(service.find(name).orElseThrow()));
+    }
+
+    private static ProductFeedRow product(UUID id, String name, String description,
+                                          InventoryTrackingStrategy strategy, Integer stock) {
+        return new ProductFeedRow(id, "TEE-1", name, description, new BigDecimal("19.90"), "Clothing", strategy,
+                stock, 0, NOW.minusSeconds(3600));
+    }
+}
@@ -0,0 +1,115 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.ProductType;
+import com.toubson.modulith.catalog.dto.ProductHitResponse;
+import com.toubson.modulith.catalog.exception.SearchIndexUnavailableException;
+import com.toubson.modulith.catalog.infrastructure.*;
+import com.toubson.modulith.shared.events.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private TagRepository tagRepository;
+    @Mock
+    private ProductVariantRepository variantRepository;
+    private ProductSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ProductSearchIndex(productRepository, tagRepository, variantRepository, new SimpleMeterRegistry(),
+                new SyncTaskExecutor());
+        ReflectionTestUtils.setField(searchIndex, "enabled", true);
+        ReflectionTestUtils.setField(searchIndex, "buildParallelism", 2);
+        ReflectionTestUtils.setField(searchIndex, "batchSize", 2);
+        ReflectionTestUtils.setField(searchIndex, "maxDeletedRatio", 10.0);
+        ReflectionTestUtils.invokeMethod(searchIndex, "init");
+    }
+
+    @Test
+    void search_shouldFail_beforeFirstBuild() {
+        assertThrows(SearchIndexUnavailableException.class, () -> searchIndex.search("socks", 10));
+    }
+
+    @Test
+    void rebuild_shouldIndexEveryPartition_withTagsAndVariants() {
+        // Given two products in different partitions, the first one on two pages
+        ProductIndexRow socks = row(new UUID(0L, 1L), "Wool socks", "SOC-1");
+        ProductIndexRow hat = row(new UUID(0L, 2L), "Cotton hat", "HAT-1");
+        ProductIndexRow scarf = row(new UUID(0xF000000000000000L, 1L), "Silk scarf", "SCA-1");
+        when(productRepository.findIndexRowsInRange(any(), any(), eq(Limit.of(2)))).thenReturn(List.of());
+        when(productRepository.findIndexRowsInRange(eq(new UUID(0L, 0L)), any(), eq(Limit.of(2))))
+                .thenReturn(List.of(socks, hat));
+        when(productRepository.findIndexRowsInRangeAfter(eq(hat.id()), any(), eq(Limit.of(2)))).thenReturn(List.of());
+        when(productRepository.findIndexRowsInRange(eq(new UUID(0xF000000000000000L, 0L)), any(), eq(Limit.of(2))))
+                .thenReturn(List.of(scarf));
+        when(tagRepository.findRowsByProductIds(anyCollection())).thenReturn(List.of());
+        when(tagRepository.findRowsByProductIds(List.of(socks.id(), hat.id()))).thenReturn(List.of(
+                new ProductTagRow(hat.id(), UUID.randomUUID(), "Winter", "winter")));
+        when(variantRepository.findIndexRowsByProductIds(anyCollection())).thenReturn(List.of());
+        when(variantRepository.findIndexRowsByProductIds(List.of(scarf.id()))).thenReturn(List.of(
+                new VariantIndexRow(scarf.id(), "Long red", "SCA-1-RED")));
+
+        // When
+        searchIndex.rebuild();
+
+        // Then
+        assertTrue(searchIndex.isReady());
+        assertEquals(List.of(socks.id()), ids(searchIndex.search("wool socks", 10)));
+        assertEquals(List.of(hat.id()), ids(searchIndex.search("winter", 10)));
+        assertEquals(List.of(scarf.id()), ids(searchIndex.search("red scarf", 10)));
+        assertTrue(searchIndex.search("the", 10).isEmpty());
+    }
+
+    @Test
+    void refresh_shouldReindexChangedProducts_andDropMissingOnes() {
+        // Given
+        ProductIndexRow socks = row(new UUID(0L, 1L), "Wool socks", "SOC-1");
+        ProductIndexRow hat = row(new UUID(0L, 2L), "Cotton hat", "HAT-1");
+        when(productRepository.findIndexRowsInRange(any(), any(), any())).thenReturn(List.of());
+        when(productRepository.findIndexRowsInRange(eq(new UUID(0L, 0L)), any(), any())).thenReturn(List.of(socks, hat));
+        when(productRepository.findIndexRowsInRangeAfter(any(), any(), any())).thenReturn(List.of());
+        searchIndex.rebuild();
+
+        ProductIndexRow renamed = row(socks.id(), "Cashmere socks", "SOC-1");
+        when(productRepository.findIndexRowsByIds(anyCollection())).thenReturn(List.of(renamed));
+
+        // When
+        searchIndex.onProductChanged(new ProductChangedEvent(socks.id()));
+        searchIndex.onProductChanged(new ProductChangedEvent(hat.id()));
+        searchIndex.refresh();
+
+        // Then
+        assertEquals(List.of(socks.id()), ids(searchIndex.search("cashmere", 10)));
+        assertTrue(searchIndex.search("wool", 10).isEmpty());
+        assertTrue(searchIndex.search("hat", 10).isEmpty());
+        verify(productRepository, times(1)).findIndexRowsByIds(anyCollection());
+    }
+
+    private static ProductIndexRow row(UUID id, String name, String sku) {
+        return new ProductIndexRow(id, name, sku, null, BigDecimal.TEN, ProductType.STANDARD);
+    }
+
+    private static List<UUID> ids(List<ProductHitResponse> hits) {
+        return hits.stream().map(ProductHitResponse::id).toList();
+    }
+}
@@ -0,0 +1,122 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.exception.SearchIndexUnavailableException;
+import com.toubson.modulith.catalog.infrastructure.ProductTagNameRow;
+import com.toubson.modulith.catalog.infrastructure.TagRepository;
+import com.toubson.modulith.shared.events.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductTagIndexTest {
+
+    @Mock
+    private TagRepository tagRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductTagIndex tagIndex;
+
+    private final UUID socks = new UUID(0L, 1L);
+    private final UUID hat = new UUID(0L, 2L);
+    private final UUID scarf = new UUID(0L, 3L);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tagIndex = new ProductTagIndex(tagRepository, meterRegistry, new SyncTaskExecutor());
+        ReflectionTestUtils.setField(tagIndex, "enabled", true);
+        ReflectionTestUtils.setField(tagIndex, "batchSize", 2);
+        ReflectionTestUtils.invokeMethod(tagIndex, "init");
+    }
+
+    @Test
+    void findProductIds_BeforeFirstBuild_ThrowsException() {
+        // Act & Assert
+        assertThrows(SearchIndexUnavailableException.class, () -> tagIndex.findProductIds(List.of("Wool"), true, null, 10));
+        assertFalse(tagIndex.isReady());
+    }
+
+    @Test
+    void reconcile_PagesThroughAssignments_AndMatchesAllOrAny() {
+        // Arrange
+        givenAssignments(
+                new ProductTagNameRow(socks, "Winter"),
+                new ProductTagNameRow(socks, "Wool"),
+                new ProductTagNameRow(hat, "Winter"),
+                new ProductTagNameRow(scarf, "Wool"));
+
+        // Act
+        tagIndex.reconcile();
+
+        // Assert
+        assertTrue(tagIndex.isReady());
+        assertEquals(List.of(socks), tagIndex.findProductIds(List.of("Wool", "Winter"), true, null, 10));
+        assertEquals(List.of(socks, hat, scarf), tagIndex.findProductIds(List.of("Wool", "Winter"), false, null, 10));
+        assertEquals(List.of(hat), tagIndex.findProductIds(List.of("Wool", "Winter"), false, socks, 1));
+        assertTrue(tagIndex.findProductIds(List.of("Wool", "Silk"), true, null, 10).isEmpty());
+    }
+
+    @Test
+    void refresh_WithChangedProducts_AppliesTheirTags() {
+        // Arrange
+        givenAssignments(
+                new ProductTagNameRow(socks, "Wool"),
+                new ProductTagNameRow(hat, "Winter"));
+        tagIndex.reconcile();
+        when(tagRepository.findTagNameRowsByProductIds(anyCollection())).thenReturn(List.of(
+                new ProductTagNameRow(scarf, "Wool")));
+        tagIndex.onProductChanged(new ProductChangedEvent(scarf));
+        tagIndex.onProductChanged(new ProductChangedEvent(socks));
+
+        // Act
+        tagIndex.refresh();
+
+        // Assert
+        assertEquals(List.of(scarf), tagIndex.findProductIds(List.of("Wool"), true, null, 10));
+        assertEquals(List.of(hat), tagIndex.findProductIds(List.of("Winter"), true, null, 10));
+    }
+
+    @Test
+    void reconcile_WithDriftedIndex_CountsDriftedProducts() {
+        // Arrange
+        givenAssignments(
+                new ProductTagNameRow(socks, "Wool"),
+                new ProductTagNameRow(hat, "Winter"));
+        tagIndex.reconcile();
+        givenAssignments(
+                new ProductTagNameRow(socks, "Wool"),
+                new ProductTagNameRow(hat, "Wool"),
+                new ProductTagNameRow(scarf, "Silk"));
+
+        // Act
+        tagIndex.reconcile();
+
+        // Assert
+        assertEquals(2.0, meterRegistry.get("catalog.tags.index.drift").counter().count());
+        assertEquals(List.of(socks, hat), tagIndex.findProductIds(List.of("Wool"), true, null, 10));
+    }
+
+    private void givenAssignments(ProductTagNameRow... rows) {
+        List<ProductTagNameRow> all = List.of(rows);
+        List<ProductTagNameRow> firstPage = all.subList(0, Math.min(2, all.size()));
+        when(tagRepository.findTagNameRows(Limit.of(2))).thenReturn(firstPage);
+        if (all.size() >= 2) {
+            ProductTagNameRow last = firstPage.get(1);
+            when(tagRepository.findTagNameRowsAfter(last.productId(), last.tagName(), Limit.of(2)))
+                    .thenReturn(all.subList(2, all.size()));
+        }
+    }
+}
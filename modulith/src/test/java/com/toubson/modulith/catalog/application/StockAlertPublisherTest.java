@@ -0,0 +1,93 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.infrastructure.StockLevelRow;
+import com.toubson.modulith.shared.events.BackInStockEvent;
+import com.toubson.modulith.shared.events.LowStockEvent;
+import com.toubson.modulith.shared.events.OutOfStockEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockAlertPublisherTest {
+
+    @Mock
+    private ApplicationEventPublisher publisher;
+    @InjectMocks
+    private StockAlertPublisher alertPublisher;
+
+    private final UUID inventoryId = UUID.randomUUID();
+    private final UUID productId = UUID.randomUUID();
+
+    @Test
+    void publishCrossings_WhenCommitReachesThreshold_PublishesLowStock() {
+        // Arrange: 7 in stock before committing 2, threshold 5
+        StockLevelRow after = new StockLevelRow(inventoryId, productId, null, 5, 0, 5);
+
+        // Act
+        alertPublisher.publishCrossings(after, -2, -2);
+
+        // Assert
+        verify(publisher).publishEvent(new LowStockEvent(productId, null, 5, 5));
+        verifyNoMoreInteractions(publisher);
+    }
+
+    @Test
+    void publishCrossings_WhenAlreadyLowInStock_PublishesNothing() {
+        // Arrange: 4 in stock before committing 1, threshold 5
+        StockLevelRow after = new StockLevelRow(inventoryId, productId, null, 3, 0, 5);
+
+        // Act
+        alertPublisher.publishCrossings(after, -1, -1);
+
+        // Assert
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    void publishCrossings_WhenReservationTakesLastUnits_PublishesOutOfStock() {
+        // Arrange
+        UUID variantId = UUID.randomUUID();
+        StockLevelRow after = new StockLevelRow(inventoryId, productId, variantId, 8, 8, null);
+
+        // Act
+        alertPublisher.publishCrossings(after, 0, 3);
+
+        // Assert
+        verify(publisher).publishEvent(new OutOfStockEvent(productId, variantId));
+        verifyNoMoreInteractions(publisher);
+    }
+
+    @Test
+    void publishCrossings_WhenReleaseFreesStock_PublishesBackInStock() {
+        // Arrange
+        StockLevelRow after = new StockLevelRow(inventoryId, productId, null, 8, 6, 2);
+
+        // Act
+        alertPublisher.publishCrossings(after, 0, -2);
+
+        // Assert
+        verify(publisher).publishEvent(new BackInStockEvent(productId, null, 2));
+        verifyNoMoreInteractions(publisher);
+    }
+
+    @Test
+    void publishCrossings_WhenStockIsNotTracked_PublishesNothing() {
+        // Arrange
+        StockLevelRow after = new StockLevelRow(inventoryId, productId, null, null, 0, 5);
+
+        // Act
+        alertPublisher.publishCrossings(after, 0, 1);
+
+        // Assert
+        verify(publisher, never()).publishEvent(any(Object.class));
+    }
+}
@@ -0,0 +1,115 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.infrastructure.StockBalanceRow;
+import com.toubson.modulith.catalog.infrastructure.StockMovementRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockJournalServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-05-15T12:00:00Z");
+
+    @Mock
+    private StockMovementRepository movementRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StockJournalService journalService;
+
+    @BeforeEach
+    void setUp() {
+        journalService = new StockJournalService(movementRepository, meterRegistry);
+        ReflectionTestUtils.setField(journalService, "retentionMonths", 3);
+        ReflectionTestUtils.setField(journalService, "partitionsAhead", 2);
+        ReflectionTestUtils.setField(journalService, "verifyEnabled", true);
+        ReflectionTestUtils.setField(journalService, "verifyLimit", 100);
+        ReflectionTestUtils.setField(journalService, "clock", Clock.fixed(NOW, ZoneOffset.UTC));
+        ReflectionTestUtils.invokeMethod(journalService, "init");
+        clearInvocations(movementRepository);
+    }
+
+    @Test
+    void snapshot_FoldsMovementsAtCurrentTime() {
+        // Arrange
+        when(movementRepository.snapshot(NOW)).thenReturn(7);
+
+        // Act
+        int snapshots = journalService.snapshot();
+
+        // Assert
+        assertEquals(7, snapshots);
+    }
+
+    @Test
+    void compact_CreatesUpcomingPartitionsAndDropsThoseBeforeRetention() {
+        // Arrange
+        when(movementRepository.dropCompactedPartitionsBefore(YearMonth.of(2026, 2))).thenReturn(List.of());
+
+        // Act
+        journalService.compact();
+
+        // Assert
+        verify(movementRepository).createPartition(YearMonth.of(2026, 5));
+        verify(movementRepository).createPartition(YearMonth.of(2026, 6));
+        verify(movementRepository).createPartition(YearMonth.of(2026, 7));
+        verify(movementRepository, times(3)).createPartition(any());
+        verify(movementRepository).deleteOrphanSnapshots();
+    }
+
+    @Test
+    void init_CreatesCurrentAndNextPartitionsEvenWithoutPartitionsAhead() {
+        // Arrange
+        ReflectionTestUtils.setField(journalService, "partitionsAhead", 0);
+
+        // Act
+        ReflectionTestUtils.invokeMethod(journalService, "init");
+
+        // Assert
+        verify(movementRepository).createPartition(YearMonth.of(2026, 5));
+        verify(movementRepository).createPartition(YearMonth.of(2026, 6));
+        verify(movementRepository, times(2)).createPartition(any());
+    }
+
+    @Test
+    void verify_WhenStockDrifted_CountsInconsistentInventories() {
+        // Arrange
+        StockBalanceRow drifted = new StockBalanceRow("PRODUCT", UUID.randomUUID(), 10, 2, 12, 2);
+        when(movementRepository.findDrift(100)).thenReturn(List.of(drifted));
+
+        // Act
+        List<StockBalanceRow> drift = journalService.verify();
+
+        // Assert
+        assertEquals(List.of(drifted), drift);
+        assertEquals(1.0, meterRegistry.get("catalog.stock.journal.drift").counter().count());
+    }
+
+    @Test
+    void verify_WhenDisabled_SkipsVerification() {
+        // Arrange
+        ReflectionTestUtils.setField(journalService, "verifyEnabled", false);
+
+        // Act
+        List<StockBalanceRow> drift = journalService.verify();
+
+        // Assert
+        assertTrue(drift.isEmpty());
+        verifyNoInteractions(movementRepository);
+    }
+}
@@ -0,0 +1,101 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.StockMovementType;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository.Owner;
+import com.toubson.modulith.catalog.infrastructure.StockMovementRepository;
+import com.toubson.modulith.catalog.infrastructure.StockMovementRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockJournalTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    @Mock
+    private StockMovementRepository movementRepository;
+
+    private StockJournal journal;
+    private final UUID inventoryId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        journal = new StockJournal(movementRepository);
+        ReflectionTestUtils.setField(journal, "clock", Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(journal);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void append_InTransaction_WritesAllMovementsInOneInsertBeforeCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        journal.append(Owner.PRODUCT, inventoryId, StockMovementType.RESERVATION, 0, 2);
+        journal.append(Owner.PRODUCT, inventoryId, StockMovementType.SALE, -2, -2);
+        verifyNoInteractions(movementRepository);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        assertEquals(1, synchronizations.size());
+        ArgumentCaptor<List<StockMovementRow>> movements = ArgumentCaptor.forClass(List.class);
+        verify(movementRepository).insertAll(movements.capture());
+        assertEquals(List.of(
+                new StockMovementRow(Owner.PRODUCT, inventoryId, StockMovementType.RESERVATION, 0, 2, NOW),
+                new StockMovementRow(Owner.PRODUCT, inventoryId, StockMovementType.SALE, -2, -2, NOW)), movements.getValue());
+        assertFalse(TransactionSynchronizationManager.hasResource(journal));
+    }
+
+    @Test
+    void append_InRolledBackTransaction_WritesNothing() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        journal.append(Owner.VARIANT, inventoryId, StockMovementType.RELEASE, 0, -1);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        verify(movementRepository, never()).insertAll(anyList());
+        assertFalse(TransactionSynchronizationManager.hasResource(journal));
+    }
+
+    @Test
+    void append_WithoutTransaction_WritesRightAway() {
+        // Act
+        journal.append(Owner.PRODUCT, inventoryId, StockMovementType.RECEIPT, 10, 0);
+
+        // Assert
+        verify(movementRepository).insertAll(List.of(
+                new StockMovementRow(Owner.PRODUCT, inventoryId, StockMovementType.RECEIPT, 10, 0, NOW)));
+    }
+}
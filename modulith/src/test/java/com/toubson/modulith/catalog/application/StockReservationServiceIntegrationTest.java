@@ -0,0 +1,133 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.domain.Inventory;
+import com.toubson.modulith.catalog.domain.Product;
+import com.toubson.modulith.catalog.infrastructure.InventoryBatchRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryStockRepository;
+import com.toubson.modulith.catalog.infrastructure.InventoryStripeRepository;
+import com.toubson.modulith.catalog.infrastructure.StockMovementRepository;
+import com.toubson.modulith.catalog.infrastructure.ProductRepository;
+import com.toubson.modulith.catalog.infrastructure.StockReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reservations against a real database: expiry deletes the reservations and releases their stock
+ * in one transaction, and a reservation released, committed or expired once is never applied again.
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({StockReservationService.class, StockReservationRepository.class, InventoryCommandService.class,
+        InventoryStripeRepository.class, InventoryBatchRepository.class, InventoryStockRepository.class,
+        StockAlertPublisher.class, StockJournal.class, StockMovementRepository.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationServiceIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest");
+    @Autowired
+    private StockReservationService reservationService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    private UUID productId;
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        Product product = new Product();
+        product.setName("Reserved product");
+        product.setSku("RESERVED-" + UUID.randomUUID());
+        product.setPrice(BigDecimal.TEN);
+        Inventory inventory = new Inventory();
+        inventory.setProduct(product);
+        inventory.setStockQuantity(10);
+        product.setInventory(inventory);
+        productId = productRepository.save(product).getId();
+    }
+
+    @Test
+    void sweep_shouldReleaseStockOfExpiredReservations_once() throws Exception {
+        // Given
+        reservationService.reserve("cart-1", productId, 2, Duration.ofMillis(1));
+        reservationService.reserve("cart-2", productId, 3, Duration.ofMillis(1));
+        StockReservationResult pending = reservationService.reserve("cart-3", productId, 1, Duration.ofHours(1));
+        Thread.sleep(50);
+
+        // When
+        int swept = reservationService.sweep();
+        int sweptAgain = reservationService.sweep();
+
+        // Then
+        assertEquals(2, swept);
+        assertEquals(0, sweptAgain);
+        assertEquals(1, inventoryRepository.findByProductId(productId).orElseThrow().getReservedQuantity());
+        assertEquals(1, reservationService.findReservations("cart-3").size());
+        assertEquals(pending.reservation().id(), reservationService.findReservations("cart-3").get(0).id());
+    }
+
+    @Test
+    void commit_shouldRemoveStock_andLeaveNothingToExpire() throws Exception {
+        // Given
+        StockReservationResult result = reservationService.reserve("cart-1", productId, 4, Duration.ofMillis(1));
+
+        // When
+        StockCommandResult committed = reservationService.commit(result.reservation().id());
+        StockCommandResult committedAgain = reservationService.commit(result.reservation().id());
+        Thread.sleep(50);
+        int swept = reservationService.sweep();
+
+        // Then
+        Inventory inventory = inventoryRepository.findByProductId(productId).orElseThrow();
+        assertEquals(StockCommandResult.APPLIED, committed);
+        assertEquals(StockCommandResult.NOT_FOUND, committedAgain);
+        assertEquals(0, swept);
+        assertEquals(6, inventory.getStockQuantity());
+        assertEquals(0, inventory.getReservedQuantity());
+    }
+
+    @Test
+    void releaseAll_shouldReleaseEveryReservationOfTheOwner() {
+        // Given
+        reservationService.reserve("cart-1", productId, 2, null);
+        reservationService.reserve("cart-1", productId, 3, null);
+        reservationService.reserve("cart-2", productId, 1, null);
+
+        // When
+        int released = reservationService.releaseAll("cart-1");
+
+        // Then
+        assertEquals(2, released);
+        assertEquals(1, inventoryRepository.findByProductId(productId).orElseThrow().getReservedQuantity());
+        assertTrue(reservationService.findReservations("cart-1").isEmpty());
+    }
+}
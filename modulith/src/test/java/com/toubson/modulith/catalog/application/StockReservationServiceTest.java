@@ -0,0 +1,232 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.infrastructure.StockReservationRepository;
+import com.toubson.modulith.catalog.infrastructure.StockReservationRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    @Mock
+    private StockReservationRepository reservationRepository;
+
+    @Mock
+    private InventoryCommandService inventoryCommandService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StockReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = new StockReservationService(reservationRepository, inventoryCommandService, meterRegistry,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(reservationService, "tick", 1000L);
+        ReflectionTestUtils.setField(reservationService, "defaultTtl", 900_000L);
+        ReflectionTestUtils.setField(reservationService, "maxTtl", 3_600_000L);
+        ReflectionTestUtils.setField(reservationService, "batchSize", 2);
+        setClock(NOW);
+        ReflectionTestUtils.invokeMethod(reservationService, "init");
+    }
+
+    @Test
+    void reserve_WithStock_RecordsAndSchedulesReservation() {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        when(inventoryCommandService.reserve(productId, 3)).thenReturn(StockCommandResult.APPLIED);
+
+        // Act
+        StockReservationResult result = reservationService.reserve("cart-1", productId, 3, Duration.ofMinutes(5));
+
+        // Assert
+        assertEquals(StockCommandResult.APPLIED, result.result());
+        assertEquals(NOW.plus(Duration.ofMinutes(5)), result.reservation().expiresAt());
+        ArgumentCaptor<StockReservationRow> saved = ArgumentCaptor.forClass(StockReservationRow.class);
+        verify(reservationRepository).insert(saved.capture(), eq(NOW));
+        assertEquals(new StockReservationRow(result.reservation().id(), "cart-1", productId, null, 3,
+                NOW.plus(Duration.ofMinutes(5))), saved.getValue());
+        assertEquals(1.0, meterRegistry.get("catalog.reservations.pending").gauge().value());
+    }
+
+    @Test
+    void reserve_WithInsufficientStock_RecordsNothing() {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        when(inventoryCommandService.reserve(productId, 3)).thenReturn(StockCommandResult.INSUFFICIENT_STOCK);
+
+        // Act
+        StockReservationResult result = reservationService.reserve("cart-1", productId, 3, null);
+
+        // Assert
+        assertEquals(StockCommandResult.INSUFFICIENT_STOCK, result.result());
+        assertNull(result.reservation());
+        verify(reservationRepository, never()).insert(any(), any());
+    }
+
+    @Test
+    void reserve_WithDurationAboveMaximum_ThrowsException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> reservationService.reserve("cart-1", UUID.randomUUID(), 1, Duration.ofHours(2)));
+        verifyNoInteractions(inventoryCommandService);
+    }
+
+    @Test
+    void reserveVariant_WithoutOwner_ThrowsException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> reservationService.reserveVariant(" ", UUID.randomUUID(), 1, null));
+        verifyNoInteractions(inventoryCommandService);
+    }
+
+    @Test
+    void release_PendingVariantReservation_ReleasesVariantStock() {
+        // Arrange
+        UUID reservationId = UUID.randomUUID();
+        UUID variantId = UUID.randomUUID();
+        when(reservationRepository.delete(reservationId)).thenReturn(Optional.of(
+                new StockReservationRow(reservationId, "cart-1", null, variantId, 2, NOW)));
+        when(inventoryCommandService.releaseVariant(variantId, 2)).thenReturn(StockCommandResult.APPLIED);
+
+        // Act
+        StockCommandResult result = reservationService.release(reservationId);
+
+        // Assert
+        assertEquals(StockCommandResult.APPLIED, result);
+    }
+
+    @Test
+    void commit_AlreadyExpiredReservation_ReturnsNotFound() {
+        // Arrange
+        UUID reservationId = UUID.randomUUID();
+        when(reservationRepository.delete(reservationId)).thenReturn(Optional.empty());
+
+        // Act
+        StockCommandResult result = reservationService.commit(reservationId);
+
+        // Assert
+        assertEquals(StockCommandResult.NOT_FOUND, result);
+        verifyNoInteractions(inventoryCommandService);
+    }
+
+    @Test
+    void expire_AfterDeadline_ExpiresDueReservationsInBatches() {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        when(inventoryCommandService.reserve(eq(productId), anyInt())).thenReturn(StockCommandResult.APPLIED);
+        for (int i = 0; i < 3; i++) {
+            reservationService.reserve("cart-" + i, productId, 1, Duration.ofMinutes(1));
+        }
+        reservationService.reserve("cart-late", productId, 1, Duration.ofMinutes(10));
+        when(reservationRepository.deleteExpired(anyCollection(), any())).thenAnswer(invocation ->
+                invocation.<List<UUID>>getArgument(0).stream()
+                        .map(id -> new StockReservationRow(id, "cart", productId, null, 1, NOW)).toList());
+        when(inventoryCommandService.releaseAll(anyList())).thenAnswer(invocation ->
+                invocation.<List<StockLine>>getArgument(0).stream()
+                        .map(line -> new StockLineResult(line, StockCommandResult.APPLIED)).toList());
+
+        // Act
+        setClock(NOW.plus(Duration.ofMinutes(1)).plusSeconds(1));
+        reservationService.expire();
+
+        // Assert
+        verify(reservationRepository, times(2)).deleteExpired(anyCollection(), eq(NOW.plus(Duration.ofMinutes(1)).plusSeconds(1)));
+        verify(inventoryCommandService).releaseAll(List.of(StockLine.product(productId, 1), StockLine.product(productId, 1)));
+        verify(inventoryCommandService).releaseAll(List.of(StockLine.product(productId, 1)));
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(3.0, meterRegistry.counter("catalog.reservations.expired").count());
+        assertEquals(1.0, meterRegistry.get("catalog.reservations.pending").gauge().value());
+    }
+
+    @Test
+    void restoreReservations_SchedulesPersistedReservations() {
+        // Arrange
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(reservationRepository.findAfter(null, 2)).thenReturn(List.of(
+                new StockReservationRow(first, "cart-1", UUID.randomUUID(), null, 1, NOW.minusSeconds(60)),
+                new StockReservationRow(second, "cart-1", UUID.randomUUID(), null, 1, NOW.plusSeconds(60))));
+        when(reservationRepository.findAfter(second, 2)).thenReturn(List.of(
+                new StockReservationRow(third, "cart-2", null, UUID.randomUUID(), 1, NOW.plusSeconds(3600))));
+        when(reservationRepository.deleteExpired(anyCollection(), any())).thenReturn(List.of());
+
+        // Act
+        reservationService.restoreReservations();
+        setClock(NOW.plusSeconds(1));
+        reservationService.expire();
+
+        // Assert
+        verify(reservationRepository).deleteExpired(List.of(first), NOW.plusSeconds(1));
+        verifyNoInteractions(inventoryCommandService);
+        assertEquals(2.0, meterRegistry.get("catalog.reservations.pending").gauge().value());
+    }
+
+    @Test
+    void sweep_WithExpiredReservations_ExpiresUntilNoneLeft() {
+        // Arrange
+        List<UUID> fullBatch = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> lastBatch = List.of(UUID.randomUUID());
+        UUID variantId = UUID.randomUUID();
+        when(reservationRepository.findExpiredIds(NOW, 2)).thenReturn(fullBatch, lastBatch);
+        when(reservationRepository.deleteExpired(anyCollection(), eq(NOW))).thenAnswer(invocation ->
+                invocation.<List<UUID>>getArgument(0).stream()
+                        .map(id -> new StockReservationRow(id, "cart", null, variantId, 1, NOW)).toList());
+        when(inventoryCommandService.releaseAll(anyList())).thenReturn(List.of());
+
+        // Act
+        int swept = reservationService.sweep();
+
+        // Assert
+        assertEquals(3, swept);
+        verify(reservationRepository, times(2)).findExpiredIds(NOW, 2);
+        verify(inventoryCommandService, times(2)).releaseAll(anyList());
+    }
+
+    @Test
+    void releaseAll_PendingReservations_ReleasesThemInOneBatch() {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        UUID variantId = UUID.randomUUID();
+        when(reservationRepository.deleteByOwner("cart-1")).thenReturn(List.of(
+                new StockReservationRow(UUID.randomUUID(), "cart-1", productId, null, 2, NOW),
+                new StockReservationRow(UUID.randomUUID(), "cart-1", null, variantId, 1, NOW)));
+
+        // Act
+        int released = reservationService.releaseAll("cart-1");
+
+        // Assert
+        assertEquals(2, released);
+        verify(inventoryCommandService).releaseAll(List.of(StockLine.product(productId, 2), StockLine.variant(variantId, 1)));
+        verify(inventoryCommandService, never()).release(any(), anyInt());
+    }
+
+    private void setClock(Instant instant) {
+        ReflectionTestUtils.setField(reservationService, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,117 @@
+package com.toubson.modulith.catalog.application;
+
+import com.toubson.modulith.catalog.dto.PopularTagCategoryResponse;
+import com.toubson.modulith.catalog.dto.PopularTagResponse;
+import com.toubson.modulith.catalog.infrastructure.TagCategoryCountRow;
+import com.toubson.modulith.catalog.infrastructure.TagCountRepository;
+import com.toubson.modulith.catalog.infrastructure.TagCountRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TagPopularityServiceTest {
+
+    private static final UUID FIRST = new UUID(0, 0);
+
+    @Mock
+    private TagCountRepository countRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TagPopularityService popularityService;
+
+    @BeforeEach
+    void setUp() {
+        popularityService = new TagPopularityService(countRepository, meterRegistry,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(popularityService, "verifyEnabled", true);
+        ReflectionTestUtils.setField(popularityService, "verifyBatchSize", 2);
+        ReflectionTestUtils.invokeMethod(popularityService, "init");
+    }
+
+    @Test
+    void findPopularTags_ServesSortedSnapshot_WithoutRequerying() {
+        // Arrange
+        when(countRepository.findTagCounts()).thenReturn(List.of(tag("cotton", 3), tag("wool", 12), tag("linen", 3)));
+        when(countRepository.findCategoryCounts()).thenReturn(List.of(
+                new TagCategoryCountRow(UUID.randomUUID(), "Material", "material", 18),
+                new TagCategoryCountRow(UUID.randomUUID(), "Season", "season", 25)));
+        popularityService.loadOnStartup();
+
+        // Act
+        List<PopularTagResponse> top = popularityService.findPopularTags(2);
+        List<PopularTagResponse> all = popularityService.findPopularTags(10);
+        List<PopularTagCategoryResponse> categories = popularityService.findPopularCategories(10);
+
+        // Assert
+        assertEquals(List.of("wool", "cotton"), top.stream().map(PopularTagResponse::name).toList());
+        assertEquals(List.of("wool", "cotton", "linen"), all.stream().map(PopularTagResponse::name).toList());
+        assertEquals(List.of("season", "material"), categories.stream().map(PopularTagCategoryResponse::slug).toList());
+        verify(countRepository, times(1)).findTagCounts();
+    }
+
+    @Test
+    void verify_WhenDrifted_CorrectsAndReloads() {
+        // Arrange
+        when(countRepository.findTagCounts()).thenReturn(List.of(tag("wool", 12))).thenReturn(List.of(tag("wool", 11)));
+        popularityService.loadOnStartup();
+        List<UUID> firstTags = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> lastTags = List.of(UUID.randomUUID());
+        List<UUID> categories = List.of(UUID.randomUUID());
+        when(countRepository.lockTags(FIRST, 2)).thenReturn(firstTags);
+        when(countRepository.lockTags(firstTags.getLast(), 2)).thenReturn(lastTags);
+        when(countRepository.recountTags(firstTags)).thenReturn(1);
+        when(countRepository.lockCategories(FIRST, 2)).thenReturn(categories);
+        when(countRepository.recountCategories(categories)).thenReturn(1);
+
+        // Act
+        int corrected = popularityService.verify();
+
+        // Assert
+        assertEquals(2, corrected);
+        InOrder inOrder = inOrder(countRepository, transactionManager);
+        inOrder.verify(countRepository).lockTags(FIRST, 2);
+        inOrder.verify(countRepository).recountTags(firstTags);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(countRepository).lockTags(firstTags.getLast(), 2);
+        inOrder.verify(countRepository).recountTags(lastTags);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(countRepository).lockCategories(FIRST, 2);
+        inOrder.verify(countRepository).recountCategories(categories);
+        assertEquals(11, popularityService.findPopularTags(1).getFirst().productCount());
+        assertEquals(2, meterRegistry.get("catalog.tags.counts.drift").counter().count());
+    }
+
+    @Test
+    void verify_WhenInSync_KeepsSnapshot() {
+        // Arrange
+        when(countRepository.findTagCounts()).thenReturn(List.of(tag("wool", 12)));
+        popularityService.loadOnStartup();
+
+        // Act
+        int corrected = popularityService.verify();
+
+        // Assert
+        assertEquals(0, corrected);
+        verify(countRepository, times(1)).findTagCounts();
+    }
+
+    private static TagCountRow tag(String name, int productCount) {
+        return new TagCountRow(UUID.randomUUID(), name, name, "Material", productCount);
+    }
+}
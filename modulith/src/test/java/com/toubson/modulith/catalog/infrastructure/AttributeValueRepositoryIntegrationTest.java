@@ -0,0 +1,107 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Attribute value counts against PostgreSQL: the triggers recording the changes of the variant attributes as
+ * deltas, the batches folding them into the counts, and the counts at zero left out then deleted.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(AttributeValueRepository.class)
+class AttributeValueRepositoryIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest");
+    @Autowired
+    private AttributeValueRepository valueRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Test
+    void applyDeltas_FoldsTheAttributeChangesInBatches() {
+        // Arrange
+        UUID productId = insertProduct();
+        UUID first = insertVariant(productId, "red");
+        insertVariant(productId, "red");
+        jdbcTemplate.update("UPDATE variant_attributes SET value = 'blue' WHERE variant_id = ?", first);
+
+        // Act
+        int firstBatch = valueRepository.applyDeltas(2);
+        int secondBatch = valueRepository.applyDeltas(2);
+        int thirdBatch = valueRepository.applyDeltas(2);
+
+        // Assert
+        assertEquals(2, firstBatch);
+        assertEquals(2, secondBatch);
+        assertEquals(0, thirdBatch);
+        assertEquals(List.of(row("blue", 1), row("red", 1)), valueRepository.findAll());
+    }
+
+    @Test
+    void findAll_LeavesOutCountsAtZero_UntilTheyAreDeleted() {
+        // Arrange
+        UUID productId = insertProduct();
+        UUID variantId = insertVariant(productId, "red");
+        valueRepository.applyDeltas(10);
+        jdbcTemplate.update("DELETE FROM product_variants WHERE id = ?", variantId);
+        valueRepository.applyDeltas(10);
+
+        // Act
+        List<AttributeValueRow> loaded = valueRepository.findAll();
+        int keptWhileRecent = valueRepository.deleteZeroCounts(Instant.now().minusSeconds(60));
+        int deleted = valueRepository.deleteZeroCounts(Instant.now().plusSeconds(60));
+
+        // Assert
+        assertTrue(loaded.isEmpty());
+        assertEquals(0, keptWhileRecent);
+        assertEquals(1, deleted);
+    }
+
+    private UUID insertProduct() {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO products (id, name, sku, price, created_at) VALUES (?, ?, ?, ?, now())",
+                id, "Oxford", "SKU-" + id, new BigDecimal("19.99"));
+        return id;
+    }
+
+    private UUID insertVariant(UUID productId, String color) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO product_variants (id, product_id, name, sku, created_at) VALUES (?, ?, ?, ?, now())",
+                id, productId, "Oxford " + color, "SKU-" + id);
+        jdbcTemplate.update("INSERT INTO variant_attributes (id, variant_id, name, value, created_at) " +
+                "VALUES (gen_random_uuid(), ?, 'color', ?, now())", id, color);
+        return id;
+    }
+
+    private static AttributeValueRow row(String value, int variantCount) {
+        return new AttributeValueRow("color", value, variantCount);
+    }
+}
@@ -0,0 +1,215 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Category product counts against PostgreSQL: the triggers keeping the listed products and the counts in
+ * sync as products, inventory and categories change, and the verification correcting drifted counts.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(CategoryCountRepository.class)
+class CategoryCountRepositoryIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest");
+    @Autowired
+    private CategoryCountRepository countRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Test
+    void insert_CountsTheProductInItsCategoryAndAncestors() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID shirts = insertCategory("Shirts", clothing);
+
+        // Act
+        insertProduct("Oxford", shirts);
+        insertProduct("Jacket", clothing);
+
+        // Assert
+        assertCounts(clothing, 1, 2);
+        assertCounts(shirts, 1, 1);
+    }
+
+    @Test
+    void inventory_UnlistsFiniteProductsOutOfStock_AndListsThemAgain() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID shirts = insertCategory("Shirts", clothing);
+        UUID oxford = insertProduct("Oxford", shirts);
+        UUID inventory = insertInventory(oxford, 5);
+
+        // Act & Assert
+        jdbcTemplate.update("UPDATE inventory SET stock_quantity = 0 WHERE id = ?", inventory);
+        assertCounts(clothing, 0, 0);
+        assertCounts(shirts, 0, 0);
+
+        jdbcTemplate.update("UPDATE inventory SET stock_quantity = 3 WHERE id = ?", inventory);
+        assertCounts(clothing, 0, 1);
+        assertCounts(shirts, 1, 1);
+    }
+
+    @Test
+    void productMove_MovesTheCountToTheNewCategory() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID shirts = insertCategory("Shirts", clothing);
+        UUID sale = insertCategory("Sale", null);
+        UUID oxford = insertProduct("Oxford", shirts);
+
+        // Act
+        jdbcTemplate.update("UPDATE products SET category_id = ? WHERE id = ?", sale, oxford);
+
+        // Assert
+        assertCounts(clothing, 0, 0);
+        assertCounts(shirts, 0, 0);
+        assertCounts(sale, 1, 1);
+    }
+
+    @Test
+    void categoryMove_ResumsTheSubtreeCounts() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID sale = insertCategory("Sale", null);
+        UUID shirts = insertCategory("Shirts", clothing);
+        insertProduct("Oxford", shirts);
+        insertProduct("Polo", shirts);
+
+        // Act
+        jdbcTemplate.update("UPDATE categories SET parent_id = ? WHERE id = ?", sale, shirts);
+
+        // Assert
+        assertCounts(clothing, 0, 0);
+        assertCounts(sale, 0, 2);
+        assertCounts(shirts, 2, 2);
+    }
+
+    @Test
+    void deactivation_UnlistsTheProduct() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID oxford = insertProduct("Oxford", clothing);
+
+        // Act
+        jdbcTemplate.update("UPDATE products SET active = false WHERE id = ?", oxford);
+
+        // Assert
+        assertCounts(clothing, 0, 0);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM category_listed_products", Integer.class));
+    }
+
+    @Test
+    void productMove_BetweenSubtrees_MovesTheCountOffEveryOldAncestor() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID shirts = insertCategory("Shirts", clothing);
+        UUID sale = insertCategory("Sale", null);
+        UUID clearance = insertCategory("Clearance", sale);
+        UUID oxford = insertProduct("Oxford", shirts);
+
+        // Act
+        jdbcTemplate.update("UPDATE products SET category_id = ? WHERE id = ?", clearance, oxford);
+
+        // Assert
+        assertCounts(clothing, 0, 0);
+        assertCounts(shirts, 0, 0);
+        assertCounts(sale, 0, 1);
+        assertCounts(clearance, 1, 1);
+    }
+
+    @Test
+    void recountCategories_AfterLockCounts_CorrectsDriftedCounts() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID shirts = insertCategory("Shirts", clothing);
+        UUID oxford = insertProduct("Oxford", shirts);
+        jdbcTemplate.update("UPDATE category_product_counts SET direct_count = 4, subtree_count = 9 WHERE category_id = ?",
+                shirts);
+
+        // Act
+        countRepository.insertMissingCounts();
+        int listings = countRepository.reconcileListings(countRepository.findProductIds(new UUID(0, 0), 10));
+        List<UUID> locked = countRepository.lockCounts(new UUID(0, 0), 10);
+        int corrected = countRepository.recountCategories(locked);
+
+        // Assert
+        assertEquals(List.of(oxford), countRepository.findProductIds(new UUID(0, 0), 10));
+        assertEquals(Set.of(clothing, shirts), Set.copyOf(locked));
+        assertEquals(0, listings);
+        assertEquals(1, corrected);
+        assertCounts(clothing, 0, 1);
+        assertCounts(shirts, 1, 1);
+    }
+
+    @Test
+    void reconcileListings_OnlyRepairsTheGivenProducts() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID oxford = insertProduct("Oxford", clothing);
+        insertProduct("Polo", clothing);
+        jdbcTemplate.update("DELETE FROM category_listed_products");
+
+        // Act
+        int listings = countRepository.reconcileListings(List.of(oxford));
+
+        // Assert
+        assertEquals(1, listings);
+        assertEquals(List.of(oxford), jdbcTemplate.queryForList("SELECT product_id FROM category_listed_products",
+                UUID.class));
+        assertCounts(clothing, 1, 1);
+    }
+
+    private void assertCounts(UUID categoryId, int direct, int subtree) {
+        assertEquals(new CategoryCountRow(categoryId, direct, subtree), countRepository.findCounts(categoryId).orElseThrow());
+    }
+
+    private UUID insertCategory(String name, UUID parentId) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO categories (id, name, slug, parent_id, created_at) VALUES (?, ?, ?, ?, now())",
+                id, name, name.toLowerCase() + "-" + id, parentId);
+        return id;
+    }
+
+    private UUID insertProduct(String name, UUID categoryId) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO products (id, name, sku, price, category_id, created_at) VALUES (?, ?, ?, ?, ?, now())",
+                id, name, "SKU-" + id, new BigDecimal("19.99"), categoryId);
+        return id;
+    }
+
+    private UUID insertInventory(UUID productId, int stock) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO inventory (id, product_id, stock_quantity, created_at) VALUES (?, ?, ?, now())",
+                id, productId, stock);
+        return id;
+    }
+}
@@ -0,0 +1,170 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.Category;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Category closure table against PostgreSQL: the triggers keeping it in sync as categories are created,
+ * moved, soft-deleted, restored and deleted, and the queries reading it. After every change the closure
+ * rows are compared with the paths walked recursively through the hierarchy, as the backfill computes them.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class CategoryRepositoryIntegrationTest {
+
+    private static final String CLOSURE = "SELECT ancestor_id || '>' || descendant_id || '@' || depth FROM category_closure";
+    private static final String WALKED = "WITH RECURSIVE paths AS (" +
+            "SELECT id AS ancestor_id, id AS descendant_id, 0 AS depth FROM categories " +
+            "UNION ALL " +
+            "SELECT p.ancestor_id, c.id, p.depth + 1 FROM paths p JOIN categories c ON c.parent_id = p.descendant_id " +
+            "WHERE c.active = true) " +
+            "SELECT ancestor_id || '>' || descendant_id || '@' || depth FROM paths";
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest");
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @AfterEach
+    void closureMatchesHierarchy() {
+        assertEquals(Set.copyOf(jdbcTemplate.queryForList(WALKED, String.class)),
+                Set.copyOf(jdbcTemplate.queryForList(CLOSURE, String.class)));
+    }
+
+    @Test
+    void insert_LinksNewCategoriesToEveryAncestor() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID tops = insertCategory("Tops", clothing);
+
+        // Act
+        UUID shirts = insertCategory("Shirts", tops);
+
+        // Assert
+        assertEquals(List.of(tops, clothing), ids(categoryRepository.findAncestors(shirts)));
+        assertEquals(List.of(tops, shirts), ids(categoryRepository.findDescendants(clothing)));
+        assertEquals(Set.of(clothing, tops, shirts), Set.copyOf(categoryRepository.findSubtreeIds(clothing)));
+        assertEquals(2, categoryRepository.findDepth(shirts));
+        assertEquals(0, categoryRepository.findDepth(clothing));
+    }
+
+    @Test
+    void move_RelinksTheWholeSubtree() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID sale = insertCategory("Sale", null);
+        UUID tops = insertCategory("Tops", clothing);
+        UUID shirts = insertCategory("Shirts", tops);
+
+        // Act
+        jdbcTemplate.update("UPDATE categories SET parent_id = ? WHERE id = ?", sale, tops);
+
+        // Assert
+        assertEquals(List.of(tops, sale), ids(categoryRepository.findAncestors(shirts)));
+        assertEquals(List.of(clothing), categoryRepository.findSubtreeIds(clothing));
+        assertEquals(Set.of(sale, tops, shirts), Set.copyOf(categoryRepository.findSubtreeIds(sale)));
+    }
+
+    @Test
+    void move_UnderItsOwnSubtree_IsRejected() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID tops = insertCategory("Tops", clothing);
+        jdbcTemplate.execute("SAVEPOINT before_move");
+
+        // Act & Assert
+        Exception exception = assertThrows(Exception.class,
+                () -> jdbcTemplate.update("UPDATE categories SET parent_id = ? WHERE id = ?", tops, clothing));
+        assertTrue(exception.getMessage().contains("cannot be moved under its own subtree"));
+        jdbcTemplate.execute("ROLLBACK TO SAVEPOINT before_move");
+    }
+
+    @Test
+    void softDelete_DetachesTheSubtree_UntilRestored() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID tops = insertCategory("Tops", clothing);
+        UUID shirts = insertCategory("Shirts", tops);
+
+        // Act & Assert
+        jdbcTemplate.update("UPDATE categories SET active = false WHERE id = ?", tops);
+        assertEquals(List.of(clothing), categoryRepository.findSubtreeIds(clothing));
+        assertTrue(categoryRepository.findAncestors(shirts).isEmpty());
+        closureMatchesHierarchy();
+
+        jdbcTemplate.update("UPDATE categories SET active = true WHERE id = ?", tops);
+        assertEquals(List.of(tops, clothing), ids(categoryRepository.findAncestors(shirts)));
+        assertEquals(Set.of(clothing, tops, shirts), Set.copyOf(categoryRepository.findSubtreeIds(clothing)));
+    }
+
+    @Test
+    void insert_UnderSoftDeletedParent_StaysDetached() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID tops = insertCategory("Tops", clothing);
+        jdbcTemplate.update("UPDATE categories SET active = false WHERE id = ?", tops);
+
+        // Act
+        UUID shirts = insertCategory("Shirts", tops);
+
+        // Assert
+        assertEquals(List.of(clothing), categoryRepository.findSubtreeIds(clothing));
+        assertEquals(Set.of(tops, shirts), Set.copyOf(categoryRepository.findSubtreeIds(tops)));
+    }
+
+    @Test
+    void delete_RemovesTheClosureRows_AndTurnsChildrenIntoRoots() {
+        // Arrange
+        UUID clothing = insertCategory("Clothing", null);
+        UUID tops = insertCategory("Tops", clothing);
+        UUID shirts = insertCategory("Shirts", tops);
+
+        // Act
+        jdbcTemplate.update("DELETE FROM categories WHERE id = ?", tops);
+
+        // Assert
+        assertEquals(0, categoryRepository.findDepth(shirts));
+        assertEquals(List.of(shirts), categoryRepository.findSubtreeIds(shirts));
+        assertEquals(List.of(clothing), categoryRepository.findSubtreeIds(clothing));
+        assertTrue(categoryRepository.findSubtreeIds(tops).isEmpty());
+    }
+
+    private UUID insertCategory(String name, UUID parentId) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO categories (id, name, slug, parent_id, created_at) VALUES (?, ?, ?, ?, now())",
+                id, name, name.toLowerCase() + "-" + id, parentId);
+        return id;
+    }
+
+    private static List<UUID> ids(List<Category> categories) {
+        return categories.stream().map(Category::getId).toList();
+    }
+}
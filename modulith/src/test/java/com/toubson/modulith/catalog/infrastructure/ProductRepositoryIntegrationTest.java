@@ -0,0 +1,127 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Full-text search against PostgreSQL: the native search query, the search vector generated from the
+ * search language of each product, and the triggers copying tag names into it.
+ * The schema comes from the Liquibase changelogs only, as the triggers are not part of the entity mapping.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ProductRepositoryIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest");
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Test
+    void search_MatchesProductsIndexedInTheGivenLanguage() {
+        // Arrange
+        UUID shoes = insertProduct("Running shoes", "RUN-1", "english");
+        UUID chaussures = insertProduct("Chaussures de courses", "COU-1", "french");
+
+        // Act
+        Page<Product> english = productRepository.search("run", "english", PageRequest.of(0, 10));
+        Page<Product> french = productRepository.search("course", "french", PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of(shoes), english.map(Product::getId).getContent());
+        assertEquals("Running shoes", english.getContent().getFirst().getName());
+        assertEquals(List.of(chaussures), french.map(Product::getId).getContent());
+        assertEquals(1, french.getTotalElements());
+        assertTrue(productRepository.search("run", "french", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void search_IgnoresInactiveProducts() {
+        // Arrange
+        UUID active = insertProduct("Wool socks", "SOCK-1", "english");
+        UUID inactive = insertProduct("Wool scarf", "SCARF-1", "english");
+        jdbcTemplate.update("UPDATE products SET active = false WHERE id = ?", inactive);
+
+        // Act
+        Page<UUID> ids = productRepository.searchIds("wool", "english", PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of(active), ids.getContent());
+        assertEquals(1, ids.getTotalElements());
+    }
+
+    @Test
+    void searchVector_FollowsTagAssignmentsAndRenames() {
+        // Arrange
+        UUID product = insertProduct("Plain tee", "TEE-1", "english");
+        UUID tag = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO tags (id, name, slug, created_at) VALUES (?, 'organic', 'organic', now())", tag);
+
+        // Act & Assert
+        jdbcTemplate.update("INSERT INTO product_tags (product_id, tag_id) VALUES (?, ?)", product, tag);
+        assertEquals(List.of(product), searchIds("organic"));
+
+        jdbcTemplate.update("UPDATE tags SET name = 'recycled' WHERE id = ?", tag);
+        assertEquals(List.of(product), searchIds("recycled"));
+        assertTrue(searchIds("organic").isEmpty());
+
+        jdbcTemplate.update("DELETE FROM product_tags WHERE product_id = ?", product);
+        assertTrue(searchIds("recycled").isEmpty());
+        assertEquals(List.of(product), searchIds("tee"));
+    }
+
+    @Test
+    void searchRows_RanksNameMatchesFirst_AndHighlightsThem() {
+        // Arrange
+        UUID byName = insertProduct("Merino jumper", "JMP-1", "english");
+        UUID byDescription = insertProduct("Cardigan", "CRD-1", "english");
+        jdbcTemplate.update("UPDATE products SET description = 'Knitted from merino <wool>' WHERE id = ?", byDescription);
+
+        // Act
+        List<ProductSearchRow> rows = productRepository.searchRows("merino", "english", 10, 0);
+
+        // Assert
+        assertEquals(List.of(byName, byDescription), rows.stream().map(ProductSearchRow::getId).toList());
+        assertEquals("<mark>Merino</mark> jumper", rows.getFirst().getNameHighlight());
+        assertTrue(rows.get(1).getDescriptionHighlight().contains("<mark>merino</mark>"));
+    }
+
+    private List<UUID> searchIds(String query) {
+        return productRepository.searchIds(query, "english", PageRequest.of(0, 10)).getContent();
+    }
+
+    private UUID insertProduct(String name, String sku, String language) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO products (id, name, sku, price, search_language, created_at) " +
+                "VALUES (?, ?, ?, 10, CAST(? AS regconfig), now())", id, name, sku, language);
+        return id;
+    }
+}
@@ -0,0 +1,162 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tag product counts against PostgreSQL: the triggers counting the assignments of active products only, and
+ * the verification recounting the tags and categories a batch at a time.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(TagCountRepository.class)
+class TagCountRepositoryIntegrationTest {
+
+    private static final UUID FIRST = new UUID(0, 0);
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest");
+    @Autowired
+    private TagCountRepository countRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Test
+    void softDelete_TakesTheProductOffItsTags_UntilRestored() {
+        // Arrange
+        UUID material = insertCategory("Material");
+        UUID wool = insertTag("Wool", material);
+        UUID cardigan = insertProduct("Cardigan");
+        tag(cardigan, wool);
+        tag(insertProduct("Scarf"), wool);
+
+        // Act & Assert
+        jdbcTemplate.update("UPDATE products SET active = false WHERE id = ?", cardigan);
+        assertCounts(wool, 1, material, 1);
+
+        jdbcTemplate.update("UPDATE products SET active = true WHERE id = ?", cardigan);
+        assertCounts(wool, 2, material, 2);
+    }
+
+    @Test
+    void assignments_OfInactiveProducts_AreNotCounted() {
+        // Arrange
+        UUID material = insertCategory("Material");
+        UUID wool = insertTag("Wool", material);
+        UUID cardigan = insertProduct("Cardigan");
+        UUID scarf = insertProduct("Scarf");
+        tag(scarf, wool);
+        jdbcTemplate.update("UPDATE products SET active = false WHERE id IN (?, ?)", cardigan, scarf);
+
+        // Act & Assert
+        tag(cardigan, wool);
+        assertCounts(wool, 0, material, 0);
+
+        jdbcTemplate.update("DELETE FROM product_tags WHERE product_id = ?", cardigan);
+        assertCounts(wool, 0, material, 0);
+
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", scarf);
+        assertCounts(wool, 0, material, 0);
+    }
+
+    @Test
+    void delete_OfAnActiveProduct_TakesItOffItsTags() {
+        // Arrange
+        UUID material = insertCategory("Material");
+        UUID wool = insertTag("Wool", material);
+        UUID cardigan = insertProduct("Cardigan");
+        tag(cardigan, wool);
+
+        // Act
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", cardigan);
+
+        // Assert
+        assertCounts(wool, 0, material, 0);
+    }
+
+    @Test
+    void recount_ABatchAtATime_CorrectsDriftedCounts() {
+        // Arrange
+        UUID material = insertCategory("Material");
+        // In the order of PostgreSQL, which compares the bytes of the UUIDs like their text
+        List<UUID> tags = Stream.of("Cotton", "Linen", "Wool").map(name -> insertTag(name, material))
+                .sorted(Comparator.comparing(UUID::toString)).toList();
+        UUID cardigan = insertProduct("Cardigan");
+        tags.forEach(tag -> tag(cardigan, tag));
+        jdbcTemplate.update("UPDATE tags SET product_count = 5");
+
+        // Act
+        List<UUID> firstBatch = countRepository.lockTags(FIRST, 2);
+        int firstCorrected = countRepository.recountTags(firstBatch);
+        List<UUID> lastBatch = countRepository.lockTags(firstBatch.getLast(), 2);
+        int lastCorrected = countRepository.recountTags(lastBatch);
+        int categoriesCorrected = countRepository.recountCategories(countRepository.lockCategories(FIRST, 2));
+
+        // Assert
+        assertEquals(tags.subList(0, 2), firstBatch);
+        assertEquals(tags.subList(2, 3), lastBatch);
+        assertEquals(2, firstCorrected);
+        assertEquals(1, lastCorrected);
+        assertEquals(1, categoriesCorrected);
+        assertCounts(tags.getFirst(), 1, material, 3);
+    }
+
+    private void assertCounts(UUID tagId, int tagCount, UUID categoryId, int categoryCount) {
+        assertEquals(tagCount, jdbcTemplate.queryForObject("SELECT product_count FROM tags WHERE id = ?",
+                Integer.class, tagId));
+        assertEquals(categoryCount, jdbcTemplate.queryForObject("SELECT product_count FROM tag_categories WHERE id = ?",
+                Integer.class, categoryId));
+    }
+
+    private UUID insertCategory(String name) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO tag_categories (id, name, slug, created_at) VALUES (?, ?, ?, now())",
+                id, name, name.toLowerCase() + "-" + id);
+        return id;
+    }
+
+    private UUID insertTag(String name, UUID categoryId) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO tags (id, name, slug, tag_category_id, created_at) VALUES (?, ?, ?, ?, now())",
+                id, name, name.toLowerCase() + "-" + id, categoryId);
+        return id;
+    }
+
+    private UUID insertProduct(String name) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO products (id, name, sku, price, created_at) VALUES (?, ?, ?, ?, now())",
+                id, name, "SKU-" + id, new BigDecimal("19.99"));
+        return id;
+    }
+
+    private void tag(UUID productId, UUID tagId) {
+        jdbcTemplate.update("INSERT INTO product_tags (product_id, tag_id) VALUES (?, ?)", productId, tagId);
+    }
+}
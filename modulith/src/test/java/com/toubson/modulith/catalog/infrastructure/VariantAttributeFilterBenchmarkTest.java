@@ -0,0 +1,164 @@
+package com.toubson.modulith.catalog.infrastructure;
+
+import com.toubson.modulith.catalog.domain.ProductVariant;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Filter benchmark: variants are filtered on one, two and three attributes, with one join per attribute on
+ * variant_attributes and with a containment test on the attributes document of product_variants. Reports the
+ * time of each query and checks that both find the same variants.
+ * <p>
+ * Seeds 200,000 variants by default; run with {@code -Dbenchmark.variants=5000000} for the full-size benchmark.
+ * Only runs with the benchmark profile: {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class VariantAttributeFilterBenchmarkTest {
+
+    private static final int VARIANTS = Integer.getInteger("benchmark.variants", 200_000);
+    private static final int VARIANTS_PER_PRODUCT = 50;
+    private static final int RUNS = 5;
+    private static final Map<String, String> FILTER = orderedFilter("size", "M", "color", "red", "material", "wool");
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest");
+    @Autowired
+    private ProductVariantRepository variantRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeAll
+    void seed() {
+        long start = System.nanoTime();
+        jdbcTemplate.update("INSERT INTO products (id, name, sku, price, created_at) " +
+                "SELECT gen_random_uuid(), 'Product ' || g, 'BP-' || g, 10, now() FROM generate_series(1, ?) g",
+                Math.max(1, VARIANTS / VARIANTS_PER_PRODUCT));
+        jdbcTemplate.update("INSERT INTO product_variants (id, product_id, name, sku, created_at) " +
+                "SELECT gen_random_uuid(), p.id, p.name || ' ' || g, p.sku || '-' || g, now() " +
+                "FROM products p CROSS JOIN generate_series(1, ?) g WHERE p.sku LIKE 'BP-%'", VARIANTS_PER_PRODUCT);
+        // One statement, so that the triggers refresh each variant once
+        jdbcTemplate.update("INSERT INTO variant_attributes (id, variant_id, name, value, created_at) " +
+                "SELECT gen_random_uuid(), v.id, a.name, a.value, now() FROM product_variants v CROSS JOIN LATERAL (VALUES " +
+                "('size', (ARRAY['XS', 'S', 'M', 'L', 'XL', 'XXL'])[1 + abs(hashtext(v.sku)) % 6]), " +
+                "('color', (ARRAY['red', 'blue', 'green', 'black', 'white', 'grey', 'navy', 'pink', 'beige', 'brown', " +
+                "'orange', 'purple'])[1 + abs(hashtext(v.sku || 'color')) % 12]), " +
+                "('material', (ARRAY['cotton', 'wool', 'linen', 'silk', 'polyester'])[1 + abs(hashtext(v.sku || 'material')) % 5])" +
+                ") a(name, value) WHERE v.sku LIKE 'BP-%'");
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Seeded {} variants in {} s", VARIANTS, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+
+    @ParameterizedTest(name = "{0} attributes")
+    @ValueSource(ints = {1, 2, 3})
+    void findByAttributes_shouldMatchTheJoins_whateverTheNumberOfAttributes(int attributes) {
+        // Given
+        Map<String, String> filter = FILTER.entrySet().stream().limit(attributes)
+                .collect(LinkedHashMap::new, (map, entry) -> map.put(entry.getKey(), entry.getValue()), Map::putAll);
+        StringBuilder joins = new StringBuilder("SELECT DISTINCT pv.id FROM product_variants pv");
+        int alias = 0;
+        for (Map.Entry<String, String> entry : filter.entrySet()) {
+            alias++;
+            joins.append(" JOIN variant_attributes a").append(alias).append(" ON a").append(alias)
+                    .append(".variant_id = pv.id AND a").append(alias).append(".name = '").append(entry.getKey())
+                    .append("' AND a").append(alias).append(".value = '").append(entry.getValue()).append("'");
+        }
+        String joinCount = "SELECT count(*) FROM (" + joins + ") matches";
+        PageRequest page = PageRequest.of(0, 20, Sort.by("id"));
+
+        // When
+        long joinNanos = Long.MAX_VALUE;
+        long containmentNanos = Long.MAX_VALUE;
+        Long joined = null;
+        Page<?> contained = null;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            joined = jdbcTemplate.queryForObject(joinCount, Long.class);
+            joinNanos = Math.min(joinNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            contained = variantRepository.findByAttributes(filter, page);
+            containmentNanos = Math.min(containmentNanos, System.nanoTime() - start);
+        }
+
+        // Then
+        assertNotNull(joined);
+        assertTrue(joined > 0);
+        assertEquals(joined, contained.getTotalElements());
+        assertEquals(Math.min(20, joined), contained.getNumberOfElements());
+        log.info("{} attributes over {} variants: {} matches, joins {} ms, containment {} ms", attributes, VARIANTS,
+                joined, String.format("%.1f", joinNanos / 1e6), String.format("%.1f", containmentNanos / 1e6));
+    }
+
+    @Test
+    void attributes_shouldFollowTheAttributeRows() {
+        // Given
+        UUID variantId = jdbcTemplate.queryForObject("SELECT id FROM product_variants WHERE sku = 'BP-1-1'", UUID.class);
+
+        // When
+        jdbcTemplate.update("UPDATE variant_attributes SET value = 'zebra' WHERE variant_id = ? AND name = 'color'",
+                variantId);
+        jdbcTemplate.update("DELETE FROM variant_attributes WHERE variant_id = ? AND name = 'material'", variantId);
+        jdbcTemplate.update("INSERT INTO variant_attributes (id, variant_id, name, value, created_at) " +
+                "VALUES (gen_random_uuid(), ?, 'fit', 'slim', now())", variantId);
+
+        // Then
+        String attributes = jdbcTemplate.queryForObject(
+                "SELECT attributes - 'size' FROM product_variants WHERE id = ?", String.class, variantId);
+        assertEquals("{\"fit\": \"slim\", \"color\": \"zebra\"}", attributes);
+        List<UUID> found = variantRepository.findByAttributes(Map.of("color", "zebra", "fit", "slim"),
+                PageRequest.of(0, 20)).map(ProductVariant::getId).getContent();
+        assertEquals(List.of(variantId), found);
+        assertEquals(List.of(1, 1), jdbcTemplate.queryForList("SELECT sum(delta)::int FROM variant_attribute_value_deltas " +
+                "WHERE (name, value) IN (('color', 'zebra'), ('fit', 'slim')) GROUP BY name, value ORDER BY name", Integer.class));
+    }
+
+    private static Map<String, String> orderedFilter(String... entries) {
+        Map<String, String> filter = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            filter.put(entries[i], entries[i + 1]);
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,93 @@
+package com.toubson.modulith.catalog.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeDictionaryTest {
+
+    @Test
+    void build_shouldInternNamesAndValues_sortedByText() {
+        // Given
+        AttributeDictionary dictionary = AttributeDictionary.builder()
+                .add("size", "M", 4).add("color", "red", 2).add("size", "L", 3).add("color", "blue", 1)
+                .build();
+
+        // When
+        int size = dictionary.nameCode("size");
+        int color = dictionary.nameCode("color");
+
+        // Then
+        assertEquals(List.of("color", "size"), names(dictionary, dictionary.nameCodes()));
+        assertEquals(List.of("L", "M"), values(dictionary, dictionary.valueCodes(size)));
+        assertEquals(List.of("blue", "red"), values(dictionary, dictionary.valueCodes(color)));
+        int medium = dictionary.valueCode(size, "M");
+        assertEquals(4, dictionary.count(medium));
+        assertEquals(size, dictionary.nameOf(medium));
+        assertEquals(-1, dictionary.nameCode("material"));
+        assertEquals(-1, dictionary.valueCode(size, "red"));
+        assertEquals(0, dictionary.valueCodes(-1).length);
+    }
+
+    @Test
+    void withCounts_shouldKeepCodes_andAppendNewOnes() {
+        // Given
+        AttributeDictionary dictionary = AttributeDictionary.builder()
+                .add("size", "M", 4).add("size", "S", 1)
+                .build();
+        int size = dictionary.nameCode("size");
+        int medium = dictionary.valueCode(size, "M");
+
+        // When
+        AttributeDictionary changed = dictionary.withCounts(List.of(
+                new AttributeDictionary.Count("size", "M", 5),
+                new AttributeDictionary.Count("size", "L", 2),
+                new AttributeDictionary.Count("material", "wool", 1),
+                new AttributeDictionary.Count("material", "cotton", 3)));
+
+        // Then
+        assertEquals(size, changed.nameCode("size"));
+        assertEquals(medium, changed.valueCode(size, "M"));
+        assertEquals(5, changed.count(medium));
+        assertEquals(4, dictionary.count(medium));
+        assertEquals(List.of("L", "M", "S"), values(changed, changed.valueCodes(size)));
+        assertEquals(List.of("material", "size"), names(changed, changed.nameCodes()));
+        assertEquals(List.of("cotton", "wool"), values(changed, changed.valueCodes(changed.nameCode("material"))));
+        assertEquals(2, changed.nameCount());
+        assertEquals(5, changed.valueCount());
+        assertSame(changed, changed.withCounts(List.of()));
+    }
+
+    @Test
+    void withCounts_shouldLeaveOutValuesWithoutVariants_butKeepTheirCodes() {
+        // Given
+        AttributeDictionary dictionary = AttributeDictionary.builder()
+                .add("size", "M", 4).add("fit", "slim", 1)
+                .build();
+        int fit = dictionary.nameCode("fit");
+        int slim = dictionary.valueCode(fit, "slim");
+
+        // When
+        AttributeDictionary dropped = dictionary.withCounts(List.of(new AttributeDictionary.Count("fit", "slim", 0)));
+        AttributeDictionary restored = dropped.withCounts(List.of(new AttributeDictionary.Count("fit", "slim", 2)));
+
+        // Then
+        assertEquals(List.of("size"), names(dropped, dropped.nameCodes()));
+        assertEquals(0, dropped.valueCodes(fit).length);
+        assertEquals(slim, dropped.valueCode(fit, "slim"));
+        assertEquals(List.of("fit", "size"), names(restored, restored.nameCodes()));
+        assertEquals(2, restored.count(slim));
+        assertEquals(2, restored.valueCount());
+    }
+
+    private static List<String> names(AttributeDictionary dictionary, int[] codes) {
+        return Arrays.stream(codes).mapToObj(dictionary::name).toList();
+    }
+
+    private static List<String> values(AttributeDictionary dictionary, int[] codes) {
+        return Arrays.stream(codes).mapToObj(dictionary::value).toList();
+    }
+}
@@ -0,0 +1,114 @@
+package com.toubson.modulith.catalog.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedBitmapTest {
+
+    @Test
+    void add_shouldKeepValuesSorted_acrossContainers() {
+        // Given
+        CompressedBitmap bitmap = CompressedBitmap.of(70_000, 3, 65_536, 1, 3);
+
+        // When
+        int[] values = bitmap.toArray();
+
+        // Then
+        assertArrayEquals(new int[]{1, 3, 65_536, 70_000}, values);
+        assertEquals(4, bitmap.cardinality());
+        assertTrue(bitmap.contains(65_536));
+        assertFalse(bitmap.contains(2));
+    }
+
+    @Test
+    void remove_shouldShrinkDenseChunk_andSparseBitmapStaySmall() {
+        // Given
+        CompressedBitmap dense = new CompressedBitmap();
+        CompressedBitmap sparse = new CompressedBitmap();
+        for (int value = 0; value < 60_000; value++) {
+            dense.add(value);
+        }
+        for (int value = 0; value < 60_000; value += 600) {
+            sparse.add(value);
+        }
+
+        // When
+        for (int value = 100; value < 60_000; value++) {
+            dense.remove(value);
+        }
+
+        // Then
+        assertEquals(100, dense.cardinality());
+        assertTrue(dense.contains(99));
+        assertFalse(dense.contains(100));
+        assertTrue(sparse.byteSize() < 1024);
+    }
+
+    @Test
+    void remove_shouldEmptyBitmap() {
+        // Given
+        CompressedBitmap bitmap = CompressedBitmap.of(5, 200_000);
+
+        // When
+        bitmap.remove(5);
+        bitmap.remove(200_000);
+        bitmap.remove(42);
+
+        // Then
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.cardinality());
+    }
+
+    @Test
+    void andAndOr_shouldMatchBitSet_forMixedDensities() {
+        // Given a sparse and a dense bitmap sharing some containers
+        Random random = new Random(42);
+        CompressedBitmap sparse = new CompressedBitmap();
+        CompressedBitmap dense = new CompressedBitmap();
+        BitSet sparseBits = new BitSet();
+        BitSet denseBits = new BitSet();
+        for (int i = 0; i < 3_000; i++) {
+            int value = random.nextInt(300_000);
+            sparse.add(value);
+            sparseBits.set(value);
+        }
+        for (int i = 0; i < 60_000; i++) {
+            int value = random.nextInt(150_000);
+            dense.add(value);
+            denseBits.set(value);
+        }
+
+        // When
+        CompressedBitmap and = sparse.and(dense);
+        CompressedBitmap or = sparse.or(dense);
+
+        // Then
+        BitSet expectedAnd = (BitSet) sparseBits.clone();
+        expectedAnd.and(denseBits);
+        BitSet expectedOr = (BitSet) sparseBits.clone();
+        expectedOr.or(denseBits);
+        assertArrayEquals(expectedAnd.stream().toArray(), and.toArray());
+        assertArrayEquals(expectedOr.stream().toArray(), or.toArray());
+        assertEquals(expectedAnd.cardinality(), sparse.andCardinality(dense));
+        assertEquals(expectedAnd.cardinality(), dense.andCardinality(sparse));
+    }
+
+    @Test
+    void copy_shouldBeIndependent() {
+        // Given
+        CompressedBitmap original = CompressedBitmap.of(1, 2);
+
+        // When
+        CompressedBitmap copy = original.copy();
+        copy.add(3);
+        original.remove(1);
+
+        // Then
+        assertArrayEquals(new int[]{2}, original.toArray());
+        assertArrayEquals(new int[]{1, 2, 3}, copy.toArray());
+    }
+}
@@ -0,0 +1,63 @@
+package com.toubson.modulith.catalog.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void next_shouldReadQuotedCommasQuotesAndLineBreaks() throws IOException {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("sku,name\r\nTSH-1,\"Shirt, \"\"blue\"\"\nXL\"\r\n"), 1_000);
+
+        // When
+        List<String> header = reader.next();
+        List<String> record = reader.next();
+
+        // Then
+        assertEquals(List.of("sku", "name"), header);
+        assertEquals(List.of("TSH-1", "Shirt, \"blue\"\nXL"), record);
+        assertEquals(2, reader.recordNumber());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_shouldKeepEmptyFields_andSkipBlankLines() throws IOException {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("a,,\"\"\n\n\nb,c,d"), 1_000);
+
+        // When
+        List<String> first = reader.next();
+        List<String> second = reader.next();
+
+        // Then
+        assertEquals(List.of("a", "", ""), first);
+        assertEquals(List.of("b", "c", "d"), second);
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_shouldRejectUnclosedQuote() throws IOException {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("a,b\n\"c,d\n"), 1_000);
+        reader.next();
+
+        // When / Then
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, reader::next);
+        assertTrue(error.getMessage().contains("record 2"));
+    }
+
+    @Test
+    void next_shouldRejectRecordLongerThanMaximum() {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("abcdef,ghijkl\n"), 8);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, reader::next);
+    }
+}
@@ -0,0 +1,95 @@
+package com.toubson.modulith.catalog.utils;
+
+import com.toubson.modulith.catalog.utils.FacetIndex.FacetCounts;
+import com.toubson.modulith.catalog.utils.FacetIndex.FacetValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetIndexTest {
+
+    private FacetIndex<String> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FacetIndex<>();
+        index.put("socks", List.of(new FacetValue("tag", "wool"), new FacetValue("tag", "winter"), new FacetValue("type", "STANDARD")));
+        index.put("hat", List.of(new FacetValue("tag", "winter"), new FacetValue("type", "STANDARD")));
+        index.put("kit", List.of(new FacetValue("tag", "wool"), new FacetValue("type", "BUNDLE")));
+    }
+
+    @Test
+    void count_shouldCountEveryValue_withoutSelection() {
+        // When
+        FacetCounts counts = index.count(Map.of());
+
+        // Then
+        assertEquals(3, counts.total());
+        assertEquals(Map.of("wool", 2, "winter", 2), counts.counts().get("tag"));
+        assertEquals(Map.of("STANDARD", 2, "BUNDLE", 1), counts.counts().get("type"));
+    }
+
+    @Test
+    void count_shouldIgnoreOwnSelection_whenCountingFacet() {
+        // When
+        FacetCounts counts = index.count(Map.of("type", Set.of("STANDARD")));
+
+        // Then
+        assertEquals(2, counts.total());
+        assertEquals(Map.of("wool", 1, "winter", 2), counts.counts().get("tag"));
+        assertEquals(Map.of("STANDARD", 2, "BUNDLE", 1), counts.counts().get("type"));
+    }
+
+    @Test
+    void count_shouldCombineValuesWithOr_andFacetsWithAnd() {
+        // When
+        FacetCounts counts = index.count(Map.of(
+                "tag", Set.of("wool", "winter"),
+                "type", Set.of("BUNDLE")));
+
+        // Then
+        assertEquals(1, counts.total());
+        assertEquals(Map.of("wool", 1, "winter", 0), counts.counts().get("tag"));
+    }
+
+    @Test
+    void count_shouldKeepSelectedValue_whenNothingMatches() {
+        // When
+        FacetCounts counts = index.count(Map.of("tag", Set.of("silk")));
+
+        // Then
+        assertEquals(0, counts.total());
+        assertEquals(0, counts.counts().get("tag").get("silk"));
+    }
+
+    @Test
+    void put_shouldReplacePreviousValues() {
+        // When
+        index.put("hat", List.of(new FacetValue("type", "BUNDLE")));
+
+        // Then
+        FacetCounts counts = index.count(Map.of());
+        assertEquals(Map.of("wool", 2, "winter", 1), counts.counts().get("tag"));
+        assertEquals(Map.of("STANDARD", 1, "BUNDLE", 2), counts.counts().get("type"));
+    }
+
+    @Test
+    void remove_shouldDropDocument_andReuseItsOrdinal() {
+        // When
+        index.remove("socks");
+        index.remove("kit");
+        index.put("scarf", List.of(new FacetValue("tag", "silk")));
+
+        // Then
+        FacetCounts counts = index.count(Map.of());
+        assertEquals(2, index.size());
+        assertEquals(2, counts.total());
+        assertEquals(Map.of("winter", 1, "silk", 1), counts.counts().get("tag"));
+        assertEquals(Map.of("STANDARD", 1), counts.counts().get("type"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.toubson.modulith.catalog.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    @Test
+    void search_shouldReturnDocumentsContainingEveryTerm() {
+        // Given
+        InvertedIndex<String, String> index = InvertedIndex.build(List.of(
+                document("1", "red wool socks"),
+                document("2", "blue wool hat"),
+                document("3", "red cotton shirt")), 2);
+
+        // When
+        List<InvertedIndex.Hit<String>> hits = index.search(List.of("red", "wool"), 10);
+
+        // Then
+        assertEquals(List.of("1"), values(hits));
+        assertTrue(index.search(List.of("red", "silk"), 10).isEmpty());
+    }
+
+    @Test
+    void search_shouldRankRareAndFrequentTermsFirst() {
+        // Given
+        InvertedIndex<String, String> index = InvertedIndex.build(List.of(
+                document("common", "shirt cotton"),
+                document("repeated", "shirt shirt shirt linen"),
+                document("other", "shirt wool")), 1);
+
+        // When
+        List<InvertedIndex.Hit<String>> hits = index.search(List.of("shirt"), 10);
+
+        // Then
+        assertEquals("repeated", hits.get(0).value());
+        assertEquals(3, hits.size());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void search_shouldLimitHits() {
+        // Given
+        List<InvertedIndex.Document<String, String>> documents = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            documents.add(document(String.valueOf(i), "product " + (i % 2 == 0 ? "even" : "odd")));
+        }
+        InvertedIndex<String, String> index = InvertedIndex.build(documents, 4);
+
+        // When
+        List<InvertedIndex.Hit<String>> hits = index.search(List.of("product", "odd"), 5);
+
+        // Then
+        assertEquals(5, hits.size());
+        hits.forEach(hit -> assertEquals(1, Integer.parseInt(hit.value()) % 2));
+    }
+
+    @Test
+    void update_shouldReplaceAndRemoveDocuments() {
+        // Given
+        InvertedIndex<String, String> index = InvertedIndex.build(List.of(
+                document("1", "red socks"),
+                document("2", "blue socks")), 1);
+
+        // When
+        index.update(List.of(document("1", "green socks"), document("3", "red hat")), List.of("2"));
+
+        // Then
+        assertEquals(List.of("3"), values(index.search(List.of("red"), 10)));
+        assertEquals(List.of("1"), values(index.search(List.of("green"), 10)));
+        assertTrue(index.search(List.of("blue"), 10).isEmpty());
+        assertEquals(2, index.size());
+        assertEquals(2, index.deletedCount());
+    }
+
+    @Test
+    void build_shouldProduceSameResults_whateverTheParallelism() {
+        // Given
+        List<InvertedIndex.Document<String, String>> documents = new ArrayList<>();
+        Random random = new Random(42);
+        String[] words = {"red", "blue", "green", "wool", "cotton", "shirt", "hat", "socks"};
+        for (int i = 0; i < 500; i++) {
+            documents.add(document(String.valueOf(i), words[random.nextInt(words.length)] + " "
+                    + words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]));
+        }
+
+        // When
+        InvertedIndex<String, String> sequential = InvertedIndex.build(documents, 1);
+        InvertedIndex<String, String> parallel = InvertedIndex.build(documents, 8);
+
+        // Then
+        assertEquals(values(sequential.search(List.of("wool", "shirt"), 50)),
+                values(parallel.search(List.of("wool", "shirt"), 50)));
+        assertEquals(sequential.termCount(), parallel.termCount());
+    }
+
+    private static InvertedIndex.Document<String, String> document(String key, String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        List<String> terms = Tokenizer.tokenize(text);
+        terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        return new InvertedIndex.Document<>(key, key, frequencies, terms.size());
+    }
+
+    private static List<String> values(List<InvertedIndex.Hit<String>> hits) {
+        return hits.stream().map(InvertedIndex.Hit::value).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package com.toubson.modulith.catalog.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingListTest {
+
+    @Test
+    void cursor_shouldDecodePostings_inOrder() {
+        // Given
+        PostingList.Builder builder = new PostingList.Builder();
+        builder.add(3, 1);
+        builder.add(200, 4);
+        builder.add(70_000, 2);
+        PostingList list = builder.build();
+
+        // When
+        PostingList.Cursor cursor = list.cursor();
+
+        // Then
+        assertEquals(3, cursor.nextDoc());
+        assertEquals(1, cursor.frequency());
+        assertEquals(200, cursor.nextDoc());
+        assertEquals(4, cursor.frequency());
+        assertEquals(70_000, cursor.nextDoc());
+        assertEquals(2, cursor.frequency());
+        assertEquals(PostingList.NO_MORE_DOCS, cursor.nextDoc());
+        assertEquals(3, list.size());
+    }
+
+    @Test
+    void advance_shouldSkipBlocks_andLandOnFirstDocAtOrAfterTarget() {
+        // Given every even document up to 10 000
+        PostingList.Builder builder = new PostingList.Builder();
+        for (int docId = 0; docId <= 10_000; docId += 2) {
+            builder.add(docId, 1);
+        }
+        PostingList list = builder.build();
+        PostingList.Cursor cursor = list.cursor();
+
+        // When / Then
+        assertEquals(4_002, cursor.advance(4_001));
+        assertEquals(4_002, cursor.advance(4_002));
+        assertEquals(9_000, cursor.advance(9_000));
+        assertEquals(9_002, cursor.nextDoc());
+        assertEquals(PostingList.NO_MORE_DOCS, cursor.advance(10_001));
+    }
+
+    @Test
+    void append_shouldKeepExistingList_andContinueSkipEntries() {
+        // Given
+        PostingList.Builder builder = new PostingList.Builder();
+        for (int docId = 0; docId < 100; docId++) {
+            builder.add(docId, 1);
+        }
+        PostingList list = builder.build();
+
+        // When
+        int[] docIds = new int[100];
+        int[] frequencies = new int[100];
+        for (int i = 0; i < 100; i++) {
+            docIds[i] = 1_000 + i;
+            frequencies[i] = 2;
+        }
+        PostingList appended = list.append(docIds, frequencies, 100);
+
+        // Then
+        assertEquals(100, list.size());
+        assertEquals(200, appended.size());
+        PostingList.Cursor cursor = appended.cursor();
+        assertEquals(1_050, cursor.advance(1_050));
+        assertEquals(2, cursor.frequency());
+    }
+
+    @Test
+    void add_shouldRejectOutOfOrderPostings() {
+        // Given
+        PostingList.Builder builder = new PostingList.Builder();
+        builder.add(5, 1);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> builder.add(5, 1));
+    }
+}
@@ -0,0 +1,184 @@
+package com.toubson.modulith.catalog.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagPostingIndexTest {
+
+    @Test
+    void matchAll_shouldIntersectPostings_inKeyOrder() {
+        // Given
+        TagPostingIndex<Integer> index = TagPostingIndex.<Integer>builder()
+                .add(30, "wool").add(30, "winter")
+                .add(10, "wool").add(10, "winter")
+                .add(20, "wool")
+                .build();
+
+        // When
+        List<Integer> both = index.keys(index.matchAll(List.of("winter", "wool")), null, 10);
+
+        // Then
+        assertEquals(List.of(10, 30), both);
+        assertEquals(0, index.matchAll(List.of("wool", "silk")).length);
+        assertEquals(0, index.matchAll(List.of()).length);
+    }
+
+    @Test
+    void matchAny_shouldMergePostings_withoutDuplicates() {
+        // Given
+        TagPostingIndex<Integer> index = TagPostingIndex.<Integer>builder()
+                .add(1, "wool").add(1, "winter")
+                .add(2, "winter")
+                .add(3, "silk")
+                .build();
+
+        // When
+        List<Integer> any = index.keys(index.matchAny(List.of("wool", "winter", "cotton")), null, 10);
+
+        // Then
+        assertEquals(List.of(1, 2), any);
+    }
+
+    @Test
+    void keys_shouldSeekAfterKey_evenWhenKeyIsNotIndexed() {
+        // Given
+        TagPostingIndex.Builder<Integer> builder = TagPostingIndex.builder();
+        for (int key = 0; key < 100; key += 2) {
+            builder.add(key, "even");
+        }
+        TagPostingIndex<Integer> index = builder.build();
+        int[] matches = index.matchAll(List.of("even"));
+
+        // When
+        List<Integer> afterIndexed = index.keys(matches, 10, 3);
+        List<Integer> afterMissing = index.keys(matches, 11, 3);
+        List<Integer> afterLast = index.keys(matches, 98, 3);
+
+        // Then
+        assertEquals(List.of(12, 14, 16), afterIndexed);
+        assertEquals(List.of(12, 14, 16), afterMissing);
+        assertTrue(afterLast.isEmpty());
+    }
+
+    @Test
+    void matchAll_shouldMatchBruteForce_forRandomPostings() {
+        // Given
+        Random random = new Random(7);
+        TagPostingIndex.Builder<Integer> builder = TagPostingIndex.builder();
+        Map<Integer, Set<String>> expected = new HashMap<>();
+        for (int key = 0; key < 5_000; key++) {
+            for (String tag : List.of("a", "b", "c")) {
+                // Tags of very different densities exercise the galloping search
+                if (random.nextInt(tag.equals("a") ? 2 : tag.equals("b") ? 20 : 200) == 0) {
+                    builder.add(key, tag);
+                    expected.computeIfAbsent(key, k -> new HashSet<>()).add(tag);
+                }
+            }
+        }
+        TagPostingIndex<Integer> index = builder.build();
+
+        // When
+        List<Integer> all = index.keys(index.matchAll(List.of("a", "b", "c")), null, Integer.MAX_VALUE);
+        List<Integer> any = index.keys(index.matchAny(List.of("b", "c")), null, Integer.MAX_VALUE);
+
+        // Then
+        assertEquals(expected.entrySet().stream()
+                .filter(entry -> entry.getValue().containsAll(List.of("a", "b", "c")))
+                .map(Map.Entry::getKey).sorted().toList(), all);
+        assertEquals(expected.entrySet().stream()
+                .filter(entry -> entry.getValue().contains("b") || entry.getValue().contains("c"))
+                .map(Map.Entry::getKey).sorted().toList(), any);
+    }
+
+    @Test
+    void withDocuments_shouldReplaceAndRemoveDocuments_leavingOriginalUntouched() {
+        // Given
+        TagPostingIndex<Integer> original = TagPostingIndex.<Integer>builder()
+                .add(1, "wool")
+                .add(2, "wool").add(2, "winter")
+                .build();
+
+        // When
+        TagPostingIndex<Integer> updated = original.withDocuments(Map.of(
+                1, Set.of(),
+                2, Set.of("winter"),
+                3, Set.of("wool")));
+
+        // Then
+        assertEquals(List.of(3), updated.keys(updated.matchAll(List.of("wool")), null, 10));
+        assertEquals(List.of(2), updated.keys(updated.matchAll(List.of("winter")), null, 10));
+        assertEquals(List.of(1, 2), original.keys(original.matchAll(List.of("wool")), null, 10));
+        assertEquals(Set.of(1, 2, 3), original.differingKeys(updated));
+        assertTrue(updated.differingKeys(updated).isEmpty());
+    }
+
+    @Test
+    void withDocuments_shouldNumberNewDocuments_evenOnceAGapIsUsedUp() {
+        // Given
+        TagPostingIndex<Long> index = TagPostingIndex.<Long>builder()
+                .add(0L, "wool")
+                .add(1_000L, "wool")
+                .build();
+
+        // When: every new key goes between the first key and the one added before it
+        for (long key = 999; key > 900; key--) {
+            index = index.withDocuments(Map.of(key, Set.of("wool")));
+        }
+
+        // Then
+        List<Long> expected = new ArrayList<>(List.of(0L));
+        for (long key = 901; key <= 1_000; key++) {
+            expected.add(key);
+        }
+        assertEquals(expected, index.keys(index.matchAll(List.of("wool")), null, Integer.MAX_VALUE));
+        assertEquals(List.of(901L, 902L), index.keys(index.matchAll(List.of("wool")), 0L, 2));
+        assertEquals(101, index.size());
+    }
+
+    @Test
+    void withDocuments_shouldMatchAFreshBuild_forRandomChanges() {
+        // Given
+        Random random = new Random(35);
+        List<String> tags = List.of("a", "b", "c", "d");
+        Map<Integer, Set<String>> expected = new HashMap<>();
+        TagPostingIndex<Integer> index = TagPostingIndex.<Integer>builder().build();
+
+        for (int round = 0; round < 200; round++) {
+            // When
+            Map<Integer, Set<String>> changes = new HashMap<>();
+            for (int i = random.nextInt(20); i >= 0; i--) {
+                Set<String> carried = new HashSet<>();
+                tags.forEach(tag -> {
+                    if (random.nextInt(3) == 0) {
+                        carried.add(tag);
+                    }
+                });
+                changes.put(random.nextInt(1_000), carried);
+            }
+            index = index.withDocuments(changes);
+            changes.forEach((key, carried) -> {
+                if (carried.isEmpty()) {
+                    expected.remove(key);
+                } else {
+                    expected.put(key, carried);
+                }
+            });
+
+            // Then
+            TagPostingIndex.Builder<Integer> builder = TagPostingIndex.builder();
+            expected.forEach(builder::put);
+            TagPostingIndex<Integer> built = builder.build();
+            assertTrue(index.differingKeys(built).isEmpty());
+            assertEquals(expected.size(), index.size());
+            for (String tag : tags) {
+                assertEquals(built.keys(built.matchAll(List.of(tag)), null, Integer.MAX_VALUE),
+                        index.keys(index.matchAll(List.of(tag)), null, Integer.MAX_VALUE));
+                assertEquals(built.keys(built.matchAny(List.of(tag, "a")), 500, 10),
+                        index.keys(index.matchAny(List.of(tag, "a")), 500, 10));
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.toubson.modulith.catalog.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenizerTest {
+
+    @Test
+    void tokenize_shouldLowerCase_stripAccents_andSplitOnPunctuation() {
+        assertEquals(List.of("creme", "brulee", "kit", "xl"), Tokenizer.tokenize("Crème-Brûlée kit (XL)"));
+    }
+
+    @Test
+    void tokenize_shouldDropStopWords_andFoldPlurals() {
+        assertEquals(List.of("shirt", "dress", "berry"), Tokenizer.tokenize("Shirts and the dresses of berries"));
+    }
+
+    @Test
+    void tokenize_shouldKeepSkuParts() {
+        assertEquals(List.of("tsh", "001", "blu"), Tokenizer.tokenize("TSH-001-BLU"));
+    }
+
+    @Test
+    void tokenize_shouldReturnEmptyList_forBlankText() {
+        assertTrue(Tokenizer.tokenize(null).isEmpty());
+        assertTrue(Tokenizer.tokenize("  - ").isEmpty());
+    }
+}
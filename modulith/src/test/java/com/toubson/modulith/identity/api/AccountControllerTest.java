@@ -1,6 +1,7 @@
 package com.toubson.modulith.identity.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toubson.modulith.identity.application.AuthAuditService;
 import com.toubson.modulith.identity.application.AuthenticationService;
 import com.toubson.modulith.identity.application.UserService;
 import com.toubson.modulith.identity.domain.User;
@@ -21,9 +22,12 @@ import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -45,6 +49,8 @@ class AccountControllerTest {
     private UserService userService;
     @Mock
     private AuthenticationService authenticationService;
+    @Mock
+    private AuthAuditService auditService;
     @InjectMocks
     private AccountController accountController;
     private User testUser;
@@ -54,6 +60,12 @@ class AccountControllerTest {
         // Set up MockMvc
         mockMvc = MockMvcBuilders.standaloneSetup(accountController).build();
 
+        // Audited operations run as if the audit service was not there
+        lenient().when(auditService.audit(any(), any(), any(), any(Supplier.class)))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+        lenient().when(auditService.audit(any(), any(), any(Supplier.class), any(Function.class)))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+
         // Set up test user
         testUser = new User();
         testUser.setId(UUID.randomUUID());
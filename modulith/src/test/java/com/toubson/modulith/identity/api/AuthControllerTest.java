@@ -1,5 +1,6 @@
 package com.toubson.modulith.identity.api;
 
+import com.toubson.modulith.identity.application.AuthAuditService;
 import com.toubson.modulith.identity.application.AuthenticationService;
 import com.toubson.modulith.identity.config.JwtTokenProvider;
 import com.toubson.modulith.identity.dto.LoginRequest;
@@ -25,6 +26,8 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collections;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -43,6 +46,9 @@ class AuthControllerTest {
     @Mock
     private AuthenticationService authenticationService;
 
+    @Mock
+    private AuthAuditService auditService;
+
     @Mock
     private HttpServletRequest request;
 
@@ -73,6 +79,12 @@ class AuthControllerTest {
         loginRequest.setPassword("password");
 
         tokenPair = new JwtTokenProvider.TokenPair("access-token", "refresh-token");
+
+        // Audited operations run as if the audit service was not there
+        lenient().when(auditService.audit(any(), any(), any(), any(Supplier.class)))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+        lenient().when(auditService.audit(any(), any(), any(Supplier.class), any(Function.class)))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
     }
 
     @Test
@@ -86,7 +98,7 @@ class AuthControllerTest {
         when(tokenProvider.getAccessTokenExpirationWeb()).thenReturn(3600000L);
 
         // Act
-        ResponseEntity<TokenResponse> result = authController.webLogin(loginRequest, response);
+        ResponseEntity<TokenResponse> result = authController.webLogin(loginRequest, request, response);
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
@@ -113,7 +125,7 @@ class AuthControllerTest {
                 .thenThrow(new AuthenticationException("Authentication failed"));
 
         // Act & Assert
-        assertThrows(AuthenticationException.class, () -> authController.webLogin(loginRequest, response));
+        assertThrows(AuthenticationException.class, () -> authController.webLogin(loginRequest, request, response));
 
         verify(authenticationService).authenticate("testuser", "password");
         verify(tokenProvider, never()).createTokenPair(any(), any());
@@ -130,7 +142,7 @@ class AuthControllerTest {
         when(tokenProvider.getAccessTokenExpirationMobile()).thenReturn(7200000L);
 
         // Act
-        ResponseEntity<TokenResponse> result = authController.mobileLogin(loginRequest);
+        ResponseEntity<TokenResponse> result = authController.mobileLogin(loginRequest, request);
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
@@ -156,7 +168,7 @@ class AuthControllerTest {
                 .thenThrow(new AuthenticationException("Authentication failed"));
 
         // Act & Assert
-        assertThrows(AuthenticationException.class, () -> authController.mobileLogin(loginRequest));
+        assertThrows(AuthenticationException.class, () -> authController.mobileLogin(loginRequest, request));
 
         verify(authenticationService).authenticate("testuser", "password");
         verify(tokenProvider, never()).createTokenPair(any(), any());
@@ -0,0 +1,140 @@
+package com.toubson.modulith.identity.application;
+
+import com.toubson.modulith.identity.config.JwtTokenProvider;
+import com.toubson.modulith.identity.domain.AuthAuditEvent;
+import com.toubson.modulith.identity.domain.AuthAuditEventType;
+import com.toubson.modulith.identity.domain.AuthAuditOutcome;
+import com.toubson.modulith.identity.infrastructure.AuthAuditRepository;
+import com.toubson.modulith.identity.utils.ClientTypeResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthAuditServiceTest {
+
+    @Mock
+    private AuthAuditRepository auditRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private AuthAuditService auditService;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        auditService = new AuthAuditService(auditRepository, new ClientTypeResolver(), meterRegistry);
+        ReflectionTestUtils.setField(auditService, "bufferCapacity", 4);
+        ReflectionTestUtils.setField(auditService, "batchSize", 100);
+        ReflectionTestUtils.setField(auditService, "flushInterval", 10L);
+        ReflectionTestUtils.setField(auditService, "overflowPolicy", AuthAuditService.OverflowPolicy.DROP);
+        ReflectionTestUtils.setField(auditService, "offerTimeout", 5L);
+
+        request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("X-Client-Type", "MOBILE");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        auditService.stop();
+    }
+
+    @Test
+    void record_shouldWriteEventsInBatches_fromWriterThread() {
+        // Given
+        List<AuthAuditEvent> written = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            return null;
+        }).when(auditRepository).insertAll(anyList());
+        auditService.start();
+
+        // When
+        auditService.record(AuthAuditEventType.LOGIN, "testuser", request, AuthAuditOutcome.SUCCESS, null);
+        auditService.record(AuthAuditEventType.LOGOUT, "testuser", request, AuthAuditOutcome.SUCCESS, null);
+
+        // Then
+        verify(auditRepository, timeout(5_000).atLeastOnce()).insertAll(anyList());
+        await(() -> written.size() == 2);
+        AuthAuditEvent login = written.get(0);
+        assertEquals(AuthAuditEventType.LOGIN, login.type());
+        assertEquals("10.0.0.1", login.ipAddress());
+        assertEquals(JwtTokenProvider.ClientType.MOBILE, login.clientType());
+        assertEquals(2.0, meterRegistry.counter("auth.audit.events", "result", "written").count());
+    }
+
+    @Test
+    void record_shouldDropEvents_whenBufferIsFull() throws InterruptedException {
+        // Given a writer stuck on a slow database
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(auditRepository).insertAll(anyList());
+        auditService.start();
+        auditService.record(AuthAuditEventType.LOGIN, "first", request, AuthAuditOutcome.SUCCESS, null);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            auditService.record(AuthAuditEventType.LOGIN, "user" + i, request, AuthAuditOutcome.FAILURE, null);
+        }
+        release.countDown();
+
+        // Then
+        assertEquals(2.0, meterRegistry.counter("auth.audit.events", "result", "dropped").count());
+        assertEquals(5.0, meterRegistry.counter("auth.audit.events", "result", "enqueued").count());
+    }
+
+    @Test
+    void audit_shouldRecordFailure_andRethrow() {
+        // Given
+        List<AuthAuditEvent> written = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            return null;
+        }).when(auditRepository).insertAll(anyList());
+        auditService.start();
+
+        // When
+        assertThrows(IllegalArgumentException.class, () -> auditService.audit(
+                AuthAuditEventType.PASSWORD_RESET_REQUEST, "test@example.com", request,
+                () -> {
+                    throw new IllegalArgumentException("User not found");
+                }));
+
+        // Then
+        verify(auditRepository, timeout(5_000)).insertAll(anyList());
+        await(() -> written.size() == 1);
+        AuthAuditEvent event = written.get(0);
+        assertEquals(AuthAuditOutcome.FAILURE, event.outcome());
+        assertEquals("User not found", event.detail());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,177 @@
+package com.toubson.modulith.identity.application;
+
+import com.toubson.modulith.identity.domain.User;
+import com.toubson.modulith.identity.infrastructure.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginAttemptServiceTest {
+
+    private final String testUsername = "testuser";
+    @Mock
+    private UserRepository userRepository;
+    private LoginAttemptService loginAttemptService;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        now = Instant.parse("2025-01-01T00:00:00Z");
+        loginAttemptService = new LoginAttemptService(userRepository);
+        ReflectionTestUtils.setField(loginAttemptService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(loginAttemptService, "failureWindow", 60_000L);
+        ReflectionTestUtils.setField(loginAttemptService, "lockDuration", 300_000L);
+        ReflectionTestUtils.setField(loginAttemptService, "tick", 1_000L);
+        setClock(now);
+        loginAttemptService.init();
+    }
+
+    @Test
+    void loginFailed_shouldLockAccount_whenThresholdReachedWithinWindow() {
+        // When
+        loginAttemptService.loginFailed(testUsername);
+        loginAttemptService.loginFailed(testUsername);
+        assertFalse(loginAttemptService.isLocked(testUsername));
+        loginAttemptService.loginFailed(testUsername);
+
+        // Then
+        assertTrue(loginAttemptService.isLocked(testUsername));
+    }
+
+    @Test
+    void loginFailed_shouldNotLockAccount_whenFailuresAreOutsideWindow() {
+        // When
+        loginAttemptService.loginFailed(testUsername);
+        loginAttemptService.loginFailed(testUsername);
+        setClock(now.plusSeconds(61));
+        loginAttemptService.loginFailed(testUsername);
+
+        // Then
+        assertFalse(loginAttemptService.isLocked(testUsername));
+    }
+
+    @Test
+    void loginSucceeded_shouldResetFailureCount() {
+        // When
+        loginAttemptService.loginFailed(testUsername);
+        loginAttemptService.loginFailed(testUsername);
+        loginAttemptService.loginSucceeded(testUsername);
+        loginAttemptService.loginFailed(testUsername);
+
+        // Then
+        assertFalse(loginAttemptService.isLocked(testUsername));
+    }
+
+    @Test
+    void flush_shouldPersistLocksInOneBatch() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            loginAttemptService.loginFailed("first");
+            loginAttemptService.loginFailed("second");
+        }
+
+        // When
+        loginAttemptService.flush();
+
+        // Then
+        verify(userRepository, times(1)).lockAccounts(
+                argThat((Collection<String> logins) -> logins.containsAll(List.of("first", "second"))),
+                eq(now.plusSeconds(300)),
+                any(Instant.class));
+        verify(userRepository, never()).unlockAccounts(anyCollection(), any(Instant.class));
+    }
+
+    @Test
+    void flush_shouldNotWriteAnything_whenNothingChanged() {
+        // When
+        loginAttemptService.loginFailed(testUsername);
+        loginAttemptService.flush();
+
+        // Then
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void flush_shouldReleaseExpiredLocks() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            loginAttemptService.loginFailed(testUsername);
+        }
+        loginAttemptService.flush();
+
+        // When
+        setClock(now.plusSeconds(301));
+        loginAttemptService.flush();
+
+        // Then
+        assertFalse(loginAttemptService.isLocked(testUsername));
+        verify(userRepository).unlockAccounts(eq(List.of(testUsername)), any(Instant.class));
+    }
+
+    @Test
+    void restoreLocks_shouldScheduleReleaseOfPersistedLocks() {
+        // Given
+        User lockedUser = new User();
+        lockedUser.setUsername(testUsername);
+        lockedUser.setAccountNonLocked(false);
+        lockedUser.setLockExpiresAt(now.plusSeconds(10));
+        when(userRepository.findByAccountNonLockedFalseAndLockExpiresAtIsNotNull()).thenReturn(List.of(lockedUser));
+
+        // When
+        loginAttemptService.restoreLocks();
+
+        // Then
+        assertTrue(loginAttemptService.isLocked(testUsername));
+        setClock(now.plusSeconds(11));
+        loginAttemptService.flush();
+        assertFalse(loginAttemptService.isLocked(testUsername));
+        verify(userRepository).unlockAccounts(eq(List.of(testUsername)), any(Instant.class));
+    }
+
+    @Test
+    void accountOf_shouldResolveLoginsOfOneAccountToItsUsername() {
+        // Given
+        when(userRepository.findUsernamesByLogin("test@example.com")).thenReturn(List.of(testUsername));
+        when(userRepository.findUsernamesByLogin("unknown")).thenReturn(List.of());
+
+        // When
+        String byEmail = loginAttemptService.accountOf("test@example.com");
+        String unknown = loginAttemptService.accountOf("unknown");
+
+        // Then
+        assertEquals(testUsername, byEmail);
+        assertEquals("unknown", unknown);
+    }
+
+    @Test
+    void loginFailed_shouldLockTheAccount_whenFailuresAlternateBetweenUsernameAndEmail() {
+        // Given
+        when(userRepository.findUsernamesByLogin(anyString())).thenReturn(List.of(testUsername));
+
+        // When
+        loginAttemptService.loginFailed(loginAttemptService.accountOf(testUsername));
+        loginAttemptService.loginFailed(loginAttemptService.accountOf("test@example.com"));
+        loginAttemptService.loginFailed(loginAttemptService.accountOf(testUsername));
+
+        // Then
+        assertTrue(loginAttemptService.isLocked(loginAttemptService.accountOf("test@example.com")));
+    }
+
+    private void setClock(Instant instant) {
+        ReflectionTestUtils.setField(loginAttemptService, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+    }
+}
@@ -15,6 +15,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.HashSet;
@@ -65,6 +67,8 @@ class UserServiceTest {
         // Set verification token properties
         ReflectionTestUtils.setField(userService, "verificationTokenExpiration", 86400000L);
         ReflectionTestUtils.setField(userService, "resetPasswordTokenExpiration", 3600000L);
+        ReflectionTestUtils.setField(userService, "verificationResendWindow", 60000L);
+        ReflectionTestUtils.invokeMethod(userService, "init");
 
         // Mock password encoder
         lenient().when(passwordEncoder.encode(anyString())).thenReturn(encodedPassword);
@@ -285,4 +289,95 @@ class UserServiceTest {
 
         verify(userRepository).save(any(User.class));
     }
+
+    @Test
+    void generateNewVerificationToken_Success() {
+        // Arrange
+        when(userRepository.findByEmailForUpdate(testEmail)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+
+        // Act
+        String token = userService.generateNewVerificationToken(testEmail);
+
+        // Assert
+        assertNotNull(token);
+        assertEquals(token, testUser.getVerificationToken());
+        assertNotNull(testUser.getVerificationTokenExpiryDate());
+        verify(userRepository).save(testUser);
+    }
+
+    @Test
+    void generateNewVerificationToken_RepeatedRequests_ReusePendingToken() {
+        // Arrange
+        when(userRepository.findByEmailForUpdate(testEmail)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+
+        // Act
+        String first = userService.generateNewVerificationToken(testEmail);
+        String second = userService.generateNewVerificationToken(testEmail);
+
+        // Assert
+        assertEquals(first, second);
+        verify(userRepository, times(1)).findByEmailForUpdate(anyString());
+        verify(userRepository, times(1)).save(any(User.class));
+    }
+
+    @Test
+    void generateNewVerificationToken_AfterCommit_PublishesToken() {
+        // Arrange
+        when(userRepository.findByEmailForUpdate(testEmail)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        TransactionSynchronizationManager.initSynchronization();
+        String first;
+        try {
+            first = userService.generateNewVerificationToken(testEmail);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Act
+        String second = userService.generateNewVerificationToken(testEmail);
+
+        // Assert
+        assertEquals(first, second);
+        verify(userRepository, times(1)).findByEmailForUpdate(testEmail);
+    }
+
+    @Test
+    void generateNewVerificationToken_RolledBack_DoesNotPublishToken() {
+        // Arrange
+        when(userRepository.findByEmailForUpdate(testEmail)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        TransactionSynchronizationManager.initSynchronization();
+        String first;
+        try {
+            first = userService.generateNewVerificationToken(testEmail);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // The rollback left the user without the token
+        testUser.setVerificationToken(null);
+        testUser.setVerificationTokenExpiryDate(null);
+
+        // Act
+        String second = userService.generateNewVerificationToken(testEmail);
+
+        // Assert
+        assertNotEquals(first, second);
+        assertEquals(second, testUser.getVerificationToken());
+        verify(userRepository, times(2)).save(testUser);
+    }
+
+    @Test
+    void generateNewVerificationToken_UserNotFound_DoesNotCoalesce() {
+        // Arrange
+        when(userRepository.findByEmailForUpdate(testEmail)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.generateNewVerificationToken(testEmail));
+        assertThrows(IllegalArgumentException.class, () -> userService.generateNewVerificationToken(testEmail));
+        verify(userRepository, times(2)).findByEmailForUpdate(testEmail);
+        verify(userRepository, never()).save(any(User.class));
+    }
 }
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -16,6 +17,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.time.Instant;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -35,6 +37,8 @@ class UserRepositoryIntegrationTest {
     private final String testVerificationToken = "verification-token";
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private TestEntityManager entityManager;
     private User testUser;
 
     @DynamicPropertySource
@@ -190,4 +194,54 @@ class UserRepositoryIntegrationTest {
         // Assert
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void findUsernamesByLogin_ResolvesEmailToUsername() {
+        // Act
+        List<String> byEmail = userRepository.findUsernamesByLogin(testEmail);
+        List<String> byUsername = userRepository.findUsernamesByLogin(testUsername);
+
+        // Assert
+        assertEquals(List.of(testUsername), byEmail);
+        assertEquals(List.of(testUsername), byUsername);
+    }
+
+    @Test
+    void lockAccounts_LeavesAccountsLockedWithoutExpiry() {
+        // Arrange
+        Instant now = Instant.now();
+        testUser.setAccountNonLocked(false);
+        userRepository.saveAndFlush(testUser);
+
+        // Act
+        int locked = userRepository.lockAccounts(List.of(testUsername), now.plusSeconds(60), now);
+        int unlocked = userRepository.unlockAccounts(List.of(testUsername), now.plusSeconds(61));
+        entityManager.clear();
+
+        // Assert
+        assertEquals(0, locked);
+        assertEquals(0, unlocked);
+        User user = userRepository.findByUsername(testUsername).orElseThrow();
+        assertFalse(user.isAccountNonLocked());
+        assertNull(user.getLockExpiresAt());
+    }
+
+    @Test
+    void unlockAccounts_ReleasesExpiredTemporaryLocksOnly() {
+        // Arrange
+        Instant now = Instant.now();
+        userRepository.lockAccounts(List.of(testUsername), now.plusSeconds(60), now);
+
+        // Act
+        int early = userRepository.unlockAccounts(List.of(testUsername), now.plusSeconds(30));
+        int expired = userRepository.unlockAccounts(List.of(testUsername), now.plusSeconds(60));
+        entityManager.clear();
+
+        // Assert
+        assertEquals(0, early);
+        assertEquals(1, expired);
+        User user = userRepository.findByUsername(testUsername).orElseThrow();
+        assertTrue(user.isAccountNonLocked());
+        assertNull(user.getLockExpiresAt());
+    }
 }
@@ -0,0 +1,103 @@
+package com.toubson.modulith.identity.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedRingBufferTest {
+
+    @Test
+    void offer_shouldRejectElements_whenBufferIsFull() {
+        // Given
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        // Then
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void poll_shouldReturnElementsInInsertionOrder() {
+        // Given
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        buffer.offer(1);
+        buffer.offer(2);
+
+        // When & Then
+        assertEquals(1, buffer.poll());
+        assertEquals(2, buffer.poll());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void offer_shouldReuseSlots_afterConsumerCatchesUp() {
+        // Given
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(2);
+
+        // When & Then
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(i));
+            assertEquals(i, buffer.poll());
+        }
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void capacity_shouldBeRoundedUpToPowerOfTwo() {
+        assertEquals(8, new BoundedRingBuffer<>(5).capacity());
+        assertEquals(8, new BoundedRingBuffer<>(8).capacity());
+    }
+
+    @Test
+    void drainTo_shouldNotLoseElements_withConcurrentProducers() throws InterruptedException {
+        // Given
+        int producers = 8;
+        int elementsPerProducer = 10_000;
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        for (int p = 0; p < producers; p++) {
+            int offset = p * elementsPerProducer;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < elementsPerProducer; i++) {
+                    while (!buffer.offer(offset + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+
+        Set<Integer> received = new HashSet<>();
+        List<Integer> batch = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received.size() < producers * elementsPerProducer && System.nanoTime() < deadline) {
+            buffer.drainTo(batch, 256);
+            received.addAll(batch);
+            batch.clear();
+        }
+        executor.shutdownNow();
+
+        // Then
+        assertEquals(producers * elementsPerProducer, received.size());
+        assertNull(buffer.poll());
+    }
+}
@@ -0,0 +1,123 @@
+package com.toubson.modulith.notification.application;
+
+import com.toubson.modulith.notification.api.EmailService;
+import com.toubson.modulith.notification.api.StockAlert;
+import com.toubson.modulith.notification.infrastructure.StockAlertRepository;
+import com.toubson.modulith.shared.events.BackInStockEvent;
+import com.toubson.modulith.shared.events.LowStockEvent;
+import com.toubson.modulith.shared.events.OutOfStockEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockAlertDigestServiceTest {
+
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private StockAlertRepository alertRepository;
+    @InjectMocks
+    private StockAlertDigestService digestService;
+
+    private final UUID productId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(digestService, "recipients", List.of("ops@example.com", "stock@example.com"));
+        ReflectionTestUtils.setField(digestService, "digestSize", 500);
+    }
+
+    @Test
+    void onEvents_StoreOneAlertPerEvent() {
+        // Arrange
+        UUID variantId = UUID.randomUUID();
+
+        // Act
+        digestService.onLowStock(new LowStockEvent(productId, null, 2, 5));
+        digestService.onOutOfStock(new OutOfStockEvent(productId, null));
+        digestService.onBackInStock(new BackInStockEvent(productId, variantId, 3));
+
+        // Assert
+        ArgumentCaptor<StockAlert> alerts = ArgumentCaptor.forClass(StockAlert.class);
+        verify(alertRepository, times(3)).save(alerts.capture());
+        assertEquals(List.of(StockAlert.Status.LOW_STOCK, StockAlert.Status.OUT_OF_STOCK, StockAlert.Status.BACK_IN_STOCK),
+                alerts.getAllValues().stream().map(StockAlert::status).toList());
+        assertEquals(2, alerts.getAllValues().get(0).quantity());
+        assertEquals(variantId, alerts.getAllValues().get(2).variantId());
+    }
+
+    @Test
+    void flush_SendsStoredAlertsToEveryRecipient_ThenDeletesThem() {
+        // Arrange
+        List<StockAlert> alerts = List.of(alert(StockAlert.Status.OUT_OF_STOCK));
+        when(alertRepository.lockPending(500)).thenReturn(alerts);
+
+        // Act
+        digestService.flush();
+
+        // Assert
+        verify(emailService).sendStockAlertDigest("ops@example.com", alerts);
+        verify(emailService).sendStockAlertDigest("stock@example.com", alerts);
+        verify(alertRepository).deleteAll(alerts);
+    }
+
+    @Test
+    void flush_WithoutPendingAlerts_SendsNothing() {
+        // Arrange
+        when(alertRepository.lockPending(500)).thenReturn(List.of());
+
+        // Act
+        digestService.flush();
+
+        // Assert
+        verifyNoInteractions(emailService);
+        verify(alertRepository, never()).deleteAll(any());
+    }
+
+    @Test
+    void flush_WhenSendingFails_KeepsTheAlerts_AndStillSendsToOtherRecipients() {
+        // Arrange
+        when(alertRepository.lockPending(500)).thenReturn(List.of(alert(StockAlert.Status.OUT_OF_STOCK)));
+        doThrow(new RuntimeException("SMTP down")).when(emailService).sendStockAlertDigest(eq("ops@example.com"), anyList());
+
+        // Act
+        digestService.flush();
+
+        // Assert
+        verify(emailService).sendStockAlertDigest(eq("stock@example.com"), anyList());
+        verify(alertRepository, never()).deleteAll(any());
+    }
+
+    @Test
+    void flush_WithoutRecipients_DropsTheAlerts() {
+        // Arrange
+        ReflectionTestUtils.setField(digestService, "recipients", List.of());
+        List<StockAlert> alerts = List.of(alert(StockAlert.Status.LOW_STOCK));
+        when(alertRepository.lockPending(500)).thenReturn(alerts);
+
+        // Act
+        digestService.flush();
+
+        // Assert
+        verifyNoInteractions(emailService);
+        verify(alertRepository).deleteAll(alerts);
+    }
+
+    private StockAlert alert(StockAlert.Status status) {
+        return new StockAlert(productId, null, status, null, Instant.parse("2026-01-01T12:00:00Z"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.toubson.modulith.notification.infrastructure;
+
+import com.toubson.modulith.notification.api.StockAlert;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pending stock alerts against PostgreSQL: one alert per product or variant, the latest one winning.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(StockAlertRepository.class)
+class StockAlertRepositoryIntegrationTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:latest");
+    @Autowired
+    private StockAlertRepository alertRepository;
+
+    @DynamicPropertySource
+    static void registerPgProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Test
+    void save_KeepsTheLatestAlertPerItem() {
+        // Arrange
+        UUID productId = UUID.randomUUID();
+        UUID variantId = UUID.randomUUID();
+        StockAlert variantAlert = new StockAlert(productId, variantId, StockAlert.Status.LOW_STOCK, 2, NOW);
+        StockAlert latest = new StockAlert(productId, null, StockAlert.Status.BACK_IN_STOCK, 4, NOW.plusSeconds(2));
+
+        // Act
+        alertRepository.save(new StockAlert(productId, null, StockAlert.Status.LOW_STOCK, 1, NOW));
+        alertRepository.save(variantAlert);
+        alertRepository.save(latest);
+        alertRepository.save(new StockAlert(productId, null, StockAlert.Status.OUT_OF_STOCK, null, NOW.plusSeconds(1)));
+
+        // Assert
+        assertEquals(List.of(variantAlert, latest), alertRepository.lockPending(10));
+    }
+
+    @Test
+    void deleteAll_RemovesTheSentAlerts() {
+        // Arrange
+        StockAlert sent = new StockAlert(UUID.randomUUID(), null, StockAlert.Status.OUT_OF_STOCK, null, NOW);
+        StockAlert kept = new StockAlert(UUID.randomUUID(), null, StockAlert.Status.OUT_OF_STOCK, null, NOW.plusSeconds(1));
+        alertRepository.save(sent);
+        alertRepository.save(kept);
+
+        // Act
+        int deleted = alertRepository.deleteAll(alertRepository.lockPending(1));
+
+        // Assert
+        assertEquals(1, deleted);
+        assertEquals(List.of(kept), alertRepository.lockPending(10));
+    }
+}
@@ -0,0 +1,39 @@
+package com.toubson.modulith.shared.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcOperations;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MonthlyPartitionsTest {
+
+    private final JdbcOperations jdbcTemplate = mock(JdbcOperations.class);
+
+    @Test
+    void create_shouldBoundThePartitionByUtcMonth() {
+        // When
+        MonthlyPartitions.create(jdbcTemplate, "audit_log", YearMonth.of(2026, 12));
+
+        // Then
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS audit_log_y2026m12 PARTITION OF audit_log " +
+                "FOR VALUES FROM ('2026-12-01 00:00:00+00') TO ('2027-01-01 00:00:00+00')");
+    }
+
+    @Test
+    void findBefore_shouldReturnOlderPartitions_oldestFirst() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("audit_log"))).thenReturn(List.of(
+                "audit_log_y2026m03", "audit_log_y2025m12", "audit_log_y2026m02", "audit_log_y2026m01"));
+
+        // When
+        List<String> older = MonthlyPartitions.findBefore(jdbcTemplate, "audit_log", YearMonth.of(2026, 2));
+
+        // Then
+        assertEquals(List.of("audit_log_y2025m12", "audit_log_y2026m01"), older);
+    }
+}
@@ -0,0 +1,130 @@
+package com.toubson.modulith.shared.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    @Test
+    void advance_shouldExpireKey_onlyOnceItsDeadlineHasPassed() {
+        // Given
+        TimerWheel<String> wheel = new TimerWheel<>(100, 0);
+        wheel.schedule("cart", 250);
+
+        // When
+        List<String> early = wheel.advance(200);
+        List<String> due = wheel.advance(300);
+
+        // Then
+        assertTrue(early.isEmpty());
+        assertEquals(List.of("cart"), due);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_shouldExpirePastDeadline_onNextTick() {
+        // Given
+        TimerWheel<String> wheel = new TimerWheel<>(100, 10_000);
+
+        // When
+        wheel.schedule("late", 5_000);
+        List<String> expired = wheel.advance(10_100);
+
+        // Then
+        assertEquals(List.of("late"), expired);
+    }
+
+    @Test
+    void advance_shouldCascadeDistantDeadlines_throughEveryLevel() {
+        // Given
+        TimerWheel<Long> wheel = new TimerWheel<>(1, 0);
+        List<Long> deadlines = List.of(63L, 64L, 65L, 4_095L, 4_096L, 262_145L, 16_777_300L);
+        deadlines.forEach(deadline -> wheel.schedule(deadline, deadline));
+
+        // When
+        Map<Long, Long> expiredAt = new HashMap<>();
+        for (long deadline : deadlines) {
+            wheel.advance(deadline - 1).forEach(key -> expiredAt.put(key, -1L));
+            wheel.advance(deadline).forEach(key -> expiredAt.put(key, deadline));
+        }
+
+        // Then
+        deadlines.forEach(deadline -> assertEquals(deadline, expiredAt.get(deadline)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_shouldExpireDeadlinesBeyondTheTopLevel() {
+        // Given
+        TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+        long deadline = (1L << 30) + 5;
+        wheel.schedule("far", deadline);
+
+        // When
+        List<String> early = wheel.advance(deadline - 1);
+        List<String> due = wheel.advance(deadline);
+
+        // Then
+        assertTrue(early.isEmpty());
+        assertEquals(List.of("far"), due);
+    }
+
+    @Test
+    void advance_shouldMatchBruteForce_forRandomDeadlines() {
+        // Given
+        Random random = new Random(41);
+        TimerWheel<Integer> wheel = new TimerWheel<>(10, 0);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        long now = 0;
+        int next = 0;
+
+        // When
+        for (int step = 0; step < 2_000; step++) {
+            for (int i = random.nextInt(5); i > 0; i--) {
+                long deadline = now + (random.nextBoolean() ? random.nextInt(2_000) : random.nextInt(3_000_000));
+                deadlines.put(next, deadline);
+                wheel.schedule(next++, deadline);
+            }
+            now += random.nextInt(random.nextBoolean() ? 50 : 20_000);
+            long current = now;
+            List<Integer> expired = wheel.advance(now);
+
+            // Then: exactly the keys whose deadline, rounded up to a tick, has passed
+            Set<Integer> expected = new HashSet<>();
+            deadlines.forEach((key, deadline) -> {
+                if ((deadline + 9) / 10 <= current / 10) {
+                    expected.add(key);
+                }
+            });
+            assertEquals(expected, new HashSet<>(expired));
+            assertEquals(expected.size(), expired.size());
+            expected.forEach(deadlines::remove);
+            assertEquals(deadlines.size(), wheel.size());
+        }
+    }
+
+    @Test
+    void advance_shouldScheduleRelativeToNow_afterAnIdleJump() {
+        // Given a wheel left empty for a long time
+        TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+        wheel.advance(10_000_000_000L);
+
+        // When
+        wheel.schedule("user", 10_000_000_100L);
+        List<String> early = wheel.advance(10_000_000_099L);
+        List<String> due = wheel.advance(10_000_000_100L);
+
+        // Then
+        assertTrue(early.isEmpty());
+        assertEquals(List.of("user"), due);
+    }
+
+    @Test
+    void constructor_shouldRejectNonPositiveTick() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<>(0, 0));
+    }
+}
@@ -0,0 +1,189 @@
+package com.toubson.modulith.shared.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TtlCacheTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void lookup_shouldServeCachedValue_untilItExpires() {
+        // Given
+        TtlCache<String, Integer> cache = new TtlCache<>(1_000, 100, 10, clock);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        TtlCache.Lookup<Integer> first = cache.lookup("wo", key -> loads.incrementAndGet());
+        clock.advance(999);
+        TtlCache.Lookup<Integer> second = cache.lookup("wo", key -> loads.incrementAndGet());
+        clock.advance(1);
+        TtlCache.Lookup<Integer> third = cache.lookup("wo", key -> loads.incrementAndGet());
+
+        // Then
+        assertFalse(first.hit());
+        assertTrue(second.hit());
+        assertEquals(1, second.value());
+        assertFalse(third.hit());
+        assertEquals(2, third.value());
+    }
+
+    @Test
+    void lookup_shouldNotCache_whenFullOfLiveEntries() {
+        // Given
+        TtlCache<String, Integer> cache = new TtlCache<>(1_000, 100, 2, clock);
+        cache.lookup("a", key -> 1);
+        cache.lookup("b", key -> 2);
+
+        // When
+        TtlCache.Lookup<Integer> first = cache.lookup("c", key -> 3);
+        TtlCache.Lookup<Integer> second = cache.lookup("c", key -> 4);
+
+        // Then
+        assertEquals(3, first.value());
+        assertEquals(4, second.value());
+        assertFalse(second.hit());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void lookup_shouldEvictExpiredEntries_beforeCheckingTheSize() {
+        // Given
+        TtlCache<String, Integer> cache = new TtlCache<>(1_000, 100, 2, clock);
+        cache.lookup("a", key -> 1);
+        cache.lookup("b", key -> 2);
+        clock.advance(1_000);
+
+        // When
+        cache.lookup("c", key -> 3);
+
+        // Then
+        assertEquals(1, cache.size());
+        assertTrue(cache.lookup("c", key -> 4).hit());
+    }
+
+    @Test
+    void lookup_shouldLoadOutsideTheMap_soThatLoadsMayStoreOtherKeys() {
+        // Given
+        TtlCache<String, String> cache = new TtlCache<>(1_000, 100, clock);
+
+        // When: a load that stores another key, which a load inside the map would not allow on the same bin
+        String value = cache.computeIfAbsent("outer", key -> cache.computeIfAbsent("inner", inner -> "i") + "o");
+
+        // Then
+        assertEquals("io", value);
+        assertEquals("i", cache.get("inner"));
+    }
+
+    @Test
+    void computeIfAbsent_shouldKeepFirstStoredValue_whenMissesRace() {
+        // Given
+        TtlCache<String, String> cache = new TtlCache<>(1_000, 100, clock);
+
+        // When: another caller stores a value while this one is loading
+        String value = cache.computeIfAbsent("key", key -> {
+            cache.putIfAbsent(key, "first");
+            return "second";
+        });
+
+        // Then
+        assertEquals("first", value);
+        assertEquals("first", cache.get("key"));
+    }
+
+    @Test
+    void get_shouldEvictExpiredEntries() {
+        // Given
+        TtlCache<String, String> cache = new TtlCache<>(1_000, 100, clock);
+        cache.computeIfAbsent("first", key -> "value");
+        cache.computeIfAbsent("second", key -> "value");
+
+        // When
+        clock.advance(1_100);
+        String value = cache.get("first");
+
+        // Then
+        assertNull(value);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void computeIfAbsent_shouldNotStoreValue_whenLoaderThrows() {
+        // Given
+        TtlCache<String, String> cache = new TtlCache<>(1_000, 100, clock);
+
+        // When
+        assertThrows(IllegalArgumentException.class, () -> cache.computeIfAbsent("key", key -> {
+            throw new IllegalArgumentException("failed");
+        }));
+
+        // Then
+        assertNull(cache.get("key"));
+        assertEquals("value", cache.computeIfAbsent("key", key -> "value"));
+    }
+
+    @Test
+    void remove_shouldExpireEntryEarly() {
+        // Given
+        TtlCache<String, Integer> cache = new TtlCache<>(1_000, 100, clock);
+        cache.computeIfAbsent("key", key -> 1);
+
+        // When
+        cache.remove("key");
+
+        // Then
+        assertEquals(2, cache.computeIfAbsent("key", key -> 2));
+    }
+
+    @Test
+    void putIfAbsent_shouldKeepValue_untilItExpires() {
+        // Given
+        TtlCache<String, String> cache = new TtlCache<>(1_000, 100, clock);
+
+        // When
+        String first = cache.putIfAbsent("key", "first");
+        String second = cache.putIfAbsent("key", "second");
+        clock.advance(1_100);
+        String third = cache.putIfAbsent("key", "third");
+
+        // Then
+        assertEquals("first", first);
+        assertEquals("first", second);
+        assertEquals("third", third);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private long millis;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+    }
+}